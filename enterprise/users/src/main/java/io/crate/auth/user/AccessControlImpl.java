@@ -27,6 +27,7 @@ import io.crate.analyze.AnalyzedAlterTableOpenClose;
 import io.crate.analyze.AnalyzedAlterTableRename;
 import io.crate.analyze.AnalyzedAlterUser;
 import io.crate.analyze.AnalyzedBegin;
+import io.crate.analyze.AnalyzedClose;
 import io.crate.analyze.AnalyzedCommit;
 import io.crate.analyze.AnalyzedCopyFrom;
 import io.crate.analyze.AnalyzedCopyTo;
@@ -38,6 +39,7 @@ import io.crate.analyze.AnalyzedCreateSnapshot;
 import io.crate.analyze.AnalyzedCreateTable;
 import io.crate.analyze.AnalyzedCreateUser;
 import io.crate.analyze.AnalyzedDeallocate;
+import io.crate.analyze.AnalyzedDeclare;
 import io.crate.analyze.AnalyzedDeleteStatement;
 import io.crate.analyze.AnalyzedDiscard;
 import io.crate.analyze.AnalyzedDropFunction;
@@ -46,12 +48,14 @@ import io.crate.analyze.AnalyzedDropSnapshot;
 import io.crate.analyze.AnalyzedDropTable;
 import io.crate.analyze.AnalyzedDropUser;
 import io.crate.analyze.AnalyzedDropView;
+import io.crate.analyze.AnalyzedFetch;
 import io.crate.analyze.AnalyzedInsertStatement;
 import io.crate.analyze.AnalyzedKill;
 import io.crate.analyze.AnalyzedPrivileges;
 import io.crate.analyze.AnalyzedRefreshTable;
 import io.crate.analyze.AnalyzedResetStatement;
 import io.crate.analyze.AnalyzedRestoreSnapshot;
+import io.crate.analyze.AnalyzedRollback;
 import io.crate.analyze.AnalyzedSetStatement;
 import io.crate.analyze.AnalyzedSetTransaction;
 import io.crate.analyze.AnalyzedShowCreateTable;
@@ -563,6 +567,11 @@ public final class AccessControlImpl implements AccessControl {
             return null;
         }
 
+        @Override
+        public Void visitRollback(AnalyzedRollback analyzedRollback, User user) {
+            return null;
+        }
+
         @Override
         public Void visitCreateViewStmt(CreateViewStmt createViewStmt, User user) {
             Privileges.ensureUserHasPrivilege(
@@ -640,6 +649,22 @@ public final class AccessControlImpl implements AccessControl {
             return null;
         }
 
+        @Override
+        public Void visitDeclare(AnalyzedDeclare declare, User user) {
+            visitRelation(declare.query(), user, Privilege.Type.DQL);
+            return null;
+        }
+
+        @Override
+        public Void visitFetch(AnalyzedFetch fetch, User user) {
+            return null;
+        }
+
+        @Override
+        public Void visitClose(AnalyzedClose close, User user) {
+            return null;
+        }
+
         @Override
         public Void visitSetTransaction(AnalyzedSetTransaction setTransaction, User context) {
             return null;
@@ -0,0 +1,281 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data.join;
+
+import io.crate.breaker.RowAccounting;
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.UnsafeArrayRow;
+import io.crate.exceptions.Exceptions;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * BatchIterator implementing an inner join using the sort-merge algorithm.
+ * <p>
+ * Both the {@link #left} and the {@link #right} side must emit their rows sorted ascending by their join key
+ * according to the given {@code keyComparator}. Rows with a {@code null} join key can never match and are skipped.
+ * <p>
+ * Only the rows of the right side which share the same join key (a "group") are buffered, so that they can be
+ * joined with every row of the left side having that same key:
+ *
+ * <pre>
+ *     while (left and right have rows) {
+ *         if (leftKey < rightKey) advance left
+ *         else if (leftKey > rightKey) advance right
+ *         else {
+ *             buffer all right rows with rightKey
+ *             for (leftRow with leftKey) {
+ *                 for (rightRow in buffer) {
+ *                     match?
+ *                 }
+ *             }
+ *         }
+ *     }
+ * </pre>
+ *
+ * The {@code joinCondition} is evaluated for every pair of rows with equal keys, so additional (non-equi)
+ * conditions are applied as well.
+ */
+public class MergeJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
+
+    private final Predicate<Row> joinCondition;
+    private final Function<Row, Object> leftKey;
+    private final Function<Row, Object> rightKey;
+    private final Comparator<Object> keyComparator;
+    private final RowAccounting<Object[]> rowAccounting;
+    private final ArrayList<Object[]> group = new ArrayList<>();
+    private final UnsafeArrayRow rowWrapper = new UnsafeArrayRow();
+
+    private Object groupKey;
+    private Object leftKeyValue;
+    private Object rightKeyValue;
+
+    /**
+     * position of the next row of the {@link #group} to combine with the current left row or -1
+     * if the current left row isn't being joined with the group
+     */
+    private int groupPos = -1;
+
+    /**
+     * the left iterator is positioned on a row with a non-null key which hasn't been processed yet
+     */
+    private boolean leftPending = false;
+
+    /**
+     * the right iterator is positioned on a row with a non-null key which isn't part of the {@link #group}
+     */
+    private boolean rightPending = false;
+
+    /**
+     * rows of the right side are added to the {@link #group} until a row with a different key is found
+     */
+    private boolean collectingGroup = false;
+    private boolean rightExhausted = false;
+    private boolean done = false;
+    private volatile Throwable killed;
+
+    public MergeJoinBatchIterator(BatchIterator<Row> left,
+                                  BatchIterator<Row> right,
+                                  ElementCombiner<Row, Row, Row> combiner,
+                                  Predicate<Row> joinCondition,
+                                  Function<Row, Object> leftKey,
+                                  Function<Row, Object> rightKey,
+                                  Comparator<Object> keyComparator,
+                                  RowAccounting<Object[]> rowAccounting) {
+        super(left, right, combiner);
+        this.joinCondition = joinCondition;
+        this.leftKey = leftKey;
+        this.rightKey = rightKey;
+        this.keyComparator = keyComparator;
+        this.rowAccounting = rowAccounting;
+    }
+
+    @Override
+    public boolean moveNext() {
+        raiseIfKilled();
+        while (true) {
+            if (groupPos >= 0) {
+                if (emitNextGroupRow()) {
+                    return true;
+                }
+                groupPos = -1;
+                leftPending = false;
+            }
+            if (done) {
+                return false;
+            }
+            if (collectingGroup) {
+                if (!collectGroup()) {
+                    return false;
+                }
+                collectingGroup = false;
+                startEmittingGroup();
+                continue;
+            }
+            if (!leftPending) {
+                activeIt = left;
+                if (!left.moveNext()) {
+                    done = left.allLoaded();
+                    return false;
+                }
+                leftKeyValue = leftKey.apply(left.currentElement());
+                if (leftKeyValue == null) {
+                    continue;
+                }
+                leftPending = true;
+                if (!group.isEmpty()) {
+                    if (keyComparator.compare(leftKeyValue, groupKey) == 0) {
+                        startEmittingGroup();
+                        continue;
+                    }
+                    clearGroup();
+                }
+                if (rightExhausted) {
+                    // Nothing left on the right side which could match the remaining left rows
+                    activeIt = right;
+                    done = true;
+                    return false;
+                }
+            }
+            if (!rightPending) {
+                activeIt = right;
+                if (!right.moveNext()) {
+                    if (right.allLoaded()) {
+                        rightExhausted = true;
+                        done = true;
+                    }
+                    return false;
+                }
+                rightKeyValue = rightKey.apply(right.currentElement());
+                if (rightKeyValue == null) {
+                    continue;
+                }
+                rightPending = true;
+            }
+            int cmp = keyComparator.compare(leftKeyValue, rightKeyValue);
+            if (cmp < 0) {
+                leftPending = false;
+            } else if (cmp > 0) {
+                rightPending = false;
+            } else {
+                groupKey = rightKeyValue;
+                addToGroup(right.currentElement());
+                rightPending = false;
+                collectingGroup = true;
+            }
+        }
+    }
+
+    /**
+     * Adds all consecutive right rows with the {@link #groupKey} to the {@link #group}.
+     *
+     * @return false if the right side must load the next batch before the group is complete.
+     */
+    private boolean collectGroup() {
+        activeIt = right;
+        while (right.moveNext()) {
+            Row row = right.currentElement();
+            Object key = rightKey.apply(row);
+            if (key != null && keyComparator.compare(key, groupKey) == 0) {
+                addToGroup(row);
+            } else {
+                rightKeyValue = key;
+                rightPending = key != null;
+                return true;
+            }
+        }
+        if (right.allLoaded()) {
+            rightExhausted = true;
+            return true;
+        }
+        return false;
+    }
+
+    private void addToGroup(Row row) {
+        Object[] cells = row.materialize();
+        rowAccounting.accountForAndMaybeBreak(cells);
+        group.add(cells);
+    }
+
+    private void startEmittingGroup() {
+        combiner.setLeft(left.currentElement());
+        groupPos = 0;
+    }
+
+    private boolean emitNextGroupRow() {
+        while (groupPos < group.size()) {
+            rowWrapper.cells(group.get(groupPos));
+            groupPos++;
+            combiner.setRight(rowWrapper);
+            if (joinCondition.test(combiner.currentElement())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void clearGroup() {
+        group.clear();
+        rowAccounting.release();
+        groupKey = null;
+    }
+
+    @Override
+    public void moveToStart() {
+        raiseIfKilled();
+        super.moveToStart();
+        clearGroup();
+        leftKeyValue = null;
+        rightKeyValue = null;
+        groupPos = -1;
+        leftPending = false;
+        rightPending = false;
+        collectingGroup = false;
+        rightExhausted = false;
+        done = false;
+    }
+
+    private void raiseIfKilled() {
+        if (killed != null) {
+            Exceptions.rethrowUnchecked(killed);
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        clearGroup();
+        killed = BatchIterator.CLOSED;
+    }
+
+    @Override
+    public void kill(@Nonnull Throwable throwable) {
+        super.kill(throwable);
+        killed = throwable;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data.join;
+
+import io.crate.breaker.RowAccounting;
+import io.crate.data.BatchIterator;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row;
+import io.crate.testing.BatchIteratorTester;
+import io.crate.testing.BatchSimulatingIterator;
+import io.crate.testing.TestingBatchIterators;
+import io.crate.testing.TestingRowConsumer;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static io.crate.data.SentinelRow.SENTINEL;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class MergeJoinBatchIteratorTest {
+
+    private static final Comparator<Object> INT_COMPARATOR = (o1, o2) -> Integer.compare((int) o1, (int) o2);
+
+    // sorted ascending with nulls last
+    private static final List<Integer> LEFT_VALUES = Arrays.asList(0, 0, 1, 2, 2, 3, 4, 4, null);
+    private static final List<Integer> RIGHT_VALUES = Arrays.asList(1, 1, 2, 3, 4, 4, 5, 5, 6, null, null);
+
+    private final TestingRowAccounting rowAccounting = new TestingRowAccounting();
+
+    private static Predicate<Row> col0EqCol1() {
+        return row -> Objects.equals(row.get(0), row.get(1));
+    }
+
+    private BatchIterator<Row> mergeJoin(BatchIterator<Row> left,
+                                         BatchIterator<Row> right,
+                                         Predicate<Row> joinCondition) {
+        return new MergeJoinBatchIterator(
+            left,
+            right,
+            new CombinedRow(1, 1),
+            joinCondition,
+            row -> row.get(0),
+            row -> row.get(0),
+            INT_COMPARATOR,
+            rowAccounting
+        );
+    }
+
+    private static List<Object[]> expectedInnerJoinResult() {
+        List<Object[]> result = new ArrayList<>();
+        result.add(new Object[] { 1, 1 });
+        result.add(new Object[] { 1, 1 });
+        result.add(new Object[] { 2, 2 });
+        result.add(new Object[] { 2, 2 });
+        result.add(new Object[] { 3, 3 });
+        for (int i = 0; i < 4; i++) {
+            result.add(new Object[] { 4, 4 });
+        }
+        return result;
+    }
+
+    @Test
+    public void testMergeJoin() throws Exception {
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> mergeJoin(
+            TestingBatchIterators.ofValues(LEFT_VALUES),
+            TestingBatchIterators.ofValues(RIGHT_VALUES),
+            col0EqCol1()
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(expectedInnerJoinResult());
+    }
+
+    @Test
+    public void testMergeJoinBatchedSource() throws Exception {
+        // batch size of 1 forces groups of equal keys to span multiple batches of the right side
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> mergeJoin(
+            new BatchSimulatingIterator<>(TestingBatchIterators.ofValues(LEFT_VALUES), 2, 5, null),
+            new BatchSimulatingIterator<>(TestingBatchIterators.ofValues(RIGHT_VALUES), 1, 11, null),
+            col0EqCol1()
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(expectedInnerJoinResult());
+    }
+
+    @Test
+    public void testMergeJoinAppliesTheWholeJoinCondition() throws Exception {
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> mergeJoin(
+            TestingBatchIterators.ofValues(LEFT_VALUES),
+            TestingBatchIterators.ofValues(RIGHT_VALUES),
+            col0EqCol1().and(row -> (int) row.get(0) % 2 == 0)
+        );
+        List<Object[]> expectedResult = new ArrayList<>();
+        expectedResult.add(new Object[] { 2, 2 });
+        expectedResult.add(new Object[] { 2, 2 });
+        for (int i = 0; i < 4; i++) {
+            expectedResult.add(new Object[] { 4, 4 });
+        }
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void testMergeJoinLeftEmpty() throws Exception {
+        BatchIterator<Row> iterator = mergeJoin(
+            InMemoryBatchIterator.empty(SENTINEL),
+            TestingBatchIterators.range(0, 5),
+            col0EqCol1()
+        );
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(iterator, null);
+        assertThat(consumer.getResult(), Matchers.empty());
+    }
+
+    @Test
+    public void testMergeJoinRightEmpty() throws Exception {
+        BatchIterator<Row> iterator = mergeJoin(
+            TestingBatchIterators.range(0, 5),
+            InMemoryBatchIterator.empty(SENTINEL),
+            col0EqCol1()
+        );
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(iterator, null);
+        assertThat(consumer.getResult(), Matchers.empty());
+    }
+
+    @Test
+    public void testOnlyRowsOfTheCurrentGroupAreBuffered() throws Exception {
+        BatchIterator<Row> iterator = mergeJoin(
+            TestingBatchIterators.ofValues(LEFT_VALUES),
+            TestingBatchIterators.ofValues(RIGHT_VALUES),
+            col0EqCol1()
+        );
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(iterator, null);
+        consumer.getResult();
+
+        // the right rows of the groups 1, 2, 3 and 4 are buffered
+        assertThat(rowAccounting.numRows, is(6));
+        // every group is released once the left side moves past it and once on close
+        assertThat(rowAccounting.numReleaseCalled, is(4));
+    }
+
+    private static class TestingRowAccounting implements RowAccounting<Object[]> {
+
+        int numRows;
+        int numReleaseCalled;
+
+        @Override
+        public void accountForAndMaybeBreak(Object[] row) {
+            numRows++;
+        }
+
+        @Override
+        public void release() {
+            numReleaseCalled++;
+        }
+    }
+}
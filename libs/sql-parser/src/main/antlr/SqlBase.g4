@@ -34,6 +34,7 @@ statement
     : query                                                                          #default
     | BEGIN (WORK | TRANSACTION)? (transactionMode (',' transactionMode)*)?          #begin
     | COMMIT                                                                         #commit
+    | ROLLBACK (WORK | TRANSACTION)?                                                 #rollback
     | EXPLAIN (ANALYZE)? statement                                                   #explain
     | OPTIMIZE TABLE tableWithPartitions withProperties?                             #optimize
     | REFRESH TABLE tableWithPartitions                                              #refreshTable
@@ -76,9 +77,10 @@ statement
         onConflict?
         returning?                                                                   #insert
     | RESTORE SNAPSHOT qname (ALL | TABLE tableWithPartitions) withProperties?       #restore
-    | COPY tableWithPartition FROM path=expr withProperties? (RETURN SUMMARY)?       #copyFrom
+    | COPY tableWithPartition FROM (STDIN | path=expr) withProperties?
+        (RETURN SUMMARY)?                                                            #copyFrom
     | COPY tableWithPartition columns? where?
-        TO DIRECTORY? path=expr withProperties?                                      #copyTo
+        TO (STDOUT | DIRECTORY? path=expr) withProperties?                           #copyTo
     | DROP BLOB TABLE (IF EXISTS)? table                                             #dropBlobTable
     | DROP TABLE (IF EXISTS)? table                                                  #dropTable
     | DROP ALIAS qname                                                               #dropAlias
@@ -99,6 +101,9 @@ statement
     | DEALLOCATE (PREPARE)? (ALL | prepStmt=stringLiteralOrIdentifierOrQname)        #deallocate
     | ANALYZE                                                                        #analyze
     | DISCARD (ALL | PLANS | SEQUENCES | TEMPORARY | TEMP)                           #discard
+    | DECLARE ident (NO SCROLL)? CURSOR ((WITH | WITHOUT) HOLD)? FOR query            #declare
+    | FETCH (NEXT | FORWARD? (count=integerLiteral | ALL))? (IN | FROM)? ident        #fetch
+    | CLOSE (ident | ALL)                                                            #close
     ;
 
 query:
@@ -679,6 +684,8 @@ nonReserved
     | REPLACE | RETURNING | SWAP | GC | DANGLING | ARTIFACTS | DECOMMISSION | LEADING | TRAILING | BOTH | TRIM
     | CURRENT_SCHEMA | PROMOTE | CHARACTER | VARYING
     | DISCARD | PLANS | SEQUENCES | TEMPORARY | TEMP
+    | DECLARE | CURSOR | HOLD | SCROLL | NO | FETCH | NEXT | FORWARD | ROLLBACK
+    | STDIN | STDOUT
     ;
 
 SELECT: 'SELECT';
@@ -825,6 +832,7 @@ LICENSE : 'LICENSE';
 
 BEGIN: 'BEGIN';
 COMMIT: 'COMMIT';
+ROLLBACK: 'ROLLBACK';
 WORK: 'WORK';
 TRANSACTION: 'TRANSACTION';
 TRANSACTION_ISOLATION: 'TRANSACTION_ISOLATION';
@@ -852,6 +860,16 @@ PLANS: 'PLANS';
 SEQUENCES: 'SEQUENCES';
 TEMPORARY: 'TEMPORARY';
 TEMP: 'TEMP';
+DECLARE: 'DECLARE';
+CURSOR: 'CURSOR';
+HOLD: 'HOLD';
+SCROLL: 'SCROLL';
+NO: 'NO';
+FETCH: 'FETCH';
+NEXT: 'NEXT';
+FORWARD: 'FORWARD';
+STDIN: 'STDIN';
+STDOUT: 'STDOUT';
 CONSTRAINT: 'CONSTRAINT';
 CHECK: 'CHECK';
 DESCRIBE: 'DESCRIBE';
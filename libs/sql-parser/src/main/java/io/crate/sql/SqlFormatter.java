@@ -183,7 +183,11 @@ public final class SqlFormatter {
             append(indent, "COPY ");
             copyFrom.table().accept(this, indent);
             append(indent, " FROM ");
-            copyFrom.path().accept(this, indent);
+            if (copyFrom.path() == null) {
+                append(indent, "STDIN");
+            } else {
+                copyFrom.path().accept(this, indent);
+            }
             if (!copyFrom.properties().isEmpty()) {
                 append(indent, " ");
                 copyFrom.properties().accept(this, indent);
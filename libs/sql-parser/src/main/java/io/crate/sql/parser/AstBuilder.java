@@ -77,6 +77,7 @@ import io.crate.sql.tree.Cast;
 import io.crate.sql.tree.CharFilters;
 import io.crate.sql.tree.CheckColumnConstraint;
 import io.crate.sql.tree.CheckConstraint;
+import io.crate.sql.tree.Close;
 import io.crate.sql.tree.ClusteredBy;
 import io.crate.sql.tree.CollectionColumnType;
 import io.crate.sql.tree.ColumnConstraint;
@@ -97,6 +98,7 @@ import io.crate.sql.tree.CreateUser;
 import io.crate.sql.tree.CreateView;
 import io.crate.sql.tree.CurrentTime;
 import io.crate.sql.tree.DeallocateStatement;
+import io.crate.sql.tree.Declare;
 import io.crate.sql.tree.DecommissionNodeStatement;
 import io.crate.sql.tree.Delete;
 import io.crate.sql.tree.DenyPrivilege;
@@ -117,6 +119,7 @@ import io.crate.sql.tree.ExistsPredicate;
 import io.crate.sql.tree.Explain;
 import io.crate.sql.tree.Expression;
 import io.crate.sql.tree.Extract;
+import io.crate.sql.tree.Fetch;
 import io.crate.sql.tree.FrameBound;
 import io.crate.sql.tree.FunctionArgument;
 import io.crate.sql.tree.FunctionCall;
@@ -175,6 +178,7 @@ import io.crate.sql.tree.RerouteOption;
 import io.crate.sql.tree.ResetStatement;
 import io.crate.sql.tree.RestoreSnapshot;
 import io.crate.sql.tree.RevokePrivilege;
+import io.crate.sql.tree.RollbackStatement;
 import io.crate.sql.tree.SearchedCaseExpression;
 import io.crate.sql.tree.Select;
 import io.crate.sql.tree.SelectItem;
@@ -259,6 +263,33 @@ class AstBuilder extends SqlBaseBaseVisitor<Node> {
         return new DiscardStatement(target);
     }
 
+    @Override
+    public Node visitDeclare(SqlBaseParser.DeclareContext ctx) {
+        return new Declare(
+            getIdentText(ctx.ident()),
+            ctx.HOLD() != null && ctx.WITH() != null,
+            (Query) visit(ctx.query())
+        );
+    }
+
+    @Override
+    public Node visitFetch(SqlBaseParser.FetchContext ctx) {
+        final long count;
+        if (ctx.ALL() != null) {
+            count = Fetch.ALL;
+        } else if (ctx.count != null) {
+            count = Long.parseLong(ctx.count.getText());
+        } else {
+            count = 1;
+        }
+        return new Fetch(count, getIdentText(ctx.ident()));
+    }
+
+    @Override
+    public Node visitClose(SqlBaseParser.CloseContext ctx) {
+        return new Close(ctx.ALL() == null ? getIdentText(ctx.ident()) : null);
+    }
+
     @Override
     public Node visitIntervalLiteral(SqlBaseParser.IntervalLiteralContext context) {
         IntervalLiteral.IntervalField startField = getIntervalFieldType((Token) context.from.getChild(0).getPayload());
@@ -321,6 +352,11 @@ class AstBuilder extends SqlBaseBaseVisitor<Node> {
         return new CommitStatement();
     }
 
+    @Override
+    public Node visitRollback(SqlBaseParser.RollbackContext context) {
+        return new RollbackStatement();
+    }
+
     @Override
     public Node visitOptimize(SqlBaseParser.OptimizeContext context) {
         return new OptimizeStatement(
@@ -558,7 +594,7 @@ class AstBuilder extends SqlBaseBaseVisitor<Node> {
         boolean returnSummary = context.SUMMARY() != null;
         return new CopyFrom(
             (Table) visit(context.tableWithPartition()),
-            visit(context.path),
+            visitIfPresent(context.path, Expression.class).orElse(null),
             extractGenericProperties(context.withProperties()),
             returnSummary);
     }
@@ -570,7 +606,7 @@ class AstBuilder extends SqlBaseBaseVisitor<Node> {
             context.columns() == null ? emptyList() : visitCollection(context.columns().primaryExpression(), Expression.class),
             visitIfPresent(context.where(), Expression.class),
             context.DIRECTORY() != null,
-            visit(context.path),
+            visitIfPresent(context.path, Expression.class).orElse(null),
             extractGenericProperties(context.withProperties()));
     }
 
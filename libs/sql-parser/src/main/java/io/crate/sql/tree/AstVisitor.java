@@ -560,6 +560,10 @@ public abstract class AstVisitor<R, C> {
         return visitStatement(node, context);
     }
 
+    public R visitRollback(RollbackStatement node, C context) {
+        return visitStatement(node, context);
+    }
+
     public R visitShowTransaction(ShowTransaction showTransaction, C context) {
         return visitStatement(showTransaction, context);
     }
@@ -627,4 +631,16 @@ public abstract class AstVisitor<R, C> {
     public R visitSetTransaction(SetTransactionStatement setTransactionStatement, C context) {
         return visitStatement(setTransactionStatement, context);
     }
+
+    public R visitDeclare(Declare declare, C context) {
+        return visitStatement(declare, context);
+    }
+
+    public R visitFetch(Fetch fetch, C context) {
+        return visitStatement(fetch, context);
+    }
+
+    public R visitClose(Close close, C context) {
+        return visitStatement(close, context);
+    }
 }
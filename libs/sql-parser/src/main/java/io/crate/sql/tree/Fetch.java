@@ -0,0 +1,76 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.sql.tree;
+
+import java.util.Objects;
+
+public final class Fetch extends Statement {
+
+    public static final long ALL = Long.MAX_VALUE;
+
+    private final long count;
+    private final String cursorName;
+
+    /**
+     * @param count the maximum number of rows to retrieve, {@link #ALL} to retrieve all remaining rows.
+     */
+    public Fetch(long count, String cursorName) {
+        this.count = count;
+        this.cursorName = cursorName;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public String cursorName() {
+        return cursorName;
+    }
+
+    @Override
+    public <R, C> R accept(AstVisitor<R, C> visitor, C context) {
+        return visitor.visitFetch(this, context);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Fetch fetch = (Fetch) o;
+        return count == fetch.count && cursorName.equals(fetch.cursorName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(count, cursorName);
+    }
+
+    @Override
+    public String toString() {
+        return "FETCH " + (count == ALL ? "ALL" : count) + " FROM " + cursorName;
+    }
+}
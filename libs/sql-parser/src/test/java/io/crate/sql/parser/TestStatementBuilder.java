@@ -28,12 +28,15 @@ import io.crate.sql.tree.ArrayComparisonExpression;
 import io.crate.sql.tree.ArrayLikePredicate;
 import io.crate.sql.tree.ArrayLiteral;
 import io.crate.sql.tree.Assignment;
+import io.crate.sql.tree.Close;
 import io.crate.sql.tree.ComparisonExpression;
 import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyTo;
 import io.crate.sql.tree.CreateFunction;
 import io.crate.sql.tree.CreateTable;
 import io.crate.sql.tree.CreateUser;
 import io.crate.sql.tree.DeallocateStatement;
+import io.crate.sql.tree.Declare;
 import io.crate.sql.tree.DefaultTraversalVisitor;
 import io.crate.sql.tree.DenyPrivilege;
 import io.crate.sql.tree.DropAnalyzer;
@@ -46,6 +49,7 @@ import io.crate.sql.tree.DropUser;
 import io.crate.sql.tree.DropView;
 import io.crate.sql.tree.EscapedCharStringLiteral;
 import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.Fetch;
 import io.crate.sql.tree.FunctionCall;
 import io.crate.sql.tree.GCDanglingArtifacts;
 import io.crate.sql.tree.GrantPrivilege;
@@ -134,6 +138,33 @@ public class TestStatementBuilder {
         printStatement("DISCARD TEMP");
     }
 
+    @Test
+    public void test_declare_fetch_close_statement_parsing() throws Exception {
+        printStatement("DECLARE c1 CURSOR FOR SELECT * FROM t");
+        printStatement("DECLARE c1 NO SCROLL CURSOR WITH HOLD FOR SELECT 1");
+        printStatement("DECLARE c1 CURSOR WITHOUT HOLD FOR SELECT 1");
+        printStatement("FETCH c1");
+        printStatement("FETCH NEXT FROM c1");
+        printStatement("FETCH 10 IN c1");
+        printStatement("FETCH FORWARD 10 FROM c1");
+        printStatement("FETCH FORWARD ALL FROM c1");
+        printStatement("CLOSE c1");
+        printStatement("CLOSE ALL");
+
+        Declare declare = (Declare) SqlParser.createStatement("DECLARE c1 CURSOR WITH HOLD FOR SELECT 1");
+        assertThat(declare.cursorName(), is("c1"));
+        assertThat(declare.withHold(), is(true));
+
+        Fetch fetch = (Fetch) SqlParser.createStatement("FETCH c1");
+        assertThat(fetch.count(), is(1L));
+        fetch = (Fetch) SqlParser.createStatement("FETCH ALL IN c1");
+        assertThat(fetch.count(), is(Fetch.ALL));
+        assertThat(fetch.cursorName(), is("c1"));
+
+        Close close = (Close) SqlParser.createStatement("CLOSE ALL");
+        assertThat(close.cursorName(), nullValue());
+    }
+
 
     @Test
     public void testEmptyOverClauseAfterFunction() {
@@ -218,6 +249,13 @@ public class TestStatementBuilder {
         printStatement("COMMIT");
     }
 
+    @Test
+    public void testRollback() {
+        printStatement("ROLLBACK");
+        printStatement("ROLLBACK WORK");
+        printStatement("ROLLBACK TRANSACTION");
+    }
+
     @Test
     public void testNullNotAllowedAsArgToExtractField() {
         expectedException.expect(ParsingException.class);
@@ -1062,6 +1100,19 @@ public class TestStatementBuilder {
         printStatement("copy foo where a = 'x' to DIRECTORY '/folder'");
     }
 
+    @Test
+    public void test_copy_from_stdin_and_to_stdout() {
+        printStatement("copy foo from stdin");
+        printStatement("copy foo partition (a='x') from STDIN with (format='csv')");
+        printStatement("copy foo to stdout");
+        printStatement("copy foo (a, b) where a = 'x' to STDOUT with (format='json_array')");
+
+        CopyFrom<?> copyFrom = (CopyFrom<?>) SqlParser.createStatement("copy foo from stdin");
+        assertThat(copyFrom.path(), nullValue());
+        CopyTo<?> copyTo = (CopyTo<?>) SqlParser.createStatement("copy foo to stdout");
+        assertThat(copyTo.targetUri(), nullValue());
+    }
+
     @Test
     public void testInsertStmtBuilder() {
         // insert from values
@@ -0,0 +1,167 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowConsumer;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.expression.symbol.Symbol;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * A server side cursor created via {@code DECLARE}.
+ * <p>
+ * The query of the cursor is executed once; the resulting {@link BatchIterator} is kept open and consumed
+ * incrementally by every {@link #fetch(ResultReceiver, long)}. Rows are never buffered by the cursor itself, so the
+ * memory held by an open cursor is what the suspended operations of the query hold.
+ * The iterator is closed once it has been consumed completely or if the cursor is closed.
+ */
+public final class Cursor implements RowConsumer {
+
+    private final String name;
+    private final boolean withHold;
+    private final List<Symbol> outputs;
+    private final CompletableFuture<BatchIterator<Row>> iterator = new CompletableFuture<>();
+    private final CompletableFuture<?> completionFuture = new CompletableFuture<>();
+
+    private volatile boolean exhausted = false;
+
+    public Cursor(String name, boolean withHold, List<Symbol> outputs, Consumer<Throwable> onCompletion) {
+        this.name = name;
+        this.withHold = withHold;
+        this.outputs = outputs;
+        completionFuture.whenComplete((res, err) -> onCompletion.accept(err));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public boolean withHold() {
+        return withHold;
+    }
+
+    public List<Symbol> outputs() {
+        return outputs;
+    }
+
+    @Override
+    public void accept(BatchIterator<Row> it, @Nullable Throwable failure) {
+        if (failure == null) {
+            if (!iterator.complete(it)) {
+                // Cursor has been closed before the query started
+                it.close();
+            }
+        } else {
+            if (it != null) {
+                it.close();
+            }
+            iterator.completeExceptionally(failure);
+            completionFuture.completeExceptionally(failure);
+        }
+    }
+
+    @Override
+    public CompletableFuture<?> completionFuture() {
+        return completionFuture;
+    }
+
+    /**
+     * Sends up to {@code count} of the remaining rows to the resultReceiver and finishes it.
+     * Once all rows have been consumed, further fetches finish the resultReceiver without any rows.
+     */
+    public CompletableFuture<?> fetch(ResultReceiver<?> resultReceiver, long count) {
+        iterator.whenComplete((it, failure) -> {
+            if (failure == null) {
+                consume(it, resultReceiver, count);
+            } else {
+                resultReceiver.fail(SQLExceptions.unwrap(failure));
+            }
+        });
+        return resultReceiver.completionFuture();
+    }
+
+    private void consume(BatchIterator<Row> it, ResultReceiver<?> resultReceiver, long count) {
+        if (exhausted) {
+            resultReceiver.allFinished(false);
+            return;
+        }
+        long remaining = count;
+        try {
+            while (remaining > 0 && it.moveNext()) {
+                remaining--;
+                resultReceiver.setNextRow(it.currentElement());
+            }
+            if (remaining == 0) {
+                resultReceiver.allFinished(false);
+            } else if (it.allLoaded()) {
+                exhausted = true;
+                it.close();
+                completionFuture.complete(null);
+                resultReceiver.allFinished(false);
+            } else {
+                long stillRemaining = remaining;
+                it.loadNextBatch().whenComplete((r, f) -> {
+                    if (f == null) {
+                        consume(it, resultReceiver, stillRemaining);
+                    } else {
+                        fail(it, resultReceiver, SQLExceptions.unwrap(f));
+                    }
+                });
+            }
+        } catch (Throwable t) {
+            fail(it, resultReceiver, t);
+        }
+    }
+
+    private void fail(BatchIterator<Row> it, ResultReceiver<?> resultReceiver, Throwable t) {
+        exhausted = true;
+        it.close();
+        completionFuture.completeExceptionally(t);
+        resultReceiver.fail(t);
+    }
+
+    /**
+     * Closes the underlying {@link BatchIterator}, releasing the resources held by the query.
+     */
+    public void close() {
+        if (iterator.complete(null)) {
+            // query didn't start yet, see accept
+            exhausted = true;
+            completionFuture.complete(null);
+            return;
+        }
+        iterator.whenComplete((it, failure) -> {
+            if (failure == null && !exhausted) {
+                exhausted = true;
+                it.close();
+                completionFuture.complete(null);
+            }
+        });
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The open {@link Cursor}s of a session.
+ */
+public final class Cursors {
+
+    private final Map<String, Cursor> cursors = new HashMap<>();
+
+    public Cursor get(String cursorName) {
+        Cursor cursor = cursors.get(cursorName);
+        if (cursor == null) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "Cursor `%s` does not exist", cursorName));
+        }
+        return cursor;
+    }
+
+    void add(Cursor cursor) {
+        Cursor existing = cursors.putIfAbsent(cursor.name(), cursor);
+        if (existing != null) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "Cursor `%s` already exists", cursor.name()));
+        }
+    }
+
+    void close(String cursorName) {
+        Cursor cursor = get(cursorName);
+        cursors.remove(cursorName);
+        cursor.close();
+    }
+
+    void close(Predicate<Cursor> predicate) {
+        Iterator<Cursor> it = cursors.values().iterator();
+        while (it.hasNext()) {
+            Cursor cursor = it.next();
+            if (predicate.test(cursor)) {
+                cursor.close();
+                it.remove();
+            }
+        }
+    }
+
+    void closeAll() {
+        close(cursor -> true);
+    }
+}
@@ -27,6 +27,7 @@ import io.crate.auth.user.User;
 import io.crate.auth.user.UserManager;
 import io.crate.execution.engine.collect.stats.JobsLogs;
 import io.crate.planner.DependencyCarrier;
+import io.crate.planner.PlanCache;
 import io.crate.planner.Planner;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
@@ -50,6 +51,7 @@ public class SQLOperations {
 
     private final Analyzer analyzer;
     private final Planner planner;
+    private final PlanCache planCache;
     private final Provider<DependencyCarrier> executorProvider;
     private final JobsLogs jobsLogs;
     private final ClusterService clusterService;
@@ -60,6 +62,7 @@ public class SQLOperations {
     @Inject
     public SQLOperations(Analyzer analyzer,
                          Planner planner,
+                         PlanCache planCache,
                          Provider<DependencyCarrier> executorProvider,
                          JobsLogs jobsLogs,
                          Settings settings,
@@ -67,6 +70,7 @@ public class SQLOperations {
                          Provider<UserManager> userManagerProvider) {
         this.analyzer = analyzer;
         this.planner = planner;
+        this.planCache = planCache;
         this.executorProvider = executorProvider;
         this.jobsLogs = jobsLogs;
         this.clusterService = clusterService;
@@ -81,6 +85,7 @@ public class SQLOperations {
         return new Session(
             analyzer,
             planner,
+            planCache,
             jobsLogs,
             isReadOnly,
             executorProvider.get(),
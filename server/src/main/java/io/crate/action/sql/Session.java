@@ -22,6 +22,8 @@
 
 package io.crate.action.sql;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -39,9 +41,15 @@ import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.common.Randomness;
 
 import io.crate.analyze.AnalyzedBegin;
+import io.crate.analyze.AnalyzedClose;
 import io.crate.analyze.AnalyzedCommit;
+import io.crate.analyze.AnalyzedCopyFrom;
+import io.crate.analyze.AnalyzedCopyTo;
 import io.crate.analyze.AnalyzedDeallocate;
+import io.crate.analyze.AnalyzedDeclare;
 import io.crate.analyze.AnalyzedDiscard;
+import io.crate.analyze.AnalyzedFetch;
+import io.crate.analyze.AnalyzedRollback;
 import io.crate.analyze.AnalyzedStatement;
 import io.crate.analyze.Analyzer;
 import io.crate.analyze.ParamTypeHints;
@@ -62,6 +70,7 @@ import io.crate.metadata.CoordinatorTxnCtx;
 import io.crate.metadata.RoutingProvider;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.Plan;
+import io.crate.planner.PlanCache;
 import io.crate.planner.Planner;
 import io.crate.planner.PlannerContext;
 import io.crate.planner.operators.StatementClassifier;
@@ -131,6 +140,7 @@ public class Session implements AutoCloseable {
 
     private final Analyzer analyzer;
     private final Planner planner;
+    private final PlanCache planCache;
     private final JobsLogs jobsLogs;
     private final boolean isReadOnly;
     private final ParameterTypeExtractor parameterTypeExtractor;
@@ -139,6 +149,7 @@ public class Session implements AutoCloseable {
 
     public Session(Analyzer analyzer,
                    Planner planner,
+                   PlanCache planCache,
                    JobsLogs jobsLogs,
                    boolean isReadOnly,
                    DependencyCarrier executor,
@@ -146,6 +157,7 @@ public class Session implements AutoCloseable {
                    SessionContext sessionContext) {
         this.analyzer = analyzer;
         this.planner = planner;
+        this.planCache = planCache;
         this.jobsLogs = jobsLogs;
         this.isReadOnly = isReadOnly;
         this.executor = executor;
@@ -186,7 +198,7 @@ public class Session implements AutoCloseable {
         );
         Plan plan;
         try {
-            plan = planner.plan(analyzedStatement, plannerContext);
+            plan = planCache.plan(planner, statement, analyzedStatement, plannerContext);
         } catch (Throwable t) {
             jobsLogs.logPreExecutionFailure(jobId, statement, SQLExceptions.messageOf(t), sessionContext.user());
             throw t;
@@ -371,11 +383,16 @@ public class Session implements AutoCloseable {
         if (isReadOnly && analyzedStmt.isWriteOperation()) {
             throw new ReadOnlyException(portal.preparedStmt().rawStatement());
         }
+        if (isCopyFromStdin(analyzedStmt) || isCopyToStdout(analyzedStmt)) {
+            throw new UnsupportedOperationException(
+                "COPY FROM STDIN and COPY TO STDOUT are only supported using the PostgreSQL wire protocol");
+        }
         if (analyzedStmt instanceof AnalyzedBegin) {
             currentTransactionState = TransactionState.IN_TRANSACTION;
             resultReceiver.allFinished(false);
-        } else if (analyzedStmt instanceof AnalyzedCommit) {
+        } else if (analyzedStmt instanceof AnalyzedCommit || analyzedStmt instanceof AnalyzedRollback) {
             currentTransactionState = TransactionState.IDLE;
+            sessionContext.cursors().close(cursor -> !cursor.withHold());
             resultReceiver.allFinished(false);
             return resultReceiver.completionFuture();
         } else if (analyzedStmt instanceof AnalyzedDeallocate) {
@@ -391,12 +408,34 @@ public class Session implements AutoCloseable {
             resultReceiver.allFinished(false);
         } else if (analyzedStmt instanceof AnalyzedDiscard) {
             AnalyzedDiscard discard = (AnalyzedDiscard) analyzedStmt;
-            // We don't cache plans, don't have sequences or temporary tables
+            // Cached plans are shared on the node level and invalidated on metadata changes,
+            // we don't have sequences or temporary tables. Cursors are closed by close()
             // See https://www.postgresql.org/docs/current/sql-discard.html
             if (discard.target() == Target.ALL) {
                 close();
             }
             resultReceiver.allFinished(false);
+        } else if (analyzedStmt instanceof AnalyzedDeclare) {
+            declare(portal, (AnalyzedDeclare) analyzedStmt);
+            resultReceiver.allFinished(false);
+        } else if (analyzedStmt instanceof AnalyzedFetch) {
+            AnalyzedFetch fetch = (AnalyzedFetch) analyzedStmt;
+            Cursor cursor = sessionContext.cursors().get(fetch.cursorName());
+            if (activeExecution == null) {
+                activeExecution = cursor.fetch(resultReceiver, fetch.count());
+            } else {
+                activeExecution = activeExecution
+                    .thenCompose(ignored -> cursor.fetch(resultReceiver, fetch.count()));
+            }
+            return activeExecution;
+        } else if (analyzedStmt instanceof AnalyzedClose) {
+            String cursorName = ((AnalyzedClose) analyzedStmt).cursorName();
+            if (cursorName == null) {
+                sessionContext.cursors().closeAll();
+            } else {
+                sessionContext.cursors().close(cursorName);
+            }
+            resultReceiver.allFinished(false);
         } else if (analyzedStmt.isWriteOperation()) {
             /* We defer the execution for any other statements to `sync` messages so that we can efficiently process
              * bulk operations. E.g. If we receive `INSERT INTO (x) VALUES (?)` bindings/execute multiple times
@@ -440,6 +479,98 @@ public class Session implements AutoCloseable {
         return null;
     }
 
+    public boolean isCopyFromStdin(String portalName) {
+        return isCopyFromStdin(getSafePortal(portalName).analyzedStatement());
+    }
+
+    public boolean isCopyToStdout(String portalName) {
+        return isCopyToStdout(getSafePortal(portalName).analyzedStatement());
+    }
+
+    private static boolean isCopyFromStdin(AnalyzedStatement analyzedStmt) {
+        return analyzedStmt instanceof AnalyzedCopyFrom && ((AnalyzedCopyFrom) analyzedStmt).fromStdin();
+    }
+
+    private static boolean isCopyToStdout(AnalyzedStatement analyzedStmt) {
+        return analyzedStmt instanceof AnalyzedCopyTo && ((AnalyzedCopyTo) analyzedStmt).toStdout();
+    }
+
+    /**
+     * Executes a {@code COPY ... FROM STDIN} statement which imports the lines read from {@code input}.
+     * <p>
+     * Unlike other write operations the execution isn't deferred until {@link #sync()},
+     * because the client only starts to send the data once the execution started.
+     */
+    public CompletableFuture<?> executeCopyFromStdin(String portalName,
+                                                     InputStream input,
+                                                     ResultReceiver<?> resultReceiver) {
+        Portal portal = getSafePortal(portalName);
+        if (!isCopyFromStdin(portal.analyzedStatement())) {
+            throw new IllegalArgumentException("Portal `" + portalName + "` is not a COPY FROM STDIN statement");
+        }
+        if (isReadOnly) {
+            throw new ReadOnlyException(portal.preparedStmt().rawStatement());
+        }
+        if (activeExecution == null) {
+            activeExecution = copyFromStdin(portal, input, resultReceiver);
+        } else {
+            activeExecution = activeExecution
+                .thenCompose(ignored -> copyFromStdin(portal, input, resultReceiver));
+        }
+        return activeExecution;
+    }
+
+    /**
+     * Executes a {@code COPY ... TO STDOUT} statement. The resultReceiver receives one row per exported line.
+     */
+    public CompletableFuture<?> executeCopyToStdout(String portalName, ResultReceiver<?> resultReceiver) {
+        Portal portal = getSafePortal(portalName);
+        if (!isCopyToStdout(portal.analyzedStatement())) {
+            throw new IllegalArgumentException("Portal `" + portalName + "` is not a COPY TO STDOUT statement");
+        }
+        if (activeExecution == null) {
+            activeExecution = singleExec(portal, resultReceiver, 0);
+        } else {
+            activeExecution = activeExecution
+                .thenCompose(ignored -> singleExec(portal, resultReceiver, 0));
+        }
+        return activeExecution;
+    }
+
+    private CompletableFuture<?> copyFromStdin(Portal portal, InputStream input, ResultReceiver<?> resultReceiver) {
+        var jobId = UUID.randomUUID();
+        var routingProvider = new RoutingProvider(Randomness.get().nextInt(), planner.getAwarenessAttributes());
+        var clusterState = executor.clusterService().state();
+        var txnCtx = new CoordinatorTxnCtx(sessionContext);
+        var params = new RowN(portal.params().toArray());
+        var plannerContext = new PlannerContext(
+            clusterState, routingProvider, jobId, executor.functions(), txnCtx, 0, params);
+        String rawStatement = portal.preparedStmt().rawStatement();
+        Plan plan;
+        try {
+            plan = planner.plan(portal.analyzedStatement(), plannerContext);
+        } catch (Throwable t) {
+            jobsLogs.logPreExecutionFailure(jobId, rawStatement, SQLExceptions.messageOf(t), sessionContext.user());
+            throw t;
+        }
+        var stdinInputs = executor.stdinInputs();
+        stdinInputs.register(jobId, input);
+        resultReceiver.completionFuture().whenComplete((result, failure) -> {
+            stdinInputs.unregister(jobId);
+            try {
+                input.close();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to close COPY FROM STDIN stream", e);
+            }
+        });
+        jobsLogs.logExecutionStart(
+            jobId, rawStatement, sessionContext.user(), StatementClassifier.classify(plan));
+        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(
+            resultReceiver, 0, new JobsLogsUpdateListener(jobId, jobsLogs));
+        plan.execute(executor, plannerContext, consumer, params, SubQueryResults.EMPTY);
+        return resultReceiver.completionFuture();
+    }
+
     public CompletableFuture<?> sync() {
         if (activeExecution == null) {
             return triggerDeferredExecutions();
@@ -468,6 +599,41 @@ public class Session implements AutoCloseable {
         }
     }
 
+    /**
+     * Starts the execution of the query of the cursor. The rows are retrieved by subsequent FETCH statements.
+     */
+    private void declare(Portal portal, AnalyzedDeclare declare) {
+        String rawStatement = portal.preparedStmt().rawStatement();
+        if (!declare.withHold() && currentTransactionState != TransactionState.IN_TRANSACTION) {
+            throw new UnsupportedOperationException(
+                "DECLARE CURSOR WITHOUT HOLD can only be used in transaction blocks");
+        }
+        var jobId = UUID.randomUUID();
+        var routingProvider = new RoutingProvider(Randomness.get().nextInt(), planner.getAwarenessAttributes());
+        var clusterState = executor.clusterService().state();
+        var txnCtx = new CoordinatorTxnCtx(sessionContext);
+        var params = new RowN(portal.params().toArray());
+        var plannerContext = new PlannerContext(
+            clusterState, routingProvider, jobId, executor.functions(), txnCtx, 0, params);
+        Plan plan;
+        try {
+            plan = planCache.plan(planner, rawStatement, declare.query(), plannerContext);
+        } catch (Throwable t) {
+            jobsLogs.logPreExecutionFailure(jobId, rawStatement, SQLExceptions.messageOf(t), sessionContext.user());
+            throw t;
+        }
+        Cursor cursor = new Cursor(
+            declare.cursorName(),
+            declare.withHold(),
+            declare.query().outputs(),
+            new JobsLogsUpdateListener(jobId, jobsLogs)
+        );
+        sessionContext.cursors().add(cursor);
+        jobsLogs.logExecutionStart(
+            jobId, rawStatement, sessionContext.user(), StatementClassifier.classify(plan));
+        plan.execute(executor, plannerContext, cursor, params, SubQueryResults.EMPTY);
+    }
+
     private CompletableFuture<?> exec(Statement statement, List<DeferredExecution> executions) {
         if (executions.size() == 1) {
             var toExec = executions.get(0);
@@ -576,7 +742,7 @@ public class Session implements AutoCloseable {
         }
         Plan plan;
         try {
-            plan = planner.plan(analyzedStmt, plannerContext);
+            plan = planCache.plan(planner, rawStatement, analyzedStmt, plannerContext);
         } catch (Throwable t) {
             jobsLogs.logPreExecutionFailure(jobId, rawStatement, SQLExceptions.messageOf(t), sessionContext.user());
             throw t;
@@ -698,6 +864,7 @@ public class Session implements AutoCloseable {
         currentTransactionState = TransactionState.IDLE;
         resetDeferredExecutions();
         activeExecution = null;
+        sessionContext.cursors().closeAll();
         for (Portal portal : portals.values()) {
             portal.closeActiveConsumer();
         }
@@ -35,6 +35,7 @@ public class SessionContext {
 
     private final Set<Option> options;
     private final User user;
+    private final Cursors cursors = new Cursors();
 
     private SearchPath searchPath;
     private boolean hashJoinEnabled = true;
@@ -87,6 +88,10 @@ public class SessionContext {
         return user;
     }
 
+    public Cursors cursors() {
+        return cursors;
+    }
+
     public void resetToDefaults() {
         resetSchema();
         hashJoinEnabled = true;
@@ -34,6 +34,7 @@ public class AnalyzedCopyTo implements AnalyzedStatement {
 
     private final TableInfo tableInfo;
     private final Table<Symbol> table;
+    @Nullable
     private final Symbol uri;
     private final GenericProperties<Symbol> properties;
     private final List<Symbol> columns;
@@ -42,7 +43,7 @@ public class AnalyzedCopyTo implements AnalyzedStatement {
 
     AnalyzedCopyTo(TableInfo tableInfo,
                    Table<Symbol> table,
-                   Symbol uri,
+                   @Nullable Symbol uri,
                    GenericProperties<Symbol> properties,
                    List<Symbol> columns,
                    @Nullable Symbol whereClause) {
@@ -62,10 +63,18 @@ public class AnalyzedCopyTo implements AnalyzedStatement {
         return table;
     }
 
+    /**
+     * @return the uri to export to or null if the data is written to {@code STDOUT}
+     */
+    @Nullable
     public Symbol uri() {
         return uri;
     }
 
+    public boolean toStdout() {
+        return uri == null;
+    }
+
     public GenericProperties<Symbol> properties() {
         return properties;
     }
@@ -161,6 +161,10 @@ public class AnalyzedStatementVisitor<C, R> {
         return visitAnalyzedStatement(analyzedCommit, context);
     }
 
+    public R visitRollback(AnalyzedRollback analyzedRollback, C context) {
+        return visitAnalyzedStatement(analyzedRollback, context);
+    }
+
     public R visitPrivilegesStatement(AnalyzedPrivileges analysis, C context) {
         return visitDCLStatement(analysis, context);
     }
@@ -244,4 +248,16 @@ public class AnalyzedStatementVisitor<C, R> {
     public R visitSetTransaction(AnalyzedSetTransaction setTransaction, C context) {
         return visitAnalyzedStatement(setTransaction, context);
     }
+
+    public R visitDeclare(AnalyzedDeclare declare, C context) {
+        return visitAnalyzedStatement(declare, context);
+    }
+
+    public R visitFetch(AnalyzedFetch fetch, C context) {
+        return visitAnalyzedStatement(fetch, context);
+    }
+
+    public R visitClose(AnalyzedClose close, C context) {
+        return visitAnalyzedStatement(close, context);
+    }
 }
@@ -26,7 +26,9 @@ import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.index.analysis.AnalysisRegistry;
 
+import io.crate.action.sql.Cursor;
 import io.crate.action.sql.SessionContext;
+import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.relations.RelationAnalyzer;
 import io.crate.auth.user.UserManager;
 import io.crate.execution.ddl.RepositoryService;
@@ -46,6 +48,7 @@ import io.crate.sql.tree.AlterUser;
 import io.crate.sql.tree.AnalyzeStatement;
 import io.crate.sql.tree.AstVisitor;
 import io.crate.sql.tree.BeginStatement;
+import io.crate.sql.tree.Close;
 import io.crate.sql.tree.CommitStatement;
 import io.crate.sql.tree.CopyFrom;
 import io.crate.sql.tree.CopyTo;
@@ -58,6 +61,7 @@ import io.crate.sql.tree.CreateTable;
 import io.crate.sql.tree.CreateUser;
 import io.crate.sql.tree.CreateView;
 import io.crate.sql.tree.DeallocateStatement;
+import io.crate.sql.tree.Declare;
 import io.crate.sql.tree.DecommissionNodeStatement;
 import io.crate.sql.tree.Delete;
 import io.crate.sql.tree.DenyPrivilege;
@@ -73,6 +77,7 @@ import io.crate.sql.tree.DropUser;
 import io.crate.sql.tree.DropView;
 import io.crate.sql.tree.Explain;
 import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.Fetch;
 import io.crate.sql.tree.GCDanglingArtifacts;
 import io.crate.sql.tree.GrantPrivilege;
 import io.crate.sql.tree.Insert;
@@ -83,6 +88,7 @@ import io.crate.sql.tree.RefreshStatement;
 import io.crate.sql.tree.ResetStatement;
 import io.crate.sql.tree.RestoreSnapshot;
 import io.crate.sql.tree.RevokePrivilege;
+import io.crate.sql.tree.RollbackStatement;
 import io.crate.sql.tree.SetStatement;
 import io.crate.sql.tree.SetTransactionStatement;
 import io.crate.sql.tree.ShowColumns;
@@ -302,6 +308,11 @@ public class Analyzer {
             return new AnalyzedCommit();
         }
 
+        @Override
+        public AnalyzedStatement visitRollback(RollbackStatement node, Analysis context) {
+            return new AnalyzedRollback();
+        }
+
         @Override
         public AnalyzedStatement visitCopyFrom(CopyFrom<?> node, Analysis context) {
             return copyAnalyzer.analyzeCopyFrom(
@@ -391,6 +402,26 @@ public class Analyzer {
             return new AnalyzedDiscard(discardStatement.target());
         }
 
+        @Override
+        public AnalyzedStatement visitDeclare(Declare declare, Analysis context) {
+            AnalyzedRelation query = relationAnalyzer.analyze(
+                declare.query(),
+                context.transactionContext(),
+                context.paramTypeHints());
+            return new AnalyzedDeclare(declare.cursorName(), declare.withHold(), query);
+        }
+
+        @Override
+        public AnalyzedStatement visitFetch(Fetch fetch, Analysis context) {
+            Cursor cursor = context.sessionContext().cursors().get(fetch.cursorName());
+            return new AnalyzedFetch(fetch.cursorName(), fetch.count(), cursor.outputs());
+        }
+
+        @Override
+        public AnalyzedStatement visitClose(Close close, Analysis context) {
+            return new AnalyzedClose(close.cursorName());
+        }
+
         @Override
         public AnalyzedStatement visitDelete(Delete node, Analysis analysis) {
             return deleteAnalyzer.analyze(
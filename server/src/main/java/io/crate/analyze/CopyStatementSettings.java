@@ -22,9 +22,12 @@
 
 package io.crate.analyze;
 
+import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.metadata.settings.Validators;
 import org.elasticsearch.common.settings.Setting;
 
+import javax.annotation.Nullable;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -38,16 +41,20 @@ public final class CopyStatementSettings {
         Validators.stringValidator("compression", "gzip"),
         Setting.Property.Dynamic);
 
+    public static final List<String> OUTPUT_FORMATS = List.of("json_object", "json_array");
+
     public static final Setting<String> OUTPUT_FORMAT_SETTING = Setting.simpleString(
         "format",
-        Validators.stringValidator("format", "json_object", "json_array"),
+        Validators.stringValidator("format", OUTPUT_FORMATS.toArray(new String[0])),
         Setting.Property.Dynamic);
 
+    public static final List<String> INPUT_FORMATS = List.of("json", "csv");
+
     public static final Setting<String> INPUT_FORMAT_SETTING = new Setting<>(
         "format",
         "json",
         (s) -> s,
-        Validators.stringValidator("format", "json", "csv"),
+        Validators.stringValidator("format", INPUT_FORMATS.toArray(new String[0])),
         Setting.Property.Dynamic);
 
     public static final Map<String, Setting<?>> OUTPUT_SETTINGS = Map.of(
@@ -55,6 +62,20 @@ public final class CopyStatementSettings {
         OUTPUT_FORMAT_SETTING.getKey(), OUTPUT_FORMAT_SETTING
     );
 
+    /**
+     * {@code COPY FROM STDIN} and {@code COPY TO STDOUT} exchange the rows as lines in one of the given CrateDB formats,
+     * the {@code text} and {@code binary} formats of PostgreSQL are not supported.
+     */
+    public static void ensureStdioFormatSupported(String statement, @Nullable String format, List<String> formats) {
+        if (format != null && !formats.contains(format.toLowerCase(Locale.ENGLISH))) {
+            throw new UnsupportedFeatureException(String.format(Locale.ENGLISH,
+                "%s doesn't support the format '%s', supported formats are: %s",
+                statement,
+                format,
+                String.join(", ", formats)));
+        }
+    }
+
     public static <E extends Enum<E>> E settingAsEnum(Class<E> settingsEnum, String settingValue) {
         if (settingValue == null || settingValue.isEmpty()) {
             return null;
@@ -39,6 +39,7 @@ import io.crate.common.unit.TimeValue;
 import org.elasticsearch.index.IndexModule;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.IndexSortConfig;
 import org.elasticsearch.index.MergeSchedulerConfig;
 import org.elasticsearch.index.engine.EngineConfig;
 import org.elasticsearch.index.mapper.MapperService;
@@ -87,6 +88,7 @@ public class TableParameters {
             IndexSettings.INDEX_TRANSLOG_FLUSH_THRESHOLD_SIZE_SETTING,
             EnableAllocationDecider.INDEX_ROUTING_ALLOCATION_ENABLE_SETTING,
             IndexSettings.INDEX_TRANSLOG_SYNC_INTERVAL_SETTING,
+            IndexSettings.INDEX_TRANSLOG_SYNC_WINDOW_SETTING,
             IndexSettings.INDEX_TRANSLOG_DURABILITY_SETTING,
             ShardsLimitAllocationDecider.INDEX_TOTAL_SHARDS_PER_NODE_SETTING,
             MapperService.INDEX_MAPPING_TOTAL_FIELDS_LIMIT_SETTING,
@@ -101,6 +103,8 @@ public class TableParameters {
             IndexMetadata.INDEX_ROUTING_INCLUDE_GROUP_SETTING,
             IndexMetadata.INDEX_ROUTING_EXCLUDE_GROUP_SETTING,
             EngineConfig.INDEX_CODEC_SETTING,
+            IndexSettings.INDEX_SOURCE_FORMAT_SETTING,
+            IndexSortConfig.INDEX_SORT_BY_SETTING,
             IndexModule.INDEX_STORE_TYPE_SETTING,
             MergeSchedulerConfig.MAX_THREAD_COUNT_SETTING,
 
@@ -115,7 +119,10 @@ public class TableParameters {
         IndexMetadata.INDEX_NUMBER_OF_ROUTING_SHARDS_SETTING,
         IndexSettings.INDEX_WARMER_ENABLED_SETTING,
         IndexService.GLOBAL_CHECKPOINT_SYNC_INTERVAL_SETTING,
-        MergeSchedulerConfig.MAX_THREAD_COUNT_SETTING
+        MergeSchedulerConfig.MAX_THREAD_COUNT_SETTING,
+        IndexSettings.INDEX_SOURCE_FORMAT_SETTING,
+        IndexSortConfig.INDEX_SORT_BY_SETTING,
+        IndexSettings.INDEX_TRANSLOG_SYNC_WINDOW_SETTING
     );
 
     private static final Map<String, Setting<?>> SUPPORTED_SETTINGS_DEFAULT
@@ -23,7 +23,7 @@
 package io.crate.breaker;
 
 import io.crate.data.Row;
-import io.crate.execution.engine.join.HashInnerJoinBatchIterator;
+import io.crate.execution.engine.join.HashJoinBatchIterator;
 import io.crate.types.DataType;
 
 import java.util.Collection;
@@ -45,7 +45,7 @@ public class RowAccountingWithEstimators implements RowAccounting<Row> {
     /**
      * @param columnTypes     Column types are needed to use the correct {@link SizeEstimator} per column
      * @param ramAccounting   {@link RamAccounting} implementing the CircuitBreaker logic
-     * @param extraSizePerRow Extra size that need to be calculated per row. E.g. {@link HashInnerJoinBatchIterator}
+     * @param extraSizePerRow Extra size that need to be calculated per row. E.g. {@link HashJoinBatchIterator}
      *                        might instantiate an ArrayList per row used for the internal hash->row buffer
      */
     public RowAccountingWithEstimators(Collection<? extends DataType> columnTypes,
@@ -22,7 +22,7 @@
 
 package io.crate.breaker;
 
-import io.crate.execution.engine.join.HashInnerJoinBatchIterator;
+import io.crate.execution.engine.join.HashJoinBatchIterator;
 import io.crate.types.DataType;
 
 import java.util.ArrayList;
@@ -37,7 +37,7 @@ public class RowCellsAccountingWithEstimators implements RowAccounting<Object[]>
     /**
      * @param columnTypes     Column types are needed to use the correct {@link SizeEstimator} per column
      * @param ramAccounting   {@link RamAccounting} implementing the CircuitBreaker logic
-     * @param extraSizePerRow Extra size that need to be calculated per row. E.g. {@link HashInnerJoinBatchIterator}
+     * @param extraSizePerRow Extra size that need to be calculated per row. E.g. {@link HashJoinBatchIterator}
      *                        might instantiate an ArrayList per row used for the internal hash->row buffer
      */
     public RowCellsAccountingWithEstimators(Collection<? extends DataType> columnTypes,
@@ -0,0 +1,244 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution;
+
+import com.carrotsearch.hppc.BitMixer;
+import com.google.common.collect.Iterables;
+import io.crate.Streamer;
+import io.crate.data.BatchIterator;
+import io.crate.data.Bucket;
+import io.crate.data.CollectingBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowConsumer;
+import io.crate.data.RowN;
+import io.crate.execution.jobs.PageBucketReceiver;
+import io.crate.execution.jobs.PageResultListener;
+import io.crate.execution.support.ThreadPools;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collector;
+
+/**
+ * A {@link PageBucketReceiver} which accumulates the received rows using multiple threads.
+ * <p>
+ * The rows of each bucket are partitioned by the hash of their key columns, so that all rows with the same key end up
+ * in the same partition. Each partition has its own collector state, which is only accumulated by one thread at a
+ * time, while different partitions are accumulated concurrently. Once all buckets are processed, the results of all
+ * partitions are concatenated.
+ * <p>
+ * This is used to merge the partial results of a GROUP BY, where every group is guaranteed to be complete within its
+ * partition.
+ * <p>
+ * On a failure or kill the consumer is only failed once the accumulations in progress are done, so the resources of
+ * the collectors can be released as soon as the consumer completes.
+ */
+public class PartitionedPageBucketReceiver<T> implements PageBucketReceiver {
+
+    private final List<? extends Collector<Row, T, Iterable<Row>>> collectors;
+    private final List<T> states;
+    private final int[] keyPositions;
+    private final Executor executor;
+    private final Streamer<?>[] streamers;
+    private final AtomicInteger remainingUpstreams;
+    private final CompletableFuture<Iterable<Row>> processingFuture = new CompletableFuture<>();
+    private final BatchIterator<Row> lazyBatchIterator;
+
+    /**
+     * The accumulation of a partition is chained to the previous one of the same partition, as the states are not
+     * thread-safe. Guarded by itself.
+     */
+    private final CompletableFuture<?>[] partitionAccumulations;
+
+    /**
+     * Completes once all buckets received so far are accumulated. Guarded by {@link #partitionAccumulations}.
+     */
+    private CompletableFuture<?> allAccumulations = CompletableFuture.completedFuture(null);
+
+    /**
+     * Set once the receiver failed or has been killed, no further accumulations are started afterwards.
+     * Guarded by {@link #partitionAccumulations}.
+     */
+    private volatile boolean failed = false;
+
+    /**
+     * @param collectors one collector per partition
+     * @param keyPositions the positions of the columns which are used to partition the rows
+     */
+    public PartitionedPageBucketReceiver(List<? extends Collector<Row, T, Iterable<Row>>> collectors,
+                                         int[] keyPositions,
+                                         RowConsumer rowConsumer,
+                                         Executor executor,
+                                         Streamer<?>[] streamers,
+                                         int upstreamsCount) {
+        this.collectors = collectors;
+        this.states = new ArrayList<>(collectors.size());
+        for (Collector<Row, T, Iterable<Row>> collector : collectors) {
+            states.add(collector.supplier().get());
+        }
+        this.keyPositions = keyPositions;
+        this.executor = runnable -> ThreadPools.forceExecute(executor, runnable);
+        this.streamers = streamers;
+        this.remainingUpstreams = new AtomicInteger(upstreamsCount);
+        this.partitionAccumulations = new CompletableFuture[collectors.size()];
+        for (int i = 0; i < partitionAccumulations.length; i++) {
+            partitionAccumulations[i] = CompletableFuture.completedFuture(null);
+        }
+        lazyBatchIterator = CollectingBatchIterator.newInstance(
+            () -> {},
+            t -> {},
+            () -> processingFuture,
+            true);
+        rowConsumer.accept(lazyBatchIterator, null);
+    }
+
+    @Override
+    public void setBucket(int bucketIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener) {
+        if (failed) {
+            pageResultListener.needMore(false);
+            return;
+        } else {
+            pageResultListener.needMore(!isLast);
+        }
+
+        CompletableFuture<?> bucketAccumulated = CompletableFuture
+            .supplyAsync(() -> partition(rows), executor)
+            .thenCompose(this::accumulatePartitions);
+        bucketAccumulated.whenComplete((r, t) -> {
+            if (t != null) {
+                fail(t);
+            }
+        });
+        CompletableFuture<?> accumulated;
+        synchronized (partitionAccumulations) {
+            allAccumulations = CompletableFuture.allOf(allAccumulations, bucketAccumulated);
+            accumulated = allAccumulations;
+        }
+        if (isLast && remainingUpstreams.decrementAndGet() == 0) {
+            accumulated.whenComplete((r, t) -> {
+                if (t == null) {
+                    consumeRows();
+                }
+            });
+        }
+    }
+
+    private List<Object[]>[] partition(Bucket rows) {
+        int numPartitions = states.size();
+        @SuppressWarnings("unchecked")
+        List<Object[]>[] rowsByPartition = new List[numPartitions];
+        for (Row row : rows) {
+            int partition = Math.floorMod(BitMixer.mix32(hashOfKey(row)), numPartitions);
+            List<Object[]> partitionRows = rowsByPartition[partition];
+            if (partitionRows == null) {
+                partitionRows = new ArrayList<>();
+                rowsByPartition[partition] = partitionRows;
+            }
+            partitionRows.add(row.materialize());
+        }
+        return rowsByPartition;
+    }
+
+    private int hashOfKey(Row row) {
+        int hash = 1;
+        for (int keyPosition : keyPositions) {
+            hash = 31 * hash + Objects.hashCode(row.get(keyPosition));
+        }
+        return hash;
+    }
+
+    private CompletableFuture<?> accumulatePartitions(List<Object[]>[] rowsByPartition) {
+        ArrayList<CompletableFuture<?>> accumulations = new ArrayList<>(rowsByPartition.length);
+        synchronized (partitionAccumulations) {
+            if (failed) {
+                return CompletableFuture.completedFuture(null);
+            }
+            for (int i = 0; i < rowsByPartition.length; i++) {
+                List<Object[]> partitionRows = rowsByPartition[i];
+                if (partitionRows == null) {
+                    continue;
+                }
+                int partition = i;
+                CompletableFuture<?> accumulation = partitionAccumulations[partition]
+                    .thenRunAsync(() -> accumulate(partition, partitionRows), executor);
+                partitionAccumulations[partition] = accumulation;
+                accumulations.add(accumulation);
+            }
+        }
+        return CompletableFuture.allOf(accumulations.toArray(new CompletableFuture[0]));
+    }
+
+    private void accumulate(int partition, List<Object[]> rows) {
+        var accumulator = collectors.get(partition).accumulator();
+        T state = states.get(partition);
+        RowN row = new RowN(streamers.length);
+        for (Object[] cells : rows) {
+            row.cells(cells);
+            accumulator.accept(state, row);
+        }
+    }
+
+    @Override
+    public Streamer<?>[] streamers() {
+        return streamers;
+    }
+
+    @Override
+    public CompletableFuture<?> completionFuture() {
+        return processingFuture;
+    }
+
+    @Override
+    public void consumeRows() {
+        ArrayList<Iterable<Row>> results = new ArrayList<>(states.size());
+        for (int i = 0; i < states.size(); i++) {
+            results.add(collectors.get(i).finisher().apply(states.get(i)));
+        }
+        processingFuture.complete(Iterables.concat(results));
+    }
+
+    @Override
+    public void kill(@Nonnull Throwable t) {
+        fail(t);
+        processingFuture.whenComplete((result, error) -> {
+            if (error == null) {
+                // the result is already being consumed
+                lazyBatchIterator.kill(t);
+            }
+        });
+    }
+
+    private void fail(Throwable t) {
+        CompletableFuture<?> accumulationsInProgress;
+        synchronized (partitionAccumulations) {
+            failed = true;
+            accumulationsInProgress = CompletableFuture.allOf(partitionAccumulations);
+        }
+        accumulationsInProgress.whenComplete((r, ignored) -> processingFuture.completeExceptionally(t));
+    }
+}
@@ -60,6 +60,10 @@ public class ExecutionPhaseVisitor<C, R> {
         return visitExecutionPhase(phase, context);
     }
 
+    public R visitMergeJoinPhase(MergeJoinPhase phase, C context) {
+        return visitExecutionPhase(phase, context);
+    }
+
     public R visitFileUriCollectPhase(FileUriCollectPhase phase, C context) {
         return visitCollectPhase(phase, context);
     }
@@ -0,0 +1,126 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.dsl.phases;
+
+import io.crate.execution.dsl.projection.Projection;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.Symbols;
+import io.crate.planner.node.dql.join.JoinType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Join phase which merges two inputs that are both sorted ascending by their join key.
+ */
+public class MergeJoinPhase extends JoinPhase {
+
+    private final Symbol leftJoinKey;
+    private final Symbol rightJoinKey;
+    private final Collection<DataType<?>> leftOutputTypes;
+    private final Collection<DataType<?>> rightOutputTypes;
+
+    public MergeJoinPhase(UUID jobId,
+                          int executionNodeId,
+                          String name,
+                          List<Projection> projections,
+                          @Nullable MergePhase leftMergePhase,
+                          @Nullable MergePhase rightMergePhase,
+                          int numLeftOutputs,
+                          int numRightOutputs,
+                          Collection<String> executionNodes,
+                          JoinType joinType,
+                          Symbol joinCondition,
+                          Symbol leftJoinKey,
+                          Symbol rightJoinKey,
+                          Collection<DataType<?>> leftOutputTypes,
+                          Collection<DataType<?>> rightOutputTypes) {
+        super(
+            jobId,
+            executionNodeId,
+            name,
+            projections,
+            leftMergePhase,
+            rightMergePhase,
+            numLeftOutputs,
+            numRightOutputs,
+            executionNodes,
+            joinType,
+            joinCondition);
+        assert joinType == JoinType.INNER : "MergeJoin only supports inner joins";
+        this.leftJoinKey = leftJoinKey;
+        this.rightJoinKey = rightJoinKey;
+        this.leftOutputTypes = leftOutputTypes;
+        this.rightOutputTypes = rightOutputTypes;
+    }
+
+    public MergeJoinPhase(StreamInput in) throws IOException {
+        super(in);
+        leftJoinKey = Symbols.fromStream(in);
+        rightJoinKey = Symbols.fromStream(in);
+        leftOutputTypes = DataTypes.listFromStream(in);
+        rightOutputTypes = DataTypes.listFromStream(in);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        Symbols.toStream(leftJoinKey, out);
+        Symbols.toStream(rightJoinKey, out);
+        DataTypes.toStream(leftOutputTypes, out);
+        DataTypes.toStream(rightOutputTypes, out);
+    }
+
+    @Override
+    public Type type() {
+        return Type.MERGE_JOIN;
+    }
+
+    @Override
+    public <C, R> R accept(ExecutionPhaseVisitor<C, R> visitor, C context) {
+        return visitor.visitMergeJoinPhase(this, context);
+    }
+
+    public Symbol leftJoinKey() {
+        return leftJoinKey;
+    }
+
+    public Symbol rightJoinKey() {
+        return rightJoinKey;
+    }
+
+    public Collection<DataType<?>> leftOutputTypes() {
+        return leftOutputTypes;
+    }
+
+    public Collection<DataType<?>> rightOutputTypes() {
+        return rightOutputTypes;
+    }
+}
@@ -47,10 +47,24 @@ public class WindowAggProjection extends Projection {
     private final ArrayList<Symbol> outputs;
     private final List<WindowFunction> windowFunctions;
 
+    /**
+     * The source rows are already sorted by the PARTITION BY and ORDER BY of the window definition,
+     * which allows to compute the window functions one partition at a time.
+     */
+    private final boolean sourceSorted;
+
     public WindowAggProjection(WindowDefinition windowDefinition,
                                List<WindowFunction> windowFunctions,
                                List<Symbol> standaloneWithInputs) {
+        this(windowDefinition, windowFunctions, standaloneWithInputs, false);
+    }
+
+    public WindowAggProjection(WindowDefinition windowDefinition,
+                               List<WindowFunction> windowFunctions,
+                               List<Symbol> standaloneWithInputs,
+                               boolean sourceSorted) {
         this.windowFunctions = windowFunctions;
+        this.sourceSorted = sourceSorted;
         assert windowFunctions.stream().noneMatch(Symbols.IS_COLUMN)
             : "Cannot operate on Reference or Field: " + windowFunctions;
         assert standaloneWithInputs.stream().noneMatch(Symbols.IS_COLUMN)
@@ -84,6 +98,11 @@ public class WindowAggProjection extends Projection {
                 windowFunctions.add(function);
             }
         }
+        if (version.onOrAfter(Version.V_4_3_0)) {
+            sourceSorted = in.readBoolean();
+        } else {
+            sourceSorted = false;
+        }
         outputs = new ArrayList<>(standaloneWithInputs);
         outputs.addAll(windowFunctions);
     }
@@ -100,6 +119,10 @@ public class WindowAggProjection extends Projection {
         return standaloneWithInputs;
     }
 
+    public boolean isSourceSorted() {
+        return sourceSorted;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -109,13 +132,14 @@ public class WindowAggProjection extends Projection {
             return false;
         }
         WindowAggProjection that = (WindowAggProjection) o;
-        return Objects.equals(windowDefinition, that.windowDefinition) &&
+        return sourceSorted == that.sourceSorted &&
+               Objects.equals(windowDefinition, that.windowDefinition) &&
                Objects.equals(windowFunctions, that.windowFunctions);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), windowDefinition, windowFunctions);
+        return Objects.hash(super.hashCode(), windowDefinition, windowFunctions, sourceSorted);
     }
 
     @Override
@@ -159,6 +183,9 @@ public class WindowAggProjection extends Projection {
                 Symbols.toStream(windowFunction.arguments(), out);
             }
         }
+        if (version.onOrAfter(Version.V_4_3_0)) {
+            out.writeBoolean(sourceSorted);
+        }
     }
 
     @Override
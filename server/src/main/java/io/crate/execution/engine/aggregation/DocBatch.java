@@ -0,0 +1,127 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.SortedNumericDocValues;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * A batch of documents of a segment, stored column-wise.
+ * <p>
+ * The numeric doc values of a column are loaded once per batch into a {@link LongVector} when they're first
+ * requested via {@link #longValues(String)}, and are then shared by all filters and aggregations using the column.
+ * Which documents of the batch are processed is described by a selection vector: the positions of the selected
+ * documents within the batch, in ascending order.
+ */
+public final class DocBatch {
+
+    private final int[] docs;
+    private final int[] allPositions;
+    private final HashMap<String, Column> columns = new HashMap<>();
+    private LeafReader reader;
+    private int size = 0;
+    private int batchId = 0;
+
+    public DocBatch(int capacity) {
+        this.docs = new int[capacity];
+        this.allPositions = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            allPositions[i] = i;
+        }
+    }
+
+    /**
+     * Starts collecting documents of a new segment.
+     */
+    public void setReader(LeafReader reader) {
+        this.reader = reader;
+        this.size = 0;
+        // doc values iterators can only move forward, so they're re-created per segment
+        columns.clear();
+    }
+
+    /**
+     * Adds a document to the batch, the documents must be added in ascending order.
+     *
+     * @return true if the batch is full
+     */
+    public boolean add(int doc) {
+        docs[size++] = doc;
+        return size == docs.length;
+    }
+
+    /**
+     * Empties the batch after it was processed, to collect the next documents of the same segment.
+     */
+    public void clear() {
+        size = 0;
+        batchId++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int doc(int position) {
+        return docs[position];
+    }
+
+    /**
+     * Copies the selection vector which selects all documents of the batch into {@code selection}.
+     *
+     * @return the number of selected documents
+     */
+    public int selectAll(int[] selection) {
+        System.arraycopy(allPositions, 0, selection, 0, size);
+        return size;
+    }
+
+    public LongVector longValues(String column) throws IOException {
+        Column col = columns.get(column);
+        if (col == null) {
+            col = new Column(DocValues.getSortedNumeric(reader, column), new LongVector(docs.length));
+            columns.put(column, col);
+        }
+        if (col.batchId != batchId) {
+            col.vector.load(col.docValues, docs, size);
+            col.batchId = batchId;
+        }
+        return col.vector;
+    }
+
+    private static final class Column {
+
+        private final SortedNumericDocValues docValues;
+        private final LongVector vector;
+        private int batchId = -1;
+
+        Column(SortedNumericDocValues docValues, LongVector vector) {
+            this.docValues = docValues;
+            this.vector = vector;
+        }
+    }
+}
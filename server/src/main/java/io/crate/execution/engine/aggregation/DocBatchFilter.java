@@ -0,0 +1,64 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import java.io.IOException;
+
+/**
+ * A filter which is evaluated on the column vectors of a {@link DocBatch}.
+ */
+@FunctionalInterface
+public interface DocBatchFilter {
+
+    /**
+     * Narrows down a selection vector to the documents matching the filter.
+     * The positions of the matching documents are moved to the front of {@code selection}, retaining their order.
+     *
+     * @param numSelected the number of valid entries in {@code selection}
+     * @return the number of selected documents matching the filter
+     */
+    int select(DocBatch batch, int[] selection, int numSelected) throws IOException;
+
+    static DocBatchFilter and(DocBatchFilter first, DocBatchFilter second) {
+        return (batch, selection, numSelected) -> second.select(batch, selection, first.select(batch, selection, numSelected));
+    }
+
+    /**
+     * Matches documents with a value of the numeric column between {@code from} and {@code to}, both inclusive.
+     * Documents without a value never match, like a comparison with null.
+     */
+    static DocBatchFilter between(String column, long from, long to) {
+        return (batch, selection, numSelected) -> {
+            LongVector values = batch.longValues(column);
+            int numMatches = 0;
+            for (int i = 0; i < numSelected; i++) {
+                int position = selection[i];
+                long value = values.get(position);
+                if (!values.isNull(position) && value >= from && value <= to) {
+                    selection[numMatches++] = position;
+                }
+            }
+            return numMatches;
+        };
+    }
+}
@@ -36,6 +36,20 @@ public interface DocValueAggregator<T> {
 
     public void apply(T state, int doc) throws IOException;
 
+    /**
+     * Applies the selected documents of a batch to the state, with the same result as applying them one by one.
+     * Implementations can override this to aggregate the column vectors of the batch
+     * ({@link DocBatch#longValues(String)}) within a single loop, keeping the state in local variables.
+     *
+     * @param selection the positions of the selected documents within the batch, in ascending order
+     * @param numSelected the number of valid entries in {@code selection}
+     */
+    public default void apply(T state, DocBatch batch, int[] selection, int numSelected) throws IOException {
+        for (int i = 0; i < numSelected; i++) {
+            apply(state, batch.doc(selection[i]));
+        }
+    }
+
     // Aggregations are executed on shard level,
     // that means there is always a final reduce step necessary
     // → never return final value, but always partial result
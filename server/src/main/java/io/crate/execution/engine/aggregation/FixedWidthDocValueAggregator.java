@@ -0,0 +1,50 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import java.io.IOException;
+
+import javax.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * A {@link DocValueAggregator} whose state has a fixed size.
+ * <p>
+ * Instead of creating a state object per group, the states of these aggregators can be stored next to each other
+ * within a {@link ByteBuf} allocated via a {@link io.crate.memory.MemoryManager} and addressed by their offset.
+ */
+public interface FixedWidthDocValueAggregator<T> extends DocValueAggregator<T> {
+
+    /**
+     * @return the number of bytes required to store the state
+     */
+    public int stateSize();
+
+    public void initialState(ByteBuf buffer, int offset);
+
+    public void apply(ByteBuf buffer, int offset, int doc) throws IOException;
+
+    @Nullable
+    public Object partialResult(ByteBuf buffer, int offset);
+}
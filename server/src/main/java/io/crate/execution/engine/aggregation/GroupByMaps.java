@@ -39,6 +39,7 @@ import org.apache.lucene.util.RamUsageEstimator;
 
 import javax.annotation.Nullable;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
@@ -69,6 +70,32 @@ public final class GroupByMaps {
         }
     }
 
+    /**
+     * Like {@link #accountForNewEntry(RamAccounting, SizeEstimator, DataType)} but for keys consisting of
+     * multiple columns. If the map is a {@link PrimitiveMultiKeyMap}, the accounted bytes match its allocations.
+     */
+    @SuppressWarnings("rawtypes")
+    public static BiConsumer<Map<List<Object>, Object[]>, List<Object>> accountForNewEntry(
+            RamAccounting ramAccounting,
+            SizeEstimator<List<Object>> sizeEstimator,
+            List<? extends DataType> keyTypes) {
+        if (PrimitiveMultiKeyMap.supports(keyTypes)) {
+            return (map, key) -> {
+                PrimitiveMultiKeyMap primitiveMap = (PrimitiveMultiKeyMap) map;
+                ramAccounting.addBytes(primitiveMap.bytesRequiredToAdd(key));
+            };
+        }
+        return accountForNewEntry(ramAccounting, sizeEstimator, null);
+    }
+
+    @SuppressWarnings("rawtypes")
+    public static Supplier<Map<List<Object>, Object[]>> mapForTypes(List<? extends DataType> keyTypes) {
+        if (PrimitiveMultiKeyMap.supports(keyTypes)) {
+            return () -> new PrimitiveMultiKeyMap(keyTypes);
+        }
+        return HashMap::new;
+    }
+
     public static <K, V> Supplier<Map<K, V>> mapForType(DataType<K> type) {
         switch (type.id()) {
             case ByteType.ID:
@@ -23,23 +23,35 @@
 package io.crate.execution.engine.aggregation;
 
 import com.google.common.collect.Iterables;
+import io.crate.Streamer;
 import io.crate.breaker.RamAccounting;
 import io.crate.breaker.SizeEstimator;
 import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.common.io.IOUtils;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.SpillFiles;
+import io.crate.execution.engine.spill.SpillableRamAccounting;
+import io.crate.execution.engine.spill.Spilling;
 import io.crate.expression.InputCondition;
 import io.crate.expression.symbol.AggregateMode;
 import io.crate.memory.MemoryManager;
 import io.crate.types.DataType;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
 
 import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -52,17 +64,23 @@ import java.util.stream.Collector;
 /**
  * Collector implementation which uses {@link AggregateMode}s and {@code keyInputs}
  * to group rows by key and aggregate the grouped values.
+ * <p>
+ * If adding a new group trips the circuit breaker, all groups held in memory are spilled to temporary files,
+ * partitioned by the hash of their key (see {@link SpilledGroups}). Once the source is consumed the partitions are
+ * re-aggregated one at a time, so only the groups of a single partition need to fit into memory. A partition which
+ * still doesn't fit is spilled again into sub-partitions. Spilling is disabled if no {@code spillPath} is given.
+ * A collector instance must only be used for a single collect run and must be closed afterwards.
  *
  * @param <K> type of the key
  */
-public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, Iterable<Row>> {
+public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, Iterable<Row>>, Closeable {
 
     private final CollectExpression<Row, ?>[] expressions;
     private final AggregationFunction[] aggregations;
     private final AggregateMode mode;
     private final Input[][] inputs;
     private final Input<Boolean>[] filters;
-    private final RamAccounting ramAccounting;
+    private final SpillableRamAccounting ramAccounting;
     private final MemoryManager memoryManager;
     private final BiConsumer<K, Object[]> applyKeyToCells;
     private final int numKeyColumns;
@@ -72,6 +90,18 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
     private final BiConsumer<Map<K, Object[]>, Row> accumulator;
     private final Supplier<Map<K, Object[]>> supplier;
     private final Version minNodeVersion;
+    private final Streamer<K> keyStreamer;
+    private final Streamer<Object>[] stateStreamers;
+    private final List<SpilledGroups<K>> nestedSpilledGroups = new ArrayList<>();
+
+    @Nullable
+    private final Path spillPath;
+
+    @Nullable
+    private SpillFiles spillFiles;
+
+    @Nullable
+    private SpilledGroups<K> spilledGroups;
 
     static GroupingCollector<Object> singleKey(CollectExpression<Row, ?>[] expressions,
                                                AggregateMode mode,
@@ -83,26 +113,30 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                                                Version minNodeVersion,
                                                Input<?> keyInput,
                                                DataType keyType,
-                                               Version indexVersionCreated) {
+                                               Version indexVersionCreated,
+                                               @Nullable Path spillPath) {
+        SpillableRamAccounting spillableRamAccounting = new SpillableRamAccounting(ramAccounting);
         return new GroupingCollector<>(
             expressions,
             aggregations,
             mode,
             inputs,
             filters,
-            ramAccounting,
+            spillableRamAccounting,
             memoryManager,
             minNodeVersion,
             (key, cells) -> cells[0] = key,
             1,
             GroupByMaps.accountForNewEntry(
-                ramAccounting,
+                spillableRamAccounting,
                 SizeEstimatorFactory.create(keyType),
                 keyType
             ),
             row -> keyInput.value(),
             indexVersionCreated,
-            GroupByMaps.mapForType(keyType)
+            GroupByMaps.mapForType(keyType),
+            keyType.streamer(),
+            spillPath
         );
     }
 
@@ -116,29 +150,49 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                                                     Version minNodeVersion,
                                                     List<Input<?>> keyInputs,
                                                     List<? extends DataType> keyTypes,
-                                                    Version indexVersionCreated) {
+                                                    Version indexVersionCreated,
+                                                    @Nullable Path spillPath) {
+        SpillableRamAccounting spillableRamAccounting = new SpillableRamAccounting(ramAccountingContext);
         return new GroupingCollector<>(
             expressions,
             aggregations,
             mode,
             inputs,
             filters,
-            ramAccountingContext,
+            spillableRamAccounting,
             memoryManager,
             minNodeVersion,
             GroupingCollector::applyKeysToCells,
             keyInputs.size(),
             GroupByMaps.accountForNewEntry(
-                ramAccountingContext,
+                spillableRamAccounting,
                 new MultiSizeEstimator(keyTypes),
-                null
+                keyTypes
             ),
-            row -> evalKeyInputs(keyInputs),
+            keyExtractor(keyInputs, keyTypes),
             indexVersionCreated,
-            HashMap::new
+            GroupByMaps.mapForTypes(keyTypes),
+            new MultiKeyStreamer(keyTypes),
+            spillPath
         );
     }
 
+    private static Function<Row, List<Object>> keyExtractor(List<Input<?>> keyInputs,
+                                                            List<? extends DataType> keyTypes) {
+        if (PrimitiveMultiKeyMap.supports(keyTypes)) {
+            // PrimitiveMultiKeyMap doesn't retain the keys, so the same instance can be used for all rows
+            Object[] keyValues = new Object[keyInputs.size()];
+            List<Object> key = Arrays.asList(keyValues);
+            return row -> {
+                for (int i = 0; i < keyValues.length; i++) {
+                    keyValues[i] = keyInputs.get(i).value();
+                }
+                return key;
+            };
+        }
+        return row -> evalKeyInputs(keyInputs);
+    }
+
     private static List<Object> evalKeyInputs(List<Input<?>> keyInputs) {
         List<Object> key = new ArrayList<>(keyInputs.size());
         for (Input<?> keyInput : keyInputs) {
@@ -158,7 +212,7 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                               AggregateMode mode,
                               Input[][] inputs,
                               Input<Boolean>[] filters,
-                              RamAccounting ramAccounting,
+                              SpillableRamAccounting ramAccounting,
                               MemoryManager memoryManager,
                               Version minNodeVersion,
                               BiConsumer<K, Object[]> applyKeyToCells,
@@ -166,7 +220,9 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                               BiConsumer<Map<K, Object[]>, K> accountForNewEntry,
                               Function<Row, K> keyExtractor,
                               Version indexVersionCreated,
-                              Supplier<Map<K, Object[]>> supplier) {
+                              Supplier<Map<K, Object[]>> supplier,
+                              Streamer<K> keyStreamer,
+                              @Nullable Path spillPath) {
         this.expressions = expressions;
         this.aggregations = aggregations;
         this.mode = mode;
@@ -182,6 +238,14 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         this.accumulator = mode == AggregateMode.PARTIAL_FINAL ? this::reduce : this::iter;
         this.supplier = supplier;
         this.minNodeVersion = minNodeVersion;
+        this.keyStreamer = keyStreamer;
+        this.spillPath = spillPath;
+        //noinspection unchecked
+        this.stateStreamers = new Streamer[aggregations.length];
+        for (int i = 0; i < aggregations.length; i++) {
+            //noinspection unchecked
+            stateStreamers[i] = (Streamer<Object>) aggregations[i].partialType().streamer();
+        }
     }
 
     @Override
@@ -203,7 +267,7 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
 
     @Override
     public Function<Map<K, Object[]>, Iterable<Row>> finisher() {
-        return this::mapToRows;
+        return this::finish;
     }
 
     @Override
@@ -222,7 +286,12 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
             for (int i = 0; i < aggregations.length; i++) {
                 states[i] = inputs[i][0].value();
             }
-            addWithAccounting(statesByKey, key, states);
+            try {
+                addWithAccounting(statesByKey, key, states);
+            } catch (CircuitBreakingException e) {
+                spillOrRethrow(statesByKey, e);
+                addWithAccounting(statesByKey, key, states);
+            }
         } else {
             for (int i = 0; i < aggregations.length; i++) {
                 states[i] = aggregations[i].reduce(ramAccounting, states[i], inputs[i][0].value());
@@ -254,8 +323,16 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
     }
 
     private void addNewEntry(Map<K, Object[]> statesByKey, K key) {
-        Object[] states;
-        states = new Object[aggregations.length];
+        try {
+            addWithAccounting(statesByKey, key, newStates());
+        } catch (CircuitBreakingException e) {
+            spillOrRethrow(statesByKey, e);
+            addWithAccounting(statesByKey, key, newStates());
+        }
+    }
+
+    private Object[] newStates() {
+        Object[] states = new Object[aggregations.length];
         for (int i = 0; i < aggregations.length; i++) {
             AggregationFunction aggregation = aggregations[i];
 
@@ -267,7 +344,132 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                 states[i] = newState;
             }
         }
-        addWithAccounting(statesByKey, key, states);
+        return states;
+    }
+
+    /**
+     * Moves all groups held in memory to the partition files, giving back the memory accounted for them.
+     * Re-throws the {@link CircuitBreakingException} if spilling is disabled or there is nothing to spill.
+     */
+    private void spillOrRethrow(Map<K, Object[]> statesByKey, CircuitBreakingException e) {
+        Spilling.spillOrRethrow(e, spillPath, statesByKey.isEmpty() == false, ramAccounting, () -> {
+            if (spilledGroups == null) {
+                spilledGroups = newSpilledGroups(0);
+            }
+            spilledGroups.spill(statesByKey);
+            statesByKey.clear();
+        });
+    }
+
+    private SpilledGroups<K> newSpilledGroups(int level) throws IOException {
+        assert spillPath != null : "spillPath must not be null if spilling is enabled";
+        if (spillFiles == null) {
+            spillFiles = SpillFiles.create(spillPath, "crate-group-by-");
+        }
+        return new SpilledGroups<>(spillFiles, level, keyStreamer, stateStreamers);
+    }
+
+    private Iterable<Row> finish(Map<K, Object[]> statesByKey) {
+        if (spilledGroups == null) {
+            return mapToRows(statesByKey);
+        }
+        try {
+            spilledGroups.spill(statesByKey);
+            spilledGroups.finishSpilling();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        statesByKey.clear();
+        ramAccounting.releaseAccountedBytes();
+        return partitionsToRows(spilledGroups);
+    }
+
+    private Iterable<Row> partitionsToRows(SpilledGroups<K> groups) {
+        List<Iterable<Row>> partitions = new ArrayList<>(SpilledGroups.NUM_PARTITIONS);
+        for (int i = 0; i < SpilledGroups.NUM_PARTITIONS; i++) {
+            int partition = i;
+            partitions.add(() -> loadPartition(groups, partition).iterator());
+        }
+        return Iterables.concat(partitions);
+    }
+
+    private Iterable<Row> loadPartition(SpilledGroups<K> groups, int partition) {
+        // The groups of the previously loaded partition are no longer referenced once the next one is requested
+        ramAccounting.releaseAccountedBytes();
+        PartitionLoader loader = new PartitionLoader(groups.level());
+        try {
+            groups.readPartition(partition, loader);
+            if (loader.subPartitions == null) {
+                return mapToRows(loader.statesByKey);
+            }
+            loader.subPartitions.finishSpilling();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return partitionsToRows(loader.subPartitions);
+    }
+
+    /**
+     * Re-aggregates the groups of a spilled partition. If the breaker trips, the groups are spilled again into
+     * sub-partitions, unless there are no further hash bits left to partition by.
+     */
+    private final class PartitionLoader implements SpilledGroups.EntryConsumer<K> {
+
+        private final int level;
+        private final Map<K, Object[]> statesByKey = supplier.get();
+
+        @Nullable
+        private SpilledGroups<K> subPartitions;
+
+        PartitionLoader(int level) {
+            this.level = level;
+        }
+
+        @Override
+        public void accept(K key, Object[] states) throws IOException {
+            if (subPartitions != null) {
+                subPartitions.spill(key, states);
+                return;
+            }
+            Object[] existingStates = statesByKey.get(key);
+            if (existingStates == null) {
+                try {
+                    addWithAccounting(statesByKey, key, states.clone());
+                } catch (CircuitBreakingException e) {
+                    if (level == SpilledGroups.MAX_LEVEL || statesByKey.isEmpty()) {
+                        throw e;
+                    }
+                    subPartitions = newSpilledGroups(level + 1);
+                    nestedSpilledGroups.add(subPartitions);
+                    subPartitions.spill(statesByKey);
+                    subPartitions.spill(key, states);
+                    statesByKey.clear();
+                    ramAccounting.releaseAccountedBytes();
+                }
+            } else {
+                for (int i = 0; i < aggregations.length; i++) {
+                    //noinspection unchecked
+                    existingStates[i] = aggregations[i].reduce(ramAccounting, existingStates[i], states[i]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            IOUtils.close(nestedSpilledGroups);
+            if (spilledGroups != null) {
+                spilledGroups.close();
+            }
+        } finally {
+            nestedSpilledGroups.clear();
+            spilledGroups = null;
+            if (spillFiles != null) {
+                spillFiles.close();
+                spillFiles = null;
+            }
+        }
     }
 
     private Iterable<Row> mapToRows(Map<K, Object[]> statesByKey) {
@@ -298,6 +500,35 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
     }
 
 
+    private static class MultiKeyStreamer implements Streamer<List<Object>> {
+
+        private final List<Streamer<Object>> subStreamers;
+
+        MultiKeyStreamer(List<? extends DataType> keyTypes) {
+            subStreamers = new ArrayList<>(keyTypes.size());
+            for (DataType keyType : keyTypes) {
+                //noinspection unchecked
+                subStreamers.add(keyType.streamer());
+            }
+        }
+
+        @Override
+        public List<Object> readValueFrom(StreamInput in) throws IOException {
+            List<Object> key = new ArrayList<>(subStreamers.size());
+            for (Streamer<Object> streamer : subStreamers) {
+                key.add(streamer.readValueFrom(in));
+            }
+            return key;
+        }
+
+        @Override
+        public void writeValueTo(StreamOutput out, List<Object> key) throws IOException {
+            for (int i = 0; i < subStreamers.size(); i++) {
+                subStreamers.get(i).writeValueTo(out, key.get(i));
+            }
+        }
+    }
+
     private static class MultiSizeEstimator extends SizeEstimator<List<Object>> {
 
         private final List<SizeEstimator<Object>> subEstimators;
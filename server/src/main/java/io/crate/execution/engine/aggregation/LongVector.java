@@ -0,0 +1,66 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import org.apache.lucene.index.SortedNumericDocValues;
+
+import java.io.IOException;
+
+/**
+ * The numeric doc values of a single column for all documents of a {@link DocBatch}.
+ * <p>
+ * Values are stored as they are encoded in the doc values, e.g. floating point numbers in their sortable long
+ * representation. Documents without a value, or with more than one value, are marked as null.
+ */
+public final class LongVector {
+
+    private final long[] values;
+    private final boolean[] nulls;
+
+    LongVector(int capacity) {
+        this.values = new long[capacity];
+        this.nulls = new boolean[capacity];
+    }
+
+    void load(SortedNumericDocValues docValues, int[] docs, int numDocs) throws IOException {
+        for (int i = 0; i < numDocs; i++) {
+            if (docValues.advanceExact(docs[i]) && docValues.docValueCount() == 1) {
+                values[i] = docValues.nextValue();
+                nulls[i] = false;
+            } else {
+                nulls[i] = true;
+            }
+        }
+    }
+
+    public boolean isNull(int position) {
+        return nulls[position];
+    }
+
+    /**
+     * @return the value at the given position, only valid if {@link #isNull(int)} is false.
+     */
+    public long get(int position) {
+        return values[position];
+    }
+}
@@ -0,0 +1,523 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.IpType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Map from the values of multiple key columns to the aggregation states of a group.
+ * <p>
+ * Instead of storing a {@code List<Object>} with boxed values per group, the keys are stored in an open addressing
+ * hash table with linear probing. Each slot consists of one {@code long} per key column plus a {@code long} with
+ * a bit per column which is set if the value is null:
+ * <ul>
+ *     <li>Fixed width values (integral types, timestamps, booleans, floating point types)
+ *     are encoded into the long</li>
+ *     <li>Strings are stored UTF-8 encoded in a byte arena shared by all groups,
+ *     the long contains their offset and length</li>
+ * </ul>
+ * The hash codes and the states of the groups are stored in arrays parallel to the slots.
+ * <p>
+ * The keys given to {@link #get(Object)} and {@link #put(List, Object[])} are never retained, so callers can re-use
+ * a single key instance. The keys returned by {@link #entrySet()} are created on demand.
+ * Removing single entries is not supported.
+ */
+final class PrimitiveMultiKeyMap extends AbstractMap<List<Object>, Object[]> {
+
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int INITIAL_ARENA_SIZE = 1024;
+
+    private static final long[] EMPTY_KEYS = new long[0];
+    private static final int[] EMPTY_HASHES = new int[0];
+    private static final Object[][] EMPTY_VALUES = new Object[0][];
+    private static final byte[] EMPTY_ARENA = new byte[0];
+
+    private final int[] typeIds;
+    private final boolean[] isString;
+    private final int numKeys;
+    private final int slotWidth;
+    private final long bytesPerSlot;
+
+    private long[] keys = EMPTY_KEYS;
+    private int[] hashes = EMPTY_HASHES;
+    private Object[][] values = EMPTY_VALUES;
+    private int size = 0;
+    private int resizeThreshold = 0;
+
+    private byte[] arena = EMPTY_ARENA;
+    private int arenaSize = 0;
+
+    // Encoded fixed width values and null bits of the key which has been hashed last
+    private final long[] encodedKey;
+    private long encodedNulls;
+    private byte[] scratch = EMPTY_ARENA;
+
+    /**
+     * @return true if group keys consisting of columns of the given types can be stored in this map
+     */
+    static boolean supports(List<? extends DataType> keyTypes) {
+        if (keyTypes.isEmpty() || keyTypes.size() >= Long.SIZE) {
+            return false;
+        }
+        for (DataType<?> keyType : keyTypes) {
+            switch (keyType.id()) {
+                case ByteType.ID:
+                case ShortType.ID:
+                case IntegerType.ID:
+                case LongType.ID:
+                case TimestampType.ID_WITH_TZ:
+                case TimestampType.ID_WITHOUT_TZ:
+                case BooleanType.ID:
+                case FloatType.ID:
+                case DoubleType.ID:
+                case StringType.ID:
+                case IpType.ID:
+                    break;
+
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    PrimitiveMultiKeyMap(List<? extends DataType> keyTypes) {
+        assert supports(keyTypes) : "Key types must be supported: " + keyTypes;
+        this.numKeys = keyTypes.size();
+        this.slotWidth = numKeys + 1;
+        this.bytesPerSlot = slotWidth * (long) Long.BYTES + Integer.BYTES + RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+        this.typeIds = new int[numKeys];
+        this.isString = new boolean[numKeys];
+        for (int i = 0; i < numKeys; i++) {
+            int typeId = keyTypes.get(i).id();
+            typeIds[i] = typeId;
+            isString[i] = typeId == StringType.ID || typeId == IpType.ID;
+        }
+        this.encodedKey = new long[numKeys];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Object[] get(Object key) {
+        if (size == 0 || !(key instanceof List) || ((List<?>) key).size() != numKeys) {
+            return null;
+        }
+        List<?> keyValues = (List<?>) key;
+        int slot = findSlot(keyValues, hash(keyValues));
+        return slot < 0 ? null : values[slot];
+    }
+
+    @Override
+    public Object[] put(List<Object> key, Object[] value) {
+        Objects.requireNonNull(value, "PrimitiveMultiKeyMap doesn't support null values");
+        if (key.size() != numKeys) {
+            throw new IllegalArgumentException("Key must have " + numKeys + " values: " + key);
+        }
+        int hash = hash(key);
+        if (size > 0) {
+            int slot = findSlot(key, hash);
+            if (slot >= 0) {
+                Object[] previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        if (size >= resizeThreshold) {
+            resize();
+        }
+        int slot = emptySlot(hash);
+        int base = slot * slotWidth;
+        for (int i = 0; i < numKeys; i++) {
+            Object keyValue = key.get(i);
+            if (keyValue != null && isString[i]) {
+                keys[base + i] = appendToArena((String) keyValue);
+            } else {
+                keys[base + i] = encodedKey[i];
+            }
+        }
+        keys[base + numKeys] = encodedNulls;
+        hashes[slot] = hash;
+        values[slot] = value;
+        size++;
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        keys = EMPTY_KEYS;
+        hashes = EMPTY_HASHES;
+        values = EMPTY_VALUES;
+        size = 0;
+        resizeThreshold = 0;
+        arena = EMPTY_ARENA;
+        arenaSize = 0;
+        scratch = EMPTY_ARENA;
+    }
+
+    /**
+     * Returns the number of bytes this map is going to allocate if the given key is added.
+     * The key must not be contained in the map.
+     */
+    long bytesRequiredToAdd(List<Object> key) {
+        long bytes = 0;
+        if (size >= resizeThreshold) {
+            int capacity = values.length;
+            int newCapacity = capacity == 0 ? INITIAL_CAPACITY : capacity << 1;
+            bytes += (newCapacity - capacity) * bytesPerSlot;
+        }
+        int stringBytes = 0;
+        for (int i = 0; i < numKeys; i++) {
+            Object keyValue = key.get(i);
+            if (keyValue != null && isString[i]) {
+                stringBytes += utf8Length((String) keyValue);
+            }
+        }
+        if (stringBytes > 0) {
+            int required = arenaSize + stringBytes;
+            if (required > arena.length) {
+                bytes += newArenaLength(required) - arena.length;
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public Set<Entry<List<Object>, Object[]>> entrySet() {
+        return new AbstractSet<>() {
+
+            @Override
+            public Iterator<Entry<List<Object>, Object[]>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int hash(List<?> key) {
+        int hash = 1;
+        long nulls = 0L;
+        for (int i = 0; i < numKeys; i++) {
+            Object keyValue = key.get(i);
+            int valueHash;
+            if (keyValue == null) {
+                nulls |= 1L << i;
+                encodedKey[i] = 0L;
+                valueHash = 0;
+            } else if (isString[i]) {
+                encodedKey[i] = 0L;
+                valueHash = keyValue.hashCode();
+            } else {
+                long encoded = encode(typeIds[i], keyValue);
+                encodedKey[i] = encoded;
+                valueHash = Long.hashCode(encoded);
+            }
+            hash = 31 * hash + valueHash;
+        }
+        encodedNulls = nulls;
+        return mix(hash);
+    }
+
+    /**
+     * Spreads the bits of the hash, as the lower bits are used to select the slot (See MurmurHash3 fmix32)
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * Returns the slot of the key which has been hashed last or a negative value if the key is not contained
+     */
+    private int findSlot(List<?> key, int hash) {
+        int mask = values.length - 1;
+        int slot = hash & mask;
+        while (values[slot] != null) {
+            if (hashes[slot] == hash && keyEquals(slot, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int emptySlot(int hash) {
+        int mask = values.length - 1;
+        int slot = hash & mask;
+        while (values[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean keyEquals(int slot, List<?> key) {
+        int base = slot * slotWidth;
+        if (keys[base + numKeys] != encodedNulls) {
+            return false;
+        }
+        for (int i = 0; i < numKeys; i++) {
+            if ((encodedNulls & (1L << i)) != 0) {
+                continue;
+            }
+            long slotValue = keys[base + i];
+            if (isString[i]) {
+                if (!arenaEquals(slotValue, (String) key.get(i))) {
+                    return false;
+                }
+            } else if (slotValue != encodedKey[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void resize() {
+        int capacity = values.length;
+        int newCapacity = capacity == 0 ? INITIAL_CAPACITY : capacity << 1;
+        long[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        Object[][] oldValues = values;
+        keys = new long[newCapacity * slotWidth];
+        hashes = new int[newCapacity];
+        values = new Object[newCapacity][];
+        resizeThreshold = (int) (newCapacity * LOAD_FACTOR);
+        for (int oldSlot = 0; oldSlot < capacity; oldSlot++) {
+            Object[] value = oldValues[oldSlot];
+            if (value == null) {
+                continue;
+            }
+            int hash = oldHashes[oldSlot];
+            int slot = emptySlot(hash);
+            System.arraycopy(oldKeys, oldSlot * slotWidth, keys, slot * slotWidth, slotWidth);
+            hashes[slot] = hash;
+            values[slot] = value;
+        }
+    }
+
+    private List<Object> decodeKey(int slot) {
+        int base = slot * slotWidth;
+        long nulls = keys[base + numKeys];
+        Object[] key = new Object[numKeys];
+        for (int i = 0; i < numKeys; i++) {
+            if ((nulls & (1L << i)) != 0) {
+                continue;
+            }
+            long slotValue = keys[base + i];
+            if (isString[i]) {
+                key[i] = new String(arena, arenaOffset(slotValue), arenaLength(slotValue), StandardCharsets.UTF_8);
+            } else {
+                key[i] = decode(typeIds[i], slotValue);
+            }
+        }
+        return Arrays.asList(key);
+    }
+
+    private static long encode(int typeId, Object value) {
+        switch (typeId) {
+            case BooleanType.ID:
+                return ((Boolean) value) ? 1L : 0L;
+            case FloatType.ID:
+                return Float.floatToIntBits(((Number) value).floatValue());
+            case DoubleType.ID:
+                return Double.doubleToLongBits(((Number) value).doubleValue());
+            default:
+                return ((Number) value).longValue();
+        }
+    }
+
+    private static Object decode(int typeId, long value) {
+        switch (typeId) {
+            case ByteType.ID:
+                return (byte) value;
+            case ShortType.ID:
+                return (short) value;
+            case IntegerType.ID:
+                return (int) value;
+            case BooleanType.ID:
+                return value == 1L;
+            case FloatType.ID:
+                return Float.intBitsToFloat((int) value);
+            case DoubleType.ID:
+                return Double.longBitsToDouble(value);
+            default:
+                return value;
+        }
+    }
+
+    private static int arenaOffset(long slotValue) {
+        return (int) (slotValue >>> 32);
+    }
+
+    private static int arenaLength(long slotValue) {
+        return (int) slotValue;
+    }
+
+    private long appendToArena(String value) {
+        int length = encodeToScratch(value);
+        int required = arenaSize + length;
+        if (required > arena.length) {
+            arena = Arrays.copyOf(arena, newArenaLength(required));
+        }
+        System.arraycopy(scratch, 0, arena, arenaSize, length);
+        long slotValue = ((long) arenaSize << 32) | length;
+        arenaSize = required;
+        return slotValue;
+    }
+
+    private int newArenaLength(int required) {
+        if (required < 0) {
+            throw new IllegalStateException("Cannot store more than 2GB of string keys");
+        }
+        long length = Math.max(arena.length, INITIAL_ARENA_SIZE);
+        while (length < required) {
+            length <<= 1;
+        }
+        return (int) Math.min(length, Integer.MAX_VALUE - 8);
+    }
+
+    private boolean arenaEquals(long slotValue, String value) {
+        int offset = arenaOffset(slotValue);
+        int length = arenaLength(slotValue);
+        int end = offset + length;
+        int pos = offset;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                int encodedLength = encodeToScratch(value);
+                return Arrays.equals(arena, offset, end, scratch, 0, encodedLength);
+            }
+            if (pos == end || arena[pos] != (byte) c) {
+                return false;
+            }
+            pos++;
+        }
+        return pos == end;
+    }
+
+    /**
+     * Encodes the value as UTF-8 into {@link #scratch}
+     *
+     * @return the number of bytes written
+     */
+    private int encodeToScratch(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (scratch.length < bytes.length) {
+            scratch = new byte[Math.max(bytes.length, scratch.length << 1)];
+        }
+        System.arraycopy(bytes, 0, scratch, 0, bytes.length);
+        return bytes.length;
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)
+                       && i + 1 < value.length()
+                       && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<List<Object>, Object[]>> {
+
+        private int slot = nextSlot(0);
+
+        private int nextSlot(int from) {
+            for (int i = from; i < values.length; i++) {
+                if (values[i] != null) {
+                    return i;
+                }
+            }
+            return values.length;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < values.length;
+        }
+
+        @Override
+        public Map.Entry<List<Object>, Object[]> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<List<Object>, Object[]> entry = new SimpleImmutableEntry<>(decodeKey(slot), values[slot]);
+            slot = nextSlot(slot + 1);
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import io.crate.Streamer;
+import io.crate.common.io.IOUtils;
+import io.crate.execution.engine.spill.SpillFiles;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Partitioned on-disk storage for the groups of a {@link GroupingCollector}.
+ * <p>
+ * Groups are assigned to a partition by the hash of their key. A key is therefore always spilled to the same
+ * partition, which allows to re-aggregate each partition on its own with only a fraction of the memory that the
+ * whole set of groups would require.
+ * <p>
+ * If a single partition still doesn't fit into memory, its groups can be spilled again into {@link SpilledGroups}
+ * of the next {@code level}, which use a different part of the hash to assign the partitions.
+ * <p>
+ * Each entry is written as the key followed by the partial states of the aggregations.
+ */
+final class SpilledGroups<K> implements Closeable {
+
+    private static final int PARTITION_BITS = 5;
+    static final int NUM_PARTITIONS = 1 << PARTITION_BITS;
+
+    /**
+     * Each level uses {@link #PARTITION_BITS} other bits of the hash, no further partitioning is possible afterwards
+     */
+    static final int MAX_LEVEL = Integer.SIZE / PARTITION_BITS - 1;
+
+    private final SpillFiles spillFiles;
+    private final int level;
+    private final Streamer<K> keyStreamer;
+    private final Streamer<Object>[] stateStreamers;
+    private final Path[] files = new Path[NUM_PARTITIONS];
+    private final StreamOutput[] outputs = new StreamOutput[NUM_PARTITIONS];
+    private final long[] numEntries = new long[NUM_PARTITIONS];
+
+    SpilledGroups(SpillFiles spillFiles, int level, Streamer<K> keyStreamer, Streamer<Object>[] stateStreamers) {
+        assert level >= 0 && level <= MAX_LEVEL : "level must be between 0 and " + MAX_LEVEL;
+        this.spillFiles = spillFiles;
+        this.level = level;
+        this.keyStreamer = keyStreamer;
+        this.stateStreamers = stateStreamers;
+    }
+
+    int level() {
+        return level;
+    }
+
+    void spill(Map<K, Object[]> statesByKey) throws IOException {
+        for (Map.Entry<K, Object[]> entry : statesByKey.entrySet()) {
+            spill(entry.getKey(), entry.getValue());
+        }
+    }
+
+    void spill(K key, Object[] states) throws IOException {
+        int partition = partition(key, level);
+        StreamOutput out = output(partition);
+        keyStreamer.writeValueTo(out, key);
+        for (int i = 0; i < states.length; i++) {
+            stateStreamers[i].writeValueTo(out, states[i]);
+        }
+        numEntries[partition]++;
+    }
+
+    /**
+     * Flushes and closes all partition files. No further {@link #spill(Map)} calls are allowed afterwards.
+     */
+    void finishSpilling() throws IOException {
+        for (int i = 0; i < outputs.length; i++) {
+            StreamOutput out = outputs[i];
+            if (out != null) {
+                out.close();
+                outputs[i] = null;
+            }
+        }
+    }
+
+    interface EntryConsumer<K> {
+
+        void accept(K key, Object[] states) throws IOException;
+    }
+
+    /**
+     * Reads all entries of a partition. A key can occur multiple times if it has been spilled more than once.
+     * The states array passed to the consumer is re-used between calls.
+     */
+    void readPartition(int partition, EntryConsumer<K> consumer) throws IOException {
+        assert outputs[partition] == null : "finishSpilling must be called before reading a partition";
+        long numEntriesInPartition = numEntries[partition];
+        if (numEntriesInPartition == 0) {
+            return;
+        }
+        Object[] states = new Object[stateStreamers.length];
+        try (StreamInput in = SpillFiles.newInput(files[partition])) {
+            for (long e = 0; e < numEntriesInPartition; e++) {
+                K key = keyStreamer.readValueFrom(in);
+                for (int i = 0; i < states.length; i++) {
+                    states[i] = stateStreamers[i].readValueFrom(in);
+                }
+                consumer.accept(key, states);
+            }
+        }
+    }
+
+    private StreamOutput output(int partition) throws IOException {
+        StreamOutput out = outputs[partition];
+        if (out == null) {
+            assert files[partition] == null : "Must not spill after finishSpilling has been called";
+            Path file = spillFiles.newFile();
+            files[partition] = file;
+            out = SpillFiles.newOutput(file);
+            outputs[partition] = out;
+        }
+        return out;
+    }
+
+    private static int partition(Object key, int level) {
+        int h = Objects.hashCode(key);
+        // Spread the higher bits, the hash maps holding the groups use the lower bits
+        h ^= (h >>> 16) ^ (h >>> 24);
+        return (h >>> (level * PARTITION_BITS)) & (NUM_PARTITIONS - 1);
+    }
+
+    /**
+     * Closes the partition files and deletes them. The {@link SpillFiles} are owned by the caller.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finishSpilling();
+        } finally {
+            for (Path file : files) {
+                if (file != null) {
+                    IOUtils.deleteFilesIgnoringExceptions(file);
+                }
+            }
+        }
+    }
+}
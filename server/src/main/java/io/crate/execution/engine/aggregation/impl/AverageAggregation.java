@@ -26,7 +26,10 @@ import io.crate.breaker.RamAccounting;
 import io.crate.common.collections.Lists2;
 import io.crate.data.Input;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocBatch;
 import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.aggregation.FixedWidthDocValueAggregator;
+import io.crate.execution.engine.aggregation.LongVector;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.functions.Signature;
 import io.crate.types.DataType;
@@ -37,6 +40,7 @@ import io.crate.types.FloatType;
 import io.crate.types.IntegerType;
 import io.crate.types.LongType;
 import io.crate.types.ShortType;
+import io.netty.buffer.ByteBuf;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.SortedNumericDocValues;
@@ -272,7 +276,7 @@ public class AverageAggregation extends AggregationFunction<AverageAggregation.A
         }
     }
 
-    static class AvgLong implements DocValueAggregator<AverageAggregation.AverageState> {
+    static class AvgLong implements FixedWidthDocValueAggregator<AverageAggregation.AverageState> {
 
         private final String columnName;
         private SortedNumericDocValues values;
@@ -300,14 +304,58 @@ public class AverageAggregation extends AggregationFunction<AverageAggregation.A
             }
         }
 
+        @Override
+        public void apply(AverageAggregation.AverageState state, DocBatch batch, int[] selection, int numSelected) throws IOException {
+            LongVector vector = batch.longValues(columnName);
+            double sum = state.sum;
+            long count = state.count;
+            for (int i = 0; i < numSelected; i++) {
+                int position = selection[i];
+                if (!vector.isNull(position)) {
+                    count++;
+                    sum += vector.get(position);
+                }
+            }
+            state.sum = sum;
+            state.count = count;
+        }
+
         @Override
         public Object partialResult(AverageAggregation.AverageState state) {
             return state;
         }
+
+        @Override
+        public int stateSize() {
+            // sum + count
+            return Double.BYTES + Long.BYTES;
+        }
+
+        @Override
+        public void initialState(ByteBuf buffer, int offset) {
+            buffer.setDouble(offset, 0.0);
+            buffer.setLong(offset + Double.BYTES, 0L);
+        }
+
+        @Override
+        public void apply(ByteBuf buffer, int offset, int doc) throws IOException {
+            if (values.advanceExact(doc) && values.docValueCount() == 1) {
+                buffer.setLong(offset + Double.BYTES, buffer.getLong(offset + Double.BYTES) + 1);
+                buffer.setDouble(offset, buffer.getDouble(offset) + values.nextValue());
+            }
+        }
+
+        @Override
+        public Object partialResult(ByteBuf buffer, int offset) {
+            AverageState state = new AverageState();
+            state.sum = buffer.getDouble(offset);
+            state.count = buffer.getLong(offset + Double.BYTES);
+            return state;
+        }
     }
 
 
-    static class AvgDouble implements DocValueAggregator<AverageAggregation.AverageState> {
+    static class AvgDouble implements FixedWidthDocValueAggregator<AverageAggregation.AverageState> {
 
         private final String columnName;
         private SortedNumericDocValues values;
@@ -334,9 +382,54 @@ public class AverageAggregation extends AggregationFunction<AverageAggregation.A
             }
         }
 
+        @Override
+        public void apply(AverageAggregation.AverageState state, DocBatch batch, int[] selection, int numSelected) throws IOException {
+            LongVector vector = batch.longValues(columnName);
+            double sum = state.sum;
+            long count = state.count;
+            for (int i = 0; i < numSelected; i++) {
+                int position = selection[i];
+                if (!vector.isNull(position)) {
+                    count++;
+                    sum += NumericUtils.sortableLongToDouble(vector.get(position));
+                }
+            }
+            state.sum = sum;
+            state.count = count;
+        }
+
         @Override
         public Object partialResult(AverageAggregation.AverageState state) {
             return state;
         }
+
+        @Override
+        public int stateSize() {
+            // sum + count
+            return Double.BYTES + Long.BYTES;
+        }
+
+        @Override
+        public void initialState(ByteBuf buffer, int offset) {
+            buffer.setDouble(offset, 0.0);
+            buffer.setLong(offset + Double.BYTES, 0L);
+        }
+
+        @Override
+        public void apply(ByteBuf buffer, int offset, int doc) throws IOException {
+            if (values.advanceExact(doc) && values.docValueCount() == 1) {
+                double value = NumericUtils.sortableLongToDouble(values.nextValue());
+                buffer.setLong(offset + Double.BYTES, buffer.getLong(offset + Double.BYTES) + 1);
+                buffer.setDouble(offset, buffer.getDouble(offset) + value);
+            }
+        }
+
+        @Override
+        public Object partialResult(ByteBuf buffer, int offset) {
+            AverageState state = new AverageState();
+            state.sum = buffer.getDouble(offset);
+            state.count = buffer.getLong(offset + Double.BYTES);
+            return state;
+        }
     }
 }
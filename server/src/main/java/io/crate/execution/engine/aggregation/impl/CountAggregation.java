@@ -25,18 +25,38 @@ import io.crate.Streamer;
 import io.crate.breaker.RamAccounting;
 import io.crate.data.Input;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocBatch;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.aggregation.FixedWidthDocValueAggregator;
+import io.crate.execution.engine.aggregation.LongVector;
 import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.functions.Signature;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
 import io.crate.types.FixedWidthType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.IpType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+import io.netty.buffer.ByteBuf;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.index.mapper.MappedFieldType;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
@@ -150,6 +170,211 @@ public class CountAggregation extends AggregationFunction<CountAggregation.LongS
         return state.value;
     }
 
+    @Nullable
+    @Override
+    public DocValueAggregator<?> getDocValueAggregator(List<DataType<?>> argumentTypes, List<MappedFieldType> fieldTypes) {
+        if (!hasArgs) {
+            return new CountAll();
+        }
+        switch (argumentTypes.get(0).id()) {
+            case ByteType.ID:
+            case ShortType.ID:
+            case IntegerType.ID:
+            case LongType.ID:
+            case TimestampType.ID_WITH_TZ:
+            case TimestampType.ID_WITHOUT_TZ:
+            case FloatType.ID:
+            case DoubleType.ID:
+            case BooleanType.ID:
+                return new CountNumeric(fieldTypes.get(0).name());
+
+            case StringType.ID:
+            case IpType.ID:
+                return new CountSortedSet(fieldTypes.get(0).name());
+
+            default:
+                return null;
+        }
+    }
+
+    static class CountAll implements FixedWidthDocValueAggregator<LongState> {
+
+        @Override
+        public LongState initialState() {
+            return new LongState();
+        }
+
+        @Override
+        public void loadDocValues(LeafReader reader) {
+        }
+
+        @Override
+        public void apply(LongState state, int doc) {
+            state.value++;
+        }
+
+        @Override
+        public void apply(LongState state, DocBatch batch, int[] selection, int numSelected) {
+            state.value += numSelected;
+        }
+
+        @Override
+        public Object partialResult(LongState state) {
+            return state;
+        }
+
+        @Override
+        public int stateSize() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void initialState(ByteBuf buffer, int offset) {
+            buffer.setLong(offset, 0L);
+        }
+
+        @Override
+        public void apply(ByteBuf buffer, int offset, int doc) {
+            buffer.setLong(offset, buffer.getLong(offset) + 1);
+        }
+
+        @Override
+        public Object partialResult(ByteBuf buffer, int offset) {
+            return new LongState(buffer.getLong(offset));
+        }
+    }
+
+    static class CountNumeric implements FixedWidthDocValueAggregator<LongState> {
+
+        private final String columnName;
+        private SortedNumericDocValues values;
+
+        CountNumeric(String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        public LongState initialState() {
+            return new LongState();
+        }
+
+        @Override
+        public void loadDocValues(LeafReader reader) throws IOException {
+            values = DocValues.getSortedNumeric(reader, columnName);
+        }
+
+        @Override
+        public void apply(LongState state, int doc) throws IOException {
+            if (values.advanceExact(doc)) {
+                state.value++;
+            }
+        }
+
+        @Override
+        public void apply(LongState state, DocBatch batch, int[] selection, int numSelected) throws IOException {
+            LongVector vector = batch.longValues(columnName);
+            long count = state.value;
+            for (int i = 0; i < numSelected; i++) {
+                if (!vector.isNull(selection[i])) {
+                    count++;
+                }
+            }
+            state.value = count;
+        }
+
+        @Override
+        public Object partialResult(LongState state) {
+            return state;
+        }
+
+        @Override
+        public int stateSize() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void initialState(ByteBuf buffer, int offset) {
+            buffer.setLong(offset, 0L);
+        }
+
+        @Override
+        public void apply(ByteBuf buffer, int offset, int doc) throws IOException {
+            if (values.advanceExact(doc)) {
+                buffer.setLong(offset, buffer.getLong(offset) + 1);
+            }
+        }
+
+        @Override
+        public Object partialResult(ByteBuf buffer, int offset) {
+            return new LongState(buffer.getLong(offset));
+        }
+    }
+
+    static class CountSortedSet implements FixedWidthDocValueAggregator<LongState> {
+
+        private final String columnName;
+        private SortedSetDocValues values;
+
+        CountSortedSet(String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        public LongState initialState() {
+            return new LongState();
+        }
+
+        @Override
+        public void loadDocValues(LeafReader reader) throws IOException {
+            values = DocValues.getSortedSet(reader, columnName);
+        }
+
+        @Override
+        public void apply(LongState state, int doc) throws IOException {
+            if (values.advanceExact(doc)) {
+                state.value++;
+            }
+        }
+
+        @Override
+        public void apply(LongState state, DocBatch batch, int[] selection, int numSelected) throws IOException {
+            long count = state.value;
+            for (int i = 0; i < numSelected; i++) {
+                if (values.advanceExact(batch.doc(selection[i]))) {
+                    count++;
+                }
+            }
+            state.value = count;
+        }
+
+        @Override
+        public Object partialResult(LongState state) {
+            return state;
+        }
+
+        @Override
+        public int stateSize() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void initialState(ByteBuf buffer, int offset) {
+            buffer.setLong(offset, 0L);
+        }
+
+        @Override
+        public void apply(ByteBuf buffer, int offset, int doc) throws IOException {
+            if (values.advanceExact(doc)) {
+                buffer.setLong(offset, buffer.getLong(offset) + 1);
+            }
+        }
+
+        @Override
+        public Object partialResult(ByteBuf buffer, int offset) {
+            return new LongState(buffer.getLong(offset));
+        }
+    }
+
     public static class LongState implements Comparable<CountAggregation.LongState> {
 
         long value = 0L;
@@ -29,6 +29,7 @@ import javax.annotation.Nullable;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.util.NumericUtils;
 import org.elasticsearch.Version;
 import org.elasticsearch.index.mapper.MappedFieldType;
 
@@ -40,7 +41,10 @@ import io.crate.common.MutableLong;
 import io.crate.data.Input;
 import io.crate.exceptions.CircuitBreakingException;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocBatch;
 import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.aggregation.FixedWidthDocValueAggregator;
+import io.crate.execution.engine.aggregation.LongVector;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.functions.Signature;
 import io.crate.types.DataType;
@@ -52,6 +56,7 @@ import io.crate.types.IntegerType;
 import io.crate.types.LongType;
 import io.crate.types.ShortType;
 import io.crate.types.TimestampType;
+import io.netty.buffer.ByteBuf;
 
 public abstract class MinimumAggregation extends AggregationFunction<Comparable, Comparable> {
 
@@ -73,7 +78,7 @@ public abstract class MinimumAggregation extends AggregationFunction<Comparable,
         }
     }
 
-    private static class LongMin implements DocValueAggregator<MutableLong> {
+    private static class LongMin implements FixedWidthDocValueAggregator<MutableLong> {
 
         private final String columnName;
         private final DataType<?> partialType;
@@ -98,12 +103,32 @@ public abstract class MinimumAggregation extends AggregationFunction<Comparable,
         public void apply(MutableLong state, int doc) throws IOException {
             if (values.advanceExact(doc) && values.docValueCount() == 1) {
                 long value = values.nextValue();
-                if (value < state.value()) {
+                if (!state.hasValue() || value < state.value()) {
                     state.setValue(value);
                 }
             }
         }
 
+        @Override
+        public void apply(MutableLong state, DocBatch batch, int[] selection, int numSelected) throws IOException {
+            LongVector vector = batch.longValues(columnName);
+            boolean hasValue = state.hasValue();
+            long result = state.value();
+            for (int i = 0; i < numSelected; i++) {
+                int position = selection[i];
+                if (!vector.isNull(position)) {
+                    long value = vector.get(position);
+                    if (!hasValue || value < result) {
+                        result = value;
+                        hasValue = true;
+                    }
+                }
+            }
+            if (hasValue) {
+                state.setValue(result);
+            }
+        }
+
         @Override
         public Object partialResult(MutableLong state) {
             if (state.hasValue()) {
@@ -112,10 +137,42 @@ public abstract class MinimumAggregation extends AggregationFunction<Comparable,
                 return null;
             }
         }
+
+        @Override
+        public int stateSize() {
+            // value + hasValue flag
+            return Long.BYTES + 1;
+        }
+
+        @Override
+        public void initialState(ByteBuf buffer, int offset) {
+            buffer.setLong(offset, 0L);
+            buffer.setBoolean(offset + Long.BYTES, false);
+        }
+
+        @Override
+        public void apply(ByteBuf buffer, int offset, int doc) throws IOException {
+            if (values.advanceExact(doc) && values.docValueCount() == 1) {
+                long value = values.nextValue();
+                if (!buffer.getBoolean(offset + Long.BYTES) || value < buffer.getLong(offset)) {
+                    buffer.setLong(offset, value);
+                    buffer.setBoolean(offset + Long.BYTES, true);
+                }
+            }
+        }
+
+        @Override
+        public Object partialResult(ByteBuf buffer, int offset) {
+            if (buffer.getBoolean(offset + Long.BYTES)) {
+                return partialType.sanitizeValue(buffer.getLong(offset));
+            } else {
+                return null;
+            }
+        }
     }
 
 
-    private static class DoubleMin implements DocValueAggregator<MutableDouble> {
+    private static class DoubleMin implements FixedWidthDocValueAggregator<MutableDouble> {
 
         private final String columnName;
         private final DataType<?> partialType;
@@ -139,13 +196,33 @@ public abstract class MinimumAggregation extends AggregationFunction<Comparable,
         @Override
         public void apply(MutableDouble state, int doc) throws IOException {
             if (values.advanceExact(doc) && values.docValueCount() == 1) {
-                long value = values.nextValue();
-                if (value < state.value()) {
+                double value = NumericUtils.sortableLongToDouble(values.nextValue());
+                if (!state.hasValue() || value < state.value()) {
                     state.setValue(value);
                 }
             }
         }
 
+        @Override
+        public void apply(MutableDouble state, DocBatch batch, int[] selection, int numSelected) throws IOException {
+            LongVector vector = batch.longValues(columnName);
+            boolean hasValue = state.hasValue();
+            double result = state.value();
+            for (int i = 0; i < numSelected; i++) {
+                int position = selection[i];
+                if (!vector.isNull(position)) {
+                    double value = NumericUtils.sortableLongToDouble(vector.get(position));
+                    if (!hasValue || value < result) {
+                        result = value;
+                        hasValue = true;
+                    }
+                }
+            }
+            if (hasValue) {
+                state.setValue(result);
+            }
+        }
+
         @Override
         public Object partialResult(MutableDouble state) {
             if (state.hasValue()) {
@@ -154,6 +231,38 @@ public abstract class MinimumAggregation extends AggregationFunction<Comparable,
                 return null;
             }
         }
+
+        @Override
+        public int stateSize() {
+            // value + hasValue flag
+            return Double.BYTES + 1;
+        }
+
+        @Override
+        public void initialState(ByteBuf buffer, int offset) {
+            buffer.setDouble(offset, 0.0);
+            buffer.setBoolean(offset + Double.BYTES, false);
+        }
+
+        @Override
+        public void apply(ByteBuf buffer, int offset, int doc) throws IOException {
+            if (values.advanceExact(doc) && values.docValueCount() == 1) {
+                double value = NumericUtils.sortableLongToDouble(values.nextValue());
+                if (!buffer.getBoolean(offset + Double.BYTES) || value < buffer.getDouble(offset)) {
+                    buffer.setDouble(offset, value);
+                    buffer.setBoolean(offset + Double.BYTES, true);
+                }
+            }
+        }
+
+        @Override
+        public Object partialResult(ByteBuf buffer, int offset) {
+            if (buffer.getBoolean(offset + Double.BYTES)) {
+                return partialType.sanitizeValue(buffer.getDouble(offset));
+            } else {
+                return null;
+            }
+        }
     }
 
     private static class VariableMinimumAggregation extends MinimumAggregation {
@@ -271,6 +380,11 @@ public abstract class MinimumAggregation extends AggregationFunction<Comparable,
         return boundSignature.getReturnType().createType();
     }
 
+    @Override
+    public AggregationFunction<?, Comparable> optimizeForExecutionAsWindowFunction() {
+        return new RemovableCumulativeMinMax(signature, boundSignature, (a, b) -> a.compareTo(b));
+    }
+
     @Override
     public Comparable terminatePartial(RamAccounting ramAccounting, Comparable state) {
         return state;
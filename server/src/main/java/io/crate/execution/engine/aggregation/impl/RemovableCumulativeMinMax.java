@@ -0,0 +1,169 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation.impl;
+
+import io.crate.breaker.RamAccounting;
+import io.crate.breaker.SizeEstimator;
+import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.data.Input;
+import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.memory.MemoryManager;
+import io.crate.metadata.functions.Signature;
+import io.crate.types.DataType;
+import io.crate.types.UncheckedObjectType;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+
+/**
+ * min/max implementation that is removable cumulative, used to compute min/max over sliding window frames in O(n)
+ * instead of recomputing the aggregation over the whole frame every time the frame start moves.
+ *
+ * The state is a monotonic deque: values are added at the tail after removing all values from the tail that can never
+ * become the result anymore, because the new value is "better" and stays in the frame longer. The head of the deque
+ * is the result for the current frame.
+ *
+ * Values are removed in the order they have been added, so the value to remove is either the head of the deque
+ * or has already been dropped by a later value.
+ *
+ * eg. for min over a frame of 3 rows sliding over {3, 1, 2, 5, 4}:
+ *  add 3, 1, 2  - [1, 2]    - 1
+ *  remove 3     - [1, 2]
+ *  add 5        - [1, 2, 5] - 1
+ *  remove 1     - [2, 5]
+ *  add 4        - [2, 4]    - 2
+ */
+final class RemovableCumulativeMinMax extends AggregationFunction<ArrayDeque<Comparable>, Comparable> {
+
+    // reference in the ArrayDeque array + possible growth of the array
+    private static final long ENTRY_OVERHEAD = 2L * RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+
+    private final Signature signature;
+    private final Signature boundSignature;
+    private final Comparator<Comparable> comparator;
+    private final SizeEstimator<Object> estimator;
+
+    /**
+     * @param comparator orders the values so that the result is the first value; natural order for min,
+     *                   reverse order for max
+     */
+    RemovableCumulativeMinMax(Signature signature, Signature boundSignature, Comparator<Comparable> comparator) {
+        this.signature = signature;
+        this.boundSignature = boundSignature;
+        this.comparator = comparator;
+        this.estimator = SizeEstimatorFactory.create(boundSignature.getReturnType().createType());
+    }
+
+    @Override
+    public Signature signature() {
+        return signature;
+    }
+
+    @Override
+    public Signature boundSignature() {
+        return boundSignature;
+    }
+
+    @Nullable
+    @Override
+    public ArrayDeque<Comparable> newState(RamAccounting ramAccounting,
+                                           Version indexVersionCreated,
+                                           Version minNodeInCluster,
+                                           MemoryManager memoryManager) {
+        // overhead for the ArrayDeque: object header, head/tail and an initial array of 17 elements
+        ramAccounting.addBytes(RamUsageEstimator.alignObjectSize(32L) + RamUsageEstimator.alignObjectSize(16L + 17 * 4L));
+        return new ArrayDeque<>();
+    }
+
+    @Override
+    public ArrayDeque<Comparable> iterate(RamAccounting ramAccounting,
+                                          MemoryManager memoryManager,
+                                          ArrayDeque<Comparable> state,
+                                          Input... args) throws CircuitBreakingException {
+        Comparable value = (Comparable) args[0].value();
+        if (value != null) {
+            addLast(ramAccounting, state, value);
+        }
+        return state;
+    }
+
+    private void addLast(RamAccounting ramAccounting, ArrayDeque<Comparable> state, Comparable value) {
+        Comparable last;
+        while ((last = state.peekLast()) != null && comparator.compare(last, value) > 0) {
+            state.pollLast();
+            ramAccounting.addBytes(-(estimator.estimateSize(last) + ENTRY_OVERHEAD));
+        }
+        ramAccounting.addBytes(estimator.estimateSize(value) + ENTRY_OVERHEAD);
+        state.addLast(value);
+    }
+
+    @Override
+    public boolean isRemovableCumulative() {
+        return true;
+    }
+
+    @Override
+    public ArrayDeque<Comparable> removeFromAggregatedState(RamAccounting ramAccounting,
+                                                            ArrayDeque<Comparable> previousAggState,
+                                                            Input[] stateToRemove) {
+        Comparable value = (Comparable) stateToRemove[0].value();
+        if (value == null) {
+            return previousAggState;
+        }
+        Comparable first = previousAggState.peekFirst();
+        if (first != null && comparator.compare(first, value) == 0) {
+            previousAggState.pollFirst();
+            ramAccounting.addBytes(-(estimator.estimateSize(first) + ENTRY_OVERHEAD));
+        }
+        return previousAggState;
+    }
+
+    /**
+     * Merges the states as if the values of {@code state2} have been added after the values of {@code state1}
+     */
+    @Override
+    public ArrayDeque<Comparable> reduce(RamAccounting ramAccounting,
+                                         ArrayDeque<Comparable> state1,
+                                         ArrayDeque<Comparable> state2) {
+        for (Comparable value : state2) {
+            ramAccounting.addBytes(-(estimator.estimateSize(value) + ENTRY_OVERHEAD));
+            addLast(ramAccounting, state1, value);
+        }
+        return state1;
+    }
+
+    @Nullable
+    @Override
+    public Comparable terminatePartial(RamAccounting ramAccounting, ArrayDeque<Comparable> state) {
+        return state.peekFirst();
+    }
+
+    @Override
+    public DataType<?> partialType() {
+        return UncheckedObjectType.INSTANCE;
+    }
+}
@@ -25,7 +25,10 @@ import io.crate.breaker.RamAccounting;
 import io.crate.common.annotations.VisibleForTesting;
 import io.crate.data.Input;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocBatch;
 import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.aggregation.FixedWidthDocValueAggregator;
+import io.crate.execution.engine.aggregation.LongVector;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.functions.Signature;
 import io.crate.types.DataType;
@@ -35,6 +38,7 @@ import io.crate.types.FloatType;
 import io.crate.types.IntegerType;
 import io.crate.types.LongType;
 import io.crate.types.ShortType;
+import io.netty.buffer.ByteBuf;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.SortedNumericDocValues;
@@ -192,7 +196,7 @@ public class SumAggregation<T extends Number> extends AggregationFunction<T, T>
         private boolean hadValue = false;
     }
 
-    static class SumLong implements DocValueAggregator<SumLongState> {
+    static class SumLong implements FixedWidthDocValueAggregator<SumLongState> {
 
         private final String columnName;
         private SortedNumericDocValues values;
@@ -219,10 +223,51 @@ public class SumAggregation<T extends Number> extends AggregationFunction<T, T>
             }
         }
 
+        @Override
+        public void apply(SumLongState state, DocBatch batch, int[] selection, int numSelected) throws IOException {
+            LongVector vector = batch.longValues(columnName);
+            long sum = state.sum;
+            boolean hadValue = state.hadValue;
+            for (int i = 0; i < numSelected; i++) {
+                int position = selection[i];
+                if (!vector.isNull(position)) {
+                    sum = Math.addExact(sum, vector.get(position));
+                    hadValue = true;
+                }
+            }
+            state.sum = sum;
+            state.hadValue = hadValue;
+        }
+
         @Override
         public Long partialResult(SumLongState state) {
             return state.hadValue ? state.sum : null;
         }
+
+        @Override
+        public int stateSize() {
+            // sum + hadValue flag
+            return Long.BYTES + 1;
+        }
+
+        @Override
+        public void initialState(ByteBuf buffer, int offset) {
+            buffer.setLong(offset, 0L);
+            buffer.setBoolean(offset + Long.BYTES, false);
+        }
+
+        @Override
+        public void apply(ByteBuf buffer, int offset, int doc) throws IOException {
+            if (values.advanceExact(doc) && values.docValueCount() == 1) {
+                buffer.setLong(offset, Math.addExact(buffer.getLong(offset), values.nextValue()));
+                buffer.setBoolean(offset + Long.BYTES, true);
+            }
+        }
+
+        @Override
+        public Long partialResult(ByteBuf buffer, int offset) {
+            return buffer.getBoolean(offset + Long.BYTES) ? buffer.getLong(offset) : null;
+        }
     }
 
     static class SumDoubleState {
@@ -231,7 +276,7 @@ public class SumAggregation<T extends Number> extends AggregationFunction<T, T>
         private boolean hadValue = false;
     }
 
-    static class SumDouble implements DocValueAggregator<SumDoubleState> {
+    static class SumDouble implements FixedWidthDocValueAggregator<SumDoubleState> {
 
         private final String columnName;
         private SortedNumericDocValues values;
@@ -258,9 +303,51 @@ public class SumAggregation<T extends Number> extends AggregationFunction<T, T>
             }
         }
 
+        @Override
+        public void apply(SumDoubleState state, DocBatch batch, int[] selection, int numSelected) throws IOException {
+            LongVector vector = batch.longValues(columnName);
+            double sum = state.sum;
+            boolean hadValue = state.hadValue;
+            for (int i = 0; i < numSelected; i++) {
+                int position = selection[i];
+                if (!vector.isNull(position)) {
+                    sum += NumericUtils.sortableLongToDouble(vector.get(position));
+                    hadValue = true;
+                }
+            }
+            state.sum = sum;
+            state.hadValue = hadValue;
+        }
+
         @Override
         public Object partialResult(SumDoubleState state) {
             return state.hadValue ? state.sum : null;
         }
+
+        @Override
+        public int stateSize() {
+            // sum + hadValue flag
+            return Double.BYTES + 1;
+        }
+
+        @Override
+        public void initialState(ByteBuf buffer, int offset) {
+            buffer.setDouble(offset, 0.0);
+            buffer.setBoolean(offset + Double.BYTES, false);
+        }
+
+        @Override
+        public void apply(ByteBuf buffer, int offset, int doc) throws IOException {
+            if (values.advanceExact(doc) && values.docValueCount() == 1) {
+                double value = NumericUtils.sortableLongToDouble(values.nextValue());
+                buffer.setDouble(offset, buffer.getDouble(offset) + value);
+                buffer.setBoolean(offset + Double.BYTES, true);
+            }
+        }
+
+        @Override
+        public Object partialResult(ByteBuf buffer, int offset) {
+            return buffer.getBoolean(offset + Double.BYTES) ? buffer.getDouble(offset) : null;
+        }
     }
 }
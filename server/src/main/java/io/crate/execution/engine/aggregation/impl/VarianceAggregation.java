@@ -27,6 +27,7 @@ import io.crate.common.collections.Lists2;
 import io.crate.data.Input;
 import io.crate.execution.engine.aggregation.AggregationFunction;
 import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.aggregation.FixedWidthDocValueAggregator;
 import io.crate.execution.engine.aggregation.statistics.Variance;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.functions.Signature;
@@ -39,6 +40,7 @@ import io.crate.types.IntegerType;
 import io.crate.types.LongType;
 import io.crate.types.ShortType;
 import io.crate.types.TimestampType;
+import io.netty.buffer.ByteBuf;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.SortedNumericDocValues;
@@ -233,7 +235,7 @@ public class VarianceAggregation extends AggregationFunction<Variance, Double> {
         }
     }
 
-    private static class LongVariance implements DocValueAggregator<VarianceState> {
+    private static class LongVariance implements FixedWidthDocValueAggregator<VarianceState> {
 
         private final String columnName;
         private SortedNumericDocValues values;
@@ -266,10 +268,33 @@ public class VarianceAggregation extends AggregationFunction<Variance, Double> {
         public Object partialResult(VarianceState state) {
             return state.hadValue ? state.variance : null;
         }
+
+        @Override
+        public int stateSize() {
+            return VARIANCE_STATE_SIZE;
+        }
+
+        @Override
+        public void initialState(ByteBuf buffer, int offset) {
+            initialVarianceState(buffer, offset);
+        }
+
+        @Override
+        public void apply(ByteBuf buffer, int offset, int doc) throws IOException {
+            if (values.advanceExact(doc) && values.docValueCount() == 1) {
+                incrementVarianceState(buffer, offset, values.nextValue());
+            }
+        }
+
+        @Nullable
+        @Override
+        public Object partialResult(ByteBuf buffer, int offset) {
+            return varianceOf(buffer, offset);
+        }
     }
 
 
-    private static class DoubleVariance implements DocValueAggregator<VarianceState> {
+    private static class DoubleVariance implements FixedWidthDocValueAggregator<VarianceState> {
 
         private final String columnName;
         private SortedNumericDocValues values;
@@ -302,10 +327,57 @@ public class VarianceAggregation extends AggregationFunction<Variance, Double> {
         public Object partialResult(VarianceState state) {
             return state.hadValue ? state.variance : null;
         }
+
+        @Override
+        public int stateSize() {
+            return VARIANCE_STATE_SIZE;
+        }
+
+        @Override
+        public void initialState(ByteBuf buffer, int offset) {
+            initialVarianceState(buffer, offset);
+        }
+
+        @Override
+        public void apply(ByteBuf buffer, int offset, int doc) throws IOException {
+            if (values.advanceExact(doc) && values.docValueCount() == 1) {
+                incrementVarianceState(buffer, offset, NumericUtils.sortableLongToDouble(values.nextValue()));
+            }
+        }
+
+        @Nullable
+        @Override
+        public Object partialResult(ByteBuf buffer, int offset) {
+            return varianceOf(buffer, offset);
+        }
     }
 
     static class VarianceState {
         private Variance variance = new Variance();
         private boolean hadValue = false;
     }
+
+    // sumOfSqrs + sum + count
+    private static final int VARIANCE_STATE_SIZE = Double.BYTES + Double.BYTES + Long.BYTES;
+
+    private static void initialVarianceState(ByteBuf buffer, int offset) {
+        buffer.setDouble(offset, 0.0);
+        buffer.setDouble(offset + Double.BYTES, 0.0);
+        buffer.setLong(offset + 2 * Double.BYTES, 0L);
+    }
+
+    private static void incrementVarianceState(ByteBuf buffer, int offset, double value) {
+        buffer.setDouble(offset, buffer.getDouble(offset) + value * value);
+        buffer.setDouble(offset + Double.BYTES, buffer.getDouble(offset + Double.BYTES) + value);
+        buffer.setLong(offset + 2 * Double.BYTES, buffer.getLong(offset + 2 * Double.BYTES) + 1);
+    }
+
+    @Nullable
+    private static Variance varianceOf(ByteBuf buffer, int offset) {
+        long count = buffer.getLong(offset + 2 * Double.BYTES);
+        if (count == 0) {
+            return null;
+        }
+        return new Variance(buffer.getDouble(offset), buffer.getDouble(offset + Double.BYTES), count);
+    }
 }
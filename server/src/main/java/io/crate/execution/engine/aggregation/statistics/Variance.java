@@ -39,6 +39,12 @@ public class Variance implements Writeable, Comparable<Variance> {
         count = 0;
     }
 
+    public Variance(double sumOfSqrs, double sum, long count) {
+        this.sumOfSqrs = sumOfSqrs;
+        this.sum = sum;
+        this.count = count;
+    }
+
     public Variance(StreamInput in) throws IOException {
         sumOfSqrs = in.readDouble();
         sum = in.readDouble();
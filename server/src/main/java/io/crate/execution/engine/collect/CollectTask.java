@@ -41,6 +41,7 @@ import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Locale;
 import java.util.function.Function;
@@ -104,6 +105,13 @@ public class CollectTask extends AbstractTask {
         }
     }
 
+    @Nullable
+    public Engine.Searcher getSearcher(int searcherId) {
+        synchronized (subContextLock) {
+            return searchers.get(searcherId);
+        }
+    }
+
     @Override
     protected void innerClose() {
         totalBytes = ramAccounting.totalBytes();
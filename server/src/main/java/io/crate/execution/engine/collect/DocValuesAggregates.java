@@ -22,6 +22,7 @@
 
 package io.crate.execution.engine.collect;
 
+import io.crate.common.annotations.VisibleForTesting;
 import io.crate.common.collections.Lists2;
 import io.crate.data.BatchIterator;
 import io.crate.data.CollectingBatchIterator;
@@ -33,9 +34,18 @@ import io.crate.execution.dsl.projection.AggregationProjection;
 import io.crate.execution.dsl.projection.Projection;
 import io.crate.execution.dsl.projection.Projections;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocBatch;
+import io.crate.execution.engine.aggregation.DocBatchFilter;
 import io.crate.execution.engine.aggregation.DocValueAggregator;
 import io.crate.execution.jobs.SharedShardContext;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.operator.GteOperator;
+import io.crate.expression.operator.LtOperator;
+import io.crate.expression.operator.LteOperator;
 import io.crate.expression.symbol.Aggregation;
+import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.InputColumn;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
@@ -47,6 +57,11 @@ import io.crate.metadata.Functions;
 import io.crate.metadata.Reference;
 import io.crate.metadata.SearchPath;
 import io.crate.metadata.doc.DocTableInfo;
+import io.crate.types.ByteType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
@@ -68,11 +83,41 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.Function;
 
+/**
+ * Computes global aggregations on a shard directly from the doc values of the aggregated columns.
+ * <p>
+ * The matching documents are collected into a {@link DocBatch}. The doc values of each column are loaded once per
+ * batch into a typed column vector, and the aggregators are applied to the batch with a selection vector
+ * ({@link DocValueAggregator#apply(Object, DocBatch, int[], int)}). Aggregations with a {@code FILTER} clause are
+ * supported if the filter can be evaluated on the column vectors (see {@link #createFilter}), which narrows down the
+ * selection vector before the aggregator is applied.
+ * <p>
+ * This is limited to the doc values scan of global aggregations: the rows produced by other operators, including
+ * the evaluation of scalars, are still processed one at a time.
+ */
 public class DocValuesAggregates {
 
+    /**
+     * Number of matching documents which are collected before they're passed to the aggregators
+     */
+    private static final int DOC_BATCH_SIZE = 1024;
+
+    /**
+     * Types of columns which can be filtered on the {@link io.crate.execution.engine.aggregation.LongVector} of their
+     * doc values, those which are stored as the value itself
+     */
+    private static final Set<Integer> FILTERABLE_TYPES = Set.of(
+        ByteType.ID,
+        ShortType.ID,
+        IntegerType.ID,
+        LongType.ID,
+        TimestampType.ID_WITH_TZ,
+        TimestampType.ID_WITHOUT_TZ
+    );
+
     @Nullable
     public static BatchIterator<Row> tryOptimize(Functions functions,
                                                  IndexShard indexShard,
@@ -86,12 +131,18 @@ public class DocValuesAggregates {
         if (aggregateProjection == null) {
             return null;
         }
+        List<Aggregation> aggregations = aggregateProjection.aggregations();
+        List<DocBatchFilter> filters = createFilters(aggregations, fieldTypeLookup, phase.toCollect());
+        if (filters == null) {
+            return null;
+        }
         var aggregators = createAggregators(
             functions,
-            aggregateProjection,
+            aggregations,
             fieldTypeLookup,
             phase.toCollect(),
-            collectTask.txnCtx().sessionSettings().searchPath()
+            collectTask.txnCtx().sessionSettings().searchPath(),
+            true
         );
         if (aggregators == null) {
             return null;
@@ -122,7 +173,8 @@ public class DocValuesAggregates {
                             killed,
                             searcher,
                             queryContext.query(),
-                            aggregators
+                            aggregators,
+                            filters
                         ));
                     } catch (Throwable t) {
                         return CompletableFuture.failedFuture(t);
@@ -154,24 +206,38 @@ public class DocValuesAggregates {
         return mappedFieldType;
     }
 
+    @Nullable
+    @SuppressWarnings("rawtypes")
+    static List<DocValueAggregator> createAggregators(Functions functions,
+                                                      List<Aggregation> aggregations,
+                                                      FieldTypeLookup fieldTypeLookup,
+                                                      List<Symbol> toCollect,
+                                                      SearchPath searchPath) {
+        return createAggregators(functions, aggregations, fieldTypeLookup, toCollect, searchPath, false);
+    }
+
+    /**
+     * @param filtersSupported true if the caller applies the filters of the aggregations, see {@link #createFilters}.
+     *                         Otherwise aggregations with a filter can't be created.
+     */
     @Nullable
     @SuppressWarnings("rawtypes")
     private static List<DocValueAggregator> createAggregators(Functions functions,
-                                                              AggregationProjection aggregateProjection,
+                                                              List<Aggregation> aggregations,
                                                               FieldTypeLookup fieldTypeLookup,
                                                               List<Symbol> toCollect,
-                                                              SearchPath searchPath) {
-        List<Aggregation> aggregations = aggregateProjection.aggregations();
+                                                              SearchPath searchPath,
+                                                              boolean filtersSupported) {
         ArrayList<DocValueAggregator> aggregator = new ArrayList<>(aggregations.size());
-        Function<Symbol, MappedFieldType> resolveFieldType =
-            symbol -> resolveInputToFieldType(fieldTypeLookup, toCollect, symbol);
-
         for (int i = 0; i < aggregations.size(); i++) {
             Aggregation aggregation = aggregations.get(i);
-            if (!aggregation.filter().equals(Literal.BOOLEAN_TRUE)) {
+            if (!filtersSupported && !aggregation.filter().equals(Literal.BOOLEAN_TRUE)) {
                 return null;
             }
-            List<MappedFieldType> fieldTypes = Lists2.map(aggregation.inputs(), resolveFieldType);
+            List<MappedFieldType> fieldTypes = Lists2.map(
+                aggregation.inputs(),
+                symbol -> resolveInputToFieldType(fieldTypeLookup, toCollect, symbol)
+            );
             if (fieldTypes.stream().anyMatch(Objects::isNull)) {
                 // We can extend this to instead return an adapter to the normal aggregation implementation
                 return null;
@@ -195,19 +261,143 @@ public class DocValuesAggregates {
         return aggregator;
     }
 
+    /**
+     * Creates the filters of the aggregations, with a null entry for aggregations without filter.
+     *
+     * @return the filters or null if the filter of any aggregation can't be evaluated on the column vectors.
+     */
+    @Nullable
+    static List<DocBatchFilter> createFilters(List<Aggregation> aggregations,
+                                              FieldTypeLookup fieldTypeLookup,
+                                              List<Symbol> toCollect) {
+        ArrayList<DocBatchFilter> filters = new ArrayList<>(aggregations.size());
+        for (Aggregation aggregation : aggregations) {
+            Symbol filter = aggregation.filter();
+            if (filter.equals(Literal.BOOLEAN_TRUE)) {
+                filters.add(null);
+                continue;
+            }
+            DocBatchFilter docBatchFilter = createFilter(fieldTypeLookup, toCollect, filter);
+            if (docBatchFilter == null) {
+                return null;
+            }
+            filters.add(docBatchFilter);
+        }
+        return filters;
+    }
+
+    /**
+     * Supports conjunctions of comparisons ({@code =, <, <=, >, >=}) of an integral or timestamp column with a
+     * literal, the comparisons are evaluated as range checks on the column vector.
+     */
+    @Nullable
+    @VisibleForTesting
+    static DocBatchFilter createFilter(FieldTypeLookup fieldTypeLookup, List<Symbol> toCollect, Symbol filter) {
+        if (filter instanceof InputColumn) {
+            filter = toCollect.get(((InputColumn) filter).index());
+        }
+        if (!(filter instanceof Function)) {
+            return null;
+        }
+        Function function = (Function) filter;
+        List<Symbol> args = function.arguments();
+        String name = function.name();
+        if (name.equals(AndOperator.NAME)) {
+            DocBatchFilter first = createFilter(fieldTypeLookup, toCollect, args.get(0));
+            DocBatchFilter second = createFilter(fieldTypeLookup, toCollect, args.get(1));
+            if (first == null || second == null) {
+                return null;
+            }
+            return DocBatchFilter.and(first, second);
+        }
+        if (args.size() != 2) {
+            return null;
+        }
+        Symbol column = args.get(0);
+        Symbol value = args.get(1);
+        if (column instanceof Literal) {
+            column = args.get(1);
+            value = args.get(0);
+            name = flipComparison(name);
+            if (name == null) {
+                return null;
+            }
+        }
+        if (column instanceof InputColumn) {
+            column = toCollect.get(((InputColumn) column).index());
+        }
+        if (!(column instanceof Reference)
+            || !(value instanceof Literal)
+            || !FILTERABLE_TYPES.contains(column.valueType().id())
+            || !column.valueType().equals(value.valueType())) {
+            return null;
+        }
+        Object literalValue = ((Literal<?>) value).value();
+        if (literalValue == null) {
+            return null;
+        }
+        MappedFieldType fieldType = fieldTypeLookup.get(((Reference) column).column().fqn());
+        if (fieldType == null || !fieldType.hasDocValues()) {
+            return null;
+        }
+        String columnName = fieldType.name();
+        long v = ((Number) literalValue).longValue();
+        switch (name) {
+            case EqOperator.NAME:
+                return DocBatchFilter.between(columnName, v, v);
+            case LtOperator.NAME:
+                return v == Long.MIN_VALUE
+                    ? (batch, selection, numSelected) -> 0
+                    : DocBatchFilter.between(columnName, Long.MIN_VALUE, v - 1);
+            case LteOperator.NAME:
+                return DocBatchFilter.between(columnName, Long.MIN_VALUE, v);
+            case GtOperator.NAME:
+                return v == Long.MAX_VALUE
+                    ? (batch, selection, numSelected) -> 0
+                    : DocBatchFilter.between(columnName, v + 1, Long.MAX_VALUE);
+            case GteOperator.NAME:
+                return DocBatchFilter.between(columnName, v, Long.MAX_VALUE);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the comparison with swapped operands, e.g. {@code 1 < x} to {@code x > 1}, or null if not a comparison
+     */
+    @Nullable
+    private static String flipComparison(String name) {
+        switch (name) {
+            case EqOperator.NAME:
+                return EqOperator.NAME;
+            case LtOperator.NAME:
+                return GtOperator.NAME;
+            case LteOperator.NAME:
+                return GteOperator.NAME;
+            case GtOperator.NAME:
+                return LtOperator.NAME;
+            case GteOperator.NAME:
+                return LteOperator.NAME;
+            default:
+                return null;
+        }
+    }
+
 
     @SuppressWarnings({"unchecked", "rawtypes"})
-    private static Iterable<Row> getRow(AtomicReference<Throwable> killed,
-                                        Searcher searcher,
-                                        Query query,
-                                        List<DocValueAggregator> aggregators) throws IOException {
-        IndexSearcher indexSearcher = searcher;
+    static Iterable<Row> getRow(AtomicReference<Throwable> killed,
+                                IndexSearcher indexSearcher,
+                                Query query,
+                                List<DocValueAggregator> aggregators,
+                                List<DocBatchFilter> filters) throws IOException {
         Weight weight = indexSearcher.createWeight(indexSearcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
         List<LeafReaderContext> leaves = indexSearcher.getTopReaderContext().leaves();
         Object[] cells = new Object[aggregators.size()];
         for (int i = 0; i < aggregators.size(); i++) {
             cells[i] = aggregators.get(i).initialState();
         }
+        DocBatch batch = new DocBatch(DOC_BATCH_SIZE);
+        int[] selection = new int[DOC_BATCH_SIZE];
         for (var leaf : leaves) {
             Scorer scorer = weight.scorer(leaf);
             if (scorer == null) {
@@ -216,20 +406,19 @@ public class DocValuesAggregates {
             for (int i = 0; i < aggregators.size(); i++) {
                 aggregators.get(i).loadDocValues(leaf.reader());
             }
+            batch.setReader(leaf.reader());
             DocIdSetIterator docs = scorer.iterator();
             Bits liveDocs = leaf.reader().getLiveDocs();
             for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
                 if (liveDocs != null && !liveDocs.get(doc)) {
                     continue;
                 }
-                Throwable killCause = killed.get();
-                if (killCause != null) {
-                    Exceptions.rethrowUnchecked(killCause);
-                }
-                for (int i = 0; i < aggregators.size(); i++) {
-                    aggregators.get(i).apply(cells[i], doc);
+                if (batch.add(doc)) {
+                    applyBatch(killed, aggregators, filters, cells, batch, selection);
+                    batch.clear();
                 }
             }
+            applyBatch(killed, aggregators, filters, cells, batch, selection);
         }
         for (int i = 0; i < aggregators.size(); i++) {
             cells[i] = aggregators.get(i).partialResult(cells[i]);
@@ -237,6 +426,35 @@ public class DocValuesAggregates {
         return List.of(new RowN(cells));
     }
 
+    /**
+     * Applies a batch of matching documents aggregator by aggregator: every aggregator processes the selected
+     * documents of the batch before the next one is invoked. The selection starts with all documents of the batch
+     * and is narrowed down by the filter of the aggregation, if there is one.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void applyBatch(AtomicReference<Throwable> killed,
+                                   List<DocValueAggregator> aggregators,
+                                   List<DocBatchFilter> filters,
+                                   Object[] states,
+                                   DocBatch batch,
+                                   int[] selection) throws IOException {
+        if (batch.size() == 0) {
+            return;
+        }
+        Throwable killCause = killed.get();
+        if (killCause != null) {
+            Exceptions.rethrowUnchecked(killCause);
+        }
+        for (int i = 0; i < aggregators.size(); i++) {
+            int numSelected = batch.selectAll(selection);
+            DocBatchFilter filter = filters.get(i);
+            if (filter != null) {
+                numSelected = filter.select(batch, selection, numSelected);
+            }
+            aggregators.get(i).apply(states[i], batch, selection, numSelected);
+        }
+    }
+
 
     @Nullable
     private static AggregationProjection aggregateProjection(Collection<? extends Projection> shardProjections) {
@@ -0,0 +1,710 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect;
+
+import io.crate.breaker.RamAccounting;
+import io.crate.breaker.SizeEstimator;
+import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.data.BatchIterator;
+import io.crate.data.CollectingBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.exceptions.Exceptions;
+import io.crate.exceptions.GroupByOnArrayUnsupportedException;
+import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.GroupProjection;
+import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.dsl.projection.Projections;
+import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.aggregation.FixedWidthDocValueAggregator;
+import io.crate.execution.jobs.SharedShardContext;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Symbol;
+import io.crate.lucene.FieldTypeLookup;
+import io.crate.lucene.LuceneQueryBuilder;
+import io.crate.memory.MemoryManager;
+import io.crate.metadata.DocReferences;
+import io.crate.metadata.FunctionImplementation;
+import io.crate.metadata.Functions;
+import io.crate.metadata.Reference;
+import io.crate.metadata.SearchPath;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+import io.netty.buffer.ByteBuf;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.NumericUtils;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.index.engine.Engine.Searcher;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.index.shard.IndexShard;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongFunction;
+
+/**
+ * Executes a {@code GROUP BY} directly on the doc values of the key columns and the aggregation inputs,
+ * without evaluating any {@link io.crate.data.Input} or materializing rows per document.
+ * <p>
+ * Within a segment, a group is identified by the raw doc values of its keys (numeric values or ordinals).
+ * The key values are only converted to their column type once per group and segment, to find
+ * the aggregation states of the group across segments.
+ * If all aggregations provide a {@link FixedWidthDocValueAggregator}, the states are stored in buffers allocated
+ * via the {@link MemoryManager} instead of in objects per group.
+ * <p>
+ * This is used if all keys are columns with doc values of a supported type and all aggregations
+ * provide a {@link DocValueAggregator}.
+ */
+final class DocValuesGroupByOptimizedIterator {
+
+    // see private RamUsageEstimator.shallowSizeOfInstance(HashMap.Node.class)
+    private static final long HASH_MAP_ENTRY_OVERHEAD = 32;
+    private static final long AGGREGATION_STATE_SIZE = 32;
+
+    @Nullable
+    @SuppressWarnings("rawtypes")
+    static BatchIterator<Row> tryOptimize(Functions functions,
+                                          IndexShard indexShard,
+                                          DocTableInfo table,
+                                          LuceneQueryBuilder luceneQueryBuilder,
+                                          FieldTypeLookup fieldTypeLookup,
+                                          RoutedCollectPhase phase,
+                                          CollectTask collectTask) {
+        GroupProjection groupProjection = groupProjection(Projections.shardProjections(phase.projections()));
+        if (groupProjection == null) {
+            return null;
+        }
+        List<KeyColumn> keyColumns = createKeyColumns(
+            table,
+            fieldTypeLookup,
+            phase.toCollect(),
+            groupProjection.keys()
+        );
+        if (keyColumns == null) {
+            return null;
+        }
+        SearchPath searchPath = collectTask.txnCtx().sessionSettings().searchPath();
+        List<DocValueAggregator> aggregators = DocValuesAggregates.createAggregators(
+            functions,
+            groupProjection.values(),
+            fieldTypeLookup,
+            phase.toCollect(),
+            searchPath
+        );
+        if (aggregators == null) {
+            return null;
+        }
+        List<AggregationFunction> aggregationFunctions = new ArrayList<>(aggregators.size());
+        for (var aggregation : groupProjection.values()) {
+            FunctionImplementation func = functions.getQualified(aggregation, searchPath);
+            aggregationFunctions.add((AggregationFunction) func);
+        }
+
+        SharedShardContext shardContext = collectTask.sharedShardContexts().getOrCreateContext(indexShard.shardId());
+        Searcher searcher = shardContext.acquireSearcher(LuceneShardCollectorProvider.formatSource(phase));
+        try {
+            QueryShardContext queryShardContext = shardContext.indexService().newQueryShardContext();
+            collectTask.addSearcher(shardContext.readerId(), searcher);
+            LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
+                phase.where(),
+                collectTask.txnCtx(),
+                indexShard.mapperService(),
+                indexShard.shardId().getIndexName(),
+                queryShardContext,
+                table,
+                shardContext.indexService().cache()
+            );
+            return getIterator(
+                searcher,
+                queryContext.query(),
+                keyColumns,
+                aggregators,
+                aggregationFunctions,
+                collectTask.getRamAccounting(),
+                collectTask.memoryManager(),
+                groupProjection.mode()
+            );
+        } catch (Throwable t) {
+            searcher.close();
+            throw t;
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    static BatchIterator<Row> getIterator(IndexSearcher indexSearcher,
+                                          Query query,
+                                          List<KeyColumn> keyColumns,
+                                          List<DocValueAggregator> aggregators,
+                                          List<AggregationFunction> aggregationFunctions,
+                                          RamAccounting ramAccounting,
+                                          MemoryManager memoryManager,
+                                          AggregateMode mode) {
+        AtomicReference<Throwable> killed = new AtomicReference<>();
+        return CollectingBatchIterator.newInstance(
+            () -> killed.set(BatchIterator.CLOSED),
+            killed::set,
+            () -> {
+                try {
+                    GroupStates groupStates = GroupStates.create(aggregators, ramAccounting, memoryManager);
+                    return CompletableFuture.completedFuture(getRows(
+                        applyAggregatesGroupedByKeys(
+                            killed,
+                            indexSearcher,
+                            query,
+                            keyColumns,
+                            aggregators,
+                            groupStates,
+                            ramAccounting
+                        ),
+                        groupStates,
+                        keyColumns.size(),
+                        aggregationFunctions,
+                        ramAccounting,
+                        mode
+                    ));
+                } catch (Throwable t) {
+                    return CompletableFuture.failedFuture(t);
+                }
+            },
+            true
+        );
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Iterable<Row> getRows(Map<List<Object>, Integer> groupIdsByKey,
+                                         GroupStates groupStates,
+                                         int numKeys,
+                                         List<AggregationFunction> aggregationFunctions,
+                                         RamAccounting ramAccounting,
+                                         AggregateMode mode) {
+        int numAggregations = aggregationFunctions.size();
+        return () -> new Iterator<Row>() {
+
+            final Iterator<Map.Entry<List<Object>, Integer>> it = groupIdsByKey.entrySet().iterator();
+            final Object[] cells = new Object[numKeys + numAggregations];
+            final RowN row = new RowN(cells);
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Row next() {
+                Map.Entry<List<Object>, Integer> entry = it.next();
+                List<Object> key = entry.getKey();
+                for (int i = 0; i < numKeys; i++) {
+                    cells[i] = key.get(i);
+                }
+                int groupId = entry.getValue();
+                for (int i = 0, c = numKeys; i < numAggregations; i++, c++) {
+                    Object partialResult = groupStates.partialResult(groupId, i);
+                    cells[c] = mode.finishCollect(ramAccounting, aggregationFunctions.get(i), partialResult);
+                }
+                return row;
+            }
+        };
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Map<List<Object>, Integer> applyAggregatesGroupedByKeys(
+            AtomicReference<Throwable> killed,
+            IndexSearcher indexSearcher,
+            Query query,
+            List<KeyColumn> keyColumns,
+            List<DocValueAggregator> aggregators,
+            GroupStates groupStates,
+            RamAccounting ramAccounting) throws IOException {
+        Weight weight = indexSearcher.createWeight(indexSearcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
+        List<LeafReaderContext> leaves = indexSearcher.getTopReaderContext().leaves();
+        int numKeys = keyColumns.size();
+        // the entries in both maps and the key list, the values of the key are added per group
+        long groupSize = 2 * HASH_MAP_ENTRY_OVERHEAD + RamUsageEstimator.alignObjectSize(
+            RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) RamUsageEstimator.NUM_BYTES_OBJECT_REF * numKeys);
+        HashMap<List<Object>, Integer> groupIdsByKey = new HashMap<>();
+        for (LeafReaderContext leaf : leaves) {
+            raiseIfKilled(killed);
+            Scorer scorer = weight.scorer(leaf);
+            if (scorer == null) {
+                continue;
+            }
+            for (int i = 0; i < numKeys; i++) {
+                keyColumns.get(i).loadDocValues(leaf.reader());
+            }
+            for (int i = 0; i < aggregators.size(); i++) {
+                aggregators.get(i).loadDocValues(leaf.reader());
+            }
+            HashMap<SegmentKey, Integer> groupIdsBySegmentKey = new HashMap<>();
+            SegmentKey probe = new SegmentKey(numKeys);
+            DocIdSetIterator docs = scorer.iterator();
+            Bits liveDocs = leaf.reader().getLiveDocs();
+            for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
+                if (liveDocs != null && !liveDocs.get(doc)) {
+                    continue;
+                }
+                raiseIfKilled(killed);
+                long nulls = 0L;
+                for (int i = 0; i < numKeys; i++) {
+                    KeyColumn keyColumn = keyColumns.get(i);
+                    if (keyColumn.advanceExact(doc)) {
+                        probe.values[i] = keyColumn.value();
+                    } else {
+                        probe.values[i] = 0L;
+                        nulls |= 1L << i;
+                    }
+                }
+                probe.update(nulls);
+                Integer groupId = groupIdsBySegmentKey.get(probe);
+                if (groupId == null) {
+                    List<Object> key = toKey(probe, keyColumns);
+                    groupId = groupIdsByKey.get(key);
+                    if (groupId == null) {
+                        ramAccounting.addBytes(groupSize + keysSize(key, keyColumns));
+                        groupId = groupStates.addGroup();
+                        groupIdsByKey.put(key, groupId);
+                    }
+                    groupIdsBySegmentKey.put(probe.copy(), groupId);
+                }
+                groupStates.apply(groupId, doc);
+            }
+        }
+        return groupIdsByKey;
+    }
+
+    /**
+     * Holds the aggregation states of all groups, addressed by a group id.
+     */
+    private abstract static class GroupStates {
+
+        @SuppressWarnings("rawtypes")
+        static GroupStates create(List<DocValueAggregator> aggregators,
+                                  RamAccounting ramAccounting,
+                                  MemoryManager memoryManager) {
+            FixedWidthDocValueAggregator[] fixedWidthAggregators =
+                new FixedWidthDocValueAggregator[aggregators.size()];
+            for (int i = 0; i < fixedWidthAggregators.length; i++) {
+                DocValueAggregator aggregator = aggregators.get(i);
+                if (!(aggregator instanceof FixedWidthDocValueAggregator)) {
+                    return new ObjectGroupStates(aggregators, ramAccounting);
+                }
+                fixedWidthAggregators[i] = (FixedWidthDocValueAggregator) aggregator;
+            }
+            return new FixedWidthGroupStates(fixedWidthAggregators, memoryManager);
+        }
+
+        /**
+         * Adds the initial aggregation states for a new group
+         *
+         * @return the id of the new group
+         */
+        abstract int addGroup();
+
+        abstract void apply(int groupId, int doc) throws IOException;
+
+        @Nullable
+        abstract Object partialResult(int groupId, int aggregation);
+    }
+
+    /**
+     * Creates a state object per group and aggregation.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final class ObjectGroupStates extends GroupStates {
+
+        private final List<DocValueAggregator> aggregators;
+        private final RamAccounting ramAccounting;
+        private final ArrayList<Object[]> statesByGroupId = new ArrayList<>();
+
+        ObjectGroupStates(List<DocValueAggregator> aggregators, RamAccounting ramAccounting) {
+            this.aggregators = aggregators;
+            this.ramAccounting = ramAccounting;
+        }
+
+        @Override
+        int addGroup() {
+            ramAccounting.addBytes(aggregators.size() * AGGREGATION_STATE_SIZE);
+            Object[] states = new Object[aggregators.size()];
+            for (int i = 0; i < states.length; i++) {
+                states[i] = aggregators.get(i).initialState();
+            }
+            statesByGroupId.add(states);
+            return statesByGroupId.size() - 1;
+        }
+
+        @Override
+        void apply(int groupId, int doc) throws IOException {
+            Object[] states = statesByGroupId.get(groupId);
+            for (int i = 0; i < states.length; i++) {
+                aggregators.get(i).apply(states[i], doc);
+            }
+        }
+
+        @Override
+        Object partialResult(int groupId, int aggregation) {
+            return aggregators.get(aggregation).partialResult(statesByGroupId.get(groupId)[aggregation]);
+        }
+    }
+
+    /**
+     * Stores the states of all aggregations of a group next to each other within buffers allocated via the
+     * {@link MemoryManager}, so that no objects are created per group and aggregation.
+     * The buffers are owned and accounted for by the {@link MemoryManager}.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final class FixedWidthGroupStates extends GroupStates {
+
+        private static final int GROUPS_PER_BUFFER = 1024;
+
+        private final FixedWidthDocValueAggregator[] aggregators;
+        private final MemoryManager memoryManager;
+        private final int[] stateOffsets;
+        private final int groupSize;
+        private final ArrayList<ByteBuf> buffers = new ArrayList<>();
+        private int numGroups = 0;
+
+        FixedWidthGroupStates(FixedWidthDocValueAggregator[] aggregators, MemoryManager memoryManager) {
+            this.aggregators = aggregators;
+            this.memoryManager = memoryManager;
+            this.stateOffsets = new int[aggregators.length];
+            int size = 0;
+            for (int i = 0; i < aggregators.length; i++) {
+                stateOffsets[i] = size;
+                size += aggregators[i].stateSize();
+            }
+            this.groupSize = size;
+        }
+
+        @Override
+        int addGroup() {
+            int groupId = numGroups;
+            if (groupId % GROUPS_PER_BUFFER == 0) {
+                buffers.add(memoryManager.allocate(GROUPS_PER_BUFFER * groupSize));
+            }
+            ByteBuf buffer = buffers.get(groupId / GROUPS_PER_BUFFER);
+            int offset = offset(groupId);
+            for (int i = 0; i < aggregators.length; i++) {
+                aggregators[i].initialState(buffer, offset + stateOffsets[i]);
+            }
+            numGroups++;
+            return groupId;
+        }
+
+        @Override
+        void apply(int groupId, int doc) throws IOException {
+            ByteBuf buffer = buffers.get(groupId / GROUPS_PER_BUFFER);
+            int offset = offset(groupId);
+            for (int i = 0; i < aggregators.length; i++) {
+                aggregators[i].apply(buffer, offset + stateOffsets[i], doc);
+            }
+        }
+
+        @Override
+        Object partialResult(int groupId, int aggregation) {
+            ByteBuf buffer = buffers.get(groupId / GROUPS_PER_BUFFER);
+            return aggregators[aggregation].partialResult(buffer, offset(groupId) + stateOffsets[aggregation]);
+        }
+
+        private int offset(int groupId) {
+            return (groupId % GROUPS_PER_BUFFER) * groupSize;
+        }
+    }
+
+    private static List<Object> toKey(SegmentKey segmentKey, List<KeyColumn> keyColumns) throws IOException {
+        Object[] key = new Object[keyColumns.size()];
+        for (int i = 0; i < key.length; i++) {
+            if ((segmentKey.nulls & (1L << i)) == 0) {
+                key[i] = keyColumns.get(i).toKey(segmentKey.values[i]);
+            }
+        }
+        return Arrays.asList(key);
+    }
+
+    private static long keysSize(List<Object> key, List<KeyColumn> keyColumns) {
+        long size = 0;
+        for (int i = 0; i < key.size(); i++) {
+            size += keyColumns.get(i).sizeEstimator.estimateSize(key.get(i));
+        }
+        return size;
+    }
+
+    @Nullable
+    private static List<KeyColumn> createKeyColumns(DocTableInfo table,
+                                                    FieldTypeLookup fieldTypeLookup,
+                                                    List<Symbol> toCollect,
+                                                    List<Symbol> keys) {
+        if (keys.isEmpty() || keys.size() > Long.SIZE) {
+            return null;
+        }
+        ArrayList<KeyColumn> keyColumns = new ArrayList<>(keys.size());
+        for (Symbol key : keys) {
+            if (!(key instanceof InputColumn)) {
+                return null;
+            }
+            Symbol collectSymbol = toCollect.get(((InputColumn) key).index());
+            if (!(collectSymbol instanceof Reference)) {
+                return null;
+            }
+            Reference keyRef = (Reference) DocReferences.inverseSourceLookup(collectSymbol);
+            if (table.partitionedBy().contains(keyRef.column())) {
+                // partition values are not stored in the documents
+                return null;
+            }
+            MappedFieldType fieldType = fieldTypeLookup.get(keyRef.column().fqn());
+            if (fieldType == null || !fieldType.hasDocValues()) {
+                return null;
+            }
+            KeyColumn keyColumn = createKeyColumn(fieldType.name(), keyRef.valueType());
+            if (keyColumn == null) {
+                return null;
+            }
+            keyColumns.add(keyColumn);
+        }
+        return keyColumns;
+    }
+
+    @Nullable
+    private static KeyColumn createKeyColumn(String columnName, DataType<?> type) {
+        switch (type.id()) {
+            case ByteType.ID:
+                return new NumericKeyColumn(columnName, type, value -> (byte) value);
+            case ShortType.ID:
+                return new NumericKeyColumn(columnName, type, value -> (short) value);
+            case IntegerType.ID:
+                return new NumericKeyColumn(columnName, type, value -> (int) value);
+            case LongType.ID:
+            case TimestampType.ID_WITH_TZ:
+            case TimestampType.ID_WITHOUT_TZ:
+                return new NumericKeyColumn(columnName, type, value -> value);
+            case BooleanType.ID:
+                return new NumericKeyColumn(columnName, type, value -> value == 1L);
+            case FloatType.ID:
+                return new NumericKeyColumn(columnName, type, value -> NumericUtils.sortableIntToFloat((int) value));
+            case DoubleType.ID:
+                return new NumericKeyColumn(columnName, type, NumericUtils::sortableLongToDouble);
+            case StringType.ID:
+                return new StringKeyColumn(columnName);
+            default:
+                return null;
+        }
+    }
+
+    @Nullable
+    private static GroupProjection groupProjection(Collection<? extends Projection> shardProjections) {
+        if (shardProjections.size() != 1) {
+            return null;
+        }
+        Projection projection = shardProjections.iterator().next();
+        if (!(projection instanceof GroupProjection)) {
+            return null;
+        }
+        GroupProjection groupProjection = (GroupProjection) projection;
+        if (groupProjection.mode() == AggregateMode.PARTIAL_FINAL) {
+            return null;
+        }
+        return groupProjection;
+    }
+
+    private static void raiseIfKilled(AtomicReference<Throwable> killed) {
+        Throwable killCause = killed.get();
+        if (killCause != null) {
+            Exceptions.rethrowUnchecked(killCause);
+        }
+    }
+
+    /**
+     * The doc values of the keys of a group within a segment.
+     * Bit {@code i} of {@link #nulls} is set if the key {@code i} is null.
+     */
+    private static final class SegmentKey {
+
+        private final long[] values;
+        private long nulls;
+        private int hash;
+
+        SegmentKey(int numKeys) {
+            this.values = new long[numKeys];
+        }
+
+        private SegmentKey(long[] values, long nulls, int hash) {
+            this.values = values;
+            this.nulls = nulls;
+            this.hash = hash;
+        }
+
+        void update(long nulls) {
+            this.nulls = nulls;
+            this.hash = 31 * Arrays.hashCode(values) + Long.hashCode(nulls);
+        }
+
+        SegmentKey copy() {
+            return new SegmentKey(values.clone(), nulls, hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SegmentKey)) {
+                return false;
+            }
+            SegmentKey that = (SegmentKey) o;
+            return nulls == that.nulls && Arrays.equals(values, that.values);
+        }
+    }
+
+    abstract static class KeyColumn {
+
+        final String columnName;
+        final SizeEstimator<Object> sizeEstimator;
+
+        KeyColumn(String columnName, DataType<?> type) {
+            this.columnName = columnName;
+            this.sizeEstimator = SizeEstimatorFactory.create(type);
+        }
+
+        abstract void loadDocValues(LeafReader reader) throws IOException;
+
+        /**
+         * @return true if the document has a value for this column
+         */
+        abstract boolean advanceExact(int doc) throws IOException;
+
+        /**
+         * @return the doc value of the current document, only valid within the current segment
+         */
+        abstract long value() throws IOException;
+
+        /**
+         * Converts a doc value of the current segment to the value of the key column
+         */
+        abstract Object toKey(long value) throws IOException;
+    }
+
+    static final class NumericKeyColumn extends KeyColumn {
+
+        private final LongFunction<Object> toKey;
+        private SortedNumericDocValues values;
+
+        NumericKeyColumn(String columnName, DataType<?> type, LongFunction<Object> toKey) {
+            super(columnName, type);
+            this.toKey = toKey;
+        }
+
+        @Override
+        void loadDocValues(LeafReader reader) throws IOException {
+            values = DocValues.getSortedNumeric(reader, columnName);
+        }
+
+        @Override
+        boolean advanceExact(int doc) throws IOException {
+            return values.advanceExact(doc);
+        }
+
+        @Override
+        long value() throws IOException {
+            if (values.docValueCount() != 1) {
+                throw new GroupByOnArrayUnsupportedException(columnName);
+            }
+            return values.nextValue();
+        }
+
+        @Override
+        Object toKey(long value) {
+            return toKey.apply(value);
+        }
+    }
+
+    static final class StringKeyColumn extends KeyColumn {
+
+        private SortedSetDocValues values;
+
+        StringKeyColumn(String columnName) {
+            super(columnName, DataTypes.STRING);
+        }
+
+        @Override
+        void loadDocValues(LeafReader reader) throws IOException {
+            values = DocValues.getSortedSet(reader, columnName);
+        }
+
+        @Override
+        boolean advanceExact(int doc) throws IOException {
+            return values.advanceExact(doc);
+        }
+
+        @Override
+        long value() throws IOException {
+            long ord = values.nextOrd();
+            if (values.nextOrd() != SortedSetDocValues.NO_MORE_ORDS) {
+                throw new GroupByOnArrayUnsupportedException(columnName);
+            }
+            return ord;
+        }
+
+        @Override
+        Object toKey(long ord) throws IOException {
+            BytesRef value = values.lookupOrd(ord);
+            return value.utf8ToString();
+        }
+    }
+}
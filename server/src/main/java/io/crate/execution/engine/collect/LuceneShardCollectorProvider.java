@@ -75,6 +75,7 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
     private final BigArrays bigArrays;
     private final FieldTypeLookup fieldTypeLookup;
     private final DocTableInfo table;
+    private final ShardCollectResultCache shardCollectResultCache;
 
     public LuceneShardCollectorProvider(Schemas schemas,
                                         LuceneQueryBuilder luceneQueryBuilder,
@@ -85,7 +86,8 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
                                         Settings settings,
                                         TransportActionProvider transportActionProvider,
                                         IndexShard indexShard,
-                                        BigArrays bigArrays) {
+                                        BigArrays bigArrays,
+                                        ShardCollectResultCache shardCollectResultCache) {
         super(
             clusterService,
             schemas,
@@ -114,6 +116,7 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             )
         );
         this.bigArrays = bigArrays;
+        this.shardCollectResultCache = shardCollectResultCache;
     }
 
     @Override
@@ -157,6 +160,18 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
     @Nullable
     @Override
     protected BatchIterator<Row> getProjectionFusedIterator(RoutedCollectPhase normalizedPhase, CollectTask collectTask) {
+        ShardId shardId = indexShard.shardId();
+        SharedShardContext sharedShardContext = collectTask.sharedShardContexts().getOrCreateContext(shardId);
+        return shardCollectResultCache.getOrCompute(
+            indexShard,
+            normalizedPhase,
+            () -> createProjectionFusedIterator(normalizedPhase, collectTask),
+            () -> collectTask.getSearcher(sharedShardContext.readerId())
+        );
+    }
+
+    @Nullable
+    private BatchIterator<Row> createProjectionFusedIterator(RoutedCollectPhase normalizedPhase, CollectTask collectTask) {
         var it = GroupByOptimizedIterator.tryOptimizeSingleStringKey(
             indexShard,
             table,
@@ -171,6 +186,18 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
         if (it != null) {
             return it;
         }
+        it = DocValuesGroupByOptimizedIterator.tryOptimize(
+            functions,
+            indexShard,
+            table,
+            luceneQueryBuilder,
+            fieldTypeLookup,
+            normalizedPhase,
+            collectTask
+        );
+        if (it != null) {
+            return it;
+        }
         return DocValuesAggregates.tryOptimize(
             functions,
             indexShard,
@@ -46,6 +46,7 @@ import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.mapper.IdFieldMapper;
+import org.elasticsearch.index.mapper.SourceFieldMapper;
 import org.elasticsearch.index.mapper.Uid;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
@@ -96,6 +97,7 @@ public final class PKLookupOperation {
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
+            XContentType sourceType = SourceFieldMapper.sourceContentType(visitor.source());
             return new Doc(
                 docIdAndVersion.docId,
                 shard.shardId().getIndexName(),
@@ -103,8 +105,14 @@ public final class PKLookupOperation {
                 docIdAndVersion.version,
                 docIdAndVersion.seqNo,
                 docIdAndVersion.primaryTerm,
-                XContentHelper.toMap(visitor.source(), XContentType.JSON),
-                () -> visitor.source().utf8ToString()
+                XContentHelper.toMap(visitor.source(), sourceType),
+                () -> {
+                    try {
+                        return XContentHelper.convertToJson(visitor.source(), sourceType);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
             );
         }
     }
@@ -0,0 +1,366 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import io.crate.Streamer;
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.data.BatchIterator;
+import io.crate.data.ForwardingBatchIterator;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.SentinelRow;
+import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.dsl.projection.Projections;
+import io.crate.execution.engine.distribution.StreamBucket;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.expression.symbol.Symbols;
+import org.apache.lucene.index.IndexReader;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Node level cache for the shard level results of collect phases whose shard projections are executed by one of the
+ * projection fused iterators (e.g. {@link DocValuesAggregates} or {@link GroupByOptimizedIterator}).
+ * <p>
+ * Results are keyed by the parts of the phase which determine the result (the collected symbols, the where clause and
+ * the shard projections) and by the reader of the shard the result was computed from.
+ * A refresh or a merge opens a new reader, so results of older readers are never served again and are removed from
+ * the cache as soon as their reader is closed.
+ * <p>
+ * The results are cached in their serialized form, which is accounted for in the accounting circuit breaker.
+ * Phases containing non-deterministic functions are never cached.
+ */
+@Singleton
+public class ShardCollectResultCache {
+
+    public static final Setting<ByteSizeValue> SHARD_RESULTS_CACHE_SIZE_SETTING = Setting.memorySizeSetting(
+        "indices.shard_results.cache.size",
+        "1%",
+        Setting.Property.NodeScope);
+
+    private static final String SOURCE = "shard-results-cache";
+
+    private final long maxSizeInBytes;
+    private final CircuitBreaker breaker;
+    private final Cache<Key, Entry> cache;
+    private final Set<IndexReader.CacheKey> registeredReaders = ConcurrentHashMap.newKeySet();
+
+    @Inject
+    public ShardCollectResultCache(Settings settings, CircuitBreakerService breakerService) {
+        this(
+            SHARD_RESULTS_CACHE_SIZE_SETTING.get(settings).getBytes(),
+            breakerService.getBreaker(CircuitBreaker.ACCOUNTING)
+        );
+    }
+
+    @VisibleForTesting
+    ShardCollectResultCache(long maxSizeInBytes, CircuitBreaker breaker) {
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.breaker = breaker;
+        this.cache = CacheBuilder.newBuilder()
+            .maximumWeight(maxSizeInBytes)
+            .weigher((Key key, Entry entry) -> (int) Math.min(Integer.MAX_VALUE, key.weight() + entry.weight()))
+            .removalListener((RemovalNotification<Key, Entry> notification) -> notification.getValue().release())
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Returns an iterator over the cached result of the phase or wraps the iterator created by {@code compute} so
+     * that the rows it emits are added to the cache once it has been fully consumed.
+     *
+     * @param compute supplies the projection fused iterator for the phase, which may be null if there is none.
+     * @param usedSearcher supplies the searcher the iterator created by {@code compute} reads from. The result is
+     *                     cached for the reader of this searcher.
+     * @return null if {@code compute} returned null
+     */
+    @Nullable
+    public BatchIterator<Row> getOrCompute(IndexShard indexShard,
+                                           RoutedCollectPhase phase,
+                                           Supplier<BatchIterator<Row>> compute,
+                                           Supplier<Engine.Searcher> usedSearcher) {
+        Collection<? extends Projection> shardProjections = Projections.shardProjections(phase.projections());
+        if (maxSizeInBytes == 0 || shardProjections.isEmpty() || !isDeterministic(phase)) {
+            return compute.get();
+        }
+        IndexReader.CacheKey currentReaderKey;
+        try (Engine.Searcher searcher = indexShard.acquireSearcher(SOURCE)) {
+            currentReaderKey = readerKey(searcher);
+        }
+        if (currentReaderKey == null) {
+            return compute.get();
+        }
+        BytesReference phaseKey = phaseKey(phase, shardProjections);
+        Entry entry = cache.getIfPresent(new Key(currentReaderKey, phaseKey));
+        if (entry != null) {
+            return InMemoryBatchIterator.of(entry.bucket, SentinelRow.SENTINEL, false);
+        }
+        BatchIterator<Row> it = compute.get();
+        if (it == null) {
+            return null;
+        }
+        // The iterator may have been created from a newer reader than the one looked up above,
+        // so the result is cached for the reader it is actually computed from.
+        Engine.Searcher searcher = usedSearcher.get();
+        if (searcher == null) {
+            return it;
+        }
+        IndexReader.CacheHelper cacheHelper = searcher.getDirectoryReader().getReaderCacheHelper();
+        if (cacheHelper == null) {
+            return it;
+        }
+        List<? extends Symbol> outputs = lastOf(shardProjections).outputs();
+        return new CachingBatchIterator(
+            it,
+            new Key(cacheHelper.getKey(), phaseKey),
+            cacheHelper,
+            Symbols.streamerArray(outputs)
+        );
+    }
+
+    private void registerCloseListener(IndexReader.CacheHelper cacheHelper) {
+        if (registeredReaders.add(cacheHelper.getKey())) {
+            cacheHelper.addClosedListener(this::invalidate);
+        }
+    }
+
+    private void invalidate(IndexReader.CacheKey readerKey) {
+        registeredReaders.remove(readerKey);
+        cache.asMap().keySet().removeIf(key -> key.readerKey.equals(readerKey));
+    }
+
+    public long hits() {
+        return cache.stats().hitCount();
+    }
+
+    public long misses() {
+        return cache.stats().missCount();
+    }
+
+    @Nullable
+    private static IndexReader.CacheKey readerKey(Engine.Searcher searcher) {
+        IndexReader.CacheHelper cacheHelper = searcher.getDirectoryReader().getReaderCacheHelper();
+        return cacheHelper == null ? null : cacheHelper.getKey();
+    }
+
+    private static boolean isDeterministic(RoutedCollectPhase phase) {
+        Predicate<Symbol> isNonDeterministic = s -> s instanceof Function && !((Function) s).isDeterministic();
+        return !SymbolVisitors.any(isNonDeterministic, phase.toCollect())
+               && !SymbolVisitors.any(isNonDeterministic, phase.where());
+    }
+
+    /**
+     * The serialized form of the phase, excluding the parts which differ between executions of the same statement
+     * (job id, phase id, routing, ...).
+     */
+    private static BytesReference phaseKey(RoutedCollectPhase phase, Collection<? extends Projection> projections) {
+        BytesStreamOutput out = new BytesStreamOutput();
+        try {
+            Symbols.toStream(phase.toCollect(), out);
+            Symbols.toStream(phase.where(), out);
+            out.writeVInt(projections.size());
+            for (Projection projection : projections) {
+                Projection.toStream(projection, out);
+            }
+            return out.bytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Projection lastOf(Collection<? extends Projection> projections) {
+        Projection last = null;
+        for (Projection projection : projections) {
+            last = projection;
+        }
+        return last;
+    }
+
+    /**
+     * Passes the rows of the computed result through to the consumer while serializing them into a bucket, which
+     * is added to the cache once the result has been fully consumed.
+     * The bucket is accounted for in the circuit breaker as it grows; buffering stops as soon as it exceeds the
+     * size of the cache or the circuit breaker trips, the rows are still passed through in that case.
+     */
+    private final class CachingBatchIterator extends ForwardingBatchIterator<Row> {
+
+        private final BatchIterator<Row> delegate;
+        private final Key key;
+        private final IndexReader.CacheHelper cacheHelper;
+        private final ConcurrentRamAccounting ramAccounting;
+
+        @Nullable
+        private StreamBucket.Builder builder;
+
+        CachingBatchIterator(BatchIterator<Row> delegate,
+                             Key key,
+                             IndexReader.CacheHelper cacheHelper,
+                             Streamer<?>[] streamers) {
+            this.delegate = delegate;
+            this.key = key;
+            this.cacheHelper = cacheHelper;
+            this.ramAccounting = ConcurrentRamAccounting.forCircuitBreaker(SOURCE, breaker);
+            this.builder = new StreamBucket.Builder(streamers, ramAccounting);
+        }
+
+        @Override
+        protected BatchIterator<Row> delegate() {
+            return delegate;
+        }
+
+        @Override
+        public boolean moveNext() {
+            if (delegate.moveNext()) {
+                if (builder != null) {
+                    add(delegate.currentElement());
+                }
+                return true;
+            }
+            if (builder != null && delegate.allLoaded()) {
+                StreamBucket bucket = builder.build();
+                builder = null;
+                registerCloseListener(cacheHelper);
+                cache.put(key, new Entry(bucket, ramAccounting));
+            }
+            return false;
+        }
+
+        private void add(Row row) {
+            try {
+                builder.add(row);
+            } catch (CircuitBreakingException e) {
+                stopBuffering();
+                return;
+            }
+            if (ramAccounting.totalBytes() > maxSizeInBytes) {
+                stopBuffering();
+            }
+        }
+
+        private void stopBuffering() {
+            if (builder != null) {
+                builder = null;
+                ramAccounting.release();
+            }
+        }
+
+        @Override
+        public void moveToStart() {
+            // Rows would be added a second time
+            stopBuffering();
+            super.moveToStart();
+        }
+
+        @Override
+        public void close() {
+            stopBuffering();
+            super.close();
+        }
+
+        @Override
+        public void kill(@Nonnull Throwable throwable) {
+            stopBuffering();
+            super.kill(throwable);
+        }
+    }
+
+    private static final class Entry {
+
+        private final StreamBucket bucket;
+        private final ConcurrentRamAccounting ramAccounting;
+
+        Entry(StreamBucket bucket, ConcurrentRamAccounting ramAccounting) {
+            this.bucket = bucket;
+            this.ramAccounting = ramAccounting;
+        }
+
+        long weight() {
+            return ramAccounting.totalBytes();
+        }
+
+        void release() {
+            ramAccounting.release();
+        }
+    }
+
+    private static final class Key {
+
+        private final IndexReader.CacheKey readerKey;
+        private final BytesReference phase;
+
+        Key(IndexReader.CacheKey readerKey, BytesReference phase) {
+            this.readerKey = readerKey;
+            this.phase = phase;
+        }
+
+        long weight() {
+            return phase.length();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return readerKey.equals(key.readerKey) && phase.equals(key.phase);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(readerKey, phase);
+        }
+    }
+}
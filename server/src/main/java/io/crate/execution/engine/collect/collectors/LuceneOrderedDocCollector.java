@@ -35,6 +35,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.CollectionTerminatedException;
 import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
@@ -43,7 +44,9 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Scorable;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SimpleCollector;
 import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TopFieldCollector;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.lucene.MinimumScoreCollector;
@@ -152,8 +155,11 @@ public class LuceneOrderedDocCollector extends OrderedDocCollector {
     private KeyIterable<ShardId, Row> initialSearch() throws IOException {
         if (batchSize > OPTIMIZE_BATCH_SIZE_THRESHOLD && !batchSizeReduced) {
             batchSizeReduced = true;
+            // Counting all matches would visit all documents, which early termination avoids.
+            // Counting up to the batch size doesn't visit more documents than the search itself.
+            int numMatches = sortMatchesIndexSort() ? countUpTo(batchSize) : searcher.count(query);
             // + 1 because TopFieldCollector doesn't work with size=0 and we need to set the `exhausted` flag properly.
-            batchSize = Math.min(batchSize, searcher.count(query) + 1);
+            batchSize = Math.min(batchSize, numMatches + 1);
         }
         for (LuceneCollectorExpression<?> expression : expressions) {
             expression.startCollect(collectorContext);
@@ -168,6 +174,37 @@ public class LuceneOrderedDocCollector extends OrderedDocCollector {
         return doSearch(topFieldCollector, minScore, query);
     }
 
+    /**
+     * The {@link TopFieldCollector} stops to collect a segment as soon as it has collected {@link #batchSize}
+     * documents if the sort is a prefix of the index sort of the segment (see {@code sort_by} table parameter).
+     *
+     * @return true if that's the case for all segments
+     */
+    private boolean sortMatchesIndexSort() {
+        List<SortField> sortFields = Arrays.asList(sort.getSort());
+        for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+            Sort indexSort = leaf.reader().getMetaData().getSort();
+            if (indexSort == null) {
+                return false;
+            }
+            List<SortField> indexSortFields = Arrays.asList(indexSort.getSort());
+            if (sortFields.size() > indexSortFields.size()
+                || !sortFields.equals(indexSortFields.subList(0, sortFields.size()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of documents matching the query, but at most {@code limit}
+     */
+    private int countUpTo(int limit) throws IOException {
+        LimitedHitCountCollector collector = new LimitedHitCountCollector(limit);
+        searcher.search(query, new KillableCollector(collector, this::raiseIfKilled));
+        return collector.count;
+    }
+
     private KeyIterable<ShardId, Row> searchMore() throws IOException {
         if (exhausted()) {
             LOGGER.trace("searchMore but EXHAUSTED");
@@ -228,6 +265,36 @@ public class LuceneOrderedDocCollector extends OrderedDocCollector {
         }
     }
 
+    private static class LimitedHitCountCollector extends SimpleCollector {
+
+        private final int limit;
+        private int count = 0;
+
+        LimitedHitCountCollector(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) {
+            if (count >= limit) {
+                throw new CollectionTerminatedException();
+            }
+        }
+
+        @Override
+        public void collect(int doc) {
+            count++;
+            if (count >= limit) {
+                throw new CollectionTerminatedException();
+            }
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+    }
+
     private static class KillableCollector implements Collector {
 
         private final Collector delegate;
@@ -0,0 +1,62 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * {@link FileInput} for {@code COPY ... FROM STDIN}.
+ * The uri identifies a stream registered in {@link StdinFileInputFactory} which receives the data sent by the client.
+ */
+class StdinFileInput implements FileInput {
+
+    private final Map<String, InputStream> streams;
+
+    StdinFileInput(Map<String, InputStream> streams) {
+        this.streams = streams;
+    }
+
+    @Override
+    public List<URI> listUris(URI fileUri, Predicate<URI> uriPredicate) {
+        return uriPredicate.test(fileUri) ? List.of(fileUri) : List.of();
+    }
+
+    @Override
+    public InputStream getStream(URI uri) throws IOException {
+        InputStream stream = streams.remove(uri.getPath());
+        if (stream == null) {
+            throw new IOException("No client connection is streaming data for " + uri);
+        }
+        return stream;
+    }
+
+    @Override
+    public boolean sharedStorageDefault() {
+        return false;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import org.elasticsearch.common.inject.Singleton;
+
+import java.io.InputStream;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides the data streamed by clients for {@code COPY ... FROM STDIN}.
+ * <p>
+ * The session executing the statement registers the stream under the jobId before the execution starts.
+ * The collect phase of the statement runs on the same node and uses {@link #uri(UUID)} to read it.
+ * A stream can only be consumed once.
+ */
+@Singleton
+public class StdinFileInputFactory implements FileInputFactory {
+
+    public static final String NAME = "stdin";
+
+    private final Map<String, InputStream> streams = new ConcurrentHashMap<>();
+
+    public static String uri(UUID jobId) {
+        return NAME + ":///" + jobId;
+    }
+
+    public void register(UUID jobId, InputStream stream) {
+        streams.put("/" + jobId, stream);
+    }
+
+    public void unregister(UUID jobId) {
+        streams.remove("/" + jobId);
+    }
+
+    @Override
+    public FileInput create() {
+        return new StdinFileInput(streams);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.export;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.BatchIterators;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.data.RowConsumer;
+import io.crate.exceptions.UnhandledServerException;
+import io.crate.execution.dsl.projection.WriterProjection;
+import io.crate.metadata.ColumnIdent;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Consumer for {@code COPY TO STDOUT} which formats every row into the line {@link FileWriterCountCollector}
+ * would write into a file and passes it on to the delegate as a row with a single string column.
+ * <p>
+ * Incoming rows contain the exported values followed by the values of the {@code overwriteColumns}, which
+ * are merged into the document in the first column.
+ */
+public final class CopyToStdoutConsumer implements RowConsumer {
+
+    private final RowConsumer delegate;
+    private final WriterProjection.OutputFormat outputFormat;
+    @Nullable
+    private final List<String> outputNames;
+    private final List<ColumnIdent> overwriteColumns;
+
+    public CopyToStdoutConsumer(RowConsumer delegate,
+                                WriterProjection.OutputFormat outputFormat,
+                                @Nullable List<String> outputNames,
+                                List<ColumnIdent> overwriteColumns) {
+        this.delegate = delegate;
+        this.outputFormat = outputFormat;
+        this.outputNames = outputNames;
+        this.overwriteColumns = overwriteColumns;
+    }
+
+    @Override
+    public void accept(BatchIterator<Row> iterator, @Nullable Throwable failure) {
+        if (failure == null) {
+            delegate.accept(BatchIterators.map(iterator, this::toLine), null);
+        } else {
+            delegate.accept(iterator, failure);
+        }
+    }
+
+    @Override
+    public CompletableFuture<?> completionFuture() {
+        return delegate.completionFuture();
+    }
+
+    /**
+     * Mirrors the writer selection of {@link FileWriterCountCollector}
+     */
+    private Row toLine(Row row) {
+        try {
+            if (!overwriteColumns.isEmpty()) {
+                return toLine(writeDoc(row));
+            } else if (outputFormat == WriterProjection.OutputFormat.JSON_ARRAY) {
+                XContentBuilder builder = XContentFactory.jsonBuilder().startArray();
+                for (int i = 0; i < row.numColumns(); i++) {
+                    builder.value(row.get(i));
+                }
+                return toLine(builder.endArray());
+            } else if (outputNames != null && outputFormat == WriterProjection.OutputFormat.JSON_OBJECT) {
+                XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+                for (int i = 0; i < row.numColumns(); i++) {
+                    builder.field(outputNames.get(i), row.get(i));
+                }
+                return toLine(builder.endObject());
+            } else {
+                return new Row1(row.get(0) + "\n");
+            }
+        } catch (IOException e) {
+            throw new UnhandledServerException("Failed to write row to output", e);
+        }
+    }
+
+    private static Row toLine(XContentBuilder builder) {
+        return new Row1(Strings.toString(builder) + "\n");
+    }
+
+    @SuppressWarnings("unchecked")
+    private XContentBuilder writeDoc(Row row) throws IOException {
+        Map<String, Object> doc = new HashMap<>((Map<String, Object>) row.get(0));
+        Map<ColumnIdent, Object> overwrites = new HashMap<>();
+        for (int i = 0; i < overwriteColumns.size(); i++) {
+            overwrites.put(overwriteColumns.get(i), row.get(i + 1));
+        }
+        XContentHelper.update(doc, FileWriterCountCollector.toNestedStringObjectMap(overwrites), false);
+        return XContentFactory.jsonBuilder().map(doc);
+    }
+}
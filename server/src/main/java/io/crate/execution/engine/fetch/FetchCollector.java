@@ -23,10 +23,11 @@
 package io.crate.execution.engine.fetch;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 import com.carrotsearch.hppc.IntContainer;
-import com.carrotsearch.hppc.cursors.IntCursor;
 
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
@@ -34,19 +35,36 @@ import org.elasticsearch.index.engine.Engine;
 
 import io.crate.Streamer;
 import io.crate.breaker.RamAccounting;
+import io.crate.data.RowN;
 import io.crate.exceptions.Exceptions;
 import io.crate.execution.engine.distribution.StreamBucket;
 import io.crate.expression.InputRow;
 import io.crate.expression.reference.doc.lucene.CollectorContext;
 import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
+import io.crate.expression.reference.doc.lucene.SourceLookup;
 
+/**
+ * Loads the values of the fetch columns for the requested doc ids of a reader.
+ * <p>
+ * The docs are visited ordered by doc id, so that every segment is visited only once and the stored fields
+ * are read sequentially. The rows are returned in the order of the requested doc ids.
+ */
 class FetchCollector {
 
+    /**
+     * Minimum number of docs within a segment to load the stored fields with a reader optimized for sequential
+     * access. That reader decompresses whole blocks, which only pays off if several docs share a block, so the
+     * docs must also not be further apart than {@link #MAX_AVG_DOC_GAP_FOR_SEQUENTIAL_ACCESS} on average.
+     */
+    private static final int MIN_DOCS_FOR_SEQUENTIAL_ACCESS = 10;
+    private static final int MAX_AVG_DOC_GAP_FOR_SEQUENTIAL_ACCESS = 16;
+
     private final LuceneCollectorExpression[] collectorExpressions;
     private final InputRow row;
     private final Streamer<?>[] streamers;
     private final List<LeafReaderContext> readerContexts;
     private final RamAccounting ramAccounting;
+    private final CollectorContext collectorContext;
 
     FetchCollector(List<LuceneCollectorExpression<?>> collectorExpressions,
                    Streamer<?>[] streamers,
@@ -58,7 +76,7 @@ class FetchCollector {
         this.streamers = streamers;
         this.readerContexts = searcher.getIndexReader().leaves();
         this.ramAccounting = ramAccounting;
-        CollectorContext collectorContext = new CollectorContext(readerId);
+        this.collectorContext = new CollectorContext(readerId);
         for (LuceneCollectorExpression<?> collectorExpression : this.collectorExpressions) {
             collectorExpression.startCollect(collectorContext);
         }
@@ -66,26 +84,81 @@ class FetchCollector {
 
     }
 
-    private void setNextDocId(LeafReaderContext readerContext, int doc) throws IOException {
-        for (LuceneCollectorExpression<?> e : collectorExpressions) {
-            e.setNextReader(readerContext);
-            e.setNextDocId(doc);
-        }
-    }
-
     public StreamBucket collect(IntContainer docIds) {
         StreamBucket.Builder builder = new StreamBucket.Builder(streamers, ramAccounting);
-        for (IntCursor cursor : docIds) {
-            int docId = cursor.value;
-            int readerIndex = ReaderUtil.subIndex(docId, readerContexts);
-            LeafReaderContext subReaderContext = readerContexts.get(readerIndex);
-            try {
-                setNextDocId(subReaderContext, docId - subReaderContext.docBase);
-            } catch (IOException e) {
-                Exceptions.rethrowRuntimeException(e);
+        int[] ids = docIds.toArray();
+        try {
+            if (isSorted(ids)) {
+                visitSorted(ids, idx -> builder.add(row));
+            } else {
+                // Sort the doc ids and remember their original position in the lower 32 bits
+                long[] idsWithPosition = new long[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    idsWithPosition[i] = ((long) ids[i] << 32) | i;
+                }
+                Arrays.sort(idsWithPosition);
+                int[] sortedIds = new int[ids.length];
+                for (int i = 0; i < idsWithPosition.length; i++) {
+                    sortedIds[i] = (int) (idsWithPosition[i] >>> 32);
+                }
+                Object[][] rows = new Object[ids.length][];
+                visitSorted(sortedIds, idx -> rows[(int) idsWithPosition[idx]] = row.materialize());
+                RowN rowN = new RowN(collectorExpressions.length);
+                for (Object[] cells : rows) {
+                    rowN.cells(cells);
+                    builder.add(rowN);
+                }
             }
-            builder.add(row);
+        } catch (IOException e) {
+            Exceptions.rethrowRuntimeException(e);
         }
         return builder.build();
     }
+
+    /**
+     * Positions the expressions on every doc of {@code sortedIds} and calls {@code onDoc} with the index of the doc.
+     * The expressions switch to the next segment only once.
+     */
+    private void visitSorted(int[] sortedIds, IntConsumer onDoc) throws IOException {
+        SourceLookup sourceLookup = collectorContext.sourceLookup();
+        int idx = 0;
+        while (idx < sortedIds.length) {
+            int readerIndex = ReaderUtil.subIndex(sortedIds[idx], readerContexts);
+            LeafReaderContext leaf = readerContexts.get(readerIndex);
+            int leafEnd = leaf.docBase + leaf.reader().maxDoc();
+            int end = idx + 1;
+            while (end < sortedIds.length && sortedIds[end] < leafEnd) {
+                end++;
+            }
+            for (LuceneCollectorExpression<?> e : collectorExpressions) {
+                e.setNextReader(leaf);
+            }
+            int numDocs = end - idx;
+            sourceLookup.sequentialAccess(
+                numDocs >= MIN_DOCS_FOR_SEQUENTIAL_ACCESS
+                && sortedIds[end - 1] - sortedIds[idx] <= (long) numDocs * MAX_AVG_DOC_GAP_FOR_SEQUENTIAL_ACCESS
+            );
+            int start = idx;
+            for (; idx < end; idx++) {
+                // Doc values can't be positioned on the same doc twice, duplicates re-use the current values
+                if (idx == start || sortedIds[idx] != sortedIds[idx - 1]) {
+                    int doc = sortedIds[idx] - leaf.docBase;
+                    for (LuceneCollectorExpression<?> e : collectorExpressions) {
+                        e.setNextDocId(doc);
+                    }
+                }
+                onDoc.accept(idx);
+            }
+        }
+        sourceLookup.sequentialAccess(false);
+    }
+
+    private static boolean isSorted(int[] ids) {
+        for (int i = 1; i < ids.length; i++) {
+            if (ids[i] < ids[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,742 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import io.crate.Streamer;
+import io.crate.breaker.RowAccounting;
+import io.crate.common.io.IOUtils;
+import io.crate.data.BatchIterator;
+import io.crate.data.Paging;
+import io.crate.data.Row;
+import io.crate.data.UnsafeArrayRow;
+import io.crate.data.join.CombinedRow;
+import io.crate.data.join.JoinBatchIterator;
+import io.crate.exceptions.Exceptions;
+import io.crate.execution.engine.spill.RowSpillFile;
+import io.crate.execution.engine.spill.SpillFiles;
+import io.crate.planner.node.dql.join.JoinType;
+import io.crate.types.DataTypes;
+import io.netty.util.collection.IntObjectHashMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * <pre>
+ *     Build Phase:
+ *     for (leftRow in left) {
+ *         calculate hash and put in Buffer (HashMap) until the blockSize is reached
+ *     }
+ *
+ *     Probe Phase:
+ *     // We iterate on the right until we find a matching row or the right side needs to be loaded a next batch of data
+ *     for (rightRow in right) {
+ *         if (hash(rightRow) found in Buffer {
+ *            for (row in matchedInBuffer) { // Handle duplicate values from left and hash collisions
+ *                if (joinCondition matches) {
+ *                    // We need to check that the joinCondition matches as we can have a hash collision
+ *                    // or the join condition can contain more operators.
+ *                    //
+ *                    // Row-lookup-by-hash-code can only work by the EQ operators of a join condition,
+ *                    // all other possible operators must be checked afterwards.
+ *                    emmit(combinedRow)
+ *                }
+ *            }
+ *         }
+ *     }
+ *
+ *     When the right side is all loaded, we reset the right iterator to start, clear the buffer and switch back to
+ *     iterate the next elements in the left side and re-build the buffer based on the next items in the left until we
+ *     reach the blockSize again.
+ *
+ *     Repeat until both sides are all loaded and processed.
+ * </pre>
+ * <p>
+ * The caller of the constructor needs to pass two functions {@link #hashBuilderForLeft} and {@link #hashBuilderForRight}.
+ * Those functions are called on each row of the left and right side respectively and they return the hash value of
+ * the relevant columns of the row.
+ * <p>
+ * This information is not available for the {@link HashJoinBatchIterator}, so it's the responsibility of the
+ * caller to provide those two functions that operate on the left and right rows accordingly and return the hash values.
+ * <p>
+ * Besides {@link JoinType#INNER} the iterator supports the outer joins {@link JoinType#LEFT},
+ * {@link JoinType#RIGHT} and {@link JoinType#FULL}, so that either side of an outer join can be loaded into the
+ * buffer. Matches are tracked as follows:
+ * <pre>
+ *     - Matched left rows of the current block are remembered. Once the right side has been probed against a
+ *       block, the unmatched left rows of it are emitted with a null right row (LEFT, FULL).
+ *     - An unmatched right row is emitted with a null left row while probing the last block (RIGHT, FULL). If the
+ *       left side requires multiple blocks, the right rows which matched a previous block are tracked by their
+ *       position in the right side, which is stable as the right side is re-scanned from the start for every block.
+ * </pre>
+ * <p>
+ * If streamers for both sides and a spill path are provided and the left side doesn't fit into a single block, the iterator switches to
+ * a grace hash join instead of re-scanning the right side for every block:
+ * <pre>
+ *     - While probing the right side against the first block, every right row is also written to one of
+ *       {@link #NUM_PARTITIONS} partition files, chosen by the hash of the row.
+ *       For RIGHT and FULL joins the row is written together with a flag telling if it matched the first block.
+ *     - The remaining rows of the left side are written to partition files using the same partitioning.
+ *     - Each pair of left/right partitions is joined: the left partition is loaded into the buffer and probed with
+ *       the rows of the right partition. A left partition which doesn't fit into a single block is loaded block by
+ *       block and the right partition is re-read for every block. For RIGHT and FULL joins the right rows which
+ *       matched a previous block of the partition are tracked by their position in the right partition.
+ * </pre>
+ * This reads both sides only once, unless a partition of the left side requires multiple blocks.
+ */
+public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
+
+    private final RowAccounting<Object[]> leftRowAccounting;
+    private final Predicate<Row> joinCondition;
+
+    /**
+     * Used to avoid instantiating multiple times RowN in {@link #findMatchingRows()}
+     */
+    private final UnsafeArrayRow leftRow = new UnsafeArrayRow();
+    private final ToIntFunction<Row> hashBuilderForLeft;
+    private final ToIntFunction<Row> hashBuilderForRight;
+    private final IntSupplier calculateBlockSize;
+    private final IntObjectHashMap<List<Object[]>> buffer;
+
+    private final UnsafeArrayRow unsafeArrayRow = new UnsafeArrayRow();
+
+    static final int NUM_PARTITIONS = 32;
+
+    @Nullable
+    private final Streamer<?>[] leftStreamers;
+    @Nullable
+    private final Streamer<?>[] rightStreamers;
+    @Nullable
+    private final Path spillPath;
+    private final UnsafeArrayRow rightRow = new UnsafeArrayRow();
+
+    @Nullable
+    private SpillFiles spillFiles;
+    private RowSpillFile[] leftPartitions;
+    private RowSpillFile[] rightPartitions;
+    private boolean partitioningLeft = false;
+    private int currentPartition = -1;
+    private Iterator<Object[]> leftPartitionIterator;
+    private Iterator<Object[]> rightPartitionIterator;
+    private int rightPartitionPosition = -1;
+    private boolean lastPartitionBlock;
+
+    /**
+     * Positions of the rows of the current right partition which matched a previous block of the left partition,
+     * null unless unmatched right rows are emitted (RIGHT, FULL)
+     */
+    @Nullable
+    private final BitSet matchedRightPartitionRows;
+    private volatile Throwable killed;
+
+    /**
+     * Left rows of the buffer which matched at least one right row, null unless unmatched left rows are emitted
+     * (LEFT, FULL)
+     */
+    @Nullable
+    private final Set<Object[]> matchedLeftRows;
+
+    /**
+     * Positions of the right rows which matched one of the previous blocks, null unless unmatched right rows are
+     * emitted (RIGHT, FULL)
+     */
+    @Nullable
+    private final BitSet matchedRightRows;
+
+    /**
+     * The right row which is currently probed against the buffer
+     */
+    private Row probeRow;
+    private int probeHash;
+    private int probeRowPosition = -1;
+    private boolean probeRowMatched;
+    private boolean lastBlock = false;
+
+    /**
+     * Emits the unmatched left rows of the buffer once the right side has been probed against it.
+     * Null as long as the probing isn't finished.
+     */
+    @Nullable
+    private Iterator<List<Object[]>> unmatchedLeftBuckets;
+    private Iterator<Object[]> unmatchedLeftRows = Collections.emptyIterator();
+
+    private int blockSize;
+    private int numberOfRowsInBuffer = 0;
+    private boolean leftBatchHasItems = false;
+    private int numberOfLeftBatchesForBlock;
+    private int numberOfLeftBatchesLoadedForBlock;
+    private Iterator<Object[]> leftMatchingRowsIterator;
+
+    public HashJoinBatchIterator(BatchIterator<Row> left,
+                                 BatchIterator<Row> right,
+                                 RowAccounting<Object[]> leftRowAccounting,
+                                 CombinedRow combiner,
+                                 Predicate<Row> joinCondition,
+                                 ToIntFunction<Row> hashBuilderForLeft,
+                                 ToIntFunction<Row> hashBuilderForRight,
+                                 IntSupplier calculateBlockSize) {
+        this(
+            left,
+            right,
+            leftRowAccounting,
+            combiner,
+            joinCondition,
+            JoinType.INNER,
+            hashBuilderForLeft,
+            hashBuilderForRight,
+            calculateBlockSize,
+            null,
+            null,
+            null
+        );
+    }
+
+    /**
+     * @param joinType one of INNER, LEFT, RIGHT or FULL.
+     * @param leftStreamers streamers for the left rows, required to spill the left side to disk.
+     * @param rightStreamers streamers for the right rows, required to spill the right side to disk.
+     *                       If either one of the streamers is null, the right side is re-scanned for every block.
+     * @param spillPath directory in which the partition files are created, null if spilling is disabled.
+     */
+    public HashJoinBatchIterator(BatchIterator<Row> left,
+                                 BatchIterator<Row> right,
+                                 RowAccounting<Object[]> leftRowAccounting,
+                                 CombinedRow combiner,
+                                 Predicate<Row> joinCondition,
+                                 JoinType joinType,
+                                 ToIntFunction<Row> hashBuilderForLeft,
+                                 ToIntFunction<Row> hashBuilderForRight,
+                                 IntSupplier calculateBlockSize,
+                                 @Nullable Streamer<?>[] leftStreamers,
+                                 @Nullable Streamer<?>[] rightStreamers,
+                                 @Nullable Path spillPath) {
+        super(left, right, combiner);
+        if (joinType != JoinType.INNER
+            && joinType != JoinType.LEFT
+            && joinType != JoinType.RIGHT
+            && joinType != JoinType.FULL) {
+            throw new IllegalArgumentException("Hash join doesn't support join type " + joinType);
+        }
+        this.leftRowAccounting = leftRowAccounting;
+        this.joinCondition = joinCondition;
+        this.hashBuilderForLeft = hashBuilderForLeft;
+        this.hashBuilderForRight = hashBuilderForRight;
+        this.calculateBlockSize = calculateBlockSize;
+        this.leftStreamers = leftStreamers;
+        this.rightStreamers = rightStreamers;
+        this.spillPath = spillPath;
+        boolean emitsUnmatchedLeftRows = joinType == JoinType.LEFT || joinType == JoinType.FULL;
+        boolean emitsUnmatchedRightRows = joinType == JoinType.RIGHT || joinType == JoinType.FULL;
+        this.matchedLeftRows = emitsUnmatchedLeftRows ? Collections.newSetFromMap(new IdentityHashMap<>()) : null;
+        this.matchedRightRows = emitsUnmatchedRightRows ? new BitSet() : null;
+        this.matchedRightPartitionRows = emitsUnmatchedRightRows ? new BitSet() : null;
+        // resized upon block size calculation
+        this.buffer = new IntObjectHashMap<>();
+        resetBuffer();
+        // initially 1 page/batch is loaded
+        numberOfLeftBatchesLoadedForBlock = 1;
+        this.activeIt = left;
+    }
+
+    @Override
+    public Row currentElement() {
+        return combiner.currentElement();
+    }
+
+    @Override
+    public void moveToStart() {
+        left.moveToStart();
+        right.moveToStart();
+        activeIt = left;
+        closePartitions();
+        resetBuffer();
+        leftMatchingRowsIterator = null;
+        probeRowPosition = -1;
+        lastBlock = false;
+        if (matchedRightRows != null) {
+            matchedRightRows.clear();
+        }
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        if (activeIt == left) {
+            numberOfLeftBatchesLoadedForBlock++;
+        }
+        return super.loadNextBatch();
+    }
+
+    @Override
+    public boolean moveNext() {
+        raiseIfKilled();
+        if (currentPartition >= 0) {
+            return matchPartitions();
+        }
+        if (partitioningLeft) {
+            return partitionRemainingLeftRows() && matchPartitions();
+        }
+        while (true) {
+            if (unmatchedLeftBuckets == null) {
+                if (buildBufferAndMatchRight()) {
+                    // match found
+                    return true;
+                }
+                if (activeIt == left || right.allLoaded() == false) {
+                    // left or right needs the next batch loaded
+                    return false;
+                }
+                // the right side has been probed against the whole block
+                unmatchedLeftBuckets = matchedLeftRows != null
+                    ? buffer.values().iterator()
+                    : Collections.emptyIterator();
+            }
+            if (nextUnmatchedLeftRow()) {
+                return true;
+            }
+            if (leftBatchHasItems == false && left.allLoaded()) {
+                // both sides are fully loaded, we're done here
+                return false;
+            } else if (rightPartitions != null) {
+                // the right side is partitioned, all remaining left rows are joined partition-wise
+                finishWriting(rightPartitions);
+                activeIt = left;
+                resetBuffer();
+                partitioningLeft = true;
+                return partitionRemainingLeftRows() && matchPartitions();
+            } else {
+                right.moveToStart();
+                probeRowPosition = -1;
+                activeIt = left;
+                resetBuffer();
+            }
+        }
+    }
+
+    private void resetBuffer() {
+        blockSize = calculateBlockSize.getAsInt();
+        clearBuffer();
+
+        // A batch is not guaranteed to deliver PAGE_SIZE number of rows. It could be more or less.
+        // So we cannot rely on that to decide if processing 1 block is done, we must also know and track how much
+        // batches should be required for processing 1 block.
+        numberOfLeftBatchesForBlock = Math.max(1, (int) Math.ceil((double) blockSize / Paging.PAGE_SIZE));
+        numberOfLeftBatchesLoadedForBlock = leftBatchHasItems ? 1 : 0;
+    }
+
+    private void clearBuffer() {
+        buffer.clear();
+        numberOfRowsInBuffer = 0;
+        leftRowAccounting.release();
+        if (matchedLeftRows != null) {
+            matchedLeftRows.clear();
+        }
+        unmatchedLeftBuckets = null;
+        unmatchedLeftRows = Collections.emptyIterator();
+    }
+
+    private boolean buildBufferAndMatchRight() {
+        if (activeIt == left) {
+            while (leftBatchHasItems = left.moveNext()) {
+                Object[] leftRow = left.currentElement().materialize();
+                leftRowAccounting.accountForAndMaybeBreak(leftRow);
+                int hash = hashBuilderForLeft.applyAsInt(unsafeArrayRow.cells(leftRow));
+                addToBuffer(leftRow, hash);
+                if (numberOfRowsInBuffer == blockSize) {
+                    break;
+                }
+            }
+
+            if (mustLoadLeftNextBatch()) {
+                // we should load the left side
+                return false;
+            }
+
+            if (mustSwitchToRight()) {
+                activeIt = right;
+                lastBlock = leftBatchHasItems == false && left.allLoaded();
+                if (left.allLoaded() == false && rightPartitions == null && canSpill()) {
+                    // more than one block is required for the left side
+                    startPartitioning();
+                }
+            }
+        }
+
+        // In case of multiple matches on the left side (duplicate values or hash collisions)
+        if (leftMatchingRowsIterator != null) {
+            if (findMatchingRows()) {
+                return true;
+            }
+            leftMatchingRowsIterator = null;
+            if (finishProbeRow()) {
+                return true;
+            }
+        }
+        while (right.moveNext()) {
+            probeRow = right.currentElement();
+            probeHash = hashBuilderForRight.applyAsInt(probeRow);
+            probeRowPosition++;
+            probeRowMatched = lastBlock && matchedRightRows != null && matchedRightRows.get(probeRowPosition);
+            List<Object[]> leftMatchingRows = buffer.get(probeHash);
+            if (leftMatchingRows != null) {
+                leftMatchingRowsIterator = leftMatchingRows.iterator();
+                if (findMatchingRows()) {
+                    return true;
+                }
+                leftMatchingRowsIterator = null;
+            }
+            if (finishProbeRow()) {
+                return true;
+            }
+        }
+
+        // need to load the next batch of the right relation
+        return false;
+    }
+
+    /**
+     * Called once the current right row has been probed against all candidates of the buffer.
+     *
+     * @return true if the right row is emitted as unmatched row.
+     */
+    private boolean finishProbeRow() {
+        if (rightPartitions != null) {
+            addToPartition(rightPartitions, rightPartitionCells(probeRow), probeHash);
+        }
+        if (matchedRightRows != null) {
+            if (lastBlock) {
+                return emitIfUnmatchedRight();
+            }
+            if (probeRowMatched && rightPartitions == null) {
+                matchedRightRows.set(probeRowPosition);
+            }
+        }
+        return false;
+    }
+
+    private Object[] rightPartitionCells(Row row) {
+        if (matchedRightRows == null) {
+            return row.materialize();
+        }
+        int numColumns = row.numColumns();
+        Object[] cells = new Object[numColumns + 1];
+        for (int i = 0; i < numColumns; i++) {
+            cells[i] = row.get(i);
+        }
+        cells[numColumns] = probeRowMatched;
+        return cells;
+    }
+
+    private boolean emitIfUnmatchedRight() {
+        if (probeRowMatched) {
+            return false;
+        }
+        combiner.nullLeft();
+        combiner.setRight(probeRow);
+        return true;
+    }
+
+    private boolean nextUnmatchedLeftRow() {
+        while (true) {
+            while (unmatchedLeftRows.hasNext()) {
+                Object[] cells = unmatchedLeftRows.next();
+                if (matchedLeftRows.contains(cells) == false) {
+                    leftRow.cells(cells);
+                    combiner.setLeft(leftRow);
+                    combiner.nullRight();
+                    return true;
+                }
+            }
+            if (unmatchedLeftBuckets.hasNext()) {
+                unmatchedLeftRows = unmatchedLeftBuckets.next().iterator();
+            } else {
+                return false;
+            }
+        }
+    }
+
+    private void addToBuffer(Object[] currentRow, int hash) {
+        List<Object[]> existingRows = buffer.get(hash);
+        if (existingRows == null) {
+            existingRows = new ArrayList<>();
+            buffer.put(hash, existingRows);
+        }
+        existingRows.add(currentRow);
+        numberOfRowsInBuffer++;
+    }
+
+    private boolean findMatchingRows() {
+        while (leftMatchingRowsIterator.hasNext()) {
+            Object[] cells = leftMatchingRowsIterator.next();
+            leftRow.cells(cells);
+            combiner.setLeft(leftRow);
+            combiner.setRight(probeRow);
+            if (joinCondition.test(combiner.currentElement())) {
+                probeRowMatched = true;
+                if (matchedLeftRows != null) {
+                    matchedLeftRows.add(cells);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean mustSwitchToRight() {
+        return left.allLoaded()
+               || numberOfRowsInBuffer == blockSize
+               || (leftBatchHasItems == false && numberOfLeftBatchesLoadedForBlock == numberOfLeftBatchesForBlock);
+    }
+
+    private boolean mustLoadLeftNextBatch() {
+        return leftBatchHasItems == false
+               && left.allLoaded() == false
+               && numberOfRowsInBuffer < blockSize
+               && numberOfLeftBatchesLoadedForBlock < numberOfLeftBatchesForBlock;
+    }
+
+    private boolean canSpill() {
+        return spillPath != null && leftStreamers != null && rightStreamers != null;
+    }
+
+    private void startPartitioning() {
+        try {
+            spillFiles = SpillFiles.create(spillPath, "crate-hash-join-");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Streamer<?>[] rightPartitionStreamers = rightStreamers;
+        if (matchedRightRows != null) {
+            rightPartitionStreamers = new Streamer<?>[rightStreamers.length + 1];
+            System.arraycopy(rightStreamers, 0, rightPartitionStreamers, 0, rightStreamers.length);
+            rightPartitionStreamers[rightStreamers.length] = DataTypes.BOOLEAN.streamer();
+        }
+        leftPartitions = new RowSpillFile[NUM_PARTITIONS];
+        rightPartitions = new RowSpillFile[NUM_PARTITIONS];
+        for (int i = 0; i < NUM_PARTITIONS; i++) {
+            leftPartitions[i] = new RowSpillFile(spillFiles, leftStreamers);
+            rightPartitions[i] = new RowSpillFile(spillFiles, rightPartitionStreamers);
+        }
+    }
+
+    private static int partition(int hash) {
+        // Spread the higher bits, the buffer uses the lower bits of the same hash
+        int h = hash ^ (hash >>> 16) ^ (hash >>> 24);
+        return Math.floorMod(h, NUM_PARTITIONS);
+    }
+
+    private static void addToPartition(RowSpillFile[] partitions, Object[] cells, int hash) {
+        try {
+            partitions[partition(hash)].add(cells);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void finishWriting(RowSpillFile[] partitions) {
+        try {
+            for (RowSpillFile partition : partitions) {
+                partition.finishWriting();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return true if all left rows have been partitioned, false if the next batch of the left side must be loaded.
+     */
+    private boolean partitionRemainingLeftRows() {
+        while (left.moveNext()) {
+            Row row = left.currentElement();
+            addToPartition(leftPartitions, row.materialize(), hashBuilderForLeft.applyAsInt(row));
+        }
+        if (left.allLoaded() == false) {
+            return false;
+        }
+        finishWriting(leftPartitions);
+        partitioningLeft = false;
+        currentPartition = 0;
+        loadPartition(currentPartition);
+        return true;
+    }
+
+    private void loadPartition(int partition) {
+        if (matchedRightPartitionRows != null) {
+            matchedRightPartitionRows.clear();
+        }
+        RowSpillFile leftPartition = leftPartitions[partition];
+        if (leftPartition.numRows() == 0 && matchedRightPartitionRows == null) {
+            // without left rows there can't be any match or unmatched left row
+            clearBuffer();
+            leftMatchingRowsIterator = null;
+            leftPartitionIterator = Collections.emptyIterator();
+            rightPartitionIterator = Collections.emptyIterator();
+            lastPartitionBlock = true;
+            return;
+        }
+        leftPartitionIterator = leftPartition.iterator();
+        loadPartitionBlock(partition);
+    }
+
+    /**
+     * Loads the next block of the left partition into the buffer and starts to re-read the right partition.
+     */
+    private void loadPartitionBlock(int partition) {
+        clearBuffer();
+        leftMatchingRowsIterator = null;
+        int partitionBlockSize = Math.max(1, calculateBlockSize.getAsInt());
+        while (numberOfRowsInBuffer < partitionBlockSize && leftPartitionIterator.hasNext()) {
+            Object[] leftRow = leftPartitionIterator.next();
+            leftRowAccounting.accountForAndMaybeBreak(leftRow);
+            addToBuffer(leftRow, hashBuilderForLeft.applyAsInt(unsafeArrayRow.cells(leftRow)));
+        }
+        lastPartitionBlock = leftPartitionIterator.hasNext() == false;
+        rightPartitionIterator = rightPartitions[partition].iterator();
+        rightPartitionPosition = -1;
+    }
+
+    private boolean matchPartitions() {
+        while (currentPartition < NUM_PARTITIONS) {
+            if (unmatchedLeftBuckets == null) {
+                if (probePartition()) {
+                    return true;
+                }
+                unmatchedLeftBuckets = matchedLeftRows != null
+                    ? buffer.values().iterator()
+                    : Collections.emptyIterator();
+            }
+            if (nextUnmatchedLeftRow()) {
+                return true;
+            }
+            if (lastPartitionBlock == false) {
+                loadPartitionBlock(currentPartition);
+                continue;
+            }
+            currentPartition++;
+            if (currentPartition < NUM_PARTITIONS) {
+                loadPartition(currentPartition);
+            } else {
+                clearBuffer();
+            }
+        }
+        return false;
+    }
+
+    private boolean probePartition() {
+        if (leftMatchingRowsIterator != null) {
+            if (findMatchingRows()) {
+                return true;
+            }
+            leftMatchingRowsIterator = null;
+            if (finishPartitionProbeRow()) {
+                return true;
+            }
+        }
+        while (rightPartitionIterator.hasNext()) {
+            Object[] cells = rightPartitionIterator.next();
+            rightPartitionPosition++;
+            probeRow = rightRow.cells(cells);
+            // RIGHT and FULL joins carry the information if the row matched the first block in the last column
+            probeRowMatched = matchedRightPartitionRows != null
+                              && ((Boolean) cells[cells.length - 1] || matchedRightPartitionRows.get(rightPartitionPosition));
+            List<Object[]> leftMatchingRows = buffer.get(hashBuilderForRight.applyAsInt(rightRow));
+            if (leftMatchingRows != null) {
+                leftMatchingRowsIterator = leftMatchingRows.iterator();
+                if (findMatchingRows()) {
+                    return true;
+                }
+                leftMatchingRowsIterator = null;
+            }
+            if (finishPartitionProbeRow()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Called once the current row of the right partition has been probed against all candidates of the buffer.
+     *
+     * @return true if the right row is emitted as unmatched row.
+     */
+    private boolean finishPartitionProbeRow() {
+        if (matchedRightPartitionRows == null) {
+            return false;
+        }
+        if (lastPartitionBlock) {
+            return emitIfUnmatchedRight();
+        }
+        if (probeRowMatched) {
+            matchedRightPartitionRows.set(rightPartitionPosition);
+        }
+        return false;
+    }
+
+    private void closePartitions() {
+        if (spillFiles != null) {
+            IOUtils.closeWhileHandlingException(leftPartitions);
+            IOUtils.closeWhileHandlingException(rightPartitions);
+            IOUtils.closeWhileHandlingException(spillFiles);
+            spillFiles = null;
+        }
+        leftPartitions = null;
+        rightPartitions = null;
+        leftPartitionIterator = null;
+        rightPartitionIterator = null;
+        partitioningLeft = false;
+        currentPartition = -1;
+    }
+
+    private void raiseIfKilled() {
+        if (killed != null) {
+            Exceptions.rethrowUnchecked(killed);
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        closePartitions();
+        killed = BatchIterator.CLOSED;
+    }
+
+    @Override
+    public void kill(@Nonnull Throwable throwable) {
+        super.kill(throwable);
+        killed = throwable;
+    }
+}
@@ -22,6 +22,7 @@
 
 package io.crate.execution.engine.join;
 
+import io.crate.Streamer;
 import io.crate.breaker.RowAccounting;
 import io.crate.concurrent.CompletionListenable;
 import io.crate.data.BatchIterator;
@@ -34,8 +35,11 @@ import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.expression.InputFactory;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.TransactionContext;
+import io.crate.planner.node.dql.join.JoinType;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 
+import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
@@ -51,6 +55,7 @@ public class HashJoinOperation implements CompletionListenable {
                              int numRightCols,
                              RowConsumer nlResultConsumer,
                              Predicate<Row> joinPredicate,
+                             JoinType joinType,
                              List<Symbol> joinLeftInputs,
                              List<Symbol> joinRightInputs,
                              RowAccounting<Object[]> rowAccounting,
@@ -58,7 +63,10 @@ public class HashJoinOperation implements CompletionListenable {
                              InputFactory inputFactory,
                              CircuitBreaker circuitBreaker,
                              long estimatedRowSizeForLeft,
-                             long numberOfRowsForLeft) {
+                             long numberOfRowsForLeft,
+                             Streamer<?>[] leftStreamers,
+                             @Nullable Streamer<?>[] rightStreamers,
+                             @Nullable Path spillPath) {
 
         this.resultConsumer = nlResultConsumer;
         this.leftConsumer = new CapturingRowConsumer(false, nlResultConsumer.completionFuture());
@@ -74,6 +82,7 @@ public class HashJoinOperation implements CompletionListenable {
                             rightConsumer.capturedBatchIterator().join(),
                             numRightCols,
                             joinPredicate,
+                            joinType,
                             getHashBuilderFromSymbols(txnCtx, inputFactory, joinLeftInputs),
                             getHashBuilderFromSymbols(txnCtx, inputFactory, joinRightInputs),
                             rowAccounting,
@@ -82,7 +91,10 @@ public class HashJoinOperation implements CompletionListenable {
                                 circuitBreaker,
                                 estimatedRowSizeForLeft,
                                 numberOfRowsForLeft
-                            )
+                            ),
+                            leftStreamers,
+                            rightStreamers,
+                            spillPath
                         );
                         nlResultConsumer.accept(joinIterator, null);
                     } catch (Exception e) {
@@ -131,19 +143,27 @@ public class HashJoinOperation implements CompletionListenable {
                                                              BatchIterator<Row> right,
                                                              int rightNumCols,
                                                              Predicate<Row> joinCondition,
+                                                             JoinType joinType,
                                                              ToIntFunction<Row> hashBuilderForLeft,
                                                              ToIntFunction<Row> hashBuilderForRight,
                                                              RowAccounting<Object[]> rowAccounting,
-                                                             RamBlockSizeCalculator blockSizeCalculator) {
+                                                             RamBlockSizeCalculator blockSizeCalculator,
+                                                             Streamer<?>[] leftStreamers,
+                                                             @Nullable Streamer<?>[] rightStreamers,
+                                                             @Nullable Path spillPath) {
         CombinedRow combiner = new CombinedRow(leftNumCols, rightNumCols);
-        return new HashInnerJoinBatchIterator(
+        return new HashJoinBatchIterator(
             left,
             right,
             rowAccounting,
             combiner,
             joinCondition,
+            joinType,
             hashBuilderForLeft,
             hashBuilderForRight,
-            blockSizeCalculator);
+            blockSizeCalculator,
+            leftStreamers,
+            rightStreamers,
+            spillPath);
     }
 }
@@ -0,0 +1,117 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import io.crate.breaker.RowAccounting;
+import io.crate.concurrent.CompletionListenable;
+import io.crate.data.BatchIterator;
+import io.crate.data.CapturingRowConsumer;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowConsumer;
+import io.crate.data.join.CombinedRow;
+import io.crate.data.join.MergeJoinBatchIterator;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.expression.InputFactory;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.TransactionContext;
+import io.crate.types.DataType;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+public class MergeJoinOperation implements CompletionListenable {
+
+    private final CapturingRowConsumer leftConsumer;
+    private final CapturingRowConsumer rightConsumer;
+    private final RowConsumer resultConsumer;
+
+    public MergeJoinOperation(int numLeftCols,
+                              int numRightCols,
+                              RowConsumer resultConsumer,
+                              Predicate<Row> joinPredicate,
+                              Symbol leftJoinKey,
+                              Symbol rightJoinKey,
+                              RowAccounting<Object[]> rowAccounting,
+                              TransactionContext txnCtx,
+                              InputFactory inputFactory) {
+        this.resultConsumer = resultConsumer;
+        this.leftConsumer = new CapturingRowConsumer(false, resultConsumer.completionFuture());
+        this.rightConsumer = new CapturingRowConsumer(false, resultConsumer.completionFuture());
+        CompletableFuture.allOf(leftConsumer.capturedBatchIterator(), rightConsumer.capturedBatchIterator())
+            .whenComplete((result, failure) -> {
+                if (failure == null) {
+                    BatchIterator<Row> joinIterator;
+                    try {
+                        @SuppressWarnings("unchecked")
+                        DataType<Object> keyType = (DataType<Object>) leftJoinKey.valueType();
+                        joinIterator = new MergeJoinBatchIterator(
+                            leftConsumer.capturedBatchIterator().join(),
+                            rightConsumer.capturedBatchIterator().join(),
+                            new CombinedRow(numLeftCols, numRightCols),
+                            joinPredicate,
+                            getKeyFromSymbol(txnCtx, inputFactory, leftJoinKey),
+                            getKeyFromSymbol(txnCtx, inputFactory, rightJoinKey),
+                            keyType,
+                            rowAccounting
+                        );
+                        resultConsumer.accept(joinIterator, null);
+                    } catch (Exception e) {
+                        resultConsumer.accept(null, e);
+                    }
+                } else {
+                    resultConsumer.accept(null, failure);
+                }
+            });
+    }
+
+    @Override
+    public CompletableFuture<?> completionFuture() {
+        return resultConsumer.completionFuture();
+    }
+
+    public RowConsumer leftConsumer() {
+        return leftConsumer;
+    }
+
+    public RowConsumer rightConsumer() {
+        return rightConsumer;
+    }
+
+    private static Function<Row, Object> getKeyFromSymbol(TransactionContext txnCtx,
+                                                          InputFactory inputFactory,
+                                                          Symbol key) {
+        InputFactory.Context<? extends CollectExpression<Row, ?>> ctx =
+            inputFactory.ctxForInputColumns(txnCtx, List.of(key));
+        Input<?> input = ctx.topLevelInputs().get(0);
+        var expressions = ctx.expressions();
+        return row -> {
+            for (int i = 0; i < expressions.size(); i++) {
+                expressions.get(i).setNextRow(row);
+            }
+            return input.value();
+        };
+    }
+}
@@ -75,6 +75,8 @@ import io.crate.execution.engine.indexing.UpsertResultContext;
 import io.crate.execution.engine.sort.OrderingByPosition;
 import io.crate.execution.engine.sort.SortingProjector;
 import io.crate.execution.engine.sort.SortingTopNProjector;
+import io.crate.execution.engine.spill.SpillFiles;
+import io.crate.execution.engine.spill.SpillableRamAccounting;
 import io.crate.execution.engine.window.WindowProjector;
 import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.execution.support.ThreadPools;
@@ -97,6 +99,7 @@ import io.crate.metadata.RowGranularity;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.sys.SysNodeChecksTableInfo;
 import io.crate.planner.operators.SubQueryResults;
+import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import io.crate.types.StringType;
 import org.elasticsearch.Version;
@@ -110,6 +113,7 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -152,6 +156,8 @@ public class ProjectionToProjectorVisitor
     @Nullable
     private final ShardId shardId;
     private final int numProcessors;
+    @Nullable
+    private final Path spillPath;
 
     public ProjectionToProjectorVisitor(ClusterService clusterService,
                                         NodeJobsCounter nodeJobsCounter,
@@ -178,6 +184,7 @@ public class ProjectionToProjectorVisitor
         this.indexVersionCreated = indexVersionCreated;
         this.shardId = shardId;
         this.numProcessors = EsExecutors.numberOfProcessors(settings);
+        this.spillPath = SpillFiles.spillPath(settings);
     }
 
     public ProjectionToProjectorVisitor(ClusterService clusterService,
@@ -238,14 +245,14 @@ public class ProjectionToProjectorVisitor
         }
 
         int rowMemoryOverhead = 32; // priority queues implementation are backed by an arrayList
-        RowCellsAccountingWithEstimators rowAccounting = new RowCellsAccountingWithEstimators(
-            Symbols.typeView(Lists2.concat(projection.outputs(), projection.orderBy())),
-            context.ramAccounting,
-            rowMemoryOverhead
-        );
+        List<DataType<?>> rowTypes = Symbols.typeView(Lists2.concat(projection.outputs(), projection.orderBy()));
+        SpillableRamAccounting ramAccounting = new SpillableRamAccounting(context.ramAccounting);
         if (projection.limit() > TopN.NO_LIMIT) {
             return new SortingTopNProjector(
-                rowAccounting,
+                ramAccounting,
+                spillPath,
+                rowTypes,
+                rowMemoryOverhead,
                 inputs,
                 ctx.expressions(),
                 numOutputs,
@@ -256,7 +263,10 @@ public class ProjectionToProjectorVisitor
             );
         }
         return new SortingProjector(
-            rowAccounting,
+            ramAccounting,
+            spillPath,
+            rowTypes,
+            rowMemoryOverhead,
             inputs,
             ctx.expressions(),
             numOutputs,
@@ -304,7 +314,8 @@ public class ProjectionToProjectorVisitor
             context.ramAccounting,
             context.memoryManager,
             clusterService.state().getNodes().getMinNodeVersion(),
-            indexVersionCreated
+            indexVersionCreated,
+            spillPath
         );
     }
 
@@ -665,6 +676,7 @@ public class ProjectionToProjectorVisitor
             context.txnCtx,
             context.ramAccounting,
             context.memoryManager,
+            spillPath,
             clusterService.state().nodes().getMinNodeVersion(),
             indexVersionCreated,
             ThreadPools.numIdleThreads(searchThreadPool, numProcessors),
@@ -148,21 +148,27 @@ public class SortSymbolVisitor extends SymbolVisitor<SortSymbolVisitor.SortSymbo
             return customSortField(symbol.toString(), symbol, context);
         } else {
             return mappedSortField(
-                symbol,
-                fieldType,
+                columnIdent.fqn(),
+                symbol.valueType(),
                 context.reverseFlag,
                 NullValueOrder.fromFlag(context.nullFirst)
             );
         }
     }
 
-    private static SortField mappedSortField(Reference symbol,
-                                             MappedFieldType fieldType,
-                                             boolean reverse,
-                                             NullValueOrder nullValueOrder) {
-        String fieldName = symbol.column().fqn();
+    /**
+     * Creates a SortField for a column which is sorted using its doc values.
+     * <p>
+     * The same SortField is used for the index sort of a table (see {@link org.elasticsearch.index.IndexSortConfig}),
+     * so that Lucene can early terminate the collection of the top documents of a segment if the ORDER BY of a query
+     * matches the index sort.
+     */
+    public static SortField mappedSortField(String fieldName,
+                                            DataType<?> valueType,
+                                            boolean reverse,
+                                            NullValueOrder nullValueOrder) {
         MultiValueMode sortMode = reverse ? MultiValueMode.MAX : MultiValueMode.MIN;
-        switch (symbol.valueType().id()) {
+        switch (valueType.id()) {
             case StringType.ID: {
                 SortField sortField = new SortedSetSortField(
                     fieldName,
@@ -220,7 +226,7 @@ public class SortSymbolVisitor extends SymbolVisitor<SortSymbolVisitor.SortSymbo
                         "can't sort on geo_point field without using specific sorting feature, like geo_distance");
 
             default:
-                throw new UnsupportedOperationException("Cannot order on " + symbol + "::" + symbol.valueType());
+                throw new UnsupportedOperationException("Cannot order on " + fieldName + "::" + valueType);
         }
     }
 
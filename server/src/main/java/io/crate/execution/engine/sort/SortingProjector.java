@@ -22,19 +22,41 @@
 
 package io.crate.execution.engine.sort;
 
+import com.google.common.collect.Iterables;
+import io.crate.Streamer;
 import io.crate.breaker.RowAccounting;
+import io.crate.breaker.RowCellsAccountingWithEstimators;
 import io.crate.data.BatchIterator;
+import io.crate.data.BatchIterators;
 import io.crate.data.Bucket;
+import io.crate.data.Buckets;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.CollectionBucket;
 import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.SpillFiles;
+import io.crate.execution.engine.spill.SpillableRamAccounting;
+import io.crate.execution.engine.spill.Spilling;
+import io.crate.types.DataType;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
 
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
@@ -43,6 +65,10 @@ import java.util.stream.Collectors;
  * <p>
  * Compared to {@link SortingTopNProjector} this projector does not support limiting,
  * while the {@link SortingTopNProjector} does not work WITHOUT a limit.
+ * <p>
+ * If created with the types of the rows, the rows are sorted externally once the circuit breaker trips:
+ * The rows held in memory are sorted and written as a run to a temporary file, and once the source is consumed
+ * all runs are merged while emitting the rows (see {@link SpilledRuns}).
  */
 public class SortingProjector implements Projector {
 
@@ -54,6 +80,13 @@ public class SortingProjector implements Projector {
     private final int numOutputs;
     private final RowAccounting<Object[]> rowAccounting;
 
+    @Nullable
+    private final SpillableRamAccounting ramAccounting;
+    @Nullable
+    private final Path spillPath;
+    @Nullable
+    private final Streamer<Object>[] streamers;
+
     /**
      * @param rowAccounting               sorting is a pipeline breaker so account for the used memory
      * @param inputs             contains output {@link Input}s and orderBy {@link Input}s
@@ -68,10 +101,55 @@ public class SortingProjector implements Projector {
                             int numOutputs,
                             Comparator<Object[]> comparator,
                             int offset) {
+        this(rowAccounting, null, null, null, inputs, collectExpressions, numOutputs, comparator, offset);
+    }
+
+    /**
+     * Creates a projector which spills sorted runs to disk instead of failing if the circuit breaker trips.
+     *
+     * @param ramAccounting   used to account for the rows held in memory
+     * @param spillPath       directory in which the runs are written, null if spilling is disabled
+     * @param rowTypes        the types of the <code>inputs</code>, used to write the rows to disk
+     * @param extraSizePerRow memory overhead accounted per row in addition to the size of the values
+     */
+    public SortingProjector(SpillableRamAccounting ramAccounting,
+                            @Nullable Path spillPath,
+                            List<? extends DataType> rowTypes,
+                            int extraSizePerRow,
+                            Collection<? extends Input<?>> inputs,
+                            Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                            int numOutputs,
+                            Comparator<Object[]> comparator,
+                            int offset) {
+        this(
+            new RowCellsAccountingWithEstimators(rowTypes, ramAccounting, extraSizePerRow),
+            ramAccounting,
+            spillPath,
+            streamers(rowTypes),
+            inputs,
+            collectExpressions,
+            numOutputs,
+            comparator,
+            offset
+        );
+    }
+
+    private SortingProjector(RowAccounting<Object[]> rowAccounting,
+                             @Nullable SpillableRamAccounting ramAccounting,
+                             @Nullable Path spillPath,
+                             @Nullable Streamer<Object>[] streamers,
+                             Collection<? extends Input<?>> inputs,
+                             Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                             int numOutputs,
+                             Comparator<Object[]> comparator,
+                             int offset) {
         if (offset < 0) {
             throw new IllegalArgumentException("invalid offset " + offset);
         }
         this.rowAccounting = rowAccounting;
+        this.ramAccounting = ramAccounting;
+        this.spillPath = spillPath;
+        this.streamers = streamers;
         this.numOutputs = numOutputs;
         this.inputs = inputs;
         this.collectExpressions = collectExpressions;
@@ -79,13 +157,34 @@ public class SortingProjector implements Projector {
         this.offset = offset;
     }
 
+    static Streamer<Object>[] streamers(List<? extends DataType> types) {
+        //noinspection unchecked
+        Streamer<Object>[] streamers = new Streamer[types.size()];
+        for (int i = 0; i < streamers.length; i++) {
+            //noinspection unchecked
+            streamers[i] = (Streamer<Object>) types.get(i).streamer();
+        }
+        return streamers;
+    }
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
-        Collector<Row, ?, Bucket> collector = Collectors.mapping(
-            this::getCells,
-            Collectors.collectingAndThen(Collectors.toList(), this::sortAndCreateBucket));
-        return CollectingBatchIterator.newInstance(batchIterator, collector);
+        if (ramAccounting == null) {
+            Collector<Row, ?, Bucket> collector = Collectors.mapping(
+                this::getCells,
+                Collectors.collectingAndThen(Collectors.toList(), this::sortAndCreateBucket));
+            return CollectingBatchIterator.newInstance(batchIterator, collector);
+        }
+        SpillingSortCollector collector = new SpillingSortCollector(ramAccounting, streamers);
+        return CollectingBatchIterator.newInstance(
+            () -> {
+                batchIterator.close();
+                Spilling.closeUnchecked(collector);
+            },
+            batchIterator::kill,
+            () -> BatchIterators.collect(batchIterator, collector),
+            batchIterator.hasLazyResultSet()
+        );
     }
 
     @Override
@@ -94,6 +193,12 @@ public class SortingProjector implements Projector {
     }
 
     private Object[] getCells(Row row) {
+        Object[] newRow = getCellsWithoutAccounting(row);
+        rowAccounting.accountForAndMaybeBreak(newRow);
+        return newRow;
+    }
+
+    private Object[] getCellsWithoutAccounting(Row row) {
         for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
             collectExpression.setNextRow(row);
         }
@@ -102,7 +207,6 @@ public class SortingProjector implements Projector {
         for (Input<?> input : inputs) {
             newRow[i++] = input.value();
         }
-        rowAccounting.accountForAndMaybeBreak(newRow);
         return newRow;
     }
 
@@ -113,4 +217,97 @@ public class SortingProjector implements Projector {
         }
         return new CollectionBucket(rows.subList(offset, rows.size()), numOutputs);
     }
+
+    /**
+     * Collects the rows into a list and spills it as sorted run once the circuit breaker trips.
+     * An instance must only be used for a single collect run.
+     */
+    private class SpillingSortCollector implements Collector<Row, List<Object[]>, Iterable<Row>>, Closeable {
+
+        private final SpillableRamAccounting ramAccounting;
+        private final Streamer<Object>[] streamers;
+
+        @Nullable
+        private SpilledRuns spilledRuns;
+
+        SpillingSortCollector(SpillableRamAccounting ramAccounting, Streamer<Object>[] streamers) {
+            this.ramAccounting = ramAccounting;
+            this.streamers = streamers;
+        }
+
+        @Override
+        public Supplier<List<Object[]>> supplier() {
+            return ArrayList::new;
+        }
+
+        @Override
+        public BiConsumer<List<Object[]>, Row> accumulator() {
+            return this::onNextRow;
+        }
+
+        @Override
+        public BinaryOperator<List<Object[]>> combiner() {
+            return (rows1, rows2) -> {
+                throw new UnsupportedOperationException("combine not supported");
+            };
+        }
+
+        @Override
+        public Function<List<Object[]>, Iterable<Row>> finisher() {
+            return this::finish;
+        }
+
+        @Override
+        public Set<Characteristics> characteristics() {
+            return Collections.emptySet();
+        }
+
+        private void onNextRow(List<Object[]> rows, Row row) {
+            Object[] cells = getCellsWithoutAccounting(row);
+            try {
+                rowAccounting.accountForAndMaybeBreak(cells);
+            } catch (CircuitBreakingException e) {
+                spillOrRethrow(rows, e);
+                rowAccounting.accountForAndMaybeBreak(cells);
+            }
+            rows.add(cells);
+        }
+
+        /**
+         * Writes the rows held in memory as a sorted run, giving back the memory accounted for them.
+         * Re-throws the {@link CircuitBreakingException} if spilling is disabled or there is nothing to spill.
+         */
+        private void spillOrRethrow(List<Object[]> rows, CircuitBreakingException e) {
+            Spilling.spillOrRethrow(e, spillPath, rows.isEmpty() == false, ramAccounting, () -> {
+                rows.sort(comparator);
+                if (spilledRuns == null) {
+                    spilledRuns = new SpilledRuns(SpillFiles.create(spillPath, "crate-sort-"), comparator, streamers);
+                }
+                spilledRuns.addRun(rows);
+                rows.clear();
+            });
+        }
+
+        private Iterable<Row> finish(List<Object[]> rows) {
+            if (spilledRuns == null) {
+                return sortAndCreateBucket(rows);
+            }
+            rows.sort(comparator);
+            Iterable<Object[]> sortedRows;
+            try {
+                sortedRows = spilledRuns.merge(rows);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return Iterables.transform(Iterables.skip(sortedRows, offset), Buckets.arrayToSharedRow(numOutputs)::apply);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (spilledRuns != null) {
+                spilledRuns.close();
+                spilledRuns = null;
+            }
+        }
+    }
 }
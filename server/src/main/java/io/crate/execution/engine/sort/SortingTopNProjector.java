@@ -22,17 +22,27 @@
 
 package io.crate.execution.engine.sort;
 
+import io.crate.Streamer;
 import io.crate.breaker.RowAccounting;
+import io.crate.breaker.RowCellsAccountingWithEstimators;
 import io.crate.data.BatchIterator;
+import io.crate.data.BatchIterators;
 import io.crate.data.Bucket;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.SpillableRamAccounting;
+import io.crate.execution.engine.spill.Spilling;
+import io.crate.types.DataType;
 
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.stream.Collector;
 
 public class SortingTopNProjector implements Projector {
@@ -58,6 +68,67 @@ public class SortingTopNProjector implements Projector {
                                 int limit,
                                 int offset,
                                 int unboundedCollectorThreshold) {
+        this(
+            rowAccounting,
+            null,
+            null,
+            null,
+            inputs,
+            collectExpressions,
+            numOutputs,
+            ordering,
+            limit,
+            offset,
+            unboundedCollectorThreshold
+        );
+    }
+
+    /**
+     * Creates a projector which spills sorted runs to disk instead of failing if the circuit breaker trips
+     * while an unbounded collector is used.
+     *
+     * @param ramAccounting   used to account for the rows held in memory
+     * @param spillPath       directory in which the runs are written, null if spilling is disabled
+     * @param rowTypes        the types of the <code>inputs</code>, used to write the rows to disk
+     * @param extraSizePerRow memory overhead accounted per row in addition to the size of the values
+     */
+    public SortingTopNProjector(SpillableRamAccounting ramAccounting,
+                                @Nullable Path spillPath,
+                                List<? extends DataType> rowTypes,
+                                int extraSizePerRow,
+                                Collection<? extends Input<?>> inputs,
+                                Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                                int numOutputs,
+                                Comparator<Object[]> ordering,
+                                int limit,
+                                int offset,
+                                int unboundedCollectorThreshold) {
+        this(
+            new RowCellsAccountingWithEstimators(rowTypes, ramAccounting, extraSizePerRow),
+            ramAccounting,
+            spillPath,
+            SortingProjector.streamers(rowTypes),
+            inputs,
+            collectExpressions,
+            numOutputs,
+            ordering,
+            limit,
+            offset,
+            unboundedCollectorThreshold
+        );
+    }
+
+    private SortingTopNProjector(RowAccounting<Object[]> rowAccounting,
+                                 @Nullable SpillableRamAccounting ramAccounting,
+                                 @Nullable Path spillPath,
+                                 @Nullable Streamer<Object>[] streamers,
+                                 Collection<? extends Input<?>> inputs,
+                                 Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                                 int numOutputs,
+                                 Comparator<Object[]> ordering,
+                                 int limit,
+                                 int offset,
+                                 int unboundedCollectorThreshold) {
         /**
          * We'll use an unbounded queue with the initial capacity of {@link unboundedCollectorThreshold}
          * if the maximum number of rows we have to accommodate in the queue in order to maintain correctness is
@@ -69,6 +140,9 @@ public class SortingTopNProjector implements Projector {
         if ((limit + offset) > unboundedCollectorThreshold) {
             collector = new UnboundedSortingTopNCollector(
                 rowAccounting,
+                ramAccounting,
+                spillPath,
+                streamers,
                 inputs,
                 collectExpressions,
                 numOutputs,
@@ -92,7 +166,18 @@ public class SortingTopNProjector implements Projector {
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
-        return CollectingBatchIterator.newInstance(batchIterator, collector);
+        if (!(collector instanceof Closeable)) {
+            return CollectingBatchIterator.newInstance(batchIterator, collector);
+        }
+        return CollectingBatchIterator.newInstance(
+            () -> {
+                batchIterator.close();
+                Spilling.closeUnchecked((Closeable) collector);
+            },
+            batchIterator::kill,
+            () -> BatchIterators.collect(batchIterator, collector),
+            batchIterator.hasLazyResultSet()
+        );
     }
 
     @Override
@@ -0,0 +1,255 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.sort;
+
+import io.crate.Streamer;
+import io.crate.execution.engine.spill.SpillFiles;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Sorted runs of rows which have been written to temporary files, so that more rows can be sorted than fit into
+ * memory. The runs are merged lazily into a single sorted sequence of rows using a k-way merge, so only one row
+ * per run needs to be held in memory.
+ */
+public final class SpilledRuns implements Closeable {
+
+    /**
+     * Maximum number of runs which are merged at once. If there are more runs, some of them are merged into a new
+     * run first to limit the number of files which are open at the same time.
+     */
+    static final int MAX_RUNS_PER_MERGE = 64;
+
+    private final SpillFiles spillFiles;
+    private final Comparator<Object[]> comparator;
+    private final Streamer<Object>[] streamers;
+    private final ArrayDeque<Run> runs = new ArrayDeque<>();
+    private final Set<StreamInput> openInputs = new HashSet<>();
+
+    public SpilledRuns(SpillFiles spillFiles, Comparator<Object[]> comparator, Streamer<Object>[] streamers) {
+        this.spillFiles = spillFiles;
+        this.comparator = comparator;
+        this.streamers = streamers;
+    }
+
+    /**
+     * @param sortedRows rows sorted by the comparator of this instance
+     */
+    public void addRun(List<Object[]> sortedRows) throws IOException {
+        Path file = spillFiles.newFile();
+        try (StreamOutput out = SpillFiles.newOutput(file)) {
+            for (Object[] row : sortedRows) {
+                writeRow(out, row);
+            }
+        }
+        runs.add(new Run(file, sortedRows.size()));
+    }
+
+    int numRuns() {
+        return runs.size();
+    }
+
+    /**
+     * Returns the rows of all runs and the given in-memory rows as one sorted sequence.
+     * Every iteration reads the runs again, so the result can be iterated repeatedly until this instance is closed.
+     *
+     * @param sortedRows rows sorted by the comparator of this instance which haven't been spilled
+     */
+    public Iterable<Object[]> merge(List<Object[]> sortedRows) throws IOException {
+        // The in-memory rows take up one slot of the final merge
+        while (runs.size() >= MAX_RUNS_PER_MERGE) {
+            mergeIntoNewRun();
+        }
+        List<Run> finalRuns = List.copyOf(runs);
+        return () -> {
+            try {
+                return mergeSorted(finalRuns, sortedRows.iterator());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private void mergeIntoNewRun() throws IOException {
+        List<Run> toMerge = new ArrayList<>(MAX_RUNS_PER_MERGE);
+        for (int i = 0; i < MAX_RUNS_PER_MERGE; i++) {
+            toMerge.add(runs.poll());
+        }
+        Path file = spillFiles.newFile();
+        long numRows = 0;
+        try (StreamOutput out = SpillFiles.newOutput(file)) {
+            Iterator<Object[]> it = mergeSorted(toMerge, Collections.emptyIterator());
+            while (it.hasNext()) {
+                writeRow(out, it.next());
+                numRows++;
+            }
+        }
+        for (Run run : toMerge) {
+            Files.delete(run.file);
+        }
+        runs.add(new Run(file, numRows));
+    }
+
+    private Iterator<Object[]> mergeSorted(List<Run> runsToMerge, Iterator<Object[]> inMemoryRows) throws IOException {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(
+            runsToMerge.size() + 1,
+            (c1, c2) -> comparator.compare(c1.current, c2.current)
+        );
+        Cursor inMemoryCursor = new IteratorCursor(inMemoryRows);
+        if (inMemoryCursor.advance()) {
+            queue.add(inMemoryCursor);
+        }
+        for (Run run : runsToMerge) {
+            Cursor runCursor = new RunCursor(run);
+            if (runCursor.advance()) {
+                queue.add(runCursor);
+            }
+        }
+        return new Iterator<>() {
+
+            @Override
+            public boolean hasNext() {
+                return !queue.isEmpty();
+            }
+
+            @Override
+            public Object[] next() {
+                Cursor cursor = queue.poll();
+                if (cursor == null) {
+                    throw new NoSuchElementException("All rows of the sorted runs have been consumed");
+                }
+                Object[] row = cursor.current;
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+                return row;
+            }
+        };
+    }
+
+    private void writeRow(StreamOutput out, Object[] row) throws IOException {
+        for (int i = 0; i < streamers.length; i++) {
+            streamers[i].writeValueTo(out, row[i]);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            for (StreamInput in : openInputs) {
+                in.close();
+            }
+            openInputs.clear();
+        } finally {
+            spillFiles.close();
+        }
+    }
+
+    private static final class Run {
+
+        private final Path file;
+        private final long numRows;
+
+        Run(Path file, long numRows) {
+            this.file = file;
+            this.numRows = numRows;
+        }
+    }
+
+    private abstract static class Cursor {
+
+        Object[] current;
+
+        /**
+         * Moves to the next row and makes it available as {@link #current}.
+         * @return false if there are no more rows
+         */
+        abstract boolean advance();
+    }
+
+    private static final class IteratorCursor extends Cursor {
+
+        private final Iterator<Object[]> rows;
+
+        IteratorCursor(Iterator<Object[]> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        boolean advance() {
+            if (rows.hasNext()) {
+                current = rows.next();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final class RunCursor extends Cursor {
+
+        private final StreamInput in;
+        private long remainingRows;
+
+        RunCursor(Run run) throws IOException {
+            this.in = SpillFiles.newInput(run.file);
+            this.remainingRows = run.numRows;
+            openInputs.add(in);
+        }
+
+        @Override
+        boolean advance() {
+            try {
+                if (remainingRows == 0) {
+                    openInputs.remove(in);
+                    in.close();
+                    return false;
+                }
+                remainingRows--;
+                Object[] row = new Object[streamers.length];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = streamers[i].readValueFrom(in);
+                }
+                current = row;
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
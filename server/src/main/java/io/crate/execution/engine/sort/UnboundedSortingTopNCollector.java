@@ -22,17 +22,32 @@
 
 package io.crate.execution.engine.sort;
 
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import io.crate.Streamer;
 import io.crate.breaker.RowAccounting;
 import io.crate.data.ArrayBucket;
 import io.crate.data.Bucket;
+import io.crate.data.Buckets;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.SpillFiles;
+import io.crate.execution.engine.spill.SpillableRamAccounting;
+import io.crate.execution.engine.spill.Spilling;
 import org.apache.lucene.util.ArrayUtil;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
 
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.function.BiConsumer;
@@ -46,8 +61,14 @@ import java.util.stream.Collector;
  * Collector implementation which collects rows into an unbounded priorityQueue in order to sort the rows and apply a
  * limit + offset.
  * The final result is a sorted bucket with limit and offset applied.
+ * <p>
+ * If a {@link SpillableRamAccounting} and streamers are provided, the rows of the queue are written as sorted run
+ * to a temporary file once the circuit breaker trips, and the runs are merged when the result is consumed
+ * (see {@link SpilledRuns}). Rows which sort after the greatest row of a spilled full queue can never be part of
+ * the result and are dropped right away. An instance must only be used for a single collect run and must be
+ * closed afterwards.
  */
-public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQueue<Object[]>, Bucket> {
+public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQueue<Object[]>, Bucket>, Closeable {
 
     private final Collection<? extends Input<?>> inputs;
     private final Iterable<? extends CollectExpression<Row, ?>> expressions;
@@ -58,6 +79,23 @@ public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQue
     private final int maxNumberOfRowsInQueue;
     private final RowAccounting<Object[]> rowAccounting;
 
+    @Nullable
+    private final SpillableRamAccounting ramAccounting;
+    @Nullable
+    private final Path spillPath;
+    @Nullable
+    private final Streamer<Object>[] streamers;
+    @Nullable
+    private SpilledRuns spilledRuns;
+    private long numSpilledRows = 0;
+
+    /**
+     * Rows sorting after this row are not part of the result, as at least <code>limit + offset</code> rows sort
+     * before or equal to it.
+     */
+    @Nullable
+    private Object[] greatestRowInResult;
+
     /**
      * @param rowAccounting   sorting is a pipeline breaker so account for the used memory
      * @param inputs          contains output {@link Input}s and orderBy {@link Input}s
@@ -76,6 +114,26 @@ public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQue
                                          int initialCapacity,
                                          int limit,
                                          int offset) {
+        this(rowAccounting, null, null, null, inputs, expressions, numOutputs, comparator, initialCapacity, limit, offset);
+    }
+
+    /**
+     * @param ramAccounting the ramAccounting used by the <code>rowAccounting</code>,
+     *                      the memory accounted for spilled rows is given back using it
+     * @param spillPath     directory in which the runs are written, null if spilling is disabled
+     * @param streamers     streamers for the <code>inputs</code> used to write rows to disk
+     */
+    public UnboundedSortingTopNCollector(RowAccounting<Object[]> rowAccounting,
+                                         @Nullable SpillableRamAccounting ramAccounting,
+                                         @Nullable Path spillPath,
+                                         @Nullable Streamer<Object>[] streamers,
+                                         Collection<? extends Input<?>> inputs,
+                                         Iterable<? extends CollectExpression<Row, ?>> expressions,
+                                         int numOutputs,
+                                         Comparator<Object[]> comparator,
+                                         int initialCapacity,
+                                         int limit,
+                                         int offset) {
         if (initialCapacity <= 0) {
             throw new IllegalArgumentException("Invalid initial capacity: value must be > 0; got: " + initialCapacity);
         }
@@ -86,6 +144,9 @@ public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQue
             throw new IllegalArgumentException("Invalid OFFSET: value must be >= 0; got: " + offset);
         }
         this.rowAccounting = rowAccounting;
+        this.ramAccounting = ramAccounting;
+        this.spillPath = spillPath;
+        this.streamers = streamers;
         this.inputs = inputs;
         this.expressions = expressions;
         this.numOutputs = numOutputs;
@@ -122,7 +183,7 @@ public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQue
 
     @Override
     public Function<PriorityQueue<Object[]>, Bucket> finisher() {
-        return this::pqToIterable;
+        return this::finish;
     }
 
     @Override
@@ -140,7 +201,15 @@ public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQue
             rowCells[i] = input.value();
             i++;
         }
-        rowAccounting.accountForAndMaybeBreak(rowCells);
+        if (greatestRowInResult != null && comparator.compare(rowCells, greatestRowInResult) >= 0) {
+            return;
+        }
+        try {
+            rowAccounting.accountForAndMaybeBreak(rowCells);
+        } catch (CircuitBreakingException e) {
+            spillOrRethrow(pq, e);
+            rowAccounting.accountForAndMaybeBreak(rowCells);
+        }
         if (pq.size() == maxNumberOfRowsInQueue) {
             Object[] highestElementInOrder = pq.peek();
             if (highestElementInOrder == null || comparator.compare(rowCells, highestElementInOrder) < 0) {
@@ -152,6 +221,74 @@ public class UnboundedSortingTopNCollector implements Collector<Row, PriorityQue
         }
     }
 
+    /**
+     * Writes the rows of the queue as a sorted run, giving back the memory accounted for them.
+     * Re-throws the {@link CircuitBreakingException} if spilling isn't possible.
+     */
+    private void spillOrRethrow(PriorityQueue<Object[]> pq, CircuitBreakingException e) {
+        if (ramAccounting == null || streamers == null) {
+            throw e;
+        }
+        Spilling.spillOrRethrow(e, spillPath, pq.isEmpty() == false, ramAccounting, () -> {
+            if (pq.size() == maxNumberOfRowsInQueue) {
+                Object[] greatestRow = pq.peek();
+                if (greatestRowInResult == null || comparator.compare(greatestRow, greatestRowInResult) < 0) {
+                    greatestRowInResult = greatestRow;
+                }
+            }
+            if (spilledRuns == null) {
+                spilledRuns = new SpilledRuns(SpillFiles.create(spillPath, "crate-sort-"), comparator, streamers);
+            }
+            List<Object[]> rows = pollSorted(pq);
+            spilledRuns.addRun(rows);
+            numSpilledRows += rows.size();
+        });
+    }
+
+    private static List<Object[]> pollSorted(PriorityQueue<Object[]> pq) {
+        // The queue is ordered by the reversed comparator, so the rows are polled in descending order
+        Object[][] rows = new Object[pq.size()][];
+        for (int i = rows.length - 1; i >= 0; i--) {
+            rows[i] = pq.poll();
+        }
+        return List.of(rows);
+    }
+
+    private Bucket finish(PriorityQueue<Object[]> pq) {
+        if (spilledRuns == null) {
+            return pqToIterable(pq);
+        }
+        long numRows = numSpilledRows + pq.size();
+        int resultSize = (int) Math.max(Math.min(maxNumberOfRowsInQueue - offset, numRows - offset), 0);
+        Iterable<Object[]> sortedRows;
+        try {
+            sortedRows = spilledRuns.merge(pollSorted(pq));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Iterable<Object[]> resultRows = Iterables.limit(Iterables.skip(sortedRows, offset), resultSize);
+        return new Bucket() {
+
+            @Override
+            public int size() {
+                return resultSize;
+            }
+
+            @Override
+            public Iterator<Row> iterator() {
+                return Iterators.transform(resultRows.iterator(), Buckets.arrayToSharedRow(numOutputs)::apply);
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (spilledRuns != null) {
+            spilledRuns.close();
+            spilledRuns = null;
+        }
+    }
+
     private Bucket pqToIterable(PriorityQueue<Object[]> pq) {
         if (offset > pq.size()) {
             return new ArrayBucket(new Object[0][0], numOutputs);
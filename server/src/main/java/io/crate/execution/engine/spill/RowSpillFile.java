@@ -0,0 +1,150 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.spill;
+
+import io.crate.Streamer;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A temporary file holding rows, written with the {@link Streamer}s of the row's columns.
+ * <p>
+ * Rows are appended with {@link #add(Object[])} until {@link #finishWriting()} is called.
+ * Afterwards the rows can be read back, in insertion order, via {@link #iterator()} any number of times.
+ * Only one iterator can be open at a time, requesting a new iterator closes the previous one.
+ */
+public final class RowSpillFile implements Iterable<Object[]>, Closeable {
+
+    private final Path file;
+    private final Streamer<?>[] streamers;
+
+    private StreamOutput out;
+    private StreamInput in;
+    private long numRows = 0;
+
+    public RowSpillFile(SpillFiles spillFiles, Streamer<?>[] streamers) {
+        this.file = spillFiles.newFile();
+        this.streamers = streamers;
+    }
+
+    public void add(Object[] cells) throws IOException {
+        if (out == null) {
+            out = SpillFiles.newOutput(file);
+        }
+        for (int i = 0; i < streamers.length; i++) {
+            //noinspection unchecked
+            ((Streamer) streamers[i]).writeValueTo(out, cells[i]);
+        }
+        numRows++;
+    }
+
+    public long numRows() {
+        return numRows;
+    }
+
+    public void finishWriting() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    /**
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    @Override
+    public Iterator<Object[]> iterator() {
+        assert out == null : "finishWriting must be called before the rows can be read";
+        closeInput();
+        if (numRows == 0) {
+            return Collections.emptyIterator();
+        }
+        try {
+            in = SpillFiles.newInput(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        StreamInput input = in;
+        return new Iterator<>() {
+
+            long remainingRows = numRows;
+
+            @Override
+            public boolean hasNext() {
+                return remainingRows > 0;
+            }
+
+            @Override
+            public Object[] next() {
+                if (remainingRows == 0) {
+                    throw new NoSuchElementException("RowSpillFile iterator is exhausted");
+                }
+                Object[] cells = new Object[streamers.length];
+                try {
+                    for (int i = 0; i < streamers.length; i++) {
+                        cells[i] = streamers[i].readValueFrom(input);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                remainingRows--;
+                if (remainingRows == 0 && in == input) {
+                    closeInput();
+                }
+                return cells;
+            }
+        };
+    }
+
+    private void closeInput() {
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                in = null;
+            }
+        }
+    }
+
+    /**
+     * Closes any open streams. The file itself is removed once the {@link SpillFiles} are closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finishWriting();
+        } finally {
+            closeInput();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.spill;
+
+import io.crate.common.io.IOUtils;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Temporary files used by operators to move state out of the heap once the circuit breaker limit is approached.
+ * <p>
+ * All files are created within a dedicated directory below the spill path ({@link #SPILL_PATH_SETTING},
+ * {@code java.io.tmpdir} by default) which is removed on {@link #close()}.
+ * This class is not thread-safe.
+ */
+public final class SpillFiles implements Closeable {
+
+    public static final Setting<Boolean> SPILL_ENABLED_SETTING = Setting.boolSetting(
+        "spill.enabled",
+        true,
+        Setting.Property.NodeScope);
+
+    public static final Setting<String> SPILL_PATH_SETTING = Setting.simpleString(
+        "spill.path",
+        Setting.Property.NodeScope);
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final Path directory;
+    private int numFiles = 0;
+
+    /**
+     * @return the directory in which operators create their spill files or null if spilling is disabled.
+     */
+    @Nullable
+    public static Path spillPath(Settings settings) {
+        if (SPILL_ENABLED_SETTING.get(settings) == false) {
+            return null;
+        }
+        String path = SPILL_PATH_SETTING.get(settings);
+        return Paths.get(path.isEmpty() ? System.getProperty("java.io.tmpdir") : path);
+    }
+
+    public static SpillFiles create(Path spillPath, String prefix) throws IOException {
+        Files.createDirectories(spillPath);
+        return new SpillFiles(Files.createTempDirectory(spillPath, prefix));
+    }
+
+    private SpillFiles(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path newFile() {
+        numFiles++;
+        return directory.resolve("spill-" + numFiles + ".bin");
+    }
+
+    public static StreamOutput newOutput(Path file) throws IOException {
+        return new OutputStreamStreamOutput(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+    }
+
+    public static StreamInput newInput(Path file) throws IOException {
+        return new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOUtils.rm(directory);
+    }
+}
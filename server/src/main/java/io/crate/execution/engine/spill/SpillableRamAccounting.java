@@ -0,0 +1,68 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.spill;
+
+import io.crate.breaker.RamAccounting;
+
+/**
+ * Keeps track of the bytes accounted by a single operator so that they can be given back
+ * once the state they belong to has been spilled, without releasing the memory of other
+ * operators sharing the same {@link RamAccounting}.
+ */
+public final class SpillableRamAccounting implements RamAccounting {
+
+    private final RamAccounting delegate;
+    private long accountedBytes = 0;
+
+    public SpillableRamAccounting(RamAccounting delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void addBytes(long bytes) {
+        delegate.addBytes(bytes);
+        accountedBytes += bytes;
+    }
+
+    public void releaseAccountedBytes() {
+        delegate.addBytes(-accountedBytes);
+        accountedBytes = 0;
+    }
+
+    @Override
+    public long totalBytes() {
+        return delegate.totalBytes();
+    }
+
+    @Override
+    public void release() {
+        accountedBytes = 0;
+        delegate.release();
+    }
+
+    @Override
+    public void close() {
+        accountedBytes = 0;
+        delegate.close();
+    }
+}
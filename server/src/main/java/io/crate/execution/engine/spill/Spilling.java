@@ -0,0 +1,86 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.engine.spill;
+
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Steps shared by the operators which move their in-memory state to disk once the circuit breaker trips.
+ */
+public final class Spilling {
+
+    @FunctionalInterface
+    public interface SpillAction {
+
+        /**
+         * Writes the state held in memory to disk and drops the in-memory references to it.
+         */
+        void spill() throws IOException;
+    }
+
+    private Spilling() {
+    }
+
+    /**
+     * Runs the {@code spillAction} and gives back the memory accounted via {@code ramAccounting}.
+     * Re-throws the {@link CircuitBreakingException} if spilling is disabled ({@code spillPath} is null),
+     * if there is no state in memory which could be spilled or if writing the state fails.
+     */
+    public static void spillOrRethrow(CircuitBreakingException e,
+                                      @Nullable Path spillPath,
+                                      boolean hasStateInMemory,
+                                      SpillableRamAccounting ramAccounting,
+                                      SpillAction spillAction) {
+        if (spillPath == null || hasStateInMemory == false) {
+            throw e;
+        }
+        try {
+            spillAction.spill();
+        } catch (IOException ioe) {
+            e.addSuppressed(ioe);
+            throw e;
+        }
+        ramAccounting.releaseAccountedBytes();
+    }
+
+    /**
+     * Closes the spilled state of an operator, if any, from a context which can't throw an {@link IOException}.
+     */
+    public static void closeUnchecked(@Nullable Closeable spilledState) {
+        if (spilledState == null) {
+            return;
+        }
+        try {
+            spilledState.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -55,13 +55,21 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
     private int seenFrameUpperBound = -1;
     private Object resultForCurrentFrame;
 
+    /**
+     * @param frameStartCanMove if false, rows never leave the frame and there is no need for an implementation
+     *                          which can remove rows from its state
+     *                          (see {@link AggregationFunction#optimizeForExecutionAsWindowFunction()}).
+     */
     AggregateToWindowFunctionAdapter(AggregationFunction aggregationFunction,
                                      ExpressionsInput<Row, Boolean> filter,
                                      Version indexVersionCreated,
                                      RamAccounting ramAccounting,
                                      MemoryManager memoryManager,
-                                     Version minNodeVersion) {
-        this.aggregationFunction = aggregationFunction.optimizeForExecutionAsWindowFunction();
+                                     Version minNodeVersion,
+                                     boolean frameStartCanMove) {
+        this.aggregationFunction = frameStartCanMove
+            ? aggregationFunction.optimizeForExecutionAsWindowFunction()
+            : aggregationFunction;
         this.filter = filter;
         this.ramAccounting = ramAccounting;
         this.indexVersionCreated = indexVersionCreated;
@@ -98,7 +106,9 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
         if (idxInPartition == 0) {
             recomputeFunction(frame, expressions, args);
         } else if (isLowerBoundIncreasing(frame, seenFrameLowerBound)) {
-            if (aggregationFunction.isRemovableCumulative()) {
+            // If the new frame starts after the end of the seen frame, rows between them have never been accumulated
+            // and must not be removed. Removing them would break states which depend on the order of the rows.
+            if (aggregationFunction.isRemovableCumulative() && frame.lowerBound() <= seenFrameUpperBound) {
                 removeSeenRowsFromAccumulatedState(frame, expressions, args);
                 resultForCurrentFrame = aggregationFunction.terminatePartial(ramAccounting, accumulatedState);
                 if (frame.upperBoundExclusive() > seenFrameUpperBound) {
@@ -0,0 +1,206 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.window;
+
+import io.crate.breaker.RowAccounting;
+import io.crate.data.BatchIterator;
+import io.crate.data.Buckets;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.exceptions.Exceptions;
+import io.crate.execution.engine.spill.SpillableRamAccounting;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * BatchIterator which computes window functions over a source that already emits its rows sorted by the
+ * PARTITION BY and ORDER BY of the window definition.
+ *
+ * <p>
+ * Only the rows of the current partition are held in memory: once a row of the next partition is encountered
+ * the window functions are computed over the buffered partition, its rows are emitted and the buffer is released
+ * before the next partition is read.
+ * </p>
+ */
+final class SortedPartitionsWindowBatchIterator implements BatchIterator<Row> {
+
+    private final BatchIterator<Row> source;
+    private final RowAccounting<Row> rowAccounting;
+    private final SpillableRamAccounting ramAccounting;
+    private final Comparator<Object[]> cmpPartitionBy;
+    private final int numWindowFunctions;
+    private final Function<List<Object[]>, Iterable<Object[]>> computeWindowFunctions;
+    private final ArrayList<Object[]> partition = new ArrayList<>();
+    private final RowN sourceRow;
+    private final Function<Object[], Row> toRow = Buckets.arrayToSharedRow();
+
+    private Iterator<Object[]> results = Collections.emptyIterator();
+    private Object[] nextPartitionStart = null;
+    private boolean sourceExhausted = false;
+    private Row current = Row.EMPTY;
+    private volatile Throwable killed;
+
+    /**
+     * @param rowAccounting          accounts for the rows of the current partition, must account into
+     *                               {@code ramAccounting}
+     * @param ramAccounting          used to release the memory of a partition once all its rows have been emitted
+     * @param computeWindowFunctions computes the window functions over the rows of a single partition
+     */
+    SortedPartitionsWindowBatchIterator(BatchIterator<Row> source,
+                                        RowAccounting<Row> rowAccounting,
+                                        SpillableRamAccounting ramAccounting,
+                                        Comparator<Object[]> cmpPartitionBy,
+                                        int numCellsInSourceRow,
+                                        int numWindowFunctions,
+                                        Function<List<Object[]>, Iterable<Object[]>> computeWindowFunctions) {
+        this.source = source;
+        this.rowAccounting = rowAccounting;
+        this.ramAccounting = ramAccounting;
+        this.cmpPartitionBy = cmpPartitionBy;
+        this.numWindowFunctions = numWindowFunctions;
+        this.computeWindowFunctions = computeWindowFunctions;
+        this.sourceRow = new RowN(numCellsInSourceRow);
+    }
+
+    @Override
+    public Row currentElement() {
+        return current;
+    }
+
+    @Override
+    public boolean moveNext() {
+        raiseIfKilled();
+        while (true) {
+            if (results.hasNext()) {
+                current = toRow.apply(results.next());
+                return true;
+            }
+            current = Row.EMPTY;
+            if (!partition.isEmpty()) {
+                releasePartition();
+            }
+            if (sourceExhausted || !readPartition()) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Reads the rows of the next partition from the source.
+     *
+     * @return true if a complete partition has been read and its results are available,
+     *         false if the source is exhausted or must load the next batch first.
+     */
+    private boolean readPartition() {
+        if (nextPartitionStart != null) {
+            addToPartition(nextPartitionStart);
+            nextPartitionStart = null;
+        }
+        while (source.moveNext()) {
+            Object[] cells = WindowFunctionBatchIterator.materializeWithSpare(source.currentElement(), numWindowFunctions);
+            if (!partition.isEmpty() && cmpPartitionBy.compare(partition.get(0), cells) != 0) {
+                nextPartitionStart = cells;
+                results = computeWindowFunctions.apply(partition).iterator();
+                return true;
+            }
+            addToPartition(cells);
+        }
+        if (source.allLoaded()) {
+            sourceExhausted = true;
+            if (!partition.isEmpty()) {
+                results = computeWindowFunctions.apply(partition).iterator();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addToPartition(Object[] cells) {
+        sourceRow.cells(cells);
+        rowAccounting.accountForAndMaybeBreak(sourceRow);
+        partition.add(cells);
+    }
+
+    private void releasePartition() {
+        partition.clear();
+        ramAccounting.releaseAccountedBytes();
+    }
+
+    @Override
+    public void moveToStart() {
+        raiseIfKilled();
+        source.moveToStart();
+        releasePartition();
+        results = Collections.emptyIterator();
+        nextPartitionStart = null;
+        sourceExhausted = false;
+        current = Row.EMPTY;
+    }
+
+    @Override
+    public void close() {
+        source.close();
+        releasePartition();
+        results = Collections.emptyIterator();
+        nextPartitionStart = null;
+        killed = BatchIterator.CLOSED;
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        if (sourceExhausted) {
+            return CompletableFuture.failedFuture(new IllegalStateException("BatchIterator already fully loaded"));
+        }
+        return source.loadNextBatch();
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return sourceExhausted;
+    }
+
+    @Override
+    public boolean hasLazyResultSet() {
+        return true;
+    }
+
+    @Override
+    public void kill(@Nonnull Throwable throwable) {
+        source.kill(throwable);
+        killed = throwable;
+    }
+
+    private void raiseIfKilled() {
+        if (killed != null) {
+            Exceptions.rethrowUnchecked(killed);
+        }
+    }
+}
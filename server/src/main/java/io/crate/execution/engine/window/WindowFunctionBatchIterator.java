@@ -23,6 +23,7 @@
 package io.crate.execution.engine.window;
 
 import com.google.common.collect.Iterables;
+import io.crate.Streamer;
 import io.crate.breaker.RowAccounting;
 import io.crate.data.BatchIterator;
 import io.crate.data.BatchIterators;
@@ -30,13 +31,25 @@ import io.crate.data.Buckets;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Row;
+import io.crate.data.RowN;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.sort.Sort;
+import io.crate.execution.engine.sort.SpilledRuns;
+import io.crate.execution.engine.spill.SpillFiles;
+import io.crate.execution.engine.spill.SpillableRamAccounting;
+import io.crate.execution.engine.spill.Spilling;
 import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.logging.Loggers;
 
 import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
@@ -45,6 +58,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.IntSupplier;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
 import static io.crate.common.collections.Lists2.findFirstNonPeer;
@@ -61,6 +75,16 @@ import static io.crate.common.collections.Lists2.findFirstNonPeer;
  * on a in-memory list with RandomAccess instead of using the BatchIterator interface for the source.
  * </p>
  *
+ * <p>
+ * If there is a PARTITION BY, a single partition is the unit which must fit into memory:
+ * <ul>
+ *     <li>If the source is already sorted by the PARTITION BY and ORDER BY, the rows are processed one partition at a
+ *     time (see {@link SortedPartitionsWindowBatchIterator}).</li>
+ *     <li>Otherwise the rows are sorted externally once the circuit breaker trips (see {@link SpilledRuns}) and the
+ *     merged rows are again processed one partition at a time.</li>
+ * </ul>
+ * </p>
+ *
  * <pre>
  *     Partition
  *      |
@@ -116,7 +140,114 @@ public final class WindowFunctionBatchIterator {
         );
     }
 
-    private static Object[] materializeWithSpare(Row row, int numWindowFunctions) {
+    /**
+     * Like the variant without {@link SpillableRamAccounting}, but only holds a single partition in memory
+     * if the window definition has a PARTITION BY.
+     *
+     * @param rowAccounting    accounts for the rows held in memory, must account into {@code ramAccounting}
+     * @param ramAccounting    used to give back the memory of the rows which have been spilled or emitted
+     * @param spillPath        directory in which the sorted runs are written, null if spilling is disabled
+     * @param sourceStreamers  streamers for the cells of the source rows, used to write them to disk
+     * @param sourceSorted     true if the source rows are already sorted by the PARTITION BY and ORDER BY
+     */
+    public static BatchIterator<Row> of(BatchIterator<Row> source,
+                                        RowAccounting<Row> rowAccounting,
+                                        SpillableRamAccounting ramAccounting,
+                                        @Nullable Path spillPath,
+                                        Streamer<Object>[] sourceStreamers,
+                                        boolean sourceSorted,
+                                        ComputeFrameBoundary<Object[]> computeFrameStart,
+                                        ComputeFrameBoundary<Object[]> computeFrameEnd,
+                                        @Nullable Comparator<Object[]> cmpPartitionBy,
+                                        @Nullable Comparator<Object[]> cmpOrderBy,
+                                        int numCellsInSourceRow,
+                                        IntSupplier numAvailableThreads,
+                                        Executor executor,
+                                        List<WindowFunction> windowFunctions,
+                                        List<? extends CollectExpression<Row, ?>> argsExpressions,
+                                        Input[]... args) {
+        if (cmpPartitionBy == null) {
+            // All rows belong to the same partition, so all of them are needed at once
+            return of(
+                source,
+                rowAccounting,
+                computeFrameStart,
+                computeFrameEnd,
+                null,
+                cmpOrderBy,
+                numCellsInSourceRow,
+                numAvailableThreads,
+                executor,
+                windowFunctions,
+                argsExpressions,
+                args
+            );
+        }
+        Function<List<Object[]>, Iterable<Object[]>> computeWindowsInPartition = partition -> computeWindowFunctions(
+            partition,
+            computeFrameStart,
+            computeFrameEnd,
+            null,
+            numCellsInSourceRow,
+            windowFunctions,
+            argsExpressions,
+            args);
+        if (sourceSorted) {
+            return new SortedPartitionsWindowBatchIterator(
+                source,
+                rowAccounting,
+                ramAccounting,
+                cmpPartitionBy,
+                numCellsInSourceRow,
+                windowFunctions.size(),
+                computeWindowsInPartition
+            );
+        }
+        Comparator<Object[]> cmpPartitionThenOrderBy = joinCmp(cmpPartitionBy, cmpOrderBy);
+        SpillingCollector collector = new SpillingCollector(
+            rowAccounting, ramAccounting, spillPath, sourceStreamers, cmpPartitionThenOrderBy, windowFunctions.size());
+        return CollectingBatchIterator.newInstance(
+            () -> {
+                source.close();
+                Spilling.closeUnchecked(collector);
+            },
+            source::kill,
+            () -> BatchIterators
+                .collect(source, Collector.<Row, List<Object[]>>of(ArrayList::new, collector::add, collector::combine))
+                .thenCompose(rows -> {
+                    if (collector.spilledRuns == null) {
+                        return sortAndComputeWindowFunctions(
+                            rows,
+                            computeFrameStart,
+                            computeFrameEnd,
+                            cmpPartitionBy,
+                            cmpOrderBy,
+                            numCellsInSourceRow,
+                            numAvailableThreads,
+                            executor,
+                            windowFunctions,
+                            argsExpressions,
+                            args
+                        );
+                    }
+                    return CompletableFuture.completedFuture(
+                        computeWindowFunctionsPerPartition(
+                            collector.merge(rows),
+                            rowAccounting,
+                            ramAccounting,
+                            cmpPartitionBy,
+                            numCellsInSourceRow,
+                            numCellsInSourceRow + windowFunctions.size(),
+                            computeWindowsInPartition
+                        )
+                    );
+                })
+                .thenApply(rows -> Iterables.transform(rows, Buckets.arrayToSharedRow()::apply)),
+            source.hasLazyResultSet()
+        );
+    }
+
+    static Object[] materializeWithSpare(Row row, int numWindowFunctions) {
         Object[] cells = new Object[row.numColumns() + numWindowFunctions];
         for (int i = 0; i < row.numColumns(); i++) {
             cells[i] = row.get(i);
@@ -212,6 +343,79 @@ public final class WindowFunctionBatchIterator {
         };
     }
 
+    /**
+     * Splits rows sorted by the PARTITION BY into partitions and computes the window functions one partition at a
+     * time, so that only the rows of the current partition are held in a list.
+     * The rows of a partition are accounted while it is loaded and given back once it has been emitted.
+     */
+    private static Iterable<Object[]> computeWindowFunctionsPerPartition(
+        Iterable<Object[]> sortedRows,
+        RowAccounting<Row> rowAccounting,
+        SpillableRamAccounting ramAccounting,
+        Comparator<Object[]> cmpPartitionBy,
+        int numCellsInSourceRow,
+        int numCellsWithWindowResults,
+        Function<List<Object[]>, Iterable<Object[]>> computeWindowsInPartition) {
+
+        return () -> new Iterator<>() {
+
+            private final Iterator<Object[]> rows = sortedRows.iterator();
+            private final ArrayList<Object[]> partition = new ArrayList<>();
+            private final RowN sourceRow = new RowN(numCellsInSourceRow);
+            private Iterator<Object[]> results = Collections.emptyIterator();
+            private Object[] nextPartitionStart = null;
+
+            @Override
+            public boolean hasNext() {
+                while (!results.hasNext()) {
+                    // The rows held in memory before merging are consumed by the merge, so this also gives back
+                    // their memory once the first partition is loaded
+                    partition.clear();
+                    ramAccounting.releaseAccountedBytes();
+                    if (nextPartitionStart == null) {
+                        if (!rows.hasNext()) {
+                            return false;
+                        }
+                        nextPartitionStart = withSpare(rows.next());
+                    }
+                    addToPartition(nextPartitionStart);
+                    nextPartitionStart = null;
+                    while (rows.hasNext()) {
+                        Object[] row = withSpare(rows.next());
+                        if (cmpPartitionBy.compare(partition.get(0), row) != 0) {
+                            nextPartitionStart = row;
+                            break;
+                        }
+                        addToPartition(row);
+                    }
+                    results = computeWindowsInPartition.apply(partition).iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public Object[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return results.next();
+            }
+
+            private void addToPartition(Object[] row) {
+                sourceRow.cells(row);
+                rowAccounting.accountForAndMaybeBreak(sourceRow);
+                partition.add(row);
+            }
+
+            /**
+             * Rows read back from disk only contain the cells of the source row
+             */
+            private Object[] withSpare(Object[] row) {
+                return row.length == numCellsWithWindowResults ? row : Arrays.copyOf(row, numCellsWithWindowResults);
+            }
+        };
+    }
+
     @Nullable
     private static Comparator<Object[]> joinCmp(@Nullable Comparator<Object[]> cmpPartitionBy,
                                                 @Nullable Comparator<Object[]> cmpOrderBy) {
@@ -240,4 +444,82 @@ public final class WindowFunctionBatchIterator {
         }
         return row;
     }
+
+    /**
+     * Collects the source rows and writes them as sorted run to disk once the circuit breaker trips.
+     */
+    private static final class SpillingCollector implements Closeable {
+
+        private final RowAccounting<Row> rowAccounting;
+        private final SpillableRamAccounting ramAccounting;
+        @Nullable
+        private final Path spillPath;
+        private final Streamer<Object>[] streamers;
+        private final Comparator<Object[]> comparator;
+        private final int numWindowFunctions;
+
+        @Nullable
+        private SpilledRuns spilledRuns;
+
+        SpillingCollector(RowAccounting<Row> rowAccounting,
+                          SpillableRamAccounting ramAccounting,
+                          @Nullable Path spillPath,
+                          Streamer<Object>[] streamers,
+                          Comparator<Object[]> comparator,
+                          int numWindowFunctions) {
+            this.rowAccounting = rowAccounting;
+            this.ramAccounting = ramAccounting;
+            this.spillPath = spillPath;
+            this.streamers = streamers;
+            this.comparator = comparator;
+            this.numWindowFunctions = numWindowFunctions;
+        }
+
+        void add(List<Object[]> rows, Row row) {
+            try {
+                rowAccounting.accountForAndMaybeBreak(row);
+            } catch (CircuitBreakingException e) {
+                spillOrRethrow(rows, e);
+                rowAccounting.accountForAndMaybeBreak(row);
+            }
+            rows.add(materializeWithSpare(row, numWindowFunctions));
+        }
+
+        List<Object[]> combine(List<Object[]> rows1, List<Object[]> rows2) {
+            throw new UnsupportedOperationException("combine not supported");
+        }
+
+        /**
+         * Writes the rows held in memory as a sorted run, giving back the memory accounted for them.
+         * Re-throws the {@link CircuitBreakingException} if spilling is disabled or there is nothing to spill.
+         */
+        private void spillOrRethrow(List<Object[]> rows, CircuitBreakingException e) {
+            Spilling.spillOrRethrow(e, spillPath, rows.isEmpty() == false, ramAccounting, () -> {
+                rows.sort(comparator);
+                if (spilledRuns == null) {
+                    spilledRuns = new SpilledRuns(SpillFiles.create(spillPath, "crate-window-"), comparator, streamers);
+                }
+                spilledRuns.addRun(rows);
+                rows.clear();
+            });
+        }
+
+        Iterable<Object[]> merge(List<Object[]> rows) {
+            assert spilledRuns != null : "merge must only be used if rows have been spilled";
+            rows.sort(comparator);
+            try {
+                return spilledRuns.merge(rows);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (spilledRuns != null) {
+                spilledRuns.close();
+                spilledRuns = null;
+            }
+        }
+    }
 }
@@ -22,6 +22,7 @@
 
 package io.crate.execution.engine.window;
 
+import io.crate.Streamer;
 import io.crate.analyze.OrderBy;
 import io.crate.analyze.WindowDefinition;
 import io.crate.breaker.RamAccounting;
@@ -32,6 +33,7 @@ import io.crate.data.Row;
 import io.crate.execution.dsl.projection.WindowAggProjection;
 import io.crate.execution.engine.aggregation.AggregationFunction;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.SpillableRamAccounting;
 import io.crate.expression.ExpressionsInput;
 import io.crate.expression.InputFactory;
 import io.crate.expression.symbol.InputColumn;
@@ -43,12 +45,14 @@ import io.crate.memory.MemoryManager;
 import io.crate.metadata.FunctionImplementation;
 import io.crate.metadata.Functions;
 import io.crate.metadata.TransactionContext;
+import io.crate.sql.tree.FrameBound;
 import io.crate.sql.tree.WindowFrame;
 import io.crate.types.DataType;
 import io.crate.types.IntervalType;
 import org.elasticsearch.Version;
 
 import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -68,12 +72,15 @@ public class WindowProjector {
                                            TransactionContext txnCtx,
                                            RamAccounting ramAccounting,
                                            MemoryManager memoryManager,
+                                           @Nullable Path spillPath,
                                            Version minNodeVersion,
                                            Version indexVersionCreated,
                                            IntSupplier numThreads,
                                            Executor executor) {
         var windowFunctionSymbols = projection.windowFunctions();
         var numWindowFunctions = windowFunctionSymbols.size();
+        boolean frameStartCanMove = projection.windowDefinition().windowFrameDefinition().start().type()
+                                    != FrameBound.Type.UNBOUNDED_PRECEDING;
 
         ArrayList<WindowFunction> windowFunctions = new ArrayList<>(numWindowFunctions);
         ArrayList<CollectExpression<Row, ?>> windowFuncArgsExpressions = new ArrayList<>(numWindowFunctions);
@@ -110,7 +117,8 @@ public class WindowProjector {
                         indexVersionCreated,
                         ramAccounting,
                         memoryManager,
-                        minNodeVersion
+                        minNodeVersion,
+                        frameStartCanMove
                     )
                 );
             } else if (impl instanceof WindowFunction) {
@@ -126,8 +134,11 @@ public class WindowProjector {
         Supplier<InputFactory.Context<CollectExpression<Row, ?>>> createInputFactoryContext =
             () -> inputFactory.ctxForInputColumns(txnCtx);
         int arrayListElementOverHead = 32;
+        SpillableRamAccounting rowsRamAccounting = new SpillableRamAccounting(ramAccounting);
         RowAccountingWithEstimators accounting = new RowAccountingWithEstimators(
-            Symbols.typeView(projection.standalone()), ramAccounting, arrayListElementOverHead);
+            Symbols.typeView(projection.standalone()), rowsRamAccounting, arrayListElementOverHead);
+        //noinspection unchecked
+        Streamer<Object>[] sourceStreamers = (Streamer<Object>[]) Symbols.streamerArray(projection.standalone());
         Comparator<Object[]> cmpPartitionBy = partitions.isEmpty()
             ? null
             : createComparator(createInputFactoryContext, new OrderBy(windowDefinition.partitions()));
@@ -150,6 +161,10 @@ public class WindowProjector {
         return sourceRows -> WindowFunctionBatchIterator.of(
             sourceRows,
             accounting,
+            rowsRamAccounting,
+            spillPath,
+            sourceStreamers,
+            projection.isSourceSorted(),
             computeFrameStart,
             computeFrameEnd,
             cmpPartitionBy,
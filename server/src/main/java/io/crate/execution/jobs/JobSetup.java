@@ -45,6 +45,7 @@ import io.crate.data.Paging;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
 import io.crate.execution.IncrementalPageBucketReceiver;
+import io.crate.execution.PartitionedPageBucketReceiver;
 import io.crate.execution.TransportActionProvider;
 import io.crate.execution.dsl.phases.CollectPhase;
 import io.crate.execution.dsl.phases.CountPhase;
@@ -53,6 +54,7 @@ import io.crate.execution.dsl.phases.ExecutionPhaseVisitor;
 import io.crate.execution.dsl.phases.ExecutionPhases;
 import io.crate.execution.dsl.phases.FetchPhase;
 import io.crate.execution.dsl.phases.HashJoinPhase;
+import io.crate.execution.dsl.phases.MergeJoinPhase;
 import io.crate.execution.dsl.phases.MergePhase;
 import io.crate.execution.dsl.phases.NestedLoopPhase;
 import io.crate.execution.dsl.phases.NodeOperation;
@@ -76,13 +78,19 @@ import io.crate.execution.engine.distribution.StreamBucket;
 import io.crate.execution.engine.distribution.merge.PagingIterator;
 import io.crate.execution.engine.fetch.FetchTask;
 import io.crate.execution.engine.join.HashJoinOperation;
+import io.crate.execution.engine.join.MergeJoinOperation;
 import io.crate.execution.engine.join.NestedLoopOperation;
 import io.crate.execution.engine.pipeline.ProjectingRowConsumer;
 import io.crate.execution.engine.pipeline.ProjectionToProjectorVisitor;
 import io.crate.execution.engine.pipeline.ProjectorFactory;
+import io.crate.execution.engine.spill.SpillFiles;
+import io.crate.execution.support.ThreadPools;
 import io.crate.expression.InputFactory;
 import io.crate.expression.RowFilter;
 import io.crate.expression.eval.EvaluatingNormalizer;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Symbol;
 import io.crate.memory.MemoryManager;
 import io.crate.memory.MemoryManagerFactory;
 import io.crate.metadata.Functions;
@@ -102,6 +110,7 @@ import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
@@ -110,6 +119,7 @@ import org.elasticsearch.node.Node;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
@@ -120,6 +130,8 @@ import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.IntSupplier;
 import java.util.function.Predicate;
 import java.util.stream.Collector;
 
@@ -142,8 +154,11 @@ public class JobSetup {
     private final ProjectorFactory projectorFactory;
     private final PKLookupOperation pkLookupOperation;
     private final Executor searchTp;
+    private final IntSupplier numMergeThreads;
     private final String nodeName;
     private final Schemas schemas;
+    @Nullable
+    private final Path spillPath;
 
     @Inject
     public JobSetup(Settings settings,
@@ -162,6 +177,7 @@ public class JobSetup {
                     ShardCollectSource shardCollectSource,
                     MemoryManagerFactory memoryManagerFactory) {
         this.nodeName = Node.NODE_NAME_SETTING.get(settings);
+        this.spillPath = SpillFiles.spillPath(settings);
         this.schemas = schemas;
         this.collectOperation = collectOperation;
         this.clusterService = clusterService;
@@ -173,6 +189,10 @@ public class JobSetup {
         innerPreparer = new InnerPreparer();
         inputFactory = new InputFactory(functions);
         searchTp = threadPool.executor(ThreadPool.Names.SEARCH);
+        numMergeThreads = ThreadPools.numIdleThreads(
+            (ThreadPoolExecutor) searchTp,
+            EsExecutors.numberOfProcessors(settings)
+        );
         EvaluatingNormalizer normalizer = EvaluatingNormalizer.functionOnlyNormalizer(functions);
         this.projectorFactory = new ProjectionToProjectorVisitor(
             clusterService,
@@ -664,19 +684,38 @@ public class JobSetup {
             }
 
             Collector<Row, ?, Iterable<Row>> collector = null;
+            List<Collector<Row, Object, Iterable<Row>>> partitionCollectors = null;
+            int[] partitionKeyPositions = null;
             List<Projection> projections = phase.projections();
             if (projections.size() > 0) {
                 Projection firstProjection = projections.get(0);
                 if (firstProjection instanceof GroupProjection) {
                     GroupProjection groupProjection = (GroupProjection) firstProjection;
-                    GroupingProjector groupingProjector = (GroupingProjector) projectorFactory.create(
-                        groupProjection,
-                        context.txnCtx(),
-                        ramAccountingForMerge,
-                        memoryManager,
-                        phase.jobId()
-                    );
-                    collector = groupingProjector.getCollector();
+                    partitionKeyPositions = partitionKeyPositions(groupProjection);
+                    int numPartitions = partitionKeyPositions == null ? 1 : numMergeThreads.getAsInt();
+                    if (numPartitions > 1) {
+                        partitionCollectors = createPartitionCollectors(
+                            groupProjection,
+                            numPartitions,
+                            context.txnCtx(),
+                            ramAccounting,
+                            BlockBasedRamAccounting.blockSizeInBytesPerShard(breaker.getLimit(), numPartitions),
+                            finalRowConsumer.completionFuture(),
+                            phase.jobId()
+                        );
+                    } else {
+                        GroupingProjector groupingProjector = (GroupingProjector) projectorFactory.create(
+                            groupProjection,
+                            context.txnCtx(),
+                            ramAccountingForMerge,
+                            memoryManager,
+                            phase.jobId()
+                        );
+                        collector = groupingProjector.getCollector();
+                        // Completes on success, failure and kill, once the result of the collector is consumed
+                        finalRowConsumer.completionFuture().whenComplete(
+                            (result, error) -> groupingProjector.closeCollector());
+                    }
                     projections = projections.subList(1, projections.size());
                 } else if (firstProjection instanceof AggregationProjection) {
                     AggregationProjection aggregationProjection = (AggregationProjection) firstProjection;
@@ -702,7 +741,15 @@ public class JobSetup {
                 projectorFactory
             );
             PageBucketReceiver pageBucketReceiver;
-            if (collector == null) {
+            if (partitionCollectors != null) {
+                pageBucketReceiver = new PartitionedPageBucketReceiver<>(
+                    partitionCollectors,
+                    partitionKeyPositions,
+                    projectingRowConsumer,
+                    searchTp,
+                    DataTypes.getStreamers(phase.inputTypes()),
+                    phase.numUpstreams());
+            } else if (collector == null) {
                 pageBucketReceiver = new CumulativePageBucketReceiver(
                     nodeName,
                     phase.phaseId(),
@@ -735,6 +782,64 @@ public class JobSetup {
             return true;
         }
 
+        /**
+         * @return the positions of the key columns within the incoming rows if the partial results of the group
+         *         projection can be merged in partitions, otherwise null.
+         */
+        @Nullable
+        private int[] partitionKeyPositions(GroupProjection groupProjection) {
+            if (groupProjection.mode() != AggregateMode.PARTIAL_FINAL) {
+                return null;
+            }
+            List<Symbol> keys = groupProjection.keys();
+            int[] keyPositions = new int[keys.size()];
+            for (int i = 0; i < keyPositions.length; i++) {
+                Symbol key = keys.get(i);
+                if (!(key instanceof InputColumn)) {
+                    return null;
+                }
+                keyPositions[i] = ((InputColumn) key).index();
+            }
+            return keyPositions;
+        }
+
+        /**
+         * Creates a collector with its own inputs, RamAccounting and MemoryManager per partition,
+         * so that the partitions can be merged concurrently.
+         * The collectors and their MemoryManagers are released once {@code completion} completes.
+         */
+        @SuppressWarnings("unchecked")
+        private List<Collector<Row, Object, Iterable<Row>>> createPartitionCollectors(GroupProjection groupProjection,
+                                                                                      int numPartitions,
+                                                                                      TransactionContext txnCtx,
+                                                                                      RamAccounting ramAccounting,
+                                                                                      int ramAccountingBlockSizeInBytes,
+                                                                                      CompletableFuture<?> completion,
+                                                                                      UUID jobId) {
+            ArrayList<Collector<Row, Object, Iterable<Row>>> collectors = new ArrayList<>(numPartitions);
+            for (int i = 0; i < numPartitions; i++) {
+                MemoryManager memoryManager = memoryManagerFactory.getMemoryManager(ramAccounting);
+                GroupingProjector groupingProjector = (GroupingProjector) projectorFactory.create(
+                    groupProjection,
+                    txnCtx,
+                    new BlockBasedRamAccounting(ramAccounting::addBytes, ramAccountingBlockSizeInBytes),
+                    memoryManager,
+                    jobId
+                );
+                // Completes on success, failure and kill, once the result of the collector is consumed.
+                // PartitionedPageBucketReceiver doesn't accumulate any rows after that.
+                completion.whenComplete((result, error) -> {
+                    try {
+                        groupingProjector.closeCollector();
+                    } finally {
+                        memoryManager.close();
+                    }
+                });
+                collectors.add((Collector<Row, Object, Iterable<Row>>) groupingProjector.getCollector());
+            }
+            return collectors;
+        }
+
 
         @Override
         public Boolean visitRoutedCollectPhase(final RoutedCollectPhase phase, final Context context) {
@@ -924,6 +1029,7 @@ public class JobSetup {
                 phase.numRightOutputs(),
                 firstConsumer,
                 joinCondition,
+                phase.joinType(),
                 phase.leftJoinConditionInputs(),
                 phase.rightJoinConditionInputs(),
                 // 110 extra bytes per row =
@@ -935,7 +1041,80 @@ public class JobSetup {
                 inputFactory,
                 breaker(),
                 phase.estimatedRowSizeForLeft(),
-                phase.numberOfRowsForLeft());
+                phase.numberOfRowsForLeft(),
+                DataTypes.getStreamers(phase.leftOutputTypes()),
+                phase.rightOutputTypes() == null ? null : DataTypes.getStreamers(phase.rightOutputTypes()),
+                spillPath);
+            DistResultRXTask left = pageDownstreamContextForNestedLoop(
+                phase.phaseId(),
+                context,
+                (byte) 0,
+                phase.leftMergePhase(),
+                joinOperation.leftConsumer(),
+                new BlockBasedRamAccounting(ramAccounting::addBytes, ramAccountingBlockSizeInBytes),
+                memoryManager
+            );
+            if (left != null) {
+                context.registerSubContext(left);
+            }
+            DistResultRXTask right = pageDownstreamContextForNestedLoop(
+                phase.phaseId(),
+                context,
+                (byte) 1,
+                phase.rightMergePhase(),
+                joinOperation.rightConsumer(),
+                new BlockBasedRamAccounting(ramAccounting::addBytes, ramAccountingBlockSizeInBytes),
+                memoryManager
+            );
+            if (right != null) {
+                context.registerSubContext(right);
+            }
+            context.registerSubContext(new JoinTask(
+                phase,
+                joinOperation,
+                left != null ? left.getBucketReceiver((byte) 0) : null,
+                right != null ? right.getBucketReceiver((byte) 0) : null
+            ));
+            return true;
+        }
+
+        @Override
+        public Boolean visitMergeJoinPhase(MergeJoinPhase phase, Context context) {
+            CircuitBreaker breaker = breaker();
+            int ramAccountingBlockSizeInBytes = BlockBasedRamAccounting.blockSizeInBytes(breaker.getLimit());
+            var ramAccounting = ConcurrentRamAccounting.forCircuitBreaker(phase.label(), breaker);
+            var ramAccountingOfOperation = new BlockBasedRamAccounting(
+                ramAccounting::addBytes,
+                ramAccountingBlockSizeInBytes);
+            RowConsumer lastConsumer = context.getRowConsumer(phase, Paging.PAGE_SIZE, ramAccountingOfOperation);
+            var memoryManager = memoryManagerFactory.getMemoryManager(ramAccounting);
+            lastConsumer.completionFuture().whenComplete((result, error) -> {
+                memoryManager.close();
+                ramAccounting.close();
+            });
+
+            RowConsumer firstConsumer = ProjectingRowConsumer.create(
+                lastConsumer,
+                phase.projections(),
+                phase.jobId(),
+                context.txnCtx(),
+                ramAccountingOfOperation,
+                memoryManager,
+                projectorFactory
+            );
+            Predicate<Row> joinCondition = RowFilter.create(context.transactionContext, inputFactory, phase.joinCondition());
+
+            MergeJoinOperation joinOperation = new MergeJoinOperation(
+                phase.numLeftOutputs(),
+                phase.numRightOutputs(),
+                firstConsumer,
+                joinCondition,
+                phase.leftJoinKey(),
+                phase.rightJoinKey(),
+                // 4 extra bytes per row for the reference held by the buffer of the current group
+                new RowCellsAccountingWithEstimators(phase.rightOutputTypes(), ramAccountingOfOperation, 4),
+                context.transactionContext,
+                inputFactory);
             DistResultRXTask left = pageDownstreamContextForNestedLoop(
                 phase.phaseId(),
                 context,
@@ -22,7 +22,10 @@
 package io.crate.expression.reference.doc.lucene;
 
 import org.apache.lucene.index.LeafReaderContext;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.index.mapper.SourceFieldMapper;
 
 import java.io.IOException;
 
@@ -49,9 +52,10 @@ public class RawCollectorExpression extends LuceneCollectorExpression<String> {
     @Override
     public String value() {
         try {
-            return CompressorFactory.uncompressIfNeeded(sourceLookup.rawSource()).utf8ToString();
+            BytesReference source = CompressorFactory.uncompressIfNeeded(sourceLookup.rawSource());
+            return XContentHelper.convertToJson(source, SourceFieldMapper.sourceContentType(source));
         } catch (IOException e) {
-            throw new RuntimeException("Failed to uncompress source", e);
+            throw new RuntimeException("Failed to read source", e);
         }
     }
 }
@@ -23,12 +23,16 @@
 package io.crate.expression.reference.doc.lucene;
 
 
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.index.CodecReader;
+import org.apache.lucene.index.FilterLeafReader;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.xcontent.XContentHelper;
-import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.mapper.SourceFieldMapper;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -38,11 +42,19 @@ import java.util.RandomAccess;
 public final class SourceLookup {
 
     private final SourceFieldVisitor fieldsVisitor = new SourceFieldVisitor();
+    private final SourceParser sourceParser = new SourceParser();
     private LeafReader reader;
     private int doc;
     private Map<String, Object> source;
+    private boolean sourceIsComplete = false;
     private boolean docVisited = false;
 
+    private boolean sequentialAccess = false;
+    @Nullable
+    private LeafReader sequentialReader;
+    @Nullable
+    private StoredFieldsReader sequentialFieldsReader;
+
     SourceLookup() {
     }
 
@@ -58,13 +70,35 @@ public final class SourceLookup {
         this.doc = doc;
     }
 
+    /**
+     * Registers a column which is going to be retrieved using {@link #get(List)}.
+     * If columns are registered, only the registered columns are parsed from the source and
+     * the parsed values are shared by all users of this SourceLookup.
+     */
+    public void register(List<String> path) {
+        sourceParser.register(path);
+    }
+
+    /**
+     * Indicates if the following documents are visited in increasing doc id order within their segment.
+     * If so, the stored fields are loaded using a reader optimized for sequential access which decompresses
+     * each block of stored fields only once, instead of once per document.
+     */
+    public void sequentialAccess(boolean sequentialAccess) {
+        this.sequentialAccess = sequentialAccess;
+    }
+
     public Object get(List<String> path) {
-        ensureSourceParsed();
+        if (sourceParser.contains(path)) {
+            ensureSourceParsed();
+        } else {
+            ensureCompleteSourceParsed();
+        }
         return extractValue(source, path, 0);
     }
 
     public Map<String, Object> sourceAsMap() {
-        ensureSourceParsed();
+        ensureCompleteSourceParsed();
         return source;
     }
 
@@ -76,7 +110,17 @@ public final class SourceLookup {
     private void ensureSourceParsed() {
         if (source == null) {
             ensureDocVisited();
-            source = XContentHelper.toMap(fieldsVisitor.source(), XContentType.JSON);
+            source = sourceParser.parse(fieldsVisitor.source());
+            sourceIsComplete = sourceParser.requiresAll();
+        }
+    }
+
+    private void ensureCompleteSourceParsed() {
+        if (source == null || !sourceIsComplete) {
+            ensureDocVisited();
+            BytesReference rawSource = fieldsVisitor.source();
+            source = XContentHelper.toMap(rawSource, SourceFieldMapper.sourceContentType(rawSource));
+            sourceIsComplete = true;
         }
     }
 
@@ -85,13 +129,30 @@ public final class SourceLookup {
             return;
         }
         try {
-            reader.document(doc, fieldsVisitor);
+            StoredFieldsReader fieldsReader = sequentialAccess ? sequentialFieldsReader() : null;
+            if (fieldsReader == null) {
+                reader.document(doc, fieldsVisitor);
+            } else {
+                fieldsReader.visitDocument(doc, fieldsVisitor);
+            }
             docVisited = true;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    @Nullable
+    private StoredFieldsReader sequentialFieldsReader() {
+        if (sequentialReader != reader) {
+            sequentialReader = reader;
+            LeafReader unwrapped = FilterLeafReader.unwrap(reader);
+            sequentialFieldsReader = unwrapped instanceof CodecReader
+                ? ((CodecReader) unwrapped).getFieldsReader().getMergeInstance()
+                : null;
+        }
+        return sequentialFieldsReader;
+    }
+
     static Object extractValue(final Map<?, ?> map, List<String> path, int pathStartIndex) {
         assert path instanceof RandomAccess : "path should support RandomAccess for fast index optimized loop";
         Map<?, ?> m = map;
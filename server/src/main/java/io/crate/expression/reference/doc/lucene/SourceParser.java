@@ -0,0 +1,183 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.expression.reference.doc.lucene;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentParser.Token;
+import org.elasticsearch.index.mapper.SourceFieldMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses the {@code _source} into a map which only contains the registered columns.
+ * The sub-trees of all other columns are skipped without building any objects for them.
+ * <p>
+ * If no columns are registered, or the empty path (the whole document) is registered, the complete source is parsed.
+ */
+final class SourceParser {
+
+    /**
+     * Tree of the required columns: Maps a column name to the required child columns,
+     * or to {@code null} if the whole value of the column is required.
+     */
+    private final Map<String, Object> requiredColumns = new HashMap<>();
+    private boolean requiresAll = false;
+
+    void register(List<String> path) {
+        if (path.isEmpty()) {
+            requiresAll = true;
+            return;
+        }
+        Map<String, Object> columns = requiredColumns;
+        for (int i = 0; i < path.size(); i++) {
+            String name = path.get(i);
+            boolean isLeaf = i + 1 == path.size();
+            Object children = columns.get(name);
+            if (isLeaf) {
+                columns.put(name, null);
+                return;
+            }
+            if (children == null) {
+                if (columns.containsKey(name)) {
+                    // the whole parent is already required
+                    return;
+                }
+                children = new HashMap<String, Object>();
+                columns.put(name, children);
+            }
+            //noinspection unchecked
+            columns = (Map<String, Object>) children;
+        }
+    }
+
+    /**
+     * @return true if the value of the path is fully contained in the result of {@link #parse(BytesReference)}
+     */
+    boolean contains(List<String> path) {
+        if (requiresAll()) {
+            return true;
+        }
+        Map<String, Object> columns = requiredColumns;
+        for (String name : path) {
+            if (!columns.containsKey(name)) {
+                return false;
+            }
+            Object children = columns.get(name);
+            if (children == null) {
+                return true;
+            }
+            //noinspection unchecked
+            columns = (Map<String, Object>) children;
+        }
+        return false;
+    }
+
+    boolean requiresAll() {
+        return requiresAll || requiredColumns.isEmpty();
+    }
+
+    Map<String, Object> parse(BytesReference source) {
+        try (XContentParser parser = XContentHelper.createParser(
+                NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, source, SourceFieldMapper.sourceContentType(source))) {
+            if (requiresAll()) {
+                return parser.map();
+            }
+            Token token = parser.nextToken();
+            if (token != Token.START_OBJECT) {
+                throw new IllegalStateException("Source must be an object, got: " + token);
+            }
+            return parseObject(parser, requiredColumns);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses the object the parser is positioned on (START_OBJECT) until its END_OBJECT.
+     */
+    private static Map<String, Object> parseObject(XContentParser parser, Map<String, Object> columns) throws IOException {
+        HashMap<String, Object> values = new HashMap<>();
+        for (Token token = parser.nextToken(); token == Token.FIELD_NAME; token = parser.nextToken()) {
+            String name = parser.currentName();
+            token = parser.nextToken();
+            if (!columns.containsKey(name)) {
+                parser.skipChildren();
+                continue;
+            }
+            //noinspection unchecked
+            Map<String, Object> children = (Map<String, Object>) columns.get(name);
+            values.put(name, parseValue(parser, token, children));
+        }
+        return values;
+    }
+
+    private static List<Object> parseArray(XContentParser parser, Map<String, Object> columns) throws IOException {
+        ArrayList<Object> values = new ArrayList<>();
+        for (Token token = parser.nextToken(); token != null && token != Token.END_ARRAY; token = parser.nextToken()) {
+            values.add(parseValue(parser, token, columns));
+        }
+        return values;
+    }
+
+    private static Object parseValue(XContentParser parser, Token token, Map<String, Object> columns) throws IOException {
+        if (columns == null) {
+            return readValue(parser, token);
+        } else if (token == Token.START_OBJECT) {
+            return parseObject(parser, columns);
+        } else if (token == Token.START_ARRAY) {
+            return parseArray(parser, columns);
+        }
+        return readValue(parser, token);
+    }
+
+    /**
+     * Reads the complete value like {@link XContentParser#map()} does
+     */
+    private static Object readValue(XContentParser parser, Token token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return parser.text();
+            case VALUE_NUMBER:
+                return parser.numberValue();
+            case VALUE_BOOLEAN:
+                return parser.booleanValue();
+            case START_OBJECT:
+                return parser.map();
+            case START_ARRAY:
+                return parser.list();
+            case VALUE_EMBEDDED_OBJECT:
+                return parser.binaryValue();
+            default:
+                return null;
+        }
+    }
+}
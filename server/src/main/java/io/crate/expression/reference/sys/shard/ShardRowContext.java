@@ -318,6 +318,22 @@ public class ShardRowContext {
             : recoveryState.getIndex().recoveredBytesPercent();
     }
 
+    @Nullable
+    public Long recoverySizeBytesPerSecond() {
+        var recoveryState = indexShard.recoveryState();
+        return recoveryState == null
+            ? null
+            : recoveryState.getIndex().recoveredBytesPerSecond();
+    }
+
+    @Nullable
+    public Long recoveryThrottleTime() {
+        var recoveryState = indexShard.recoveryState();
+        return recoveryState == null
+            ? null
+            : recoveryState.getIndex().throttleTimeInMillis();
+    }
+
     @Nullable
     public Integer recoveryFilesUsed() {
         var recoveryState = indexShard.recoveryState();
@@ -98,7 +98,7 @@ public final class MemoryManagerFactory implements Function<RamAccounting, Memor
             case ON_HEAP:
                 return new OnHeapMemoryManager(ramAccounting::addBytes);
             case OFF_HEAP:
-                return new OffHeapMemoryManager();
+                return new OffHeapMemoryManager(ramAccounting::addBytes);
             default:
                 throw new AssertionError("MemoryType is supposed to have only 2 cases");
         }
@@ -19,23 +19,56 @@
  * software solely pursuant to the terms of the relevant commercial
  * agreement.
  */
-
 package io.crate.memory;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 
 import java.util.ArrayList;
+import java.util.function.IntConsumer;
 
+/**
+ * A MemoryManager that allocates buffers in the direct memory region.
+ * <p>
+ * Small buffers are sliced out of larger slabs, so that many small allocations (e.g. fixed size aggregation states)
+ * don't result in many individual direct buffers. Each slab or large buffer is accounted via an injected
+ * `IntConsumer`, which is also responsible to de-account the used-bytes eventually.
+ * All buffers are released once the MemoryManager is closed.
+ */
 public final class OffHeapMemoryManager implements MemoryManager {
 
+    static final int SLAB_SIZE = 64 * 1024;
+    private static final int MAX_SLICE_SIZE = SLAB_SIZE / 4;
+
+    private final IntConsumer accountBytes;
     private final ArrayList<ByteBuf> allocatedBuffers = new ArrayList<>();
+    private ByteBuf currentSlab;
+    private int slabOffset;
 
-    public OffHeapMemoryManager() {
+    /**
+     * @param accountBytes A consumer that will be called with the number of bytes of each allocated slab or buffer.
+     */
+    public OffHeapMemoryManager(IntConsumer accountBytes) {
+        this.accountBytes = accountBytes;
     }
 
     @Override
     public ByteBuf allocate(int capacity) {
+        if (capacity > MAX_SLICE_SIZE) {
+            return newBuffer(capacity);
+        }
+        if (currentSlab == null || slabOffset + capacity > SLAB_SIZE) {
+            currentSlab = newBuffer(SLAB_SIZE);
+            slabOffset = 0;
+        }
+        // The slice shares the reference count of the slab; it is released together with the slab
+        ByteBuf slice = currentSlab.slice(slabOffset, capacity).clear();
+        slabOffset += capacity;
+        return slice;
+    }
+
+    private ByteBuf newBuffer(int capacity) {
+        accountBytes.accept(capacity);
         ByteBuf byteBuf = Unpooled.directBuffer(capacity);
         allocatedBuffers.add(byteBuf);
         return byteBuf;
@@ -47,5 +80,7 @@ public final class OffHeapMemoryManager implements MemoryManager {
             buffer.release();
         }
         allocatedBuffers.clear();
+        currentSlab = null;
+        slabOffset = 0;
     }
 }
@@ -63,6 +63,7 @@ public class SysSchemaInfo implements SchemaInfo {
         tableInfos.put(SysHealth.IDENT.name(), SysHealth.create());
         tableInfos.put(SysMetricsTableInfo.NAME.name(), SysMetricsTableInfo.create(localNode));
         tableInfos.put(SysSegmentsTableInfo.IDENT.name(), SysSegmentsTableInfo.create(clusterService::localNode));
+        tableInfos.put(SysPlanCacheTableInfo.IDENT.name(), SysPlanCacheTableInfo.create(localNode));
     }
 
     @Override
@@ -134,12 +134,14 @@ public class SysShardsTableInfo {
                 .add("stage", STRING, ShardRowContext::recoveryStage)
                 .add("type", STRING, ShardRowContext::recoveryType)
                 .add("total_time", LONG, ShardRowContext::recoveryTotalTime)
+                .add("throttle_time", LONG, ShardRowContext::recoveryThrottleTime)
 
                 .startObject("size")
                     .add("used", LONG, ShardRowContext::recoverySizeUsed)
                     .add("reused", LONG, ShardRowContext::recoverySizeReused)
                     .add("recovered", LONG, ShardRowContext::recoverySizeRecoveredBytes)
                     .add("percent", DataTypes.FLOAT, ShardRowContext::recoverySizeRecoveredBytesPercent)
+                    .add("bytes_per_sec", LONG, ShardRowContext::recoverySizeBytesPerSecond)
                 .endObject()
 
                 .startObject("files")
@@ -168,6 +170,9 @@ public class SysShardsTableInfo {
                 .add("uncommitted_size", LONG, ShardRowContext::translogUncommittedSizeInBytes)
                 .add("number_of_operations", INTEGER, ShardRowContext::translogEstimatedNumberOfOperations)
                 .add("uncommitted_operations", INTEGER, ShardRowContext::translogUncommittedOperations)
+                .add("sync_requests", LONG, r -> r.indexShard().translogSyncRequests())
+                .add("fsyncs", LONG, r -> r.indexShard().translogFsyncs())
+                .add("fsync_time", LONG, r -> r.indexShard().translogFsyncTimeInMillis())
             .endObject()
             .setPrimaryKeys(
                 Columns.SCHEMA_NAME,
@@ -34,6 +34,7 @@ import io.crate.expression.reference.sys.shard.SysAllocations;
 import io.crate.expression.reference.sys.snapshot.SysSnapshots;
 import io.crate.metadata.RelationName;
 import io.crate.metadata.SystemTable;
+import io.crate.planner.PlanCache;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
@@ -41,6 +42,7 @@ import org.elasticsearch.repositories.RepositoriesService;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -61,7 +63,8 @@ public class SysTableDefinitions {
                                SysSnapshots sysSnapshots,
                                SysAllocations sysAllocations,
                                ShardSegments shardSegmentInfos,
-                               TableHealthService tableHealthService) {
+                               TableHealthService tableHealthService,
+                               PlanCache planCache) {
         Supplier<DiscoveryNode> localNode = clusterService::localNode;
         var sysClusterTableInfo = (SystemTable<Void>) sysSchemaInfo.getTableInfo(SysClusterTableInfo.IDENT.name());
         assert sysClusterTableInfo != null : "sys.cluster table must exist in sys schema";
@@ -137,6 +140,10 @@ public class SysTableDefinitions {
             () -> completedFuture(shardSegmentInfos),
             SysSegmentsTableInfo.create(clusterService::localNode).expressions(),
             true));
+        tableDefinitions.put(SysPlanCacheTableInfo.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(List.of(planCache)),
+            SysPlanCacheTableInfo.create(localNode).expressions(),
+            false));
     }
 
     public StaticTableDefinition<?> get(RelationName relationName) {
@@ -34,6 +34,7 @@ import io.crate.execution.ddl.views.TransportCreateViewAction;
 import io.crate.execution.ddl.views.TransportDropViewAction;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.PhasesTaskFactory;
+import io.crate.execution.engine.collect.files.StdinFileInputFactory;
 import io.crate.expression.udf.TransportCreateUserDefinedFunctionAction;
 import io.crate.expression.udf.TransportDropUserDefinedFunctionAction;
 import io.crate.license.LicenseService;
@@ -78,6 +79,7 @@ public class DependencyCarrier {
     private final FulltextAnalyzerResolver fulltextAnalyzerResolver;
     private final RepositoryService repositoryService;
     private final RepositoryParamValidator repositoryParamValidator;
+    private final StdinFileInputFactory stdinInputs;
 
     @Inject
     public DependencyCarrier(Settings settings,
@@ -100,7 +102,8 @@ public class DependencyCarrier {
                              AlterTableOperation alterTableOperation,
                              FulltextAnalyzerResolver fulltextAnalyzerResolver,
                              RepositoryService repositoryService,
-                             RepositoryParamValidator repositoryParamValidator) {
+                             RepositoryParamValidator repositoryParamValidator,
+                             StdinFileInputFactory stdinInputs) {
         this.settings = settings;
         this.transportActionProvider = transportActionProvider;
         this.phasesTaskFactory = phasesTaskFactory;
@@ -123,6 +126,7 @@ public class DependencyCarrier {
         this.fulltextAnalyzerResolver = fulltextAnalyzerResolver;
         this.repositoryService = repositoryService;
         this.repositoryParamValidator = repositoryParamValidator;
+        this.stdinInputs = stdinInputs;
     }
 
     public Schemas schemas() {
@@ -220,4 +224,8 @@ public class DependencyCarrier {
     public TransportAnalyzeAction analyzeAction() {
         return analyzeAction.get();
     }
+
+    public StdinFileInputFactory stdinInputs() {
+        return stdinInputs;
+    }
 }
@@ -0,0 +1,243 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.Relations;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.expression.symbol.DefaultTraversalSymbolVisitor;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.ParameterSymbol;
+import io.crate.expression.symbol.SelectSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.SearchPath;
+import io.crate.types.DataType;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterStateListener;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Node level cache for the plans of SELECT statements.
+ * <p>
+ * A cached plan is re-used if the same statement is executed again with the same parameter types, by the same user,
+ * with the same search path, session settings and enabled optimizer rules, and against the same version of the
+ * cluster metadata.
+ * Any metadata change (DDL, privileges, ...) invalidates all cached plans.
+ * <p>
+ * Statements containing non-deterministic functions are never cached.
+ * Parameters are bound during the execution of a plan, so a plan is valid for all parameter values.
+ * Row count estimates derived from parameter values or table statistics are taken from the first execution.
+ */
+@Singleton
+public class PlanCache implements ClusterStateListener {
+
+    public static final Setting<Integer> PLAN_CACHE_SIZE_SETTING = Setting.intSetting(
+        "node.sql.plan_cache.size",
+        1000,
+        0,
+        Setting.Property.NodeScope);
+
+    private final int maxSize;
+    private final Cache<Key, Plan> cache;
+
+    @Inject
+    public PlanCache(Settings settings, ClusterService clusterService) {
+        this(PLAN_CACHE_SIZE_SETTING.get(settings));
+        clusterService.addListener(this);
+    }
+
+    @VisibleForTesting
+    PlanCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.cache = CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Returns the cached plan for the statement or creates (and caches) a new plan using the planner.
+     *
+     * @param statement the raw statement which has been analyzed into {@code analyzedStatement}
+     */
+    public Plan plan(Planner planner,
+                     String statement,
+                     AnalyzedStatement analyzedStatement,
+                     PlannerContext plannerContext) {
+        if (maxSize == 0 || !(analyzedStatement instanceof AnalyzedRelation)) {
+            return planner.plan(analyzedStatement, plannerContext);
+        }
+        CacheabilityCheck check = new CacheabilityCheck();
+        Relations.traverseDeepSymbols(analyzedStatement, check);
+        if (!check.deterministic) {
+            return planner.plan(analyzedStatement, plannerContext);
+        }
+        SessionContext sessionContext = plannerContext.transactionContext().sessionContext();
+        Key key = new Key(
+            statement,
+            check.parameterTypes,
+            sessionContext.user().name(),
+            sessionContext.searchPath(),
+            sessionContext.isHashJoinEnabled(),
+            planner.loadedRules().disabledRules(),
+            plannerContext.clusterState().metadata().version()
+        );
+        Plan plan = cache.getIfPresent(key);
+        if (plan == null) {
+            plan = planner.plan(analyzedStatement, plannerContext);
+            cache.put(key, plan);
+        }
+        return plan;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (event.metadataChanged()) {
+            cache.invalidateAll();
+        }
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public long maxSize() {
+        return maxSize;
+    }
+
+    public long hits() {
+        return cache.stats().hitCount();
+    }
+
+    public long misses() {
+        return cache.stats().missCount();
+    }
+
+    public long evictions() {
+        return cache.stats().evictionCount();
+    }
+
+    private static final class CacheabilityCheck extends DefaultTraversalSymbolVisitor<Void, Void>
+        implements Consumer<Symbol> {
+
+        private final List<DataType<?>> parameterTypes = new ArrayList<>();
+        private boolean deterministic = true;
+
+        @Override
+        public void accept(Symbol symbol) {
+            symbol.accept(this, null);
+        }
+
+        @Override
+        public Void visitFunction(Function symbol, Void context) {
+            if (!symbol.isDeterministic()) {
+                deterministic = false;
+            }
+            return super.visitFunction(symbol, context);
+        }
+
+        @Override
+        public Void visitSelectSymbol(SelectSymbol selectSymbol, Void context) {
+            Relations.traverseDeepSymbols(selectSymbol.relation(), this);
+            return null;
+        }
+
+        @Override
+        public Void visitParameterSymbol(ParameterSymbol parameterSymbol, Void context) {
+            int idx = parameterSymbol.index();
+            while (parameterTypes.size() <= idx) {
+                parameterTypes.add(null);
+            }
+            parameterTypes.set(idx, parameterSymbol.getBoundType());
+            return null;
+        }
+    }
+
+    private static final class Key {
+
+        private final String statement;
+        private final List<DataType<?>> parameterTypes;
+        private final String user;
+        private final SearchPath searchPath;
+        private final boolean hashJoinEnabled;
+        private final Set<Class<?>> disabledRules;
+        private final long metadataVersion;
+
+        Key(String statement,
+            List<DataType<?>> parameterTypes,
+            String user,
+            SearchPath searchPath,
+            boolean hashJoinEnabled,
+            Set<Class<?>> disabledRules,
+            long metadataVersion) {
+            this.statement = statement;
+            this.parameterTypes = parameterTypes;
+            this.user = user;
+            this.searchPath = searchPath;
+            this.hashJoinEnabled = hashJoinEnabled;
+            this.disabledRules = disabledRules;
+            this.metadataVersion = metadataVersion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hashJoinEnabled == key.hashJoinEnabled &&
+                   metadataVersion == key.metadataVersion &&
+                   statement.equals(key.statement) &&
+                   parameterTypes.equals(key.parameterTypes) &&
+                   user.equals(key.user) &&
+                   searchPath.equals(key.searchPath) &&
+                   disabledRules.equals(key.disabledRules);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(statement, parameterTypes, user, searchPath, hashJoinEnabled, disabledRules, metadataVersion);
+        }
+    }
+}
@@ -64,6 +64,7 @@ import io.crate.analyze.AnalyzedRerouteMoveShard;
 import io.crate.analyze.AnalyzedRerouteRetryFailed;
 import io.crate.analyze.AnalyzedResetStatement;
 import io.crate.analyze.AnalyzedRestoreSnapshot;
+import io.crate.analyze.AnalyzedRollback;
 import io.crate.analyze.AnalyzedSetLicenseStatement;
 import io.crate.analyze.AnalyzedSetStatement;
 import io.crate.analyze.AnalyzedSetTransaction;
@@ -156,6 +157,7 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
     private final Schemas schemas;
     private final UserManager userManager;
     private final SessionSettingRegistry sessionSettingRegistry;
+    private final LoadedRules loadedRules;
 
     private List<String> awarenessAttributes;
 
@@ -203,6 +205,7 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
         this.functions = functions;
         this.tableStats = tableStats;
         this.logicalPlanner = new LogicalPlanner(functions, tableStats, () -> clusterService.state().nodes().getMinNodeVersion(), loadedRules);
+        this.loadedRules = loadedRules;
         this.isStatementExecutionAllowed = new IsStatementExecutionAllowed(hasValidLicense);
         this.numberOfShards = numberOfShards;
         this.tableCreator = tableCreator;
@@ -266,6 +269,11 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
         return NoopPlan.INSTANCE;
     }
 
+    @Override
+    public Plan visitRollback(AnalyzedRollback analyzedRollback, PlannerContext context) {
+        return NoopPlan.INSTANCE;
+    }
+
     @Override
     public Plan visitSelectStatement(AnalyzedRelation relation, PlannerContext context) {
         return logicalPlanner.plan(relation, context);
@@ -561,5 +569,9 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
     public Functions functions() {
         return functions;
     }
+
+    public LoadedRules loadedRules() {
+        return loadedRules;
+    }
 }
 
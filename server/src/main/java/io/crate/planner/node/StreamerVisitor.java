@@ -27,6 +27,7 @@ import io.crate.execution.dsl.phases.ExecutionPhase;
 import io.crate.execution.dsl.phases.ExecutionPhaseVisitor;
 import io.crate.execution.dsl.phases.FileUriCollectPhase;
 import io.crate.execution.dsl.phases.HashJoinPhase;
+import io.crate.execution.dsl.phases.MergeJoinPhase;
 import io.crate.execution.dsl.phases.MergePhase;
 import io.crate.execution.dsl.phases.NestedLoopPhase;
 import io.crate.execution.dsl.phases.PKLookupPhase;
@@ -84,6 +85,11 @@ public class StreamerVisitor {
             return DataTypes.getStreamers(phase.outputTypes());
         }
 
+        @Override
+        public Streamer<?>[] visitMergeJoinPhase(MergeJoinPhase phase, Void context) {
+            return DataTypes.getStreamers(phase.outputTypes());
+        }
+
         @Override
         public Streamer<?>[] visitFileUriCollectPhase(FileUriCollectPhase phase, Void context) {
             return DataTypes.getStreamers(phase.outputTypes());
@@ -37,7 +37,7 @@ import java.util.Objects;
 
 /**
  * Plan that will execute a join.
- * The join can be executed either with NestedLoop or HashJoin algorithms
+ * The join can be executed either with NestedLoop, HashJoin or MergeJoin algorithms
  * <p>
  * This Plan makes a lot of assumptions:
  * <p>
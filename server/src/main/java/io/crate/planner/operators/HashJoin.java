@@ -49,6 +49,7 @@ import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.node.dql.join.Join;
 import io.crate.planner.node.dql.join.JoinType;
 import io.crate.statistics.TableStats;
+import org.elasticsearch.Version;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
@@ -65,31 +66,67 @@ import static io.crate.planner.operators.LogicalPlanner.NO_LIMIT;
 public class HashJoin implements LogicalPlan {
 
     private final Symbol joinCondition;
+    private final JoinType joinType;
     @VisibleForTesting
     final AnalyzedRelation concreteRelation;
     private final List<Symbol> outputs;
     final LogicalPlan rhs;
     final LogicalPlan lhs;
+    @Nullable
+    private final Double selectivity;
+    private boolean rewriteFilterOnOuterJoinToInnerJoinDone = false;
 
+    /**
+     * @param selectivity the estimated selectivity of the join condition or null if there are no statistics to
+     *                    estimate it, see {@link JoinOrdering#estimateNumRows(JoinType, long, long, Double)}
+     */
     public HashJoin(LogicalPlan lhs,
                     LogicalPlan rhs,
+                    JoinType joinType,
                     Symbol joinCondition,
-                    AnalyzedRelation concreteRelation) {
+                    AnalyzedRelation concreteRelation,
+                    @Nullable Double selectivity) {
         this.outputs = Lists2.concat(lhs.outputs(), rhs.outputs());
         this.lhs = lhs;
         this.rhs = rhs;
+        this.joinType = joinType;
         this.concreteRelation = concreteRelation;
         this.joinCondition = joinCondition;
+        this.selectivity = selectivity;
+    }
+
+    public HashJoin(LogicalPlan lhs,
+                    LogicalPlan rhs,
+                    JoinType joinType,
+                    Symbol joinCondition,
+                    AnalyzedRelation concreteRelation,
+                    @Nullable Double selectivity,
+                    boolean rewriteFilterOnOuterJoinToInnerJoinDone) {
+        this(lhs, rhs, joinType, joinCondition, concreteRelation, selectivity);
+        this.rewriteFilterOnOuterJoinToInnerJoinDone = rewriteFilterOnOuterJoinToInnerJoinDone;
     }
 
     public JoinType joinType() {
-        return JoinType.INNER;
+        return joinType;
+    }
+
+    public AnalyzedRelation concreteRelation() {
+        return concreteRelation;
+    }
+
+    public boolean isRewriteFilterOnOuterJoinToInnerJoinDone() {
+        return rewriteFilterOnOuterJoinToInnerJoinDone;
     }
 
     public Symbol joinCondition() {
         return joinCondition;
     }
 
+    @Nullable
+    public Double selectivity() {
+        return selectivity;
+    }
+
     public LogicalPlan lhs() {
         return lhs;
     }
@@ -117,6 +154,12 @@ public class HashJoin implements LogicalPlan {
                                @Nullable Integer pageSizeHint,
                                Row params,
                                SubQueryResults subQueryResults) {
+        if (joinType != JoinType.INNER
+            && plannerContext.clusterState().getNodes().getMinNodeVersion().before(Version.V_4_3_0)) {
+            // Nodes < 4.3.0 would execute the HashJoinPhase as inner join
+            return new NestedLoopJoin(lhs, rhs, joinType, joinCondition, true, concreteRelation, selectivity)
+                .build(plannerContext, projectionBuilder, limit, offset, order, pageSizeHint, params, subQueryResults);
+        }
         ExecutionPlan leftExecutionPlan = lhs.build(
             plannerContext, projectionBuilder, NO_LIMIT, 0, null, null, params, subQueryResults);
         ExecutionPlan rightExecutionPlan = rhs.build(
@@ -126,9 +169,7 @@ public class HashJoin implements LogicalPlan {
         LogicalPlan rightLogicalPlan = rhs;
 
         boolean tablesSwitched = false;
-        // We move smaller table to the right side since benchmarking
-        // revealed that this improves performance in most cases.
-        if (lhs.numExpectedRows() < rhs.numExpectedRows()) {
+        if (mustSwitchTables()) {
             tablesSwitched = true;
             leftLogicalPlan = rhs;
             rightLogicalPlan = lhs;
@@ -192,10 +233,12 @@ public class HashJoin implements LogicalPlan {
             leftOutputs.size(),
             rightOutputs.size(),
             joinExecutionNodes,
+            tablesSwitched ? joinType.invert() : joinType,
             InputColumns.create(paramBinder.apply(joinCondition), joinOutputs),
             InputColumns.create(Lists2.map(hashSymbols.v1(), paramBinder), new InputColumns.SourceSymbols(leftOutputs)),
             InputColumns.create(Lists2.map(hashSymbols.v2(), paramBinder), new InputColumns.SourceSymbols(rightOutputs)),
             Symbols.typeView(leftOutputs),
+            Symbols.typeView(rightOutputs),
             leftLogicalPlan.estimatedRowSize(),
             leftLogicalPlan.numExpectedRows());
         return new Join(
@@ -230,8 +273,11 @@ public class HashJoin implements LogicalPlan {
         return new HashJoin(
             sources.get(0),
             sources.get(1),
+            joinType,
             joinCondition,
-            concreteRelation
+            concreteRelation,
+            selectivity,
+            rewriteFilterOnOuterJoinToInnerJoinDone
         );
     }
 
@@ -253,8 +299,11 @@ public class HashJoin implements LogicalPlan {
         return new HashJoin(
             newLhs,
             newRhs,
+            joinType,
             joinCondition,
-            concreteRelation
+            concreteRelation,
+            selectivity,
+            rewriteFilterOnOuterJoinToInnerJoinDone
         );
     }
 
@@ -284,12 +333,39 @@ public class HashJoin implements LogicalPlan {
             new HashJoin(
                 lhsFetchRewrite.newPlan(),
                 rhsFetchRewrite.newPlan(),
+                joinType,
                 joinCondition,
-                concreteRelation
+                concreteRelation,
+                selectivity,
+                rewriteFilterOnOuterJoinToInnerJoinDone
             )
         );
     }
 
+    /**
+     * The left side is the one which is loaded into the hash table, the right side is probed against it.
+     * Unmatched rows can be emitted for both sides, so outer joins are switched the same way as inner joins,
+     * a LEFT join becomes a RIGHT join and vice versa.
+     */
+    private boolean mustSwitchTables() {
+        // We move smaller table to the right side since benchmarking
+        // revealed that this improves performance in most cases.
+        return lhs.numExpectedRows() < rhs.numExpectedRows();
+    }
+
+    /**
+     * Names of the relations loaded into the hash table, sorted to get a stable EXPLAIN output.
+     */
+    private List<String> buildSideRelationNames() {
+        LogicalPlan buildSide = mustSwitchTables() ? rhs : lhs;
+        ArrayList<String> names = new ArrayList<>();
+        for (RelationName relationName : buildSide.getRelationNames()) {
+            names.add(relationName.toString());
+        }
+        names.sort(null);
+        return names;
+    }
+
     private Tuple<List<Symbol>, List<Symbol>> extractHashJoinSymbolsFromJoinSymbolsAndSplitPerSide(boolean switchedTables) {
         Map<RelationName, List<Symbol>> hashJoinSymbols = HashJoinConditionSymbolsExtractor.extract(joinCondition);
 
@@ -309,8 +385,7 @@ public class HashJoin implements LogicalPlan {
 
     @Override
     public long numExpectedRows() {
-        // We don't have any cardinality estimates, so just take the bigger table
-        return Math.max(lhs.numExpectedRows(), rhs.numExpectedRows());
+        return JoinOrdering.estimateNumRows(joinType, lhs.numExpectedRows(), rhs.numExpectedRows(), selectivity);
     }
 
     @Override
@@ -326,9 +401,19 @@ public class HashJoin implements LogicalPlan {
     @Override
     public void print(PrintContext printContext) {
         printContext
-            .text("HashJoin[")
+            .text("HashJoin[");
+        if (joinType != JoinType.INNER) {
+            printContext
+                .text(joinType.toString())
+                .text(" | ");
+        }
+        printContext
             .text(joinCondition.toString())
-            .text("]")
+            .text("] (")
+            .estimatedRows(numExpectedRows())
+            .text(", build=")
+            .text(buildSideRelationNames().toString())
+            .text(")")
             .nest(
                 lhs::print,
                 rhs::print
@@ -25,12 +25,15 @@ package io.crate.planner.operators;
 import com.carrotsearch.hppc.ObjectIntHashMap;
 import io.crate.common.annotations.VisibleForTesting;
 import io.crate.metadata.RelationName;
+import io.crate.planner.node.dql.join.JoinType;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -86,6 +89,126 @@ final class JoinOrdering {
         return bestOrder;
     }
 
+    /**
+     * Returns the relations ordered so that the estimated sizes of the intermediate join results stay small.
+     * <p>
+     * The ordering is built greedily: It starts with the pair of relations producing the smallest join result and
+     * then repeatedly adds the relation which, joined with the relations so far, produces the smallest result.
+     * Relations without a join condition to the already joined relations are only added if there is no other choice.
+     * <p>
+     * This must only be used if all joins are inner or cross joins, as other join types cannot be re-ordered freely.
+     *
+     * @param relations                    all relations, e.g. [t1, t2, t3]
+     * @param numRowsByRelation            the estimated number of rows of each relation
+     * @param selectivityByJoinedRelations the estimated selectivity of the join condition of each pair of relations
+     *                                     which are joined with a condition, e.g. {{t1, t2}: 0.01}
+     */
+    static Collection<RelationName> orderByEstimatedRows(Collection<RelationName> relations,
+                                                         Map<RelationName, Long> numRowsByRelation,
+                                                         Map<? extends Set<RelationName>, Double> selectivityByJoinedRelations) {
+        if (selectivityByJoinedRelations.isEmpty()) {
+            return relations;
+        }
+        Set<RelationName> firstJoinPair = null;
+        double numRows = Double.MAX_VALUE;
+        for (var entry : selectivityByJoinedRelations.entrySet()) {
+            Set<RelationName> pair = entry.getKey();
+            double pairNumRows = entry.getValue();
+            for (RelationName name : pair) {
+                pairNumRows *= numRowsByRelation.get(name);
+            }
+            if (firstJoinPair == null || pairNumRows < numRows) {
+                numRows = pairNumRows;
+                firstJoinPair = pair;
+            }
+        }
+        assert firstJoinPair != null : "firstJoinPair should not be null";
+        LinkedHashSet<RelationName> bestOrder = new LinkedHashSet<>(relations.size());
+        for (RelationName relation : relations) {
+            // keep the original order of the first two relations
+            if (firstJoinPair.contains(relation)) {
+                bestOrder.add(relation);
+            }
+        }
+        while (bestOrder.size() < relations.size()) {
+            RelationName next = null;
+            double nextNumRows = Double.MAX_VALUE;
+            boolean nextIsJoined = false;
+            for (RelationName relation : relations) {
+                if (bestOrder.contains(relation)) {
+                    continue;
+                }
+                double selectivity = 1.0;
+                boolean isJoined = false;
+                for (RelationName joinedRelation : bestOrder) {
+                    Double pairSelectivity = selectivityByJoinedRelations.get(Set.of(joinedRelation, relation));
+                    if (pairSelectivity != null) {
+                        selectivity *= pairSelectivity;
+                        isJoined = true;
+                    }
+                }
+                double joinNumRows = numRows * numRowsByRelation.get(relation) * selectivity;
+                if (next == null
+                    || (isJoined && !nextIsJoined)
+                    || (isJoined == nextIsJoined && joinNumRows < nextNumRows)) {
+                    next = relation;
+                    nextNumRows = joinNumRows;
+                    nextIsJoined = isJoined;
+                }
+            }
+            bestOrder.add(next);
+            numRows = nextNumRows;
+        }
+        return bestOrder;
+    }
+
+    /**
+     * Estimates the number of rows produced by joining two relations, similar to PostgreSQL's
+     * `calc_joinrel_size_estimate`: The cross product of both sides is reduced by the selectivity of the join
+     * condition, outer joins produce at least the rows of their outer sides and semi/anti joins at most the rows
+     * of the left side.
+     * <p>
+     * If there is no selectivity estimate or the number of rows of a side is unknown, the cross product is used
+     * for cross joins and the bigger side for all other joins.
+     *
+     * @param selectivity the selectivity of the join condition as estimated by
+     *                    {@link io.crate.planner.selectivity.SelectivityFunctions#estimateJoinSelectivity},
+     *                    or null if there are no statistics for the relations used in the join condition.
+     */
+    static long estimateNumRows(JoinType joinType, long lhsRows, long rhsRows, @Nullable Double selectivity) {
+        if (selectivity == null || lhsRows < 0 || rhsRows < 0) {
+            if (joinType == JoinType.CROSS) {
+                return lhsRows * rhsRows;
+            }
+            return Math.max(lhsRows, rhsRows);
+        }
+        double numRows = lhsRows * (double) rhsRows * selectivity;
+        switch (joinType) {
+            case LEFT:
+                numRows = Math.max(numRows, lhsRows);
+                break;
+            case RIGHT:
+                numRows = Math.max(numRows, rhsRows);
+                break;
+            case FULL:
+                numRows = Math.max(numRows, Math.max(lhsRows, rhsRows));
+                break;
+            case SEMI:
+                numRows = Math.min(numRows, lhsRows);
+                break;
+            case ANTI:
+                numRows = lhsRows - Math.min(numRows, lhsRows);
+                break;
+            default:
+                break;
+        }
+        if (lhsRows == 0 || rhsRows == 0) {
+            return Math.round(numRows);
+        }
+        // A join of two non-empty relations is never estimated to be empty, like `clamp_row_est` in PostgreSQL
+        return Math.max(1L, Math.round(numRows));
+    }
+
     private static ObjectIntHashMap<RelationName> getOccurrencesInJoinConditions(
         int numberOfRelations,
         Set<? extends Set<RelationName>> explicitJoinedRelations,
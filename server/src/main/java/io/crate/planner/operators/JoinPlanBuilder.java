@@ -22,20 +22,28 @@
 
 package io.crate.planner.operators;
 
+import io.crate.analyze.relations.AbstractTableRelation;
+import io.crate.analyze.relations.AliasedAnalyzedRelation;
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.relations.JoinPair;
 import io.crate.analyze.relations.QuerySplitter;
 import io.crate.common.collections.Lists2;
 import io.crate.execution.engine.join.JoinOperations;
 import io.crate.expression.operator.AndOperator;
+import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.RelationName;
+import io.crate.planner.consumer.RelationNameCollector;
 import io.crate.planner.node.dql.join.JoinType;
+import io.crate.planner.selectivity.SelectivityFunctions;
+import io.crate.statistics.Stats;
+import io.crate.statistics.TableStats;
 import org.elasticsearch.common.util.set.Sets;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -53,9 +61,14 @@ import static io.crate.planner.operators.EquiJoinDetector.isHashJoinPossible;
  * A logical plan builder for `Join` operations. It will also evaluate which `Join` operator to use and build the
  * corresponding `LogicalPlan`.
  * <p>
- * We currently support the {@link NestedLoopJoin} and {@link HashJoin} operators (the hash join operator is
- * enabled by the {@link io.crate.metadata.settings.session.SessionSettingRegistry#HASH_JOIN_KEY} setting and its
- * application is mandated by {@link EquiJoinDetector}).
+ * We currently support the {@link NestedLoopJoin}, {@link HashJoin} and {@link MergeJoin} operators (the hash join
+ * operator is enabled by the {@link io.crate.metadata.settings.session.SessionSettingRegistry#HASH_JOIN_KEY} setting
+ * and its application is mandated by {@link EquiJoinDetector}). Instead of a hash join, a {@link MergeJoin} is used
+ * if both sides are already sorted by the join key.
+ * <p>
+ * If statistics are available for all joined tables and all joins are inner or cross joins, the join order is
+ * chosen based on the estimated sizes of the intermediate join results, see
+ * {@link JoinOrdering#orderByEstimatedRows(Collection, Map, Map)}.
  */
 public class JoinPlanBuilder {
 
@@ -63,6 +76,7 @@ public class JoinPlanBuilder {
                                      Symbol whereClause,
                                      List<JoinPair> joinPairs,
                                      Function<AnalyzedRelation, LogicalPlan> plan,
+                                     TableStats tableStats,
                                      boolean hashJoinEnabled) {
         if (from.size() == 1) {
             return Filter.create(plan.apply(from.get(0)), whereClause);
@@ -72,11 +86,20 @@ public class JoinPlanBuilder {
             JoinOperations.buildRelationsToJoinPairsMap(
                 JoinOperations.convertImplicitJoinConditionsToJoinPairs(joinPairs, queryParts));
 
-        Collection<RelationName> orderedRelationNames = JoinOrdering.getOrderedRelationNames(
-            Lists2.map(from, AnalyzedRelation::relationName),
-            joinPairsByRelations.keySet(),
-            queryParts.keySet()
+        Map<RelationName, Stats> statsByRelation = statsByRelation(from, tableStats);
+        Collection<RelationName> orderedRelationNames = orderByEstimatedRows(
+            from,
+            joinPairsByRelations,
+            queryParts,
+            statsByRelation
         );
+        if (orderedRelationNames == null) {
+            orderedRelationNames = JoinOrdering.getOrderedRelationNames(
+                Lists2.map(from, AnalyzedRelation::relationName),
+                joinPairsByRelations.keySet(),
+                queryParts.keySet()
+            );
+        }
 
         Iterator<RelationName> it = orderedRelationNames.iterator();
 
@@ -112,6 +135,7 @@ public class JoinPlanBuilder {
             lhs,
             rhs,
             query,
+            estimateJoinSelectivity(joinCondition, statsByRelation),
             hashJoinEnabled
         );
 
@@ -126,6 +150,7 @@ public class JoinPlanBuilder {
                 joinPairsByRelations,
                 queryParts,
                 lhs,
+                statsByRelation,
                 hashJoinEnabled
             );
             joinNames.add(nextRel.relationName());
@@ -139,6 +164,84 @@ public class JoinPlanBuilder {
         return joinPlan;
     }
 
+    /**
+     * @return the relation names ordered by the estimated sizes of the intermediate join results or null if
+     *         there aren't enough statistics or the joins cannot be re-ordered freely.
+     */
+    @Nullable
+    private static Collection<RelationName> orderByEstimatedRows(List<AnalyzedRelation> from,
+                                                                 Map<Set<RelationName>, JoinPair> joinPairsByRelations,
+                                                                 Map<Set<RelationName>, Symbol> queryParts,
+                                                                 Map<RelationName, Stats> statsByRelation) {
+        if (from.size() == 2 || statsByRelation.size() != from.size()) {
+            return null;
+        }
+        for (JoinPair joinPair : joinPairsByRelations.values()) {
+            if (joinPair.joinType() != JoinType.INNER && joinPair.joinType() != JoinType.CROSS) {
+                return null;
+            }
+        }
+        HashMap<RelationName, Long> numRowsByRelation = new HashMap<>();
+        for (var entry : statsByRelation.entrySet()) {
+            RelationName relationName = entry.getKey();
+            Symbol query = queryParts.getOrDefault(Collections.singleton(relationName), Literal.BOOLEAN_TRUE);
+            numRowsByRelation.put(
+                relationName,
+                Math.max(1L, SelectivityFunctions.estimateNumRows(entry.getValue(), query, null))
+            );
+        }
+        HashMap<Set<RelationName>, Double> selectivityByJoinedRelations = new HashMap<>();
+        for (var entry : joinPairsByRelations.entrySet()) {
+            Symbol condition = entry.getValue().condition();
+            if (condition != null) {
+                selectivityByJoinedRelations.put(
+                    entry.getKey(),
+                    SelectivityFunctions.estimateJoinSelectivity(condition, statsByRelation)
+                );
+            }
+        }
+        return JoinOrdering.orderByEstimatedRows(
+            Lists2.map(from, AnalyzedRelation::relationName),
+            numRowsByRelation,
+            selectivityByJoinedRelations
+        );
+    }
+
+    /**
+     * @return the stats of all relations which are backed by a table with known statistics, keyed by the name the
+     *         relations are referred to within the query.
+     */
+    private static Map<RelationName, Stats> statsByRelation(List<AnalyzedRelation> from, TableStats tableStats) {
+        HashMap<RelationName, Stats> statsByRelation = new HashMap<>();
+        for (AnalyzedRelation relation : from) {
+            AnalyzedRelation source = relation;
+            if (source instanceof AliasedAnalyzedRelation) {
+                source = ((AliasedAnalyzedRelation) source).relation();
+            }
+            if (source instanceof AbstractTableRelation) {
+                Stats stats = tableStats.getStats(((AbstractTableRelation<?>) source).tableInfo().ident());
+                if (stats.numDocs() >= 0) {
+                    statsByRelation.put(relation.relationName(), stats);
+                }
+            }
+        }
+        return statsByRelation;
+    }
+
+    /**
+     * @return the estimated selectivity of the join condition or null if there is no join condition or
+     *         the statistics of a relation used within the condition are missing.
+     */
+    @Nullable
+    private static Double estimateJoinSelectivity(@Nullable Symbol joinCondition,
+                                                  Map<RelationName, Stats> statsByRelation) {
+        if (joinCondition == null
+            || statsByRelation.keySet().containsAll(RelationNameCollector.collect(joinCondition)) == false) {
+            return null;
+        }
+        return SelectivityFunctions.estimateJoinSelectivity(joinCondition, statsByRelation);
+    }
+
     private static LogicalPlan createJoinPlan(LogicalPlan lhsPlan,
                                               LogicalPlan rhsPlan,
                                               JoinType joinType,
@@ -146,13 +249,20 @@ public class JoinPlanBuilder {
                                               AnalyzedRelation lhs,
                                               AnalyzedRelation rhs,
                                               Symbol query,
+                                              @Nullable Double selectivity,
                                               boolean hashJoinEnabled) {
         if (hashJoinEnabled && isHashJoinPossible(joinType, joinCondition)) {
+            MergeJoin mergeJoin = MergeJoin.create(lhsPlan, rhsPlan, joinType, joinCondition, rhs, selectivity);
+            if (mergeJoin != null) {
+                return mergeJoin;
+            }
             return new HashJoin(
                 lhsPlan,
                 rhsPlan,
+                joinType,
                 joinCondition,
-                rhs);
+                rhs,
+                selectivity);
         } else {
             return new NestedLoopJoin(
                 lhsPlan,
@@ -160,7 +270,8 @@ public class JoinPlanBuilder {
                 joinType,
                 joinCondition,
                 !query.symbolType().isValueSymbol(),
-                lhs);
+                lhs,
+                selectivity);
         }
     }
 
@@ -182,6 +293,7 @@ public class JoinPlanBuilder {
                                             Map<Set<RelationName>, JoinPair> joinPairs,
                                             Map<Set<RelationName>, Symbol> queryParts,
                                             AnalyzedRelation leftRelation,
+                                            Map<RelationName, Stats> statsByRelation,
                                             boolean hashJoinEnabled) {
         RelationName nextName = nextRel.relationName();
 
@@ -212,6 +324,7 @@ public class JoinPlanBuilder {
                 leftRelation,
                 nextRel,
                 query,
+                estimateJoinSelectivity(condition, statsByRelation),
                 hashJoinEnabled),
             query
         );
@@ -85,6 +85,7 @@ import io.crate.planner.optimizer.rule.MergeFilters;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathFetchOrEval;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathGroupBy;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathHashJoin;
+import io.crate.planner.optimizer.rule.MoveFilterBeneathMergeJoin;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathNestedLoop;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathOrder;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathProjectSet;
@@ -130,6 +131,7 @@ public class LogicalPlanner {
                     MoveFilterBeneathOrder.class,
                     MoveFilterBeneathProjectSet.class,
                     MoveFilterBeneathHashJoin.class,
+                    MoveFilterBeneathMergeJoin.class,
                     MoveFilterBeneathNestedLoop.class,
                     MoveFilterBeneathUnion.class,
                     MoveFilterBeneathGroupBy.class,
@@ -374,6 +376,7 @@ public class LogicalPlanner {
                         return rel.accept(this, List.copyOf(toCollect));
                     }
                 },
+                tableStats,
                 txnCtx.sessionContext().isHashJoinEnabled()
             );
             return MultiPhase.createIfNeeded(
@@ -0,0 +1,421 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.operators;
+
+import io.crate.analyze.OrderBy;
+import io.crate.analyze.relations.AbstractTableRelation;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.common.collections.Lists2;
+import io.crate.data.Row;
+import io.crate.execution.dsl.phases.MergeJoinPhase;
+import io.crate.execution.dsl.phases.MergePhase;
+import io.crate.execution.dsl.projection.builder.InputColumns;
+import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
+import io.crate.execution.engine.join.JoinOperations;
+import io.crate.execution.engine.pipeline.TopN;
+import io.crate.expression.symbol.SelectSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.expression.symbol.Symbols;
+import io.crate.metadata.RelationName;
+import io.crate.planner.ExecutionPlan;
+import io.crate.planner.PlannerContext;
+import io.crate.planner.PositionalOrderBy;
+import io.crate.planner.ResultDescription;
+import io.crate.planner.distribution.DistributionInfo;
+import io.crate.planner.node.dql.join.Join;
+import io.crate.planner.node.dql.join.JoinType;
+import io.crate.statistics.TableStats;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+import org.elasticsearch.Version;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.crate.planner.operators.LogicalPlanner.NO_LIMIT;
+
+/**
+ * Inner equi-join of two relations which are both already sorted ascending by their join key.
+ * <p>
+ * Contrary to the {@link HashJoin} none of the sides must be loaded completely into memory, only the rows of the
+ * right side sharing the same join key are buffered. The sort order of the inputs is also retained, so the result
+ * is sorted by the join key as well.
+ * <p>
+ * The operator is only chosen if the sort order is already provided by the sources, see
+ * {@link #create(LogicalPlan, LogicalPlan, JoinType, Symbol, AnalyzedRelation, Double)}.
+ * <p>
+ * The join keys are compared with the ordering of their {@link DataType}, which must match the order in which the
+ * sources emit their rows. This holds for numeric keys, but not for text keys: Lucene sorts text by its UTF-8
+ * bytes while the in-memory sorts and the merge of sorted shard results use the UTF-16 order of
+ * {@link String#compareTo(String)}. Both differ for supplementary characters, so only the {@link #KEY_TYPES} are
+ * supported.
+ */
+public class MergeJoin implements LogicalPlan {
+
+    /**
+     * Types of join keys whose order is the same in Lucene sorts, in-memory sorts and the {@link DataType} ordering
+     */
+    private static final Set<Integer> KEY_TYPES = Set.of(
+        ByteType.ID,
+        ShortType.ID,
+        IntegerType.ID,
+        LongType.ID,
+        FloatType.ID,
+        DoubleType.ID,
+        TimestampType.ID_WITH_TZ,
+        TimestampType.ID_WITHOUT_TZ
+    );
+
+    private final Symbol joinCondition;
+    private final Symbol leftKey;
+    private final Symbol rightKey;
+    final AnalyzedRelation concreteRelation;
+    private final List<Symbol> outputs;
+    final LogicalPlan lhs;
+    final LogicalPlan rhs;
+    @Nullable
+    private final Double selectivity;
+
+    /**
+     * Creates a {@link MergeJoin} if the join is an inner join on a single pair of numeric join keys and both
+     * sources are sorted ascending by their join key.
+     *
+     * @return the MergeJoin or null if the sort-merge algorithm can't be used.
+     */
+    @Nullable
+    static MergeJoin create(LogicalPlan lhs,
+                            LogicalPlan rhs,
+                            JoinType joinType,
+                            Symbol joinCondition,
+                            AnalyzedRelation concreteRelation,
+                            @Nullable Double selectivity) {
+        if (joinType != JoinType.INNER) {
+            return null;
+        }
+        Map<RelationName, List<Symbol>> keysByRelation = HashJoinConditionSymbolsExtractor.extract(joinCondition);
+        List<Symbol> rightKeys = keysByRelation.remove(concreteRelation.relationName());
+        if (rightKeys == null || rightKeys.size() != 1 || keysByRelation.size() != 1) {
+            return null;
+        }
+        List<Symbol> leftKeys = keysByRelation.values().iterator().next();
+        if (leftKeys.size() != 1) {
+            return null;
+        }
+        Symbol leftKey = leftKeys.get(0);
+        Symbol rightKey = rightKeys.get(0);
+        if (leftKey.valueType().equals(rightKey.valueType()) == false
+            || KEY_TYPES.contains(leftKey.valueType().id()) == false
+            || isSortedAscendingBy(lhs, leftKey) == false
+            || isSortedAscendingBy(rhs, rightKey) == false) {
+            return null;
+        }
+        return new MergeJoin(lhs, rhs, joinCondition, leftKey, rightKey, concreteRelation, selectivity);
+    }
+
+    /**
+     * Checks if the rows produced by {@code plan} are sorted ascending by {@code symbol}.
+     * Only an explicit {@link Order}, possibly below operators which retain the order of rows, is taken into account.
+     */
+    static boolean isSortedAscendingBy(LogicalPlan plan, Symbol symbol) {
+        if (plan instanceof Order) {
+            OrderBy orderBy = ((Order) plan).orderBy();
+            return orderBy.orderBySymbols().get(0).equals(symbol) && orderBy.reverseFlags()[0] == false;
+        }
+        if (plan instanceof Rename) {
+            int idx = plan.outputs().indexOf(symbol);
+            if (idx < 0) {
+                return false;
+            }
+            LogicalPlan source = ((Rename) plan).source();
+            return isSortedAscendingBy(source, source.outputs().get(idx));
+        }
+        if (plan instanceof Limit || plan instanceof Filter) {
+            return isSortedAscendingBy(((ForwardingLogicalPlan) plan).source(), symbol);
+        }
+        if (plan instanceof Eval) {
+            LogicalPlan source = ((Eval) plan).source();
+            return source.outputs().contains(symbol) && isSortedAscendingBy(source, symbol);
+        }
+        return false;
+    }
+
+    MergeJoin(LogicalPlan lhs,
+              LogicalPlan rhs,
+              Symbol joinCondition,
+              Symbol leftKey,
+              Symbol rightKey,
+              AnalyzedRelation concreteRelation,
+              @Nullable Double selectivity) {
+        this.lhs = lhs;
+        this.rhs = rhs;
+        this.joinCondition = joinCondition;
+        this.leftKey = leftKey;
+        this.rightKey = rightKey;
+        this.concreteRelation = concreteRelation;
+        this.selectivity = selectivity;
+        this.outputs = Lists2.concat(lhs.outputs(), rhs.outputs());
+    }
+
+    public Symbol joinCondition() {
+        return joinCondition;
+    }
+
+    public LogicalPlan lhs() {
+        return lhs;
+    }
+
+    public LogicalPlan rhs() {
+        return rhs;
+    }
+
+    @Override
+    public Map<LogicalPlan, SelectSymbol> dependencies() {
+        Map<LogicalPlan, SelectSymbol> leftDeps = lhs.dependencies();
+        Map<LogicalPlan, SelectSymbol> rightDeps = rhs.dependencies();
+        HashMap<LogicalPlan, SelectSymbol> deps = new HashMap<>(leftDeps.size() + rightDeps.size());
+        deps.putAll(leftDeps);
+        deps.putAll(rightDeps);
+        return deps;
+    }
+
+    @Override
+    public ExecutionPlan build(PlannerContext plannerContext,
+                               ProjectionBuilder projectionBuilder,
+                               int limit,
+                               int offset,
+                               @Nullable OrderBy order,
+                               @Nullable Integer pageSizeHint,
+                               Row params,
+                               SubQueryResults subQueryResults) {
+        if (plannerContext.clusterState().getNodes().getMinNodeVersion().before(Version.V_4_3_0)
+            || isSortedAscendingBy(lhs, leftKey) == false
+            || isSortedAscendingBy(rhs, rightKey) == false) {
+            // Nodes < 4.3.0 don't know the MergeJoinPhase,
+            // and optimizations applied after the join was planned could have removed the ordering of a source.
+            return new HashJoin(lhs, rhs, JoinType.INNER, joinCondition, concreteRelation, selectivity)
+                .build(plannerContext, projectionBuilder, limit, offset, order, pageSizeHint, params, subQueryResults);
+        }
+        ExecutionPlan leftExecutionPlan = lhs.build(
+            plannerContext, projectionBuilder, NO_LIMIT, 0, null, null, params, subQueryResults);
+        ExecutionPlan rightExecutionPlan = rhs.build(
+            plannerContext, projectionBuilder, NO_LIMIT, 0, null, null, params, subQueryResults);
+
+        ResultDescription leftResultDesc = leftExecutionPlan.resultDescription();
+        ResultDescription rightResultDesc = rightExecutionPlan.resultDescription();
+        if (leftResultDesc.orderBy() == null || rightResultDesc.orderBy() == null) {
+            // The ordering is required to merge the results of multiple nodes without losing the sort order
+            return new HashJoin(lhs, rhs, JoinType.INNER, joinCondition, concreteRelation, selectivity)
+                .build(plannerContext, projectionBuilder, limit, offset, order, pageSizeHint, params, subQueryResults);
+        }
+        Collection<String> joinExecutionNodes = leftResultDesc.nodeIds();
+        MergePhase leftMerge = null;
+        MergePhase rightMerge = null;
+
+        if (joinExecutionNodes.size() == 1
+            && joinExecutionNodes.equals(rightResultDesc.nodeIds())
+            && !leftResultDesc.hasRemainingLimitOrOffset()
+            && !rightResultDesc.hasRemainingLimitOrOffset()) {
+            // If the left and the right plan are executed on the same single node the mergePhase
+            // should be omitted, each side already emits its rows sorted.
+            leftExecutionPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
+            rightExecutionPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
+        } else {
+            // Run the join non-distributed on the handler node, the merge phases
+            // are merging the sorted results of each node while retaining the order.
+            joinExecutionNodes = Collections.singletonList(plannerContext.handlerNode());
+            leftExecutionPlan.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
+            rightExecutionPlan.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
+            if (JoinOperations.isMergePhaseNeeded(joinExecutionNodes, leftResultDesc, false)) {
+                leftMerge = JoinOperations.buildMergePhaseForJoin(plannerContext, leftResultDesc, joinExecutionNodes);
+            }
+            if (JoinOperations.isMergePhaseNeeded(joinExecutionNodes, rightResultDesc, false)) {
+                rightMerge = JoinOperations.buildMergePhaseForJoin(plannerContext, rightResultDesc, joinExecutionNodes);
+            }
+        }
+
+        List<Symbol> leftOutputs = lhs.outputs();
+        List<Symbol> rightOutputs = rhs.outputs();
+        List<Symbol> joinOutputs = Lists2.concat(leftOutputs, rightOutputs);
+        SubQueryAndParamBinder paramBinder = new SubQueryAndParamBinder(params, subQueryResults);
+        MergeJoinPhase joinPhase = new MergeJoinPhase(
+            plannerContext.jobId(),
+            plannerContext.nextExecutionPhaseId(),
+            "merge-join",
+            Collections.singletonList(JoinOperations.createJoinProjection(outputs, joinOutputs)),
+            leftMerge,
+            rightMerge,
+            leftOutputs.size(),
+            rightOutputs.size(),
+            joinExecutionNodes,
+            JoinType.INNER,
+            InputColumns.create(paramBinder.apply(joinCondition), joinOutputs),
+            InputColumns.create(paramBinder.apply(leftKey), new InputColumns.SourceSymbols(leftOutputs)),
+            InputColumns.create(paramBinder.apply(rightKey), new InputColumns.SourceSymbols(rightOutputs)),
+            Symbols.typeView(leftOutputs),
+            Symbols.typeView(rightOutputs)
+        );
+        PositionalOrderBy orderByFromLeft = leftResultDesc.orderBy();
+        return new Join(
+            joinPhase,
+            leftExecutionPlan,
+            rightExecutionPlan,
+            TopN.NO_LIMIT,
+            0,
+            TopN.NO_LIMIT,
+            outputs.size(),
+            orderByFromLeft
+        );
+    }
+
+    @Override
+    public List<Symbol> outputs() {
+        return outputs;
+    }
+
+    @Override
+    public List<AbstractTableRelation<?>> baseTables() {
+        return Lists2.concat(lhs.baseTables(), rhs.baseTables());
+    }
+
+    @Override
+    public List<LogicalPlan> sources() {
+        return List.of(lhs, rhs);
+    }
+
+    @Override
+    public LogicalPlan replaceSources(List<LogicalPlan> sources) {
+        return new MergeJoin(
+            sources.get(0),
+            sources.get(1),
+            joinCondition,
+            leftKey,
+            rightKey,
+            concreteRelation,
+            selectivity
+        );
+    }
+
+    @Override
+    public LogicalPlan pruneOutputsExcept(TableStats tableStats, Collection<Symbol> outputsToKeep) {
+        ArrayList<Symbol> lhsToKeep = new ArrayList<>();
+        ArrayList<Symbol> rhsToKeep = new ArrayList<>();
+        for (Symbol outputToKeep : outputsToKeep) {
+            SymbolVisitors.intersection(outputToKeep, lhs.outputs(), lhsToKeep::add);
+            SymbolVisitors.intersection(outputToKeep, rhs.outputs(), rhsToKeep::add);
+        }
+        SymbolVisitors.intersection(joinCondition, lhs.outputs(), lhsToKeep::add);
+        SymbolVisitors.intersection(joinCondition, rhs.outputs(), rhsToKeep::add);
+        LogicalPlan newLhs = lhs.pruneOutputsExcept(tableStats, lhsToKeep);
+        LogicalPlan newRhs = rhs.pruneOutputsExcept(tableStats, rhsToKeep);
+        if (newLhs == lhs && newRhs == rhs) {
+            return this;
+        }
+        return new MergeJoin(
+            newLhs,
+            newRhs,
+            joinCondition,
+            leftKey,
+            rightKey,
+            concreteRelation,
+            selectivity
+        );
+    }
+
+    @Nullable
+    @Override
+    public FetchRewrite rewriteToFetch(TableStats tableStats, Collection<Symbol> usedColumns) {
+        ArrayList<Symbol> usedFromLeft = new ArrayList<>();
+        ArrayList<Symbol> usedFromRight = new ArrayList<>();
+        for (Symbol usedColumn : usedColumns) {
+            SymbolVisitors.intersection(usedColumn, lhs.outputs(), usedFromLeft::add);
+            SymbolVisitors.intersection(usedColumn, rhs.outputs(), usedFromRight::add);
+        }
+        SymbolVisitors.intersection(joinCondition, lhs.outputs(), usedFromLeft::add);
+        SymbolVisitors.intersection(joinCondition, rhs.outputs(), usedFromRight::add);
+        FetchRewrite lhsFetchRewrite = lhs.rewriteToFetch(tableStats, usedFromLeft);
+        if (lhsFetchRewrite == null) {
+            return null;
+        }
+        FetchRewrite rhsFetchRewrite = rhs.rewriteToFetch(tableStats, usedFromRight);
+        if (rhsFetchRewrite == null) {
+            return null;
+        }
+        LinkedHashMap<Symbol, Symbol> allReplacedOutputs = new LinkedHashMap<>(lhsFetchRewrite.replacedOutputs());
+        allReplacedOutputs.putAll(rhsFetchRewrite.replacedOutputs());
+        return new FetchRewrite(
+            allReplacedOutputs,
+            new MergeJoin(
+                lhsFetchRewrite.newPlan(),
+                rhsFetchRewrite.newPlan(),
+                joinCondition,
+                leftKey,
+                rightKey,
+                concreteRelation,
+                selectivity
+            )
+        );
+    }
+
+    @Override
+    public long numExpectedRows() {
+        return JoinOrdering.estimateNumRows(JoinType.INNER, lhs.numExpectedRows(), rhs.numExpectedRows(), selectivity);
+    }
+
+    @Override
+    public long estimatedRowSize() {
+        return lhs.estimatedRowSize() + rhs.estimatedRowSize();
+    }
+
+    @Override
+    public <C, R> R accept(LogicalPlanVisitor<C, R> visitor, C context) {
+        return visitor.visitMergeJoin(this, context);
+    }
+
+    @Override
+    public void print(PrintContext printContext) {
+        printContext
+            .text("MergeJoin[")
+            .text(joinCondition.toString())
+            .text("] (")
+            .estimatedRows(numExpectedRows())
+            .text(")")
+            .nest(
+                lhs::print,
+                rhs::print
+            );
+    }
+}
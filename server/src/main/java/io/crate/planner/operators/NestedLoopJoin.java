@@ -74,6 +74,8 @@ public class NestedLoopJoin implements LogicalPlan {
     private final List<Symbol> outputs;
     private final List<AbstractTableRelation<?>> baseTables;
     private final Map<LogicalPlan, SelectSymbol> dependencies;
+    @Nullable
+    private final Double selectivity;
     private boolean orderByWasPushedDown = false;
     private boolean rewriteFilterOnOuterJoinToInnerJoinDone = false;
 
@@ -82,7 +84,8 @@ public class NestedLoopJoin implements LogicalPlan {
                    JoinType joinType,
                    @Nullable Symbol joinCondition,
                    boolean isFiltered,
-                   AnalyzedRelation topMostLeftRelation) {
+                   AnalyzedRelation topMostLeftRelation,
+                   @Nullable Double selectivity) {
         this.joinType = joinType;
         this.isFiltered = isFiltered || joinCondition != null;
         this.lhs = lhs;
@@ -96,6 +99,7 @@ public class NestedLoopJoin implements LogicalPlan {
         this.topMostLeftRelation = topMostLeftRelation;
         this.joinCondition = joinCondition;
         this.dependencies = Maps.concat(lhs.dependencies(), rhs.dependencies());
+        this.selectivity = selectivity;
     }
 
     public NestedLoopJoin(LogicalPlan lhs,
@@ -104,9 +108,10 @@ public class NestedLoopJoin implements LogicalPlan {
                           @Nullable Symbol joinCondition,
                           boolean isFiltered,
                           AnalyzedRelation topMostLeftRelation,
+                          @Nullable Double selectivity,
                           boolean orderByWasPushedDown,
                           boolean rewriteFilterOnOuterJoinToInnerJoinDone) {
-        this(lhs, rhs, joinType, joinCondition, isFiltered, topMostLeftRelation);
+        this(lhs, rhs, joinType, joinCondition, isFiltered, topMostLeftRelation, selectivity);
         this.orderByWasPushedDown = orderByWasPushedDown;
         this.rewriteFilterOnOuterJoinToInnerJoinDone = rewriteFilterOnOuterJoinToInnerJoinDone;
     }
@@ -132,6 +137,11 @@ public class NestedLoopJoin implements LogicalPlan {
         return joinCondition;
     }
 
+    @Nullable
+    public Double selectivity() {
+        return selectivity;
+    }
+
     @Override
     public Map<LogicalPlan, SelectSymbol> dependencies() {
         return dependencies;
@@ -253,6 +263,7 @@ public class NestedLoopJoin implements LogicalPlan {
             joinCondition,
             isFiltered,
             topMostLeftRelation,
+            selectivity,
             orderByWasPushedDown,
             rewriteFilterOnOuterJoinToInnerJoinDone
         );
@@ -282,6 +293,7 @@ public class NestedLoopJoin implements LogicalPlan {
             joinCondition,
             isFiltered,
             topMostLeftRelation,
+            selectivity,
             orderByWasPushedDown,
             rewriteFilterOnOuterJoinToInnerJoinDone
         );
@@ -319,6 +331,7 @@ public class NestedLoopJoin implements LogicalPlan {
                 joinCondition,
                 isFiltered,
                 topMostLeftRelation,
+                selectivity,
                 orderByWasPushedDown,
                 rewriteFilterOnOuterJoinToInnerJoinDone
             )
@@ -366,12 +379,7 @@ public class NestedLoopJoin implements LogicalPlan {
 
     @Override
     public long numExpectedRows() {
-        if (joinType == JoinType.CROSS) {
-            return lhs.numExpectedRows() * rhs.numExpectedRows();
-        } else {
-            // We don't have any cardinality estimates, so just take the bigger table
-            return Math.max(lhs.numExpectedRows(), rhs.numExpectedRows());
-        }
+        return JoinOrdering.estimateNumRows(joinType, lhs.numExpectedRows(), rhs.numExpectedRows(), selectivity);
     }
 
     @Override
@@ -404,8 +412,15 @@ public class NestedLoopJoin implements LogicalPlan {
                 .text(" | ")
                 .text(joinCondition.toString());
         }
+        // The product of two unknown estimates must not show up as a known row count
+        long estimatedRows = joinType == JoinType.CROSS
+                             && (lhs.numExpectedRows() < 1 || rhs.numExpectedRows() < 1)
+            ? -1
+            : numExpectedRows();
         printContext
-            .text("]")
+            .text("] (")
+            .estimatedRows(estimatedRows)
+            .text(")")
             .nest(Lists2.map(sources(), x -> x::print));
     }
 }
@@ -41,6 +41,20 @@ public final class PrintContext {
         return this;
     }
 
+    /**
+     * Appends the estimated number of rows of an operator, e.g. {@code rows=100}.
+     * Estimates below 1 are printed as {@code unknown}; they come from tables without statistics.
+     */
+    public PrintContext estimatedRows(long numExpectedRows) {
+        sb.append("rows=");
+        if (numExpectedRows < 1) {
+            sb.append("unknown");
+        } else {
+            sb.append(numExpectedRows);
+        }
+        return this;
+    }
+
     @SafeVarargs
     public final PrintContext nest(Consumer<PrintContext>... children) {
         return nest(Arrays.asList(children));
@@ -45,12 +45,15 @@ import io.crate.execution.dsl.projection.WindowAggProjection;
 import io.crate.execution.dsl.projection.builder.InputColumns;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.pipeline.TopN;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.SymbolVisitors;
 import io.crate.expression.symbol.WindowFunction;
 import io.crate.planner.ExecutionPlan;
 import io.crate.planner.Merge;
 import io.crate.planner.PlannerContext;
+import io.crate.planner.PositionalOrderBy;
 import io.crate.planner.ResultDescription;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.distribution.DistributionType;
@@ -147,13 +150,7 @@ public class WindowAgg extends ForwardingLogicalPlan {
 
 
         List<WindowFunction> boundWindowFunctions = (List<WindowFunction>)(List) Lists2.map(windowFunctions, toInputCols);
-        List<Projection> projections = new ArrayList<>();
-        WindowAggProjection windowAggProjection = new WindowAggProjection(
-            windowDefinition.map(toInputCols),
-            boundWindowFunctions,
-            InputColumns.create(this.standalone, sourceSymbols)
-        );
-        projections.add(windowAggProjection);
+        WindowDefinition boundWindowDefinition = windowDefinition.map(toInputCols);
         ExecutionPlan sourcePlan = source.build(
             plannerContext,
             projectionBuilder,
@@ -169,6 +166,17 @@ public class WindowAgg extends ForwardingLogicalPlan {
         boolean nonDistExecution = windowDefinition.partitions().isEmpty()
                                    || resultDescription.hasRemainingLimitOrOffset()
                                    || executesOnHandler;
+        // The merge on the handler preserves the order of the source, a MODULO distribution doesn't.
+        boolean sourceSorted = nonDistExecution
+                               && isSortedByPartitionAndOrderBy(resultDescription.orderBy(), boundWindowDefinition);
+        List<Projection> projections = new ArrayList<>();
+        WindowAggProjection windowAggProjection = new WindowAggProjection(
+            boundWindowDefinition,
+            boundWindowFunctions,
+            InputColumns.create(this.standalone, sourceSymbols),
+            sourceSorted
+        );
+        projections.add(windowAggProjection);
         if (nonDistExecution) {
             sourcePlan = Merge.ensureOnHandler(sourcePlan, plannerContext);
             for (Projection projection : projections) {
@@ -204,6 +212,64 @@ public class WindowAgg extends ForwardingLogicalPlan {
         return sourcePlan;
     }
 
+    /**
+     * @return true if the rows are sorted so that the rows of each partition are adjacent and sorted by the
+     *         ORDER BY of the window definition. Requires a PARTITION BY.
+     */
+    static boolean isSortedByPartitionAndOrderBy(@Nullable PositionalOrderBy sourceOrder,
+                                                 WindowDefinition boundWindowDefinition) {
+        List<Symbol> partitions = boundWindowDefinition.partitions();
+        if (sourceOrder == null || partitions.isEmpty()) {
+            return false;
+        }
+        HashSet<Integer> partitionIndices = new HashSet<>();
+        for (Symbol partition : partitions) {
+            if (partition instanceof InputColumn) {
+                partitionIndices.add(((InputColumn) partition).index());
+            } else if (!(partition instanceof Literal)) {
+                return false;
+            }
+        }
+        int[] indices = sourceOrder.indices();
+        // Any ordering of the partition columns groups the rows of a partition together
+        HashSet<Integer> seenPartitionIndices = new HashSet<>();
+        int pos = 0;
+        while (pos < indices.length && partitionIndices.contains(indices[pos])) {
+            seenPartitionIndices.add(indices[pos]);
+            pos++;
+        }
+        if (!seenPartitionIndices.equals(partitionIndices)) {
+            return false;
+        }
+        OrderBy orderBy = boundWindowDefinition.orderBy();
+        if (orderBy == null) {
+            return true;
+        }
+        List<Symbol> orderBySymbols = orderBy.orderBySymbols();
+        for (int i = 0; i < orderBySymbols.size(); i++) {
+            Symbol orderBySymbol = orderBySymbols.get(i);
+            if (orderBySymbol instanceof Literal) {
+                continue;
+            }
+            if (!(orderBySymbol instanceof InputColumn)) {
+                return false;
+            }
+            int index = ((InputColumn) orderBySymbol).index();
+            if (partitionIndices.contains(index)) {
+                // constant within a partition
+                continue;
+            }
+            if (pos >= indices.length
+                || indices[pos] != index
+                || sourceOrder.reverseFlags()[pos] != orderBy.reverseFlags()[i]
+                || sourceOrder.nullsFirst()[pos] != orderBy.nullsFirst()[i]) {
+                return false;
+            }
+            pos++;
+        }
+        return true;
+    }
+
     @Nullable
     static OrderBy createOrderByInclPartitionBy(WindowDefinition windowDefinition) {
         var orderBy = windowDefinition.orderBy();
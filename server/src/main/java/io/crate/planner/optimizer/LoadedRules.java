@@ -35,6 +35,7 @@ import io.crate.planner.optimizer.rule.MergeFilters;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathFetchOrEval;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathGroupBy;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathHashJoin;
+import io.crate.planner.optimizer.rule.MoveFilterBeneathMergeJoin;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathNestedLoop;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathOrder;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathProjectSet;
@@ -57,6 +58,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 @Singleton
 public class LoadedRules implements SessionSettingProvider {
@@ -72,6 +74,7 @@ public class LoadedRules implements SessionSettingProvider {
         new MoveFilterBeneathOrder(),
         new MoveFilterBeneathProjectSet(),
         new MoveFilterBeneathHashJoin(),
+        new MoveFilterBeneathMergeJoin(),
         new MoveFilterBeneathNestedLoop(),
         new MoveFilterBeneathUnion(),
         new MoveFilterBeneathGroupBy(),
@@ -111,6 +114,19 @@ public class LoadedRules implements SessionSettingProvider {
         );
     }
 
+    /**
+     * @return the rules which have been disabled using their optimizer session setting
+     */
+    public Set<Class<?>> disabledRules() {
+        var result = new HashSet<Class<?>>();
+        for (var rule : rules) {
+            if (!rule.isEnabled()) {
+                result.add(rule.getClass());
+            }
+        }
+        return result;
+    }
+
     public List<Rule<?>> rules(List<Class<? extends Rule<?>>> includedRules) {
         if (includedRules.isEmpty()) {
             return List.of();
@@ -116,6 +116,7 @@ public final class MoveOrderBeneathNestedLoop implements Rule<Order> {
                     nestedLoop.joinCondition(),
                     nestedLoop.isFiltered(),
                     nestedLoop.topMostLeftRelation(),
+                    nestedLoop.selectivity(),
                     true,
                     nestedLoop.isRewriteFilterOnOuterJoinToInnerJoinDone()
                 );
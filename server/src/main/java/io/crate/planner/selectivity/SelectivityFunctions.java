@@ -36,12 +36,15 @@ import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.SymbolVisitor;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Reference;
+import io.crate.metadata.RelationName;
 import io.crate.statistics.ColumnStats;
 import io.crate.statistics.Stats;
 
 import javax.annotation.Nullable;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Used to estimate the number of rows returned after applying a given query.
@@ -63,6 +66,19 @@ public class SelectivityFunctions {
         return (long) (stats.numDocs() * query.accept(estimator, null));
     }
 
+    /**
+     * Estimates the fraction of the cross product of the joined relations which matches the given join condition.
+     *
+     * See `src/backend/utils/adt/selfuncs.c` `eqjoinsel` in PostgreSQL.
+     *
+     * @param statsByRelation the stats of the joined relations, keyed by the name used to refer to them within the
+     *                        join condition. Columns of relations without stats fall back to default selectivities.
+     */
+    public static double estimateJoinSelectivity(Symbol joinCondition, Map<RelationName, Stats> statsByRelation) {
+        var estimator = new JoinSelectivityEstimator(statsByRelation);
+        return joinCondition.accept(estimator, null);
+    }
+
     static class SelectivityEstimator extends SymbolVisitor<Void, Double> {
 
         private final Stats stats;
@@ -133,6 +149,97 @@ public class SelectivityFunctions {
 
     }
 
+    static class JoinSelectivityEstimator extends SelectivityEstimator {
+
+        private final Map<RelationName, Stats> statsByRelation;
+
+        JoinSelectivityEstimator(Map<RelationName, Stats> statsByRelation) {
+            super(Stats.EMPTY, null);
+            this.statsByRelation = statsByRelation;
+        }
+
+        @Override
+        public Double visitFunction(Function function, Void context) {
+            if (EqOperator.NAME.equals(function.name())) {
+                List<Symbol> arguments = function.arguments();
+                ColumnStats<?> leftStats = getColumnStats(arguments.get(0), statsByRelation);
+                ColumnStats<?> rightStats = getColumnStats(arguments.get(1), statsByRelation);
+                if (leftStats != null && rightStats != null) {
+                    return eqJoinSelectivity(leftStats, rightStats);
+                }
+            }
+            return super.visitFunction(function, context);
+        }
+    }
+
+    private static double eqJoinSelectivity(ColumnStats<?> leftStats, ColumnStats<?> rightStats) {
+        double leftDistinct = leftStats.approxDistinct();
+        double rightDistinct = rightStats.approxDistinct();
+        if (leftDistinct <= 0 || rightDistinct <= 0) {
+            return DEFAULT_EQ_SEL;
+        }
+        Object[] leftMcv = leftStats.mostCommonValues().values();
+        Object[] rightMcv = rightStats.mostCommonValues().values();
+        if (leftMcv.length == 0 || rightMcv.length == 0) {
+            // Assume that every value of the side with fewer distinct values has a match on the other side
+            double selectivity = (1.0 - leftStats.nullFraction()) * (1.0 - rightStats.nullFraction());
+            return selectivity / Math.max(leftDistinct, rightDistinct);
+        }
+        double[] leftFreqs = leftStats.mostCommonValues().frequencies();
+        double[] rightFreqs = rightStats.mostCommonValues().frequencies();
+        HashMap<Object, Integer> rightIdxByValue = new HashMap<>(rightMcv.length);
+        for (int i = 0; i < rightMcv.length; i++) {
+            rightIdxByValue.put(rightMcv[i], i);
+        }
+        boolean[] rightMatched = new boolean[rightMcv.length];
+        double matchProdFreq = 0.0;
+        double leftMatchFreq = 0.0;
+        double rightMatchFreq = 0.0;
+        int numMatches = 0;
+        for (int i = 0; i < leftMcv.length; i++) {
+            Integer rightIdx = rightIdxByValue.get(leftMcv[i]);
+            if (rightIdx != null && !rightMatched[rightIdx]) {
+                rightMatched[rightIdx] = true;
+                matchProdFreq += leftFreqs[i] * rightFreqs[rightIdx];
+                leftMatchFreq += leftFreqs[i];
+                rightMatchFreq += rightFreqs[rightIdx];
+                numMatches++;
+            }
+        }
+        double leftMcvFreq = sum(leftFreqs);
+        double rightMcvFreq = sum(rightFreqs);
+        double leftUnmatchedFreq = leftMcvFreq - leftMatchFreq;
+        double rightUnmatchedFreq = rightMcvFreq - rightMatchFreq;
+        double leftOtherFreq = Math.max(0.0, 1.0 - leftStats.nullFraction() - leftMcvFreq);
+        double rightOtherFreq = Math.max(0.0, 1.0 - rightStats.nullFraction() - rightMcvFreq);
+
+        // Matching most common values contribute exactly, the remaining values are assumed to be
+        // uniformly distributed across the distinct values which are not part of the most common values.
+        double leftSel = matchProdFreq;
+        if (rightDistinct > rightMcv.length) {
+            leftSel += leftUnmatchedFreq * rightOtherFreq / (rightDistinct - rightMcv.length);
+        }
+        if (rightDistinct > numMatches) {
+            leftSel += leftOtherFreq * (rightOtherFreq + rightUnmatchedFreq) / (rightDistinct - numMatches);
+        }
+        double rightSel = matchProdFreq;
+        if (leftDistinct > leftMcv.length) {
+            rightSel += rightUnmatchedFreq * leftOtherFreq / (leftDistinct - leftMcv.length);
+        }
+        if (leftDistinct > numMatches) {
+            rightSel += rightOtherFreq * (leftOtherFreq + leftUnmatchedFreq) / (leftDistinct - numMatches);
+        }
+        return Math.min(1.0, Math.min(leftSel, rightSel));
+    }
+
+    private static double sum(double[] values) {
+        double sum = 0.0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
     private static double isNullSelectivity(Symbol arg, Stats stats) {
         ColumnIdent column = getColumn(arg);
         if (column == null) {
@@ -178,6 +285,23 @@ public class SelectivityFunctions {
         }
     }
 
+    @Nullable
+    private static ColumnStats<?> getColumnStats(Symbol symbol, Map<RelationName, Stats> statsByRelation) {
+        final RelationName relation;
+        if (symbol instanceof Reference) {
+            relation = ((Reference) symbol).ident().tableIdent();
+        } else if (symbol instanceof ScopedSymbol) {
+            relation = ((ScopedSymbol) symbol).relation();
+        } else {
+            return null;
+        }
+        Stats stats = statsByRelation.get(relation);
+        if (stats == null) {
+            return null;
+        }
+        return stats.statsByColumn().get(getColumn(symbol));
+    }
+
     @Nullable
     private static ColumnIdent getColumn(Symbol symbol) {
         if (symbol instanceof Reference) {
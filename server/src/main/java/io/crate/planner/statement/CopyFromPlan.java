@@ -42,6 +42,7 @@ import io.crate.execution.dsl.projection.SourceIndexWriterProjection;
 import io.crate.execution.dsl.projection.SourceIndexWriterReturnSummaryProjection;
 import io.crate.execution.dsl.projection.builder.InputColumns;
 import io.crate.execution.engine.NodeOperationTreeGenerator;
+import io.crate.execution.engine.collect.files.StdinFileInputFactory;
 import io.crate.execution.engine.pipeline.TopN;
 import io.crate.expression.reference.file.SourceLineNumberExpression;
 import io.crate.expression.reference.file.SourceUriExpression;
@@ -81,7 +82,9 @@ import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import static io.crate.analyze.CopyStatementSettings.INPUT_FORMATS;
 import static io.crate.analyze.CopyStatementSettings.INPUT_FORMAT_SETTING;
+import static io.crate.analyze.CopyStatementSettings.ensureStdioFormatSupported;
 import static io.crate.analyze.CopyStatementSettings.settingAsEnum;
 import static io.crate.analyze.GenericPropertiesConverter.genericPropertiesToSettings;
 
@@ -151,13 +154,16 @@ public final class CopyFromPlan implements Plan {
         var nodeFiltersPredicate = discoveryNodePredicate(
             properties.properties().getOrDefault(NodeFilters.NAME, null));
         var settings = genericPropertiesToSettings(properties);
+        if (copyFrom.fromStdin()) {
+            ensureStdioFormatSupported("COPY FROM STDIN", settings.get(INPUT_FORMAT_SETTING.getKey()), INPUT_FORMATS);
+        }
         var inputFormat = settingAsEnum(
             FileUriCollectPhase.InputFormat.class,
             settings.get(INPUT_FORMAT_SETTING.getKey(), INPUT_FORMAT_SETTING.getDefault(Settings.EMPTY)));
         // TODO make FileUriCollectPhase ctor accept an uri of the List<String>
         // instead of the Symbol type, such as the uri can be evaluated and converted
         // to the required type already at this stage, but not later on in FileCollectSource.
-        var boundedURI = validateAndConvertToLiteral(eval.apply(copyFrom.uri()));
+        var boundedURI = copyFrom.fromStdin() ? null : validateAndConvertToLiteral(eval.apply(copyFrom.uri()));
 
         return new BoundCopyFrom(
             copyFrom.tableInfo(),
@@ -288,14 +294,25 @@ public final class CopyFromPlan implements Plan {
             rewriteToCollectToUsePartitionValues(table.partitionedByColumns(), partitionValues, toCollect);
         }
 
+        Symbol uri;
+        Collection<String> executionNodes;
+        if (copyFrom.fromStdin()) {
+            // The data is streamed through the connection of the client to this node, so only this node can read it
+            uri = Literal.of(StdinFileInputFactory.uri(context.jobId()));
+            executionNodes = List.of(allNodes.getLocalNodeId());
+        } else {
+            uri = boundedCopyFrom.uri();
+            executionNodes = getExecutionNodes(
+                allNodes,
+                boundedCopyFrom.settings().getAsInt("num_readers", allNodes.getSize()),
+                boundedCopyFrom.nodePredicate());
+        }
         FileUriCollectPhase collectPhase = new FileUriCollectPhase(
             context.jobId(),
             context.nextExecutionPhaseId(),
             "copyFrom",
-            getExecutionNodes(allNodes, boundedCopyFrom
-                .settings()
-                .getAsInt("num_readers", allNodes.getSize()), boundedCopyFrom.nodePredicate()),
-            boundedCopyFrom.uri(),
+            executionNodes,
+            uri,
             toCollect,
             Collections.emptyList(),
             boundedCopyFrom.settings().get("compression", null),
@@ -397,17 +414,33 @@ public final class CopyFromPlan implements Plan {
 
     private static Symbol validateAndConvertToLiteral(Object uri) {
         if (uri instanceof String) {
-            return Literal.of(DataTypes.STRING.sanitizeValue(uri));
+            String value = DataTypes.STRING.sanitizeValue(uri);
+            ensureNotStdinUri(value);
+            return Literal.of(value);
         } else if (uri instanceof List) {
             Object value = ((List) uri).get(0);
             if (!(value instanceof String)) {
                 throw AnalyzedCopyFrom.raiseInvalidType(DataTypes.guessType(uri));
             }
-            return Literal.of(DataTypes.STRING_ARRAY, DataTypes.STRING_ARRAY.sanitizeValue(uri));
+            List<String> values = DataTypes.STRING_ARRAY.sanitizeValue(uri);
+            for (String v : values) {
+                ensureNotStdinUri(v);
+            }
+            return Literal.of(DataTypes.STRING_ARRAY, values);
         }
         throw AnalyzedCopyFrom.raiseInvalidType(DataTypes.guessType(uri));
     }
 
+    /**
+     * The streams of {@code COPY ... FROM STDIN} are only accessible to the session which receives them.
+     */
+    private static void ensureNotStdinUri(@Nullable String uri) {
+        if (uri != null && uri.toLowerCase(Locale.ENGLISH).startsWith(StdinFileInputFactory.NAME + ":")) {
+            throw new IllegalArgumentException(
+                "The `" + StdinFileInputFactory.NAME + "` scheme is not supported, use COPY FROM STDIN instead");
+        }
+    }
+
     private static Predicate<DiscoveryNode> discoveryNodePredicate(@Nullable Object nodeFilter) {
         if (nodeFilter == null) {
             return discoveryNode -> true;
@@ -39,6 +39,7 @@ import io.crate.execution.dsl.projection.MergeCountProjection;
 import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.NodeOperationTreeGenerator;
+import io.crate.execution.engine.export.CopyToStdoutConsumer;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.format.Style;
@@ -75,8 +76,10 @@ import java.util.Set;
 import java.util.function.Function;
 
 import static io.crate.analyze.CopyStatementSettings.COMPRESSION_SETTING;
+import static io.crate.analyze.CopyStatementSettings.OUTPUT_FORMATS;
 import static io.crate.analyze.CopyStatementSettings.OUTPUT_FORMAT_SETTING;
 import static io.crate.analyze.CopyStatementSettings.OUTPUT_SETTINGS;
+import static io.crate.analyze.CopyStatementSettings.ensureStdioFormatSupported;
 import static io.crate.analyze.CopyStatementSettings.settingAsEnum;
 import static io.crate.analyze.GenericPropertiesConverter.genericPropertiesToSettings;
 
@@ -106,14 +109,38 @@ public final class CopyToPlan implements Plan {
                               RowConsumer consumer,
                               Row params,
                               SubQueryResults subQueryResults) {
-        ExecutionPlan executionPlan = planCopyToExecution(
-            copyTo,
-            plannerContext,
-            tableStats,
-            executor.projectionBuilder(),
-            params,
-            subQueryResults
-        );
+        ExecutionPlan executionPlan;
+        if (copyTo.toStdout()) {
+            var boundedCopyTo = bind(
+                copyTo,
+                plannerContext.transactionContext(),
+                plannerContext.functions(),
+                params,
+                subQueryResults);
+            List<ColumnIdent> overwriteColumns = new ArrayList<>(boundedCopyTo.overwrites().keySet());
+            consumer = new CopyToStdoutConsumer(
+                consumer,
+                outputFormat(boundedCopyTo),
+                boundedCopyTo.outputNames(),
+                overwriteColumns
+            );
+            executionPlan = planCopyToStdoutExecution(
+                boundedCopyTo,
+                overwriteColumns,
+                plannerContext,
+                tableStats,
+                executor.projectionBuilder(),
+                params);
+        } else {
+            executionPlan = planCopyToExecution(
+                copyTo,
+                plannerContext,
+                tableStats,
+                executor.projectionBuilder(),
+                params,
+                subQueryResults
+            );
+        }
 
         NodeOperationTree nodeOpTree = NodeOperationTreeGenerator
             .fromPlan(executionPlan, executor.localNodeId());
@@ -136,19 +163,13 @@ public final class CopyToPlan implements Plan {
             params,
             subQueryResults);
 
-        WriterProjection.OutputFormat outputFormat = boundedCopyTo.outputFormat();
-        if (outputFormat == null) {
-            outputFormat = boundedCopyTo.columnsDefined() ?
-                WriterProjection.OutputFormat.JSON_ARRAY : WriterProjection.OutputFormat.JSON_OBJECT;
-        }
-
         WriterProjection projection = ProjectionBuilder.writerProjection(
             boundedCopyTo.outputs(),
             boundedCopyTo.uri(),
             boundedCopyTo.compressionType(),
             boundedCopyTo.overwrites(),
             boundedCopyTo.outputNames(),
-            outputFormat);
+            outputFormat(boundedCopyTo));
 
         LogicalPlan collect = Collect.create(
             new DocTableRelation(boundedCopyTo.table()),
@@ -168,6 +189,46 @@ public final class CopyToPlan implements Plan {
             List.of(MergeCountProjection.INSTANCE));
     }
 
+    /**
+     * Plans a {@code COPY TO STDOUT} which merges the rows on the handler instead of writing them into files.
+     * The values of the {@code overwriteColumns} are collected after the outputs so that they can be merged into
+     * the document on the handler, see {@link CopyToStdoutConsumer}.
+     */
+    private static ExecutionPlan planCopyToStdoutExecution(BoundCopyTo boundedCopyTo,
+                                                           List<ColumnIdent> overwriteColumns,
+                                                           PlannerContext context,
+                                                           TableStats tableStats,
+                                                           ProjectionBuilder projectionBuilder,
+                                                           Row params) {
+        if (boundedCopyTo.compressionType() != null) {
+            throw new UnsupportedFeatureException("COPY TO STDOUT does not support compression");
+        }
+        List<Symbol> outputs = new ArrayList<>(boundedCopyTo.outputs());
+        for (ColumnIdent column : overwriteColumns) {
+            outputs.add(boundedCopyTo.overwrites().get(column));
+        }
+        LogicalPlan collect = Collect.create(
+            new DocTableRelation(boundedCopyTo.table()),
+            outputs,
+            boundedCopyTo.whereClause(),
+            Set.of(),
+            tableStats,
+            context.params()
+        );
+        LogicalPlan source = optimizeCollect(context, tableStats, collect);
+        ExecutionPlan executionPlan = source.build(context, projectionBuilder, 0, 0, null, null, params, SubQueryResults.EMPTY);
+        return Merge.ensureOnHandler(executionPlan, context);
+    }
+
+    private static WriterProjection.OutputFormat outputFormat(BoundCopyTo boundedCopyTo) {
+        WriterProjection.OutputFormat outputFormat = boundedCopyTo.outputFormat();
+        if (outputFormat == null) {
+            return boundedCopyTo.columnsDefined() ?
+                WriterProjection.OutputFormat.JSON_ARRAY : WriterProjection.OutputFormat.JSON_OBJECT;
+        }
+        return outputFormat;
+    }
+
     private static LogicalPlan optimizeCollect(PlannerContext context, TableStats tableStats, LogicalPlan collect) {
         RewriteCollectToGet rewriteCollectToGet = new RewriteCollectToGet();
         Match<Collect> match = rewriteCollectToGet.pattern().accept(collect, Captures.empty());
@@ -238,6 +299,9 @@ public final class CopyToPlan implements Plan {
         Settings settings = genericPropertiesToSettings(
             copyTo.properties().map(eval),
             OUTPUT_SETTINGS);
+        if (copyTo.toStdout()) {
+            ensureStdioFormatSupported("COPY TO STDOUT", settings.get(OUTPUT_FORMAT_SETTING.getKey()), OUTPUT_FORMATS);
+        }
 
         WriterProjection.CompressionType compressionType =
             settingAsEnum(WriterProjection.CompressionType.class, COMPRESSION_SETTING.get(settings));
@@ -253,7 +317,7 @@ public final class CopyToPlan implements Plan {
             outputs,
             table,
             whereClause,
-            Literal.of(DataTypes.STRING.sanitizeValue(eval.apply(copyTo.uri()))),
+            copyTo.toStdout() ? null : Literal.of(DataTypes.STRING.sanitizeValue(eval.apply(copyTo.uri()))),
             compressionType,
             outputFormat,
             outputNames,
@@ -0,0 +1,166 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.netty.buffer.ByteBuf;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * The data a client sends with CopyData messages during {@code COPY ... FROM STDIN}.
+ * <p>
+ * Messages are added by the netty event loop while the collect phase of the statement reads the stream.
+ * To apply back pressure, reading from the socket is paused via {@code setAutoRead} once more than
+ * {@link #HIGH_WATERMARK} bytes are buffered, and resumed once the reader drained the buffer below {@link #LOW_WATERMARK}.
+ * <p>
+ * Once the stream is closed by the reader, further data is discarded. This allows the client to finish sending
+ * its data if the statement failed early.
+ */
+final class CopyInStream extends InputStream {
+
+    static final int HIGH_WATERMARK = 8 * 1024 * 1024;
+    static final int LOW_WATERMARK = 2 * 1024 * 1024;
+
+    private static final byte[] EOF = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+    private final Consumer<Boolean> setAutoRead;
+
+    private long bufferedBytes = 0;
+    private boolean paused = false;
+    private volatile boolean closed = false;
+    @Nullable
+    private volatile String failure;
+
+    private byte[] current;
+    private int position;
+
+    CopyInStream(Consumer<Boolean> setAutoRead) {
+        this.setAutoRead = setAutoRead;
+    }
+
+    /**
+     * CopyData
+     */
+    void add(ByteBuf data) {
+        if (closed || !data.isReadable()) {
+            return;
+        }
+        byte[] bytes = new byte[data.readableBytes()];
+        data.readBytes(bytes);
+        chunks.add(bytes);
+        synchronized (this) {
+            bufferedBytes += bytes.length;
+            if (!paused && !closed && bufferedBytes > HIGH_WATERMARK) {
+                paused = true;
+                setAutoRead.accept(false);
+            }
+        }
+    }
+
+    /**
+     * CopyDone
+     */
+    void finish() {
+        chunks.add(EOF);
+    }
+
+    /**
+     * CopyFail or lost connection
+     */
+    void fail(String message) {
+        failure = message;
+        chunks.add(EOF);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int read = read(b, 0, 1);
+        return read == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (current == null || (current != EOF && position == current.length)) {
+            current = take();
+            position = 0;
+            released(current.length);
+        }
+        if (current == EOF) {
+            String msg = failure;
+            if (msg != null) {
+                throw new IOException("COPY FROM STDIN failed: " + msg);
+            }
+            return -1;
+        }
+        int read = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, read);
+        position += read;
+        return read;
+    }
+
+    private byte[] take() throws IOException {
+        if (closed) {
+            return EOF;
+        }
+        try {
+            return chunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for COPY data");
+        }
+    }
+
+    private synchronized void released(int numBytes) {
+        bufferedBytes -= numBytes;
+        if (paused && bufferedBytes < LOW_WATERMARK) {
+            paused = false;
+            setAutoRead.accept(true);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        chunks.clear();
+        // unblock a reader waiting for data
+        chunks.add(EOF);
+        synchronized (this) {
+            bufferedBytes = 0;
+            if (paused) {
+                paused = false;
+                setAutoRead.accept(true);
+            }
+        }
+    }
+}
@@ -95,6 +95,8 @@ public class Messages {
          */
         if ("BEGIN".equals(query)) {
             commandTag = "BEGIN";
+        } else if ("DECLARE".equals(query) || "CLOSE".equals(query)) {
+            commandTag = query + " CURSOR";
         } else if ("INSERT".equals(query)) {
             commandTag = "INSERT 0 " + rowCount;
         } else {
@@ -468,6 +470,62 @@ public class Messages {
         }
     }
 
+    /**
+     * CopyInResponse
+     * | 'G' | int32 len | int8 format | int16 numColumns | foreach column: int16 format |
+     * <p>
+     * The data is read as text lines with a single column, see {@link #sendCopyResponse(Channel, char, String)}
+     */
+    static void sendCopyInResponse(Channel channel) {
+        sendCopyResponse(channel, 'G', "sentCopyInResponse");
+    }
+
+    /**
+     * CopyOutResponse
+     * | 'H' | int32 len | int8 format | int16 numColumns | foreach column: int16 format |
+     */
+    static void sendCopyOutResponse(Channel channel) {
+        sendCopyResponse(channel, 'H', "sentCopyOutResponse");
+    }
+
+    /**
+     * COPY FROM STDIN and COPY TO STDOUT exchange JSON or CSV lines instead of individual columns,
+     * so the response announces the textual format with a single column.
+     */
+    private static void sendCopyResponse(Channel channel, char msgType, String traceLogMsg) {
+        ByteBuf buffer = channel.alloc().buffer(10);
+        buffer.writeByte(msgType);
+        buffer.writeInt(9);
+        buffer.writeByte(0);    // overall format: textual
+        buffer.writeShort(1);   // number of columns
+        buffer.writeShort(0);   // format of the column: textual
+        ChannelFuture channelFuture = channel.writeAndFlush(buffer);
+        if (LOGGER.isTraceEnabled()) {
+            channelFuture.addListener((ChannelFutureListener) future -> LOGGER.trace(traceLogMsg));
+        }
+    }
+
+    /**
+     * CopyData
+     * | 'd' | int32 len | byteN data |
+     */
+    static void sendCopyData(Channel channel, String data) {
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        ByteBuf buffer = channel.alloc().buffer(5 + bytes.length);
+        buffer.writeByte('d');
+        buffer.writeInt(4 + bytes.length);
+        buffer.writeBytes(bytes);
+        channel.write(buffer);
+    }
+
+    /**
+     * CopyDone
+     * | 'c' | int32 len |
+     */
+    static void sendCopyDone(Channel channel) {
+        sendShortMsg(channel, 'c', "sentCopyDone");
+    }
+
     static void sendPortalSuspended(Channel channel) {
         sendShortMsg(channel, 's', "sentPortalSuspended");
     }
@@ -203,6 +203,12 @@ public class PostgresWireProtocol {
     private AuthenticationContext authContext;
     private Properties properties;
 
+    /**
+     * Receives the CopyData messages while a {@code COPY ... FROM STDIN} is active
+     */
+    @Nullable
+    private CopyInStream copyIn;
+
     enum State {
         PRE_STARTUP,
         STARTUP_HEADER,
@@ -364,11 +370,30 @@ public class PostgresWireProtocol {
                     handleExecute(buffer, channel);
                     return;
                 case 'H':
-                    handleFlush(channel);
+                    if (copyIn == null) {
+                        handleFlush(channel);
+                    }
                     return;
                 case 'S':
+                    if (copyIn != null) {
+                        if (!ignoreTillSync) {
+                            // Like PostgreSQL, ignore Sync during copy-in mode, the client sends it again after CopyDone
+                            return;
+                        }
+                        copyIn.fail("Protocol error during COPY FROM STDIN");
+                        copyIn = null;
+                    }
                     handleSync(channel);
                     return;
+                case 'd':
+                    handleCopyData(buffer);
+                    return;
+                case 'c':
+                    handleCopyDone();
+                    return;
+                case 'f':
+                    handleCopyFail(buffer);
+                    return;
                 case 'C':
                     handleClose(buffer, channel);
                     return;
@@ -383,6 +408,10 @@ public class PostgresWireProtocol {
         }
 
         private void closeSession() {
+            if (copyIn != null) {
+                copyIn.fail("Client disconnected");
+                copyIn = null;
+            }
             if (session != null) {
                 session.close();
                 session = null;
@@ -626,6 +655,14 @@ public class PostgresWireProtocol {
             Messages.sendEmptyQueryResponse(channel);
             return;
         }
+        if (session.isCopyFromStdin(portalName)) {
+            channel.delayWritesUntil(copyFromStdin(query, portalName, channel));
+            return;
+        }
+        if (session.isCopyToStdout(portalName)) {
+            channel.delayWritesUntil(copyToStdout(query, portalName, channel));
+            return;
+        }
         List<? extends DataType> outputTypes = session.getOutputTypes(portalName);
         ResultReceiver resultReceiver;
         if (outputTypes == null) {
@@ -669,6 +706,67 @@ public class PostgresWireProtocol {
         }
     }
 
+    /**
+     * Starts a {@code COPY ... FROM STDIN}. The following CopyData messages are added to {@link #copyIn}
+     * until the client sends CopyDone or CopyFail.
+     */
+    private CompletableFuture<?> copyFromStdin(String query, String portalName, DelayableWriteChannel channel) {
+        CopyInStream stream = new CopyInStream(autoRead -> channel.config().setAutoRead(autoRead));
+        RowCountReceiver resultReceiver = new RowCountReceiver(
+            query,
+            channel.bypassDelay(),
+            SQLExceptions.forWireTransmission(getAccessControl.apply(session.sessionContext()))
+        );
+        Messages.sendCopyInResponse(channel);
+        copyIn = stream;
+        return session.executeCopyFromStdin(portalName, stream, resultReceiver);
+    }
+
+    private CompletableFuture<?> copyToStdout(String query, String portalName, DelayableWriteChannel channel) {
+        CopyOutReceiver resultReceiver = new CopyOutReceiver(
+            query,
+            channel.bypassDelay(),
+            SQLExceptions.forWireTransmission(getAccessControl.apply(session.sessionContext()))
+        );
+        Messages.sendCopyOutResponse(channel);
+        return session.executeCopyToStdout(portalName, resultReceiver);
+    }
+
+    /**
+     * CopyData
+     * | 'd' | int32 len | byteN data |
+     * <p>
+     * Data received after a failed COPY is discarded
+     */
+    private void handleCopyData(ByteBuf buffer) {
+        if (copyIn != null) {
+            copyIn.add(buffer);
+        }
+    }
+
+    /**
+     * CopyDone
+     * | 'c' | int32 len |
+     */
+    private void handleCopyDone() {
+        if (copyIn != null) {
+            copyIn.finish();
+            copyIn = null;
+        }
+    }
+
+    /**
+     * CopyFail
+     * | 'f' | int32 len | string errorMessage |
+     */
+    private void handleCopyFail(ByteBuf buffer) {
+        String message = readCString(buffer);
+        if (copyIn != null) {
+            copyIn.fail(message);
+            copyIn = null;
+        }
+    }
+
     private void handleSync(final Channel channel) {
         if (ignoreTillSync) {
             ignoreTillSync = false;
@@ -731,6 +829,14 @@ public class PostgresWireProtocol {
         try {
             session.parse("", query, Collections.emptyList());
             session.bind("", "", Collections.emptyList(), null);
+            if (session.isCopyFromStdin("")) {
+                channel.delayWritesUntil(copyFromStdin(query, "", channel));
+                return session.sync();
+            }
+            if (session.isCopyToStdout("")) {
+                channel.delayWritesUntil(copyToStdout(query, "", channel));
+                return session.sync();
+            }
             DescribeResult describeResult = session.describe('P', "");
             List<Symbol> fields = describeResult.getFields();
 
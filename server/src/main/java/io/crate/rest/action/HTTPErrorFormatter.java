@@ -34,19 +34,28 @@ import static io.crate.exceptions.Exceptions.userFriendlyMessageInclNested;
 class HTTPErrorFormatter {
 
     public static XContentBuilder convert(SQLActionException t, boolean includeErrorTrace) throws IOException {
+        XContentBuilder builder = JsonXContent.contentBuilder().startObject();
+        toXContent(builder, t, includeErrorTrace);
+        return builder.endObject();
+    }
+
+    /**
+     * Adds the error fields to an object which has already been started on the builder
+     */
+    static void toXContent(XContentBuilder builder,
+                           SQLActionException t,
+                           boolean includeErrorTrace) throws IOException {
         // @formatter:off
-        XContentBuilder builder = JsonXContent.contentBuilder()
-            .startObject()
-                .startObject("error")
-                    .field("message", userFriendlyMessageInclNested(t))
-                    .field("code", t.errorCode())
-                .endObject();
+        builder
+            .startObject("error")
+                .field("message", userFriendlyMessageInclNested(t))
+                .field("code", t.errorCode())
+            .endObject();
         // @formatter:on
 
         if (includeErrorTrace) {
             builder.field("error_trace", ExceptionsHelper.stackTrace(t));
         }
-        return builder.endObject();
     }
 }
 
@@ -0,0 +1,290 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import io.crate.action.sql.ResultReceiver;
+import io.crate.action.sql.SQLActionException;
+import io.crate.data.Row;
+import io.crate.expression.symbol.Symbol;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.elasticsearch.http.netty4.cors.Netty4CorsConfig;
+import org.elasticsearch.http.netty4.cors.Netty4CorsHandler;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * ResultReceiver which writes the result set as chunked HTTP response while the rows are consumed,
+ * instead of building the whole response in memory.
+ * <p>
+ * The execution is expected to be suspended every {@code maxRows} rows, see {@link #batchFinished()}.
+ * The rows of a batch are written as chunk and the execution is only resumed once the channel is writable again,
+ * so that slow clients apply backpressure instead of having the rows pile up in memory.
+ * <p>
+ * The response status and headers are sent together with the first chunk.
+ * A failure before that completes the {@link #completionFuture()} exceptionally so that a regular error response
+ * can be sent. A failure after that is added as {@code error} to the response body.
+ * The completionFuture is completed with {@code null} once the response has been sent.
+ */
+class RestStreamingResultSetReceiver implements ResultReceiver<XContentBuilder> {
+
+    /**
+     * Buffered rows are written as chunk once they exceed this size, even within a batch.
+     */
+    static final int CHUNK_SIZE_IN_BYTES = 64 * 1024;
+
+    private final ChannelHandlerContext ctx;
+    private final HttpRequest request;
+    private final Netty4CorsConfig corsConfig;
+    private final boolean closeConnection;
+    private final List<Symbol> outputFields;
+    private final long startTimeNs;
+    private final Function<Throwable, SQLActionException> toSQLActionException;
+    private final boolean includeErrorTrace;
+    private final ChunkOutputStream out;
+    private final ResultToXContentBuilder builder;
+    private final CompletableFuture<XContentBuilder> result = new CompletableFuture<>();
+
+    private Runnable resume;
+    private long rowCount;
+
+    // accessed from the event loop only
+    private boolean paused = false;
+    private volatile boolean headersSent = false;
+
+    RestStreamingResultSetReceiver(ChannelHandlerContext ctx,
+                                   HttpRequest request,
+                                   Netty4CorsConfig corsConfig,
+                                   boolean closeConnection,
+                                   List<Symbol> outputFields,
+                                   long startTimeNs,
+                                   Function<Throwable, SQLActionException> toSQLActionException,
+                                   boolean includeTypesOnResponse,
+                                   boolean includeErrorTrace) throws IOException {
+        this.ctx = ctx;
+        this.request = request;
+        this.corsConfig = corsConfig;
+        this.closeConnection = closeConnection;
+        this.outputFields = outputFields;
+        this.startTimeNs = startTimeNs;
+        this.toSQLActionException = toSQLActionException;
+        this.includeErrorTrace = includeErrorTrace;
+        this.out = new ChunkOutputStream();
+        this.builder = ResultToXContentBuilder.builder(new XContentBuilder(JsonXContent.jsonXContent, out));
+        this.builder.cols(outputFields);
+        if (includeTypesOnResponse) {
+            this.builder.colTypes(outputFields);
+        }
+        this.builder.startRows();
+    }
+
+    /**
+     * @param resume callback used to continue the suspended execution. Invoked on the event loop of the channel.
+     */
+    void resumeWith(Runnable resume) {
+        this.resume = resume;
+    }
+
+    @Override
+    public void setNextRow(Row row) {
+        try {
+            builder.addRow(row, outputFields.size());
+            rowCount++;
+            if (out.size() >= CHUNK_SIZE_IN_BYTES) {
+                writeChunk();
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public void batchFinished() {
+        ctx.executor().execute(() -> {
+            try {
+                writeChunk();
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+            paused = true;
+            resumeIfWritable();
+        });
+    }
+
+    /**
+     * Resumes the execution if it is suspended and the channel can take more data.
+     * Must be called on the event loop, e.g. once the writability of the channel changed.
+     */
+    void resumeIfWritable() {
+        assert ctx.executor().inEventLoop() : "resumeIfWritable must be called on the event loop";
+        if (paused && ctx.channel().isWritable()) {
+            paused = false;
+            try {
+                resume.run();
+            } catch (Throwable t) {
+                fail(t);
+            }
+        }
+    }
+
+    @Override
+    public void allFinished(boolean interrupted) {
+        if (interrupted) {
+            out.release();
+            result.complete(null);
+            return;
+        }
+        try {
+            builder
+                .finishRows()
+                .rowCount(rowCount)
+                .duration(startTimeNs)
+                .build()
+                .close();
+            writeLastChunk();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public void fail(@Nonnull Throwable t) {
+        if (!headersSent) {
+            out.release();
+            result.completeExceptionally(t);
+            return;
+        }
+        try {
+            SQLActionException sqlActionException = toSQLActionException.apply(t);
+            builder
+                .finishRows()
+                .error(sqlActionException, includeErrorTrace)
+                .build()
+                .close();
+            writeLastChunk();
+        } catch (Throwable e) {
+            out.release();
+            ctx.close();
+            result.complete(null);
+        }
+    }
+
+    @Override
+    public CompletableFuture<XContentBuilder> completionFuture() {
+        return result;
+    }
+
+    private void writeChunk() throws IOException {
+        builder.flush();
+        if (out.size() > 0) {
+            sendHeadersIfNeeded();
+            ctx.writeAndFlush(new DefaultHttpContent(out.take()));
+        }
+    }
+
+    private void writeLastChunk() {
+        sendHeadersIfNeeded();
+        LastHttpContent lastContent = out.size() > 0
+            ? new DefaultLastHttpContent(out.take())
+            : LastHttpContent.EMPTY_LAST_CONTENT;
+        ChannelPromise promise = ctx.newPromise();
+        if (closeConnection) {
+            promise.addListener(ChannelFutureListener.CLOSE);
+        }
+        promise.addListener(f -> result.complete(null));
+        ctx.writeAndFlush(lastContent, promise);
+    }
+
+    private void sendHeadersIfNeeded() {
+        if (headersSent) {
+            return;
+        }
+        headersSent = true;
+        DefaultHttpResponse resp = new DefaultHttpResponse(request.protocolVersion(), HttpResponseStatus.OK);
+        resp.headers().add(HttpHeaderNames.CONTENT_TYPE, XContentType.JSON.mediaType());
+        HttpUtil.setTransferEncodingChunked(resp, true);
+        Netty4CorsHandler.setCorsResponseHeaders(request, resp, corsConfig);
+        ctx.write(resp);
+    }
+
+    /**
+     * Buffers the JSON output until it is taken to be written as chunk.
+     */
+    private final class ChunkOutputStream extends OutputStream {
+
+        private ByteBuf buffer;
+
+        @Override
+        public void write(int b) {
+            ensureBuffer().writeByte(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureBuffer().writeBytes(b, off, len);
+        }
+
+        private ByteBuf ensureBuffer() {
+            if (buffer == null) {
+                buffer = ctx.alloc().buffer();
+            }
+            return buffer;
+        }
+
+        int size() {
+            return buffer == null ? 0 : buffer.readableBytes();
+        }
+
+        ByteBuf take() {
+            ByteBuf chunk = buffer;
+            buffer = null;
+            return chunk;
+        }
+
+        void release() {
+            if (buffer != null) {
+                buffer.release();
+                buffer = null;
+            }
+        }
+    }
+}
@@ -22,6 +22,7 @@
 
 package io.crate.rest.action;
 
+import io.crate.action.sql.SQLActionException;
 import io.crate.data.Row;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.Symbols;
@@ -144,7 +145,22 @@ class ResultToXContentBuilder {
         return this;
     }
 
-    XContentBuilder build() throws IOException {
+    /**
+     * error() adds the error of a failure which happened after parts of the result have already been sent
+     */
+    ResultToXContentBuilder error(SQLActionException e, boolean includeErrorTrace) throws IOException {
+        HTTPErrorFormatter.toXContent(builder, e, includeErrorTrace);
+        return this;
+    }
+
+        /**
+     * flush() writes the buffered content to the underlying output stream
+     */
+    void flush() throws IOException {
+        builder.flush();
+    }
+
+        XContentBuilder build() throws IOException {
         builder.endObject();
         return builder;
     }
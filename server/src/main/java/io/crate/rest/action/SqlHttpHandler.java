@@ -87,6 +87,12 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
     private static final String REQUEST_HEADER_USER = "User";
     private static final String REQUEST_HEADER_SCHEMA = "Default-Schema";
 
+    /**
+     * Number of rows after which the execution of a streamed result is suspended until the written rows
+     * have been flushed to the client.
+     */
+    static final int STREAM_BATCH_SIZE = 1000;
+
     private final Settings settings;
     private final SQLOperations sqlOperations;
     private final Function<String, CircuitBreaker> circuitBreakerProvider;
@@ -96,6 +102,9 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
 
     private Session session;
 
+    @Nullable
+    private RestStreamingResultSetReceiver streamingReceiver;
+
     SqlHttpHandler(Settings settings,
                    SQLOperations sqlOperations,
                    Function<String, CircuitBreaker> circuitBreakerProvider,
@@ -117,7 +126,7 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
             Session session = ensureSession(request);
             Map<String, List<String>> parameters = new QueryStringDecoder(request.uri()).parameters();
             ByteBuf content = request.content();
-            handleSQLRequest(session, content, paramContainFlag(parameters, "types"))
+            handleSQLRequest(session, ctx, request, parameters, content)
                 .whenComplete((result, t) -> {
                     try {
                         sendResponse(session, ctx, request, parameters, result, t);
@@ -141,6 +150,15 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         return values != null && (values.equals(singletonList("")) || values.equals(singletonList("true")));
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        RestStreamingResultSetReceiver receiver = streamingReceiver;
+        if (receiver != null) {
+            receiver.resumeIfWritable();
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
     @Override
     public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
         if (session != null) {
@@ -156,6 +174,10 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
                               Map<String, List<String>> parameters,
                               XContentBuilder result,
                               @Nullable Throwable t) {
+        if (t == null && result == null) {
+            // The result has been streamed by the RestStreamingResultSetReceiver
+            return;
+        }
         final HttpVersion httpVersion = request.protocolVersion();
         final DefaultFullHttpResponse resp;
         final ByteBuf content;
@@ -189,7 +211,11 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         ctx.writeAndFlush(resp, promise);
     }
 
-    private CompletableFuture<XContentBuilder> handleSQLRequest(Session session, ByteBuf content, boolean includeTypes) {
+    private CompletableFuture<XContentBuilder> handleSQLRequest(Session session,
+                                                                ChannelHandlerContext ctx,
+                                                                FullHttpRequest request,
+                                                                Map<String, List<String>> parameters,
+                                                                ByteBuf content) {
         SQLRequestParseContext parseContext;
         try {
             parseContext = SQLRequestParser.parseSource(Netty4Utils.toBytesReference(content));
@@ -204,7 +230,7 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         }
         try {
             if (args != null || bulkArgs == null) {
-                return executeSimpleRequest(session, parseContext.stmt(), args, includeTypes);
+                return executeSimpleRequest(session, ctx, request, parameters, parseContext.stmt(), args);
             } else {
                 return executeBulkRequest(session, parseContext.stmt(), bulkArgs);
             }
@@ -241,16 +267,23 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
     }
 
     private CompletableFuture<XContentBuilder> executeSimpleRequest(Session session,
+                                                                    ChannelHandlerContext ctx,
+                                                                    FullHttpRequest request,
+                                                                    Map<String, List<String>> parameters,
                                                                     String stmt,
-                                                                    List<Object> args,
-                                                                    boolean includeTypes) throws IOException {
+                                                                    List<Object> args) throws IOException {
         long startTimeInNs = System.nanoTime();
+        boolean includeTypes = paramContainFlag(parameters, "types");
         session.parse(UNNAMED, stmt, emptyList());
         session.bind(UNNAMED, UNNAMED, args == null ? emptyList() : args, null);
         DescribeResult description = session.describe('P', UNNAMED);
         List<Symbol> resultFields = description.getFields();
         ResultReceiver<XContentBuilder> resultReceiver;
-        if (resultFields == null) {
+        if (resultFields != null
+            && paramContainFlag(parameters, "stream")
+            && !request.protocolVersion().equals(HttpVersion.HTTP_1_0)) {
+            return executeStreamingRequest(session, ctx, request, parameters, resultFields, startTimeInNs);
+        } else if (resultFields == null) {
             resultReceiver = new RestRowCountReceiver(JsonXContent.contentBuilder(), startTimeInNs, includeTypes);
         } else {
             CircuitBreaker breaker = circuitBreakerProvider.apply(HierarchyCircuitBreakerService.QUERY);
@@ -274,6 +307,40 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
             .thenCompose(ignored -> resultReceiver.completionFuture());
     }
 
+    /**
+     * Writes the rows as chunked response while they are consumed. The execution is suspended every
+     * {@link #STREAM_BATCH_SIZE} rows and only resumed once the channel is writable again.
+     *
+     * HTTP/1.0 doesn't support chunked transfer encoding, these requests use the regular response.
+     */
+    private CompletableFuture<XContentBuilder> executeStreamingRequest(Session session,
+                                                                       ChannelHandlerContext ctx,
+                                                                       FullHttpRequest request,
+                                                                       Map<String, List<String>> parameters,
+                                                                       List<Symbol> resultFields,
+                                                                       long startTimeInNs) throws IOException {
+        RestStreamingResultSetReceiver resultReceiver = new RestStreamingResultSetReceiver(
+            ctx,
+            request,
+            corsConfig,
+            isCloseConnection(request),
+            resultFields,
+            startTimeInNs,
+            t -> SQLExceptions.forWireTransmission(getAccessControl.apply(session.sessionContext()), t),
+            paramContainFlag(parameters, "types"),
+            paramContainFlag(parameters, "error_trace")
+        );
+        resultReceiver.resumeWith(() -> {
+            session.execute(UNNAMED, STREAM_BATCH_SIZE, resultReceiver);
+            session.sync();
+        });
+        streamingReceiver = resultReceiver;
+        resultReceiver.completionFuture().whenComplete((result, error) -> streamingReceiver = null);
+        session.execute(UNNAMED, STREAM_BATCH_SIZE, resultReceiver);
+        return session.sync()
+            .thenCompose(ignored -> resultReceiver.completionFuture());
+    }
+
     private CompletableFuture<XContentBuilder> executeBulkRequest(Session session,
                                                                   String stmt,
                                                                   List<List<Object>> bulkArgs) {
@@ -448,6 +448,8 @@ public class MetadataCreateIndexService {
                     removalExtraInfo = "failed on parsing default mapping/mappings on index creation";
                     throw e;
                 }
+                // now that the mapping is merged we can validate the index sort.
+                indexService.getIndexSettings().getIndexSortConfig().buildIndexSort(mapperService::fullName);
 
                 // now, update the mappings with the actual source
                 Map<String, MappingMetadata> mappingsMetadata = new HashMap<>();
@@ -97,6 +97,7 @@ public abstract class AsyncIOProcessor<Item> {
     }
 
     private void drainAndProcess(List<Tuple<Item, Consumer<Exception>>> candidates) {
+        beforeDrain();
         queue.drainTo(candidates);
         processList(candidates);
         candidates.clear();
@@ -123,6 +124,13 @@ public abstract class AsyncIOProcessor<Item> {
         }
     }
 
+    /**
+     * Called by the worker before it drains the queue. Implementations may block for a short time to let
+     * concurrent callers add more items which are then processed by the same {@link #write(List)} call.
+     */
+    protected void beforeDrain() {
+    }
+
     /**
      * Writes or processes the items out or to disk.
      */
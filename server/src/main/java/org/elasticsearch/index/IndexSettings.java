@@ -30,6 +30,7 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.xcontent.XContentType;
 import io.crate.common.unit.TimeValue;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.node.Node;
@@ -71,6 +72,14 @@ public final class IndexSettings {
         new Setting<>("index.translog.durability", Translog.Durability.REQUEST.name(),
             (value) -> Translog.Durability.valueOf(value.toUpperCase(Locale.ROOT)), Property.Dynamic, Property.IndexScope);
 
+    /**
+     * Upper bound of the time a shard waits to gather further translog sync requests before it fsyncs them as one
+     * group commit. The wait is additionally bounded by the recently observed fsync latency. {@code 0} disables it.
+     */
+    public static final Setting<TimeValue> INDEX_TRANSLOG_SYNC_WINDOW_SETTING =
+        Setting.timeSetting("index.translog.sync_window", TimeValue.ZERO, TimeValue.ZERO,
+            TimeValue.timeValueMillis(100), Property.Dynamic, Property.IndexScope);
+
     public static final Setting<Boolean> INDEX_WARMER_ENABLED_SETTING =
         Setting.boolSetting("index.warmer.enabled", true, Property.Dynamic, Property.IndexScope, Property.Deprecated);
 
@@ -196,6 +205,32 @@ public final class IndexSettings {
     public static final Setting<Integer> MAX_REFRESH_LISTENERS_PER_SHARD = Setting.intSetting("index.max_refresh_listeners", 1000, 0,
             Property.Dynamic, Property.IndexScope);
 
+    /**
+     * The format used to store the {@code _source} of new documents. Documents are always read using the format they
+     * were written with, so changing the format doesn't require to re-index existing data.
+     */
+    public static final Setting<String> INDEX_SOURCE_FORMAT_SETTING = new Setting<>(
+        "index.source.format",
+        XContentType.JSON.shortName(),
+        s -> {
+            sourceFormat(s);
+            return s;
+        },
+        Property.IndexScope
+    );
+
+    private static XContentType sourceFormat(String format) {
+        switch (format) {
+            case "json":
+                return XContentType.JSON;
+            case "smile":
+                return XContentType.SMILE;
+            default:
+                throw new IllegalArgumentException(
+                    "unknown value for [index.source.format] must be one of [json, smile] but was: " + format);
+        }
+    }
+
     public static final String INDEX_MAPPING_SINGLE_TYPE_SETTING_KEY = "index.mapping.single_type";
     private static final Setting<Boolean> INDEX_MAPPING_SINGLE_TYPE_SETTING =
         Setting.boolSetting(INDEX_MAPPING_SINGLE_TYPE_SETTING_KEY, true, Property.IndexScope, Property.Final);
@@ -212,6 +247,7 @@ public final class IndexSettings {
     private volatile List<String> defaultFields;
     private final boolean defaultAllowUnmappedFields;
     private volatile Translog.Durability durability;
+    private volatile TimeValue syncWindow;
     private final TimeValue syncInterval;
     private volatile TimeValue refreshInterval;
     private volatile ByteSizeValue flushThresholdSize;
@@ -224,6 +260,8 @@ public final class IndexSettings {
     private final IndexScopedSettings scopedSettings;
     private long gcDeletesInMillis = DEFAULT_GC_DELETES.millis();
     private final boolean softDeleteEnabled;
+    private final XContentType sourceFormat;
+    private final IndexSortConfig indexSortConfig;
     private volatile long softDeleteRetentionOperations;
     private volatile boolean warmerEnabled;
     private volatile int maxNgramDiff;
@@ -290,6 +328,7 @@ public final class IndexSettings {
         this.durability = scopedSettings.get(INDEX_TRANSLOG_DURABILITY_SETTING);
         defaultFields = scopedSettings.get(DEFAULT_FIELD_SETTING);
         syncInterval = INDEX_TRANSLOG_SYNC_INTERVAL_SETTING.get(settings);
+        syncWindow = scopedSettings.get(INDEX_TRANSLOG_SYNC_WINDOW_SETTING);
         refreshInterval = scopedSettings.get(INDEX_REFRESH_INTERVAL_SETTING);
         flushThresholdSize = scopedSettings.get(INDEX_TRANSLOG_FLUSH_THRESHOLD_SIZE_SETTING);
         translogRetentionAge = scopedSettings.get(INDEX_TRANSLOG_RETENTION_AGE_SETTING);
@@ -300,6 +339,8 @@ public final class IndexSettings {
         gcDeletesInMillis = scopedSettings.get(INDEX_GC_DELETES_SETTING).getMillis();
         softDeleteEnabled = version.onOrAfter(Version.ES_V_6_5_1) && scopedSettings.get(INDEX_SOFT_DELETES_SETTING);
         softDeleteRetentionOperations = scopedSettings.get(INDEX_SOFT_DELETES_RETENTION_OPERATIONS_SETTING);
+        sourceFormat = sourceFormat(scopedSettings.get(INDEX_SOURCE_FORMAT_SETTING));
+        indexSortConfig = new IndexSortConfig(this);
         warmerEnabled = scopedSettings.get(INDEX_WARMER_ENABLED_SETTING);
         maxNgramDiff = scopedSettings.get(MAX_NGRAM_DIFF_SETTING);
         maxShingleDiff = scopedSettings.get(MAX_SHINGLE_DIFF_SETTING);
@@ -324,6 +365,7 @@ public final class IndexSettings {
             mergeSchedulerConfig::setMaxThreadAndMergeCount);
         scopedSettings.addSettingsUpdateConsumer(MergeSchedulerConfig.AUTO_THROTTLE_SETTING, mergeSchedulerConfig::setAutoThrottle);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_DURABILITY_SETTING, this::setTranslogDurability);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_SYNC_WINDOW_SETTING, this::setTranslogSyncWindow);
         scopedSettings.addSettingsUpdateConsumer(MAX_NGRAM_DIFF_SETTING, this::setMaxNgramDiff);
         scopedSettings.addSettingsUpdateConsumer(MAX_SHINGLE_DIFF_SETTING, this::setMaxShingleDiff);
         scopedSettings.addSettingsUpdateConsumer(INDEX_WARMER_ENABLED_SETTING, this::setEnableWarmer);
@@ -518,6 +560,17 @@ public final class IndexSettings {
         return syncInterval;
     }
 
+    /**
+     * Returns the maximum time a translog sync request may be delayed to be fsynced together with concurrent requests.
+     */
+    public TimeValue getTranslogSyncWindow() {
+        return syncWindow;
+    }
+
+    private void setTranslogSyncWindow(TimeValue syncWindow) {
+        this.syncWindow = syncWindow;
+    }
+
     /**
      * Returns this interval in which the shards of this index are asynchronously refreshed. {@code -1} means async refresh is disabled.
      */
@@ -636,6 +689,20 @@ public final class IndexSettings {
         return softDeleteEnabled;
     }
 
+    /**
+     * Returns the format used to store the {@code _source} of new documents.
+     */
+    public XContentType getSourceFormat() {
+        return sourceFormat;
+    }
+
+    /**
+     * Returns the index sort config of this index.
+     */
+    public IndexSortConfig getIndexSortConfig() {
+        return indexSortConfig;
+    }
+
     private void setSoftDeleteRetentionOperations(long ops) {
         this.softDeleteRetentionOperations = ops;
     }
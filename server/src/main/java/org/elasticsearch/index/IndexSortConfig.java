@@ -0,0 +1,189 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index;
+
+import io.crate.execution.engine.sort.SortSymbolVisitor;
+import io.crate.lucene.FieldTypeLookup;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.index.fielddata.NullValueOrder;
+import org.elasticsearch.index.mapper.MappedFieldType;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Holds the index sort of an index, which is defined using the {@code index.sort_by} setting.
+ * <p>
+ * The setting contains a comma separated list of columns, each optionally followed by {@code ASC} or {@code DESC}
+ * and {@code NULLS FIRST} or {@code NULLS LAST}. E.g.: {@code ts DESC, device_id}.
+ * <p>
+ * The documents within each segment are sorted accordingly. If the ORDER BY of a query is a prefix of the index sort,
+ * the collection of the top documents of a segment can terminate early.
+ */
+public final class IndexSortConfig {
+
+    public static final Setting<String> INDEX_SORT_BY_SETTING = new Setting<>(
+        "index.sort_by",
+        "",
+        s -> {
+            parse(s);
+            return s;
+        },
+        Property.IndexScope,
+        Property.Final
+    );
+
+    private final List<SortColumn> columns;
+
+    public IndexSortConfig(IndexSettings indexSettings) {
+        this.columns = parse(indexSettings.getValue(INDEX_SORT_BY_SETTING));
+    }
+
+    public boolean hasIndexSort() {
+        return columns.isEmpty() == false;
+    }
+
+    /**
+     * Builds the index sort using the field types of the mapping.
+     *
+     * @return the sort or null if the index has no index sort
+     * @throws IllegalArgumentException if a column doesn't exist or can't be used to sort the index
+     */
+    @Nullable
+    public Sort buildIndexSort(FieldTypeLookup fieldTypeLookup) {
+        if (columns.isEmpty()) {
+            return null;
+        }
+        SortField[] sortFields = new SortField[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            SortColumn column = columns.get(i);
+            MappedFieldType fieldType = fieldTypeLookup.get(column.name);
+            if (fieldType == null) {
+                throw new IllegalArgumentException(
+                    "Unknown column `" + column.name + "` in setting [" + INDEX_SORT_BY_SETTING.getKey() + "]");
+            }
+            DataType<?> type = DataTypes.ofMappingName(fieldType.typeName());
+            if (fieldType.hasDocValues() == false || isSortable(type) == false) {
+                throw new IllegalArgumentException(
+                    "Cannot sort the table by column `" + column.name + "` of type `" + fieldType.typeName() +
+                    "`, only numeric, timestamp, boolean and text columns with a column store can be used");
+            }
+            sortFields[i] = SortSymbolVisitor.mappedSortField(
+                column.name,
+                type,
+                column.reverse,
+                NullValueOrder.fromFlag(column.nullsFirst)
+            );
+        }
+        return new Sort(sortFields);
+    }
+
+    private static boolean isSortable(@Nullable DataType<?> type) {
+        if (type == null) {
+            return false;
+        }
+        switch (type.id()) {
+            case StringType.ID:
+            case BooleanType.ID:
+            case ByteType.ID:
+            case ShortType.ID:
+            case IntegerType.ID:
+            case LongType.ID:
+            case FloatType.ID:
+            case DoubleType.ID:
+            case TimestampType.ID_WITH_TZ:
+            case TimestampType.ID_WITHOUT_TZ:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    private static List<SortColumn> parse(String value) {
+        ArrayList<SortColumn> columns = new ArrayList<>();
+        if (value.isBlank()) {
+            return columns;
+        }
+        for (String part : value.split(",")) {
+            String[] tokens = part.trim().split("\\s+");
+            if (tokens[0].isEmpty()) {
+                throw invalidValue(value);
+            }
+            boolean reverse = false;
+            int pos = 1;
+            if (pos < tokens.length) {
+                String ordering = tokens[pos].toLowerCase(Locale.ENGLISH);
+                if (ordering.equals("asc") || ordering.equals("desc")) {
+                    reverse = ordering.equals("desc");
+                    pos++;
+                }
+            }
+            boolean nullsFirst = reverse;
+            if (pos + 1 < tokens.length && tokens[pos].equalsIgnoreCase("nulls")) {
+                String nullOrdering = tokens[pos + 1].toLowerCase(Locale.ENGLISH);
+                if (nullOrdering.equals("first") || nullOrdering.equals("last")) {
+                    nullsFirst = nullOrdering.equals("first");
+                    pos += 2;
+                }
+            }
+            if (pos != tokens.length) {
+                throw invalidValue(value);
+            }
+            columns.add(new SortColumn(tokens[0], reverse, nullsFirst));
+        }
+        return columns;
+    }
+
+    private static IllegalArgumentException invalidValue(String value) {
+        return new IllegalArgumentException(
+            "Invalid value [" + value + "] for setting [" + INDEX_SORT_BY_SETTING.getKey() + "], expected a " +
+            "comma separated list of `column [ASC | DESC] [NULLS {FIRST | LAST}]`");
+    }
+
+    private static final class SortColumn {
+
+        private final String name;
+        private final boolean reverse;
+        private final boolean nullsFirst;
+
+        SortColumn(String name, boolean reverse, boolean nullsFirst) {
+            this.name = name;
+            this.reverse = reverse;
+            this.nullsFirst = nullsFirst;
+        }
+    }
+}
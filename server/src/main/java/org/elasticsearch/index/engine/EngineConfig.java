@@ -25,6 +25,7 @@ import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.search.QueryCache;
 import org.apache.lucene.search.QueryCachingPolicy;
 import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.Sort;
 import javax.annotation.Nullable;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
@@ -70,6 +71,8 @@ public final class EngineConfig {
     @Nullable
     private final List<ReferenceManager.RefreshListener> internalRefreshListener;
     @Nullable
+    private final Sort indexSort;
+    @Nullable
     private final CircuitBreakerService circuitBreakerService;
     private final LongSupplier globalCheckpointSupplier;
     private final LongSupplier primaryTermSupplier;
@@ -126,6 +129,7 @@ public final class EngineConfig {
                         TimeValue flushMergesAfter,
                         List<ReferenceManager.RefreshListener> externalRefreshListener,
                         List<ReferenceManager.RefreshListener> internalRefreshListener,
+                        @Nullable Sort indexSort,
                         CircuitBreakerService circuitBreakerService,
                         LongSupplier globalCheckpointSupplier,
                         LongSupplier primaryTermSupplier,
@@ -160,6 +164,7 @@ public final class EngineConfig {
         this.flushMergesAfter = flushMergesAfter;
         this.externalRefreshListener = externalRefreshListener;
         this.internalRefreshListener = internalRefreshListener;
+        this.indexSort = indexSort;
         this.circuitBreakerService = circuitBreakerService;
         this.globalCheckpointSupplier = globalCheckpointSupplier;
         this.primaryTermSupplier = primaryTermSupplier;
@@ -324,6 +329,14 @@ public final class EngineConfig {
         return internalRefreshListener;
     }
 
+    /**
+     * Return the sort order of this index, or null if the index has no sort.
+     */
+    @Nullable
+    public Sort getIndexSort() {
+        return indexSort;
+    }
+
 
     /**
      * returns true if the engine is allowed to optimize indexing operations with an auto-generated ID
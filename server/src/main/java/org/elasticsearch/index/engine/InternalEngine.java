@@ -2288,6 +2288,9 @@ public class InternalEngine extends Engine {
         iwc.setMergePolicy(new ElasticsearchMergePolicy(mergePolicy));
         iwc.setRAMBufferSizeMB(engineConfig.getIndexingBufferSize().getMbFrac());
         iwc.setCodec(engineConfig.getCodec());
+        if (engineConfig.getIndexSort() != null) {
+            iwc.setIndexSort(engineConfig.getIndexSort());
+        }
         iwc.setUseCompoundFile(true); // always use compound on flush - reduces # of file-handles on refresh
         return iwc;
     }
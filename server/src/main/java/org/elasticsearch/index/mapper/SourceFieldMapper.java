@@ -36,7 +36,13 @@ import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.query.QueryShardContext;
 import org.elasticsearch.index.query.QueryShardException;
 
@@ -165,12 +171,16 @@ public class SourceFieldMapper extends MetadataFieldMapper {
         BytesReference source = originalSource;
         if (enabled && fieldType().stored() && source != null) {
             // Percolate and tv APIs may not set the source and that is ok, because these APIs will not index any data
-            BytesRef ref = source.toBytesRef();
+            BytesReference stored = convert(
+                source, context.sourceToParse().getXContentType(), context.indexSettings().getSourceFormat());
+            BytesRef ref = stored.toBytesRef();
             fields.add(new StoredField(fieldType().name(), ref.bytes, ref.offset, ref.length));
         } else {
             source = null;
         }
 
+        // A source which has only been re-encoded is still complete, operations read from it are
+        // replayed using the detected format, so there is no need to store a _recovery_source.
         if (originalSource != null && source != originalSource && context.indexSettings().isSoftDeleteEnabled()) {
             // if we omitted source or modified it we add the _recovery_source to ensure we
             // have it for ops based recovery
@@ -180,6 +190,32 @@ public class SourceFieldMapper extends MetadataFieldMapper {
         }
     }
 
+    private static BytesReference convert(BytesReference source,
+                                          XContentType sourceType,
+                                          XContentType targetType) throws IOException {
+        if (sourceType == targetType) {
+            return source;
+        }
+        try (XContentParser parser = XContentHelper.createParser(
+                NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, source, sourceType);
+             XContentBuilder builder = XContentFactory.contentBuilder(targetType)) {
+            parser.nextToken();
+            builder.copyCurrentStructure(parser);
+            return BytesReference.bytes(builder);
+        }
+    }
+
+    /**
+     * Detects the format of a stored {@code _source}.
+     * Depending on {@link org.elasticsearch.index.IndexSettings#INDEX_SOURCE_FORMAT_SETTING} at the time a document
+     * was written, this is either {@link XContentType#SMILE} or {@link XContentType#JSON}.
+     */
+    public static XContentType sourceContentType(BytesReference source) {
+        BytesRef ref = source.toBytesRef();
+        XContentType type = XContentFactory.xContentType(ref.bytes, ref.offset, ref.length);
+        return type == null ? XContentType.JSON : type;
+    }
+
     @Override
     protected String contentType() {
         return CONTENT_TYPE;
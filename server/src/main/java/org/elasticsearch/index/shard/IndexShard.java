@@ -40,6 +40,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -61,6 +62,7 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryCachingPolicy;
 import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.UsageTrackingQueryCachingPolicy;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.util.ThreadInterruptedException;
@@ -2309,6 +2311,14 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return mapperService.documentMapperSafe();
     }
 
+    /**
+     * Return the sort order of this index, or null if the index has no sort.
+     */
+    @Nullable
+    public Sort getIndexSort() {
+        return indexSettings.getIndexSortConfig().buildIndexSort(mapperService::fullName);
+    }
+
     private EngineConfig newEngineConfig() {
         return new EngineConfig(
             shardId,
@@ -2326,6 +2336,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             IndexingMemoryController.SHARD_INACTIVE_TIME_SETTING.get(indexSettings.getSettings()),
             Collections.singletonList(refreshListeners),
             Collections.singletonList(new RefreshMetricUpdater(refreshMetric)),
+            getIndexSort(),
             circuitBreakerService,
             replicationTracker,
             this::getOperationPrimaryTerm,
@@ -2484,11 +2495,40 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return indexShardOperationPermits.getActiveOperations();
     }
 
+    private final CounterMetric translogSyncRequestsMetric = new CounterMetric();
+    private final MeanMetric translogFsyncMetric = new MeanMetric();
+
+    /**
+     * Moving average of the fsync latency caused by {@link #translogSyncProcessor}; only written by its worker
+     */
+    private volatile long translogFsyncLatencyNanos = 0L;
+
     private final AsyncIOProcessor<Translog.Location> translogSyncProcessor = new AsyncIOProcessor<Translog.Location>(logger, 1024) {
+
+        @Override
+        protected void beforeDrain() {
+            long windowNanos = indexSettings.getTranslogSyncWindow().nanos();
+            if (windowNanos > 0) {
+                // Requests arriving while a fsync is running are batched anyway, so waiting longer than a
+                // fsync usually takes would only add latency without increasing the batch size much.
+                long waitNanos = Math.min(windowNanos, translogFsyncLatencyNanos);
+                if (waitNanos > 0) {
+                    LockSupport.parkNanos(waitNanos);
+                }
+            }
+        }
+
         @Override
         protected void write(List<Tuple<Translog.Location, Consumer<Exception>>> candidates) throws IOException {
+            translogSyncRequestsMetric.inc(candidates.size());
             try {
-                getEngine().ensureTranslogSynced(candidates.stream().map(Tuple::v1));
+                long startNanos = System.nanoTime();
+                if (getEngine().ensureTranslogSynced(candidates.stream().map(Tuple::v1))) {
+                    long tookNanos = System.nanoTime() - startNanos;
+                    translogFsyncMetric.inc(tookNanos);
+                    long latencyNanos = translogFsyncLatencyNanos;
+                    translogFsyncLatencyNanos = latencyNanos == 0L ? tookNanos : (3 * latencyNanos + tookNanos) / 4;
+                }
             } catch (AlreadyClosedException ex) {
                 // that's fine since we already synced everything on engine close - this also is conform with the methods
                 // documentation
@@ -2513,6 +2553,28 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         translogSyncProcessor.put(location, syncListener);
     }
 
+    /**
+     * @return the number of requests which waited for their translog location to be synced
+     */
+    public long translogSyncRequests() {
+        return translogSyncRequestsMetric.count();
+    }
+
+    /**
+     * @return the number of fsyncs caused by {@link #sync(Translog.Location, Consumer)}. Concurrent requests are
+     *         served by the same fsync, so this is usually lower than {@link #translogSyncRequests()}
+     */
+    public long translogFsyncs() {
+        return translogFsyncMetric.count();
+    }
+
+    /**
+     * @return the total time in milliseconds spent in the fsyncs counted by {@link #translogFsyncs()}
+     */
+    public long translogFsyncTimeInMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(translogFsyncMetric.sum());
+    }
+
     public void sync() throws IOException {
         verifyNotClosed();
         getEngine().syncTranslog();
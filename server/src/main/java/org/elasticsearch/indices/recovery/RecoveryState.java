@@ -779,6 +779,22 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             return recovered;
         }
 
+        /**
+         * average number of bytes recovered per second since the index stage started, 0 if it didn't start yet
+         */
+        public synchronized long recoveredBytesPerSecond() {
+            long timeInMillis = time();
+            return timeInMillis <= 0 ? 0L : recoveredBytes() * 1000L / timeInMillis;
+        }
+
+        /**
+         * total time in millis the file transfer was throttled on the source and on the target node
+         */
+        public synchronized long throttleTimeInMillis() {
+            long throttleTimeInNanos = Math.max(0L, sourceThrottlingInNanos) + Math.max(0L, targetThrottleTimeInNanos);
+            return TimeValue.nsecToMSec(throttleTimeInNanos);
+        }
+
         /**
          * percent of bytes recovered out of total files bytes *to be* recovered
          */
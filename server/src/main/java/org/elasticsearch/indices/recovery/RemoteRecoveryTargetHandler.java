@@ -19,6 +19,7 @@
 
 package org.elasticsearch.indices.recovery;
 
+import org.apache.lucene.index.IndexFileNames;
 import org.apache.lucene.store.RateLimiter;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.ActionListener;
@@ -43,6 +44,8 @@ import java.util.function.Consumer;
 
 public class RemoteRecoveryTargetHandler implements RecoveryTargetHandler {
 
+    private static final String COMPOUND_FILE_EXTENSION = "cfs";
+
     private final TransportService transportService;
     private final long recoveryId;
     private final ShardId shardId;
@@ -51,6 +54,7 @@ public class RemoteRecoveryTargetHandler implements RecoveryTargetHandler {
 
     private final TransportRequestOptions translogOpsRequestOptions;
     private final TransportRequestOptions fileChunkRequestOptions;
+    private final TransportRequestOptions compressedFileChunkRequestOptions;
 
     private final AtomicLong bytesSinceLastPause = new AtomicLong();
 
@@ -75,7 +79,17 @@ public class RemoteRecoveryTargetHandler implements RecoveryTargetHandler {
                 .withType(TransportRequestOptions.Type.RECOVERY)
                 .withTimeout(recoverySettings.internalActionTimeout())
                 .build();
+        this.compressedFileChunkRequestOptions = TransportRequestOptions.builder(fileChunkRequestOptions)
+                .withCompress(true)
+                .build();
+    }
 
+    /**
+     * @return true if chunks of the file are compressed if {@link RecoverySettings#compress()} is enabled.
+     *         Compound files are always sent uncompressed.
+     */
+    static boolean isCompressible(String fileName) {
+        return COMPOUND_FILE_EXTENSION.equals(IndexFileNames.getExtension(fileName)) == false;
     }
 
     @Override
@@ -207,7 +221,11 @@ public class RemoteRecoveryTargetHandler implements RecoveryTargetHandler {
                  * see how many translog ops we accumulate while copying files across the network. A future optimization
                  * would be in to restart file copy again (new deltas) if we have too many translog ops are piling up.
                  */
-                throttleTimeInNanos), fileChunkRequestOptions, new ActionListenerResponseHandler<>(
+                throttleTimeInNanos),
+            recoverySettings.compress() && isCompressible(fileMetadata.name())
+                ? compressedFileChunkRequestOptions
+                : fileChunkRequestOptions,
+            new ActionListenerResponseHandler<>(
                 ActionListener.wrap(r -> listener.onResponse(null), listener::onFailure), in -> TransportResponse.Empty.INSTANCE));
     }
 
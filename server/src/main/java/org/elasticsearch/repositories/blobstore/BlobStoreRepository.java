@@ -111,6 +111,7 @@ import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -1101,8 +1102,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             }
             final Executor executor = threadPool.executor(ThreadPool.Names.SNAPSHOT);
             // Start as many workers as fit into the snapshot pool at once at the most
-            //TODO find a better solution heres
-            final int workers = indexIncrementalFileCount;
+            final int workers = Math.min(maxConcurrentFileTransfers(executor), indexIncrementalFileCount);
             final ActionListener<Void> filesListener = ActionListener.delegateResponse(
                 new GroupedActionListener<>(allFilesUploadedListener, workers), (l, e) -> {
                     filesToSnapshot.clear(); // Stop uploading the remaining files if we run into any exception
@@ -1129,6 +1129,17 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }
     }
 
+    /**
+     * Returns the number of files of a shard which are uploaded or restored concurrently, which is bounded by the
+     * size of the given pool so that the files of one shard don't fill up its queue.
+     */
+    private static int maxConcurrentFileTransfers(Executor executor) {
+        if (executor instanceof ThreadPoolExecutor) {
+            return Math.max(1, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+        }
+        return 1;
+    }
+
     /**
      * Loads information about shard snapshot
      */
@@ -1149,7 +1160,9 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             final BlobContainer container = shardContainer(indexId, snapshotShardId);
             BlobStoreIndexShardSnapshot snapshot = loadShardSnapshot(container, snapshotId);
             SnapshotFiles snapshotFiles = new SnapshotFiles(snapshot.snapshot(), snapshot.indexFiles());
-            new FileRestoreContext(metadata.name(), shardId, snapshotId, recoveryState, BUFFER_SIZE) {
+            final Executor executor = threadPool.executor(ThreadPool.Names.SNAPSHOT);
+            new FileRestoreContext(metadata.name(), shardId, snapshotId, recoveryState, BUFFER_SIZE,
+                                   executor, maxConcurrentFileTransfers(executor)) {
                 @Override
                 protected InputStream fileInputStream(BlobStoreIndexShardSnapshot.FileInfo fileInfo) {
                     final InputStream dataBlobCompositeStream = new SlicedInputStream(fileInfo.numberOfParts()) {
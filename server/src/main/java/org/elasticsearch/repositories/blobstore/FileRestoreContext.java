@@ -46,6 +46,12 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.unmodifiableMap;
@@ -65,9 +71,11 @@ public abstract class FileRestoreContext {
     protected final SnapshotId snapshotId;
     protected final ShardId shardId;
     protected final int bufferSize;
+    private final Executor executor;
+    private final int maxConcurrentFiles;
 
     /**
-     * Constructs new restore context
+     * Constructs new restore context which restores one file after another
      *
      * @param shardId       shard id to restore into
      * @param snapshotId    snapshot id
@@ -76,11 +84,28 @@ public abstract class FileRestoreContext {
      */
     protected FileRestoreContext(String repositoryName, ShardId shardId, SnapshotId snapshotId, RecoveryState recoveryState,
                                  int bufferSize) {
+        this(repositoryName, shardId, snapshotId, recoveryState, bufferSize, Runnable::run, 1);
+    }
+
+    /**
+     * Constructs new restore context
+     *
+     * @param shardId            shard id to restore into
+     * @param snapshotId         snapshot id
+     * @param recoveryState      recovery state to report progress
+     * @param bufferSize         buffer size for restore
+     * @param executor           executor used to restore files concurrently to the calling thread
+     * @param maxConcurrentFiles maximum number of files restored at the same time, including the calling thread
+     */
+    protected FileRestoreContext(String repositoryName, ShardId shardId, SnapshotId snapshotId, RecoveryState recoveryState,
+                                 int bufferSize, Executor executor, int maxConcurrentFiles) {
         this.repositoryName = repositoryName;
         this.recoveryState = recoveryState;
         this.snapshotId = snapshotId;
         this.shardId = shardId;
         this.bufferSize = bufferSize;
+        this.executor = executor;
+        this.maxConcurrentFiles = maxConcurrentFiles;
     }
 
     /**
@@ -212,10 +237,60 @@ public abstract class FileRestoreContext {
     }
 
     protected void restoreFiles(List<BlobStoreIndexShardSnapshot.FileInfo> filesToRecover, Store store) throws IOException {
-        // restore the files from the snapshot to the Lucene store
-        for (final BlobStoreIndexShardSnapshot.FileInfo fileToRecover : filesToRecover) {
-            LOGGER.trace("[{}] [{}] restoring file [{}]", shardId, snapshotId, fileToRecover.name());
-            restoreFile(fileToRecover, store);
+        final int workers = Math.min(maxConcurrentFiles, filesToRecover.size());
+        if (workers <= 1) {
+            // restore the files from the snapshot to the Lucene store
+            for (final BlobStoreIndexShardSnapshot.FileInfo fileToRecover : filesToRecover) {
+                LOGGER.trace("[{}] [{}] restoring file [{}]", shardId, snapshotId, fileToRecover.name());
+                restoreFile(fileToRecover, store);
+            }
+            return;
+        }
+        final BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> queue = new LinkedBlockingQueue<>(filesToRecover);
+        final CountDownLatch filesDone = new CountDownLatch(filesToRecover.size());
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final Runnable worker = () -> restoreQueuedFiles(queue, store, filesDone, failure);
+        for (int i = 1; i < workers; i++) {
+            try {
+                executor.execute(worker);
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+        // The calling thread restores files as well and we only wait until every file has been processed.
+        // Forked workers which didn't start yet will find an empty queue, so this can't wait on the executor.
+        worker.run();
+        try {
+            filesDone.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IndexShardRestoreFailedException(shardId, "Interrupted while restoring files", e);
+        }
+        final Exception e = failure.get();
+        if (e instanceof IOException) {
+            throw (IOException) e;
+        } else if (e != null) {
+            throw (RuntimeException) e;
+        }
+    }
+
+    private void restoreQueuedFiles(BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> queue,
+                                    Store store,
+                                    CountDownLatch filesDone,
+                                    AtomicReference<Exception> failure) {
+        BlobStoreIndexShardSnapshot.FileInfo fileToRecover;
+        while ((fileToRecover = queue.poll()) != null) {
+            try {
+                // remaining files are skipped once a file failed to be restored
+                if (failure.get() == null) {
+                    LOGGER.trace("[{}] [{}] restoring file [{}]", shardId, snapshotId, fileToRecover.name());
+                    restoreFile(fileToRecover, store);
+                }
+            } catch (Exception e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                filesDone.countDown();
+            }
         }
     }
 
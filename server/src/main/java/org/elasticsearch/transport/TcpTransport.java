@@ -66,6 +66,8 @@ import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import io.crate.common.io.IOUtils;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.indices.recovery.RecoveryFileChunkRequest;
+import org.elasticsearch.indices.recovery.RecoverySettings;
 import org.elasticsearch.monitor.jvm.JvmInfo;
 import org.elasticsearch.node.Node;
 import org.elasticsearch.rest.RestStatus;
@@ -824,6 +826,14 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         return compress && (!(request instanceof BytesTransportRequest));
     }
 
+    /**
+     * File chunks of peer recoveries are compressed if asked by their options even if the transport compression is
+     * disabled. Their options only ask for it if {@link RecoverySettings#INDICES_RECOVERY_COMPRESS_SETTING} is enabled.
+     */
+    private boolean shouldCompress(TransportRequest request, TransportRequestOptions options) {
+        return options.compress() && (canCompress(request) || request instanceof RecoveryFileChunkRequest);
+    }
+
     private void sendRequestToChannel(final DiscoveryNode node, final TcpChannel channel, final long requestId, final String action,
                                       final TransportRequest request, TransportRequestOptions options, Version channelVersion,
                                       byte status) throws IOException, TransportException {
@@ -833,7 +843,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
 
         // only compress if asked and the request is not bytes. Otherwise only
         // the header part is compressed, and the "body" can't be extracted as compressed
-        final boolean compressMessage = options.compress() && canCompress(request);
+        final boolean compressMessage = shouldCompress(request, options);
 
         status = TransportStatus.setRequest(status);
         ReleasableBytesStreamOutput bStream = new ReleasableBytesStreamOutput(bigArrays);
@@ -35,6 +35,7 @@ import io.crate.expression.symbol.ParameterSymbol;
 import io.crate.expression.symbol.Symbol;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.Plan;
+import io.crate.planner.PlanCache;
 import io.crate.planner.Planner;
 import io.crate.planner.PlannerContext;
 import io.crate.planner.operators.SubQueryResults;
@@ -44,6 +45,7 @@ import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -130,6 +132,7 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             sqlExecutor.planner,
+            new PlanCache(Settings.EMPTY, clusterService),
             new JobsLogs(() -> false),
             false,
             executor,
@@ -157,6 +160,7 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = Mockito.spy(new Session(
             sqlExecutor.analyzer,
             sqlExecutor.planner,
+            new PlanCache(Settings.EMPTY, clusterService),
             new JobsLogs(() -> false),
             false,
             mock(DependencyCarrier.class),
@@ -328,6 +332,7 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             sqlExecutor.planner,
+            new PlanCache(Settings.EMPTY, clusterService),
             new JobsLogs(() -> false),
             false,
             executor,
@@ -363,6 +368,7 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             sqlExecutor.planner,
+            new PlanCache(Settings.EMPTY, clusterService),
             new JobsLogs(() -> false),
             false,
             executor,
@@ -390,6 +396,7 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             sqlExecutor.planner,
+            new PlanCache(Settings.EMPTY, clusterService),
             new JobsLogs(() -> false),
             false,
             executor,
@@ -416,6 +423,7 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             sqlExecutor.planner,
+            new PlanCache(Settings.EMPTY, clusterService),
             new JobsLogs(() -> false),
             false,
             executor,
@@ -433,6 +441,42 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         assertThat(session.preparedStatements.entrySet(), Matchers.empty());
     }
 
+    @Test
+    public void test_rollback_closes_cursors_without_hold_and_session_close_closes_all_cursors() {
+        SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService).build();
+        DependencyCarrier executor = mock(DependencyCarrier.class, Answers.RETURNS_MOCKS);
+        SessionContext sessionContext = SessionContext.systemSessionContext();
+        Session session = new Session(
+            sqlExecutor.analyzer,
+            sqlExecutor.planner,
+            new PlanCache(Settings.EMPTY, clusterService),
+            new JobsLogs(() -> false),
+            false,
+            executor,
+            AccessControl.DISABLED,
+            sessionContext);
+
+        Cursor withoutHold = new Cursor("c1", false, List.of(), err -> {});
+        Cursor withHold = new Cursor("c2", true, List.of(), err -> {});
+        sessionContext.cursors().add(withoutHold);
+        sessionContext.cursors().add(withHold);
+
+        session.parse("S_1", "ROLLBACK", List.of());
+        session.bind("P_1", "S_1", List.of(), null);
+        session.execute("P_1", 0, new BaseResultReceiver());
+
+        assertThat(withoutHold.completionFuture().isDone(), is(true));
+        assertThat(withHold.completionFuture().isDone(), is(false));
+        assertThat(sessionContext.cursors().get("c2"), is(withHold));
+
+        session.close();
+
+        assertThat(withHold.completionFuture().isDone(), is(true));
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Cursor `c2` does not exist");
+        sessionContext.cursors().get("c2");
+    }
+
     @Test
     public void test_discard_all_discards_all_portals_and_prepared_statements() throws Exception {
         SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService).build();
@@ -440,6 +484,7 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             sqlExecutor.planner,
+            new PlanCache(Settings.EMPTY, clusterService),
             new JobsLogs(() -> false),
             false,
             executor,
@@ -489,6 +534,7 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             planner,
+            new PlanCache(Settings.EMPTY, clusterService),
             jobsLogs,
             false,
             executor,
@@ -0,0 +1,177 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution;
+
+import io.crate.Streamer;
+import io.crate.data.ArrayBucket;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.TestingRowConsumer;
+import io.crate.types.DataTypes;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collector;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class PartitionedPageBucketReceiverTest extends CrateUnitTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutdownExecutor() throws Exception {
+        executor.shutdownNow();
+    }
+
+    private static Collector<Row, Map<Object, Long>, Iterable<Row>> sumByKey() {
+        return Collector.of(
+            HashMap::new,
+            (sums, row) -> sums.merge(row.get(0), (Long) row.get(1), Long::sum),
+            (sums1, sums2) -> {
+                throw new UnsupportedOperationException("combine not supported");
+            },
+            sums -> {
+                ArrayList<Row> rows = new ArrayList<>(sums.size());
+                for (Map.Entry<Object, Long> entry : sums.entrySet()) {
+                    rows.add(new RowN(entry.getKey(), entry.getValue()));
+                }
+                return rows;
+            }
+        );
+    }
+
+    @Test
+    public void test_rows_with_the_same_key_are_merged_within_one_partition() throws Exception {
+        int numPartitions = 4;
+        List<Collector<Row, Map<Object, Long>, Iterable<Row>>> collectors = new ArrayList<>(numPartitions);
+        for (int i = 0; i < numPartitions; i++) {
+            collectors.add(sumByKey());
+        }
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        var receiver = new PartitionedPageBucketReceiver<>(
+            collectors,
+            new int[] { 0 },
+            consumer,
+            executor,
+            new Streamer[] { DataTypes.STRING.streamer(), DataTypes.LONG.streamer() },
+            2
+        );
+
+        int numKeys = 100;
+        int numPages = 5;
+        for (int page = 0; page < numPages; page++) {
+            for (int upstream = 0; upstream < 2; upstream++) {
+                Object[][] rows = new Object[numKeys][];
+                for (int key = 0; key < numKeys; key++) {
+                    rows[key] = new Object[] { "k" + key, 1L };
+                }
+                receiver.setBucket(upstream, new ArrayBucket(rows), page == numPages - 1, needMore -> {});
+            }
+        }
+
+        List<Object[]> result = consumer.getResult();
+        assertThat(result.size(), is(numKeys));
+        for (Object[] row : result) {
+            assertThat(row[1], is(2L * numPages));
+        }
+    }
+
+    @Test
+    public void test_failure_during_accumulation_fails_the_receiver() throws Exception {
+        List<Collector<Row, Map<Object, Long>, Iterable<Row>>> collectors = List.of(sumByKey(), sumByKey());
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        var receiver = new PartitionedPageBucketReceiver<>(
+            collectors,
+            new int[] { 0 },
+            consumer,
+            executor,
+            new Streamer[] { DataTypes.STRING.streamer(), DataTypes.LONG.streamer() },
+            1
+        );
+        Object[][] rows = new Object[][] { new Object[] { "a", "not a long" } };
+        receiver.setBucket(0, new ArrayBucket(rows), true, needMore -> {});
+
+        try {
+            consumer.getResult();
+            fail("Expected the accumulation to fail");
+        } catch (Exception e) {
+            assertThat(SQLExceptions.unwrap(e), instanceOf(ClassCastException.class));
+        }
+    }
+
+    @Test
+    public void test_kill_fails_the_consumer_once_the_accumulations_in_progress_are_done() throws Exception {
+        CountDownLatch accumulationStarted = new CountDownLatch(1);
+        CountDownLatch releaseAccumulation = new CountDownLatch(1);
+        Collector<Row, Map<Object, Long>, Iterable<Row>> blockingCollector = Collector.of(
+            HashMap::new,
+            (sums, row) -> {
+                accumulationStarted.countDown();
+                try {
+                    releaseAccumulation.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            },
+            (sums1, sums2) -> {
+                throw new UnsupportedOperationException("combine not supported");
+            },
+            sums -> List.of()
+        );
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        var receiver = new PartitionedPageBucketReceiver<>(
+            List.of(blockingCollector),
+            new int[] { 0 },
+            consumer,
+            executor,
+            new Streamer[] { DataTypes.STRING.streamer(), DataTypes.LONG.streamer() },
+            1
+        );
+        Object[][] rows = new Object[][] { new Object[] { "a", 1L } };
+        receiver.setBucket(0, new ArrayBucket(rows), false, needMore -> {});
+        accumulationStarted.await();
+
+        receiver.kill(new InterruptedException("killed"));
+        assertThat(consumer.completionFuture().isDone(), is(false));
+
+        releaseAccumulation.countDown();
+        try {
+            consumer.getResult();
+            fail("Expected the kill to fail the consumer");
+        } catch (Exception e) {
+            assertThat(SQLExceptions.unwrap(e).getMessage(), containsString("killed"));
+        }
+    }
+}
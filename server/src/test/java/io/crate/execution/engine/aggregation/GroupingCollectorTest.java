@@ -0,0 +1,160 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.data.BatchIterators;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.execution.engine.aggregation.impl.SumAggregation;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.collect.InputCollectExpression;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.Literal;
+import io.crate.memory.OnHeapMemoryManager;
+import io.crate.metadata.functions.Signature;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.logging.log4j.LogManager;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.breaker.MemoryCircuitBreaker;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+import static io.crate.data.SentinelRow.SENTINEL;
+import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class GroupingCollectorTest extends CrateUnitTest {
+
+    private static GroupingCollector<Object> sumCollector(MemoryCircuitBreaker circuitBreaker,
+                                                          @Nullable Path spillPath) {
+        AggregationFunction<?, ?> sumAgg = (AggregationFunction<?, ?>) getFunctions().getQualified(
+            Signature.aggregate(
+                SumAggregation.NAME,
+                DataTypes.LONG.getTypeSignature(),
+                DataTypes.LONG.getTypeSignature()
+            ),
+            List.of(DataTypes.LONG),
+            DataTypes.LONG
+        );
+        InputCollectExpression keyInput = new InputCollectExpression(0);
+        return GroupingCollector.singleKey(
+            new CollectExpression[] { keyInput },
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { sumAgg },
+            new Input[][] { new Input[] { keyInput } },
+            new Input[] { Literal.BOOLEAN_TRUE },
+            ConcurrentRamAccounting.forCircuitBreaker("test", circuitBreaker),
+            new OnHeapMemoryManager(bytes -> {}),
+            Version.CURRENT,
+            keyInput,
+            DataTypes.LONG,
+            Version.CURRENT,
+            spillPath
+        );
+    }
+
+    private static MemoryCircuitBreaker circuitBreaker(long limitInBytes) {
+        return new MemoryCircuitBreaker(
+            new ByteSizeValue(limitInBytes, ByteSizeUnit.BYTES),
+            1,
+            LogManager.getLogger(GroupingCollectorTest.class)
+        );
+    }
+
+    private static Map<Object, Object> sumByKey(GroupingCollector<Object> collector,
+                                                long numKeys,
+                                                long numRows) throws Exception {
+        List<Row> rows = new ArrayList<>();
+        for (long i = 0; i < numRows; i++) {
+            rows.add(new Row1(i % numKeys));
+        }
+        Iterable<Row> result = BatchIterators.collect(InMemoryBatchIterator.of(rows, SENTINEL, true), collector).get();
+
+        Map<Object, Object> sumByKey = new HashMap<>();
+        for (Row row : result) {
+            sumByKey.put(row.get(0), row.get(1));
+        }
+        return sumByKey;
+    }
+
+    @Test
+    public void test_groups_are_spilled_to_disk_if_circuit_breaker_trips() throws Exception {
+        MemoryCircuitBreaker circuitBreaker = circuitBreaker(512);
+        Path spillPath = createTempDir();
+        Map<Object, Object> sumByKey;
+        try (GroupingCollector<Object> collector = sumCollector(circuitBreaker, spillPath)) {
+            sumByKey = sumByKey(collector, 100, 10_000);
+        }
+
+        assertThat(circuitBreaker.getTrippedCount(), greaterThan(0L));
+        assertThat(sumByKey.size(), is(100));
+        for (long i = 0; i < 100; i++) {
+            assertThat(sumByKey.get(i), is(i * 100));
+        }
+        try (Stream<Path> files = Files.list(spillPath)) {
+            assertThat(files.count(), is(0L));
+        }
+    }
+
+    @Test
+    public void test_partition_which_does_not_fit_into_memory_is_spilled_again() throws Exception {
+        MemoryCircuitBreaker circuitBreaker = circuitBreaker(512);
+        Map<Object, Object> sumByKey;
+        // ~100 keys per partition, which is more than the breaker allows to hold in memory
+        try (GroupingCollector<Object> collector = sumCollector(circuitBreaker, createTempDir())) {
+            sumByKey = sumByKey(collector, 3200, 9600);
+        }
+
+        assertThat(sumByKey.size(), is(3200));
+        for (long i = 0; i < 3200; i++) {
+            assertThat(sumByKey.get(i), is(i * 3));
+        }
+    }
+
+    @Test
+    public void test_circuit_breaking_exception_is_raised_if_spilling_is_disabled() throws Exception {
+        try (GroupingCollector<Object> collector = sumCollector(circuitBreaker(512), null)) {
+            expectedException.expect(ExecutionException.class);
+            expectedException.expectCause(instanceOf(CircuitBreakingException.class));
+            sumByKey(collector, 100, 10_000);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class PrimitiveMultiKeyMapTest extends CrateUnitTest {
+
+    @Test
+    public void test_supports_only_fixed_width_and_string_keys() {
+        assertThat(PrimitiveMultiKeyMap.supports(List.of(DataTypes.INTEGER, DataTypes.STRING)), is(true));
+        assertThat(
+            PrimitiveMultiKeyMap.supports(List.of(DataTypes.TIMESTAMPZ, DataTypes.IP, DataTypes.BOOLEAN)),
+            is(true)
+        );
+        assertThat(PrimitiveMultiKeyMap.supports(List.of(DataTypes.INTEGER, DataTypes.UNTYPED_OBJECT)), is(false));
+        assertThat(PrimitiveMultiKeyMap.supports(List.of(DataTypes.LONG, DataTypes.STRING_ARRAY)), is(false));
+    }
+
+    @Test
+    public void test_behaves_like_a_hash_map_with_list_keys() {
+        var keyTypes = List.of(DataTypes.INTEGER, DataTypes.STRING, DataTypes.DOUBLE, DataTypes.BOOLEAN);
+        PrimitiveMultiKeyMap map = new PrimitiveMultiKeyMap(keyTypes);
+        HashMap<List<Object>, Object[]> expected = new HashMap<>();
+
+        Object[] keyValues = new Object[4];
+        List<Object> key = Arrays.asList(keyValues);
+        for (int i = 0; i < 2000; i++) {
+            keyValues[0] = i % 7 == 0 ? null : i % 100;
+            keyValues[1] = i % 5 == 0 ? null : (i % 3 == 0 ? "grüße-" : "foo-") + (i % 13);
+            keyValues[2] = (double) (i % 2);
+            keyValues[3] = i % 4 == 0;
+            Object[] states = map.get(key);
+            assertThat(states, sameInstance(expected.get(key)));
+            if (states == null) {
+                states = new Object[] { 0L };
+                map.put(key, states);
+                expected.put(Arrays.asList(keyValues.clone()), states);
+            }
+            states[0] = (long) states[0] + 1;
+        }
+
+        assertThat(map.size(), is(expected.size()));
+        int numEntries = 0;
+        for (Map.Entry<List<Object>, Object[]> entry : map.entrySet()) {
+            assertThat(entry.getValue(), sameInstance(expected.get(entry.getKey())));
+            numEntries++;
+        }
+        assertThat(numEntries, is(expected.size()));
+    }
+
+    @Test
+    public void test_keys_are_decoded_with_the_type_of_their_column() {
+        var keyTypes = List.of(DataTypes.SHORT, DataTypes.LONG, DataTypes.FLOAT, DataTypes.IP);
+        PrimitiveMultiKeyMap map = new PrimitiveMultiKeyMap(keyTypes);
+        List<Object> key = Arrays.asList((short) 3, 10L, 1.5f, "127.0.0.1");
+        map.put(key, new Object[0]);
+
+        List<Object> decodedKey = map.entrySet().iterator().next().getKey();
+        assertThat(decodedKey, is(key));
+        assertThat(decodedKey.get(0).getClass(), is(Short.class));
+        assertThat(decodedKey.get(2).getClass(), is(Float.class));
+    }
+
+    @Test
+    public void test_accounts_for_the_memory_allocated_by_an_insert() {
+        PrimitiveMultiKeyMap map = new PrimitiveMultiKeyMap(List.of(DataTypes.INTEGER, DataTypes.STRING));
+
+        // first insert allocates the slots and the string arena
+        long bytes = map.bytesRequiredToAdd(List.of(1, "foo"));
+        assertThat(bytes, is(16 * (3 * 8L + 4 + RamUsageEstimator.NUM_BYTES_OBJECT_REF) + 1024));
+        map.put(List.of(1, "foo"), new Object[0]);
+
+        // fits into the existing slots and arena
+        assertThat(map.bytesRequiredToAdd(List.of(2, "bar")), is(0L));
+        assertThat(map.bytesRequiredToAdd(Arrays.asList(2, null)), is(0L));
+
+        map.clear();
+        assertThat(map.isEmpty(), is(true));
+        assertThat(map.get(List.of(1, "foo")), nullValue());
+        assertThat(map.bytesRequiredToAdd(List.of(1, "foo")), is(bytes));
+    }
+}
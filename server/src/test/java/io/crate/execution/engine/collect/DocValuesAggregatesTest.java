@@ -0,0 +1,244 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect;
+
+import io.crate.data.Row;
+import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocBatchFilter;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.aggregation.impl.AverageAggregation;
+import io.crate.execution.engine.aggregation.impl.CountAggregation;
+import io.crate.execution.engine.aggregation.impl.MaximumAggregation;
+import io.crate.execution.engine.aggregation.impl.MinimumAggregation;
+import io.crate.execution.engine.aggregation.impl.SumAggregation;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.operator.GteOperator;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.Reference;
+import io.crate.metadata.functions.Signature;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.Bits;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.crate.testing.TestingHelpers.createReference;
+import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.is;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class DocValuesAggregatesTest extends CrateUnitTest {
+
+    private static DocValueAggregator<?> docValueAggregator(String name, DataType<?> returnType) {
+        MappedFieldType xFieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        xFieldType.setName("x");
+        AggregationFunction<?, ?> aggregation = (AggregationFunction<?, ?>) getFunctions().getQualified(
+            Signature.aggregate(name, DataTypes.LONG.getTypeSignature(), returnType.getTypeSignature()),
+            List.of(DataTypes.LONG),
+            returnType
+        );
+        return aggregation.getDocValueAggregator(List.of(DataTypes.LONG), List.of(xFieldType));
+    }
+
+    private static List<DocValueAggregator> aggregators() {
+        return List.of(
+            docValueAggregator(CountAggregation.NAME, DataTypes.LONG),
+            docValueAggregator(SumAggregation.NAME, DataTypes.LONG),
+            docValueAggregator(AverageAggregation.NAME, DataTypes.DOUBLE),
+            docValueAggregator(MinimumAggregation.NAME, DataTypes.LONG),
+            docValueAggregator(MaximumAggregation.NAME, DataTypes.LONG)
+        );
+    }
+
+    private static IndexWriter createIndex() throws IOException {
+        IndexWriter iw = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        // more documents than fit into a single batch and a second segment with a partial batch
+        for (int i = 0; i < 3000; i++) {
+            Document doc = new Document();
+            doc.add(new StringField("id", String.valueOf(i), Field.Store.NO));
+            if (i % 3 != 0) {
+                doc.add(new SortedNumericDocValuesField("x", i - 1000));
+            }
+            iw.addDocument(doc);
+        }
+        iw.commit();
+        for (int i = 3000; i < 3100; i++) {
+            Document doc = new Document();
+            doc.add(new StringField("id", String.valueOf(i), Field.Store.NO));
+            doc.add(new SortedNumericDocValuesField("x", i));
+            iw.addDocument(doc);
+        }
+        iw.deleteDocuments(new Term("id", "1"), new Term("id", "3099"));
+        iw.commit();
+        return iw;
+    }
+
+    /**
+     * Aggregates all live documents one by one, only those with a value of x between from and to if filtered.
+     */
+    private static void assertRowMatchesSingleDocumentAggregation(Row row,
+                                                                  List<DocValueAggregator> aggregators,
+                                                                  IndexSearcher indexSearcher,
+                                                                  boolean filtered,
+                                                                  long from,
+                                                                  long to) throws IOException {
+        for (int i = 0; i < aggregators.size(); i++) {
+            DocValueAggregator aggregator = aggregators.get(i);
+            Object state = aggregator.initialState();
+            for (LeafReaderContext leaf : indexSearcher.getTopReaderContext().leaves()) {
+                aggregator.loadDocValues(leaf.reader());
+                SortedNumericDocValues xValues = DocValues.getSortedNumeric(leaf.reader(), "x");
+                Bits liveDocs = leaf.reader().getLiveDocs();
+                for (int doc = 0; doc < leaf.reader().maxDoc(); doc++) {
+                    if (liveDocs != null && !liveDocs.get(doc)) {
+                        continue;
+                    }
+                    if (filtered) {
+                        if (!xValues.advanceExact(doc)) {
+                            continue;
+                        }
+                        long x = xValues.nextValue();
+                        if (x < from || x > to) {
+                            continue;
+                        }
+                    }
+                    aggregator.apply(state, doc);
+                }
+            }
+            Object expected = aggregator.partialResult(state);
+            Object actual = row.get(i);
+            if (expected instanceof AverageAggregation.AverageState) {
+                var expectedAvg = (AverageAggregation.AverageState) expected;
+                assertThat(((AverageAggregation.AverageState) actual).compareTo(expectedAvg), is(0));
+            } else {
+                assertThat(actual, is(expected));
+            }
+        }
+    }
+
+    @Test
+    public void test_aggregating_batches_of_documents_matches_aggregating_single_documents() throws Exception {
+        IndexWriter iw = createIndex();
+        DirectoryReader reader = DirectoryReader.open(iw);
+        IndexSearcher indexSearcher = new IndexSearcher(reader);
+
+        List<DocValueAggregator> aggregators = aggregators();
+        List<DocBatchFilter> filters = Collections.nCopies(aggregators.size(), null);
+        Iterable<Row> rows = DocValuesAggregates.getRow(
+            new AtomicReference<>(), indexSearcher, new MatchAllDocsQuery(), aggregators, filters);
+
+        assertRowMatchesSingleDocumentAggregation(
+            rows.iterator().next(), aggregators, indexSearcher, false, Long.MIN_VALUE, Long.MAX_VALUE);
+        reader.close();
+        iw.close();
+    }
+
+    @Test
+    public void test_filtered_aggregation_on_column_vectors_matches_aggregating_single_matching_documents() throws Exception {
+        IndexWriter iw = createIndex();
+        DirectoryReader reader = DirectoryReader.open(iw);
+        IndexSearcher indexSearcher = new IndexSearcher(reader);
+
+        MappedFieldType xFieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        xFieldType.setName("x");
+        Reference x = createReference("x", DataTypes.LONG);
+        // x > 500 AND 2000 >= x
+        Symbol filter = new Function(
+            AndOperator.SIGNATURE,
+            List.of(
+                comparison(GtOperator.NAME, new InputColumn(0, DataTypes.LONG), Literal.of(500L)),
+                comparison(GteOperator.NAME, Literal.of(2000L), new InputColumn(0, DataTypes.LONG))
+            ),
+            DataTypes.BOOLEAN
+        );
+        DocBatchFilter docBatchFilter = DocValuesAggregates.createFilter(
+            column -> column.equals("x") ? xFieldType : null,
+            List.of(x),
+            filter
+        );
+        assertThat(docBatchFilter, Matchers.notNullValue());
+
+        List<DocValueAggregator> aggregators = aggregators();
+        List<DocBatchFilter> filters = Collections.nCopies(aggregators.size(), docBatchFilter);
+        Iterable<Row> rows = DocValuesAggregates.getRow(
+            new AtomicReference<>(), indexSearcher, new MatchAllDocsQuery(), aggregators, filters);
+
+        assertRowMatchesSingleDocumentAggregation(rows.iterator().next(), aggregators, indexSearcher, true, 501, 2000);
+        reader.close();
+        iw.close();
+    }
+
+    @Test
+    public void test_filter_on_column_vectors_is_not_created_for_unsupported_filters() {
+        MappedFieldType xFieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.DOUBLE);
+        xFieldType.setName("x");
+        Reference x = createReference("x", DataTypes.DOUBLE);
+        Symbol filter = comparison(GtOperator.NAME, new InputColumn(0, DataTypes.DOUBLE), Literal.of(1.5));
+        DocBatchFilter docBatchFilter = DocValuesAggregates.createFilter(
+            column -> column.equals("x") ? xFieldType : null,
+            List.of(x),
+            filter
+        );
+        assertThat(docBatchFilter, Matchers.nullValue());
+    }
+
+    private static Function comparison(String name, Symbol left, Symbol right) {
+        return new Function(
+            Signature.scalar(
+                name,
+                left.valueType().getTypeSignature(),
+                right.valueType().getTypeSignature(),
+                DataTypes.BOOLEAN.getTypeSignature()
+            ),
+            List.of(left, right),
+            DataTypes.BOOLEAN
+        );
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect;
+
+import io.crate.breaker.RamAccounting;
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.exceptions.GroupByOnArrayUnsupportedException;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.aggregation.impl.CountAggregation;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.memory.MemoryManager;
+import io.crate.memory.OffHeapMemoryManager;
+import io.crate.memory.OnHeapMemoryManager;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.BatchIteratorTester;
+import io.crate.testing.TestingRowConsumer;
+import io.crate.types.DataTypes;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+@SuppressWarnings("rawtypes")
+public class DocValuesGroupByOptimizedIteratorTest extends CrateDummyClusterServiceUnitTest {
+
+    private IndexWriter iw;
+    private List<AggregationFunction> functions;
+    private List<DocValueAggregator> aggregators;
+    private MemoryManager memoryManager = new OnHeapMemoryManager(bytes -> {});
+
+    @Before
+    public void prepare() throws Exception {
+        iw = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        CountAggregation countStar = (CountAggregation) getFunctions().getQualified(
+            CountAggregation.COUNT_STAR_SIGNATURE,
+            Collections.emptyList(),
+            CountAggregation.COUNT_STAR_SIGNATURE.getReturnType().createType()
+        );
+        CountAggregation countX = (CountAggregation) getFunctions().getQualified(
+            CountAggregation.SIGNATURE,
+            List.of(DataTypes.LONG),
+            DataTypes.LONG
+        );
+        MappedFieldType xFieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        xFieldType.setName("x");
+        functions = List.of(countStar, countX);
+        aggregators = List.of(
+            countStar.getDocValueAggregator(List.of(), List.of()),
+            countX.getDocValueAggregator(List.of(DataTypes.LONG), List.of(xFieldType))
+        );
+    }
+
+    private void addDoc(String tenant, long day, Long x) throws Exception {
+        Document doc = new Document();
+        if (tenant != null) {
+            doc.add(new SortedSetDocValuesField("tenant", new BytesRef(tenant)));
+        }
+        doc.add(new SortedNumericDocValuesField("day", day));
+        if (x != null) {
+            doc.add(new SortedNumericDocValuesField("x", x));
+        }
+        iw.addDocument(doc);
+    }
+
+    private BatchIterator<Row> createBatchIterator(IndexSearcher indexSearcher) {
+        return DocValuesGroupByOptimizedIterator.getIterator(
+            indexSearcher,
+            new MatchAllDocsQuery(),
+            List.of(
+                new DocValuesGroupByOptimizedIterator.StringKeyColumn("tenant"),
+                new DocValuesGroupByOptimizedIterator.NumericKeyColumn("day", DataTypes.LONG, value -> value)
+            ),
+            aggregators,
+            functions,
+            RamAccounting.NO_ACCOUNTING,
+            memoryManager,
+            AggregateMode.ITER_FINAL
+        );
+    }
+
+    @Test
+    public void test_groups_by_multiple_keys_across_segments() throws Exception {
+        addDoc("a", 1L, 10L);
+        addDoc("b", 1L, 20L);
+        addDoc(null, 2L, null);
+        iw.commit();
+        addDoc("a", 1L, null);
+        addDoc("b", 2L, 30L);
+        addDoc(null, 2L, 40L);
+        iw.commit();
+        IndexSearcher indexSearcher = new IndexSearcher(DirectoryReader.open(iw));
+        assertThat(indexSearcher.getIndexReader().leaves().size(), is(2));
+
+        ArrayList<Object[]> expectedResult = new ArrayList<>();
+        expectedResult.add(new Object[] { "a", 1L, 2L, 1L });
+        expectedResult.add(new Object[] { "b", 1L, 1L, 1L });
+        expectedResult.add(new Object[] { "b", 2L, 1L, 1L });
+        expectedResult.add(new Object[] { null, 2L, 2L, 1L });
+
+        BatchIteratorTester tester = new BatchIteratorTester(() -> createBatchIterator(indexSearcher));
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void test_group_by_on_array_values_raises_an_error() throws Exception {
+        Document doc = new Document();
+        doc.add(new SortedSetDocValuesField("tenant", new BytesRef("a")));
+        doc.add(new SortedSetDocValuesField("tenant", new BytesRef("b")));
+        doc.add(new SortedNumericDocValuesField("day", 1L));
+        iw.addDocument(doc);
+        iw.commit();
+        IndexSearcher indexSearcher = new IndexSearcher(DirectoryReader.open(iw));
+
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(createBatchIterator(indexSearcher), null);
+
+        try {
+            consumer.getResult();
+            fail("Expected the group by on an array to fail");
+        } catch (Exception e) {
+            assertThat(SQLExceptions.unwrap(e), instanceOf(GroupByOnArrayUnsupportedException.class));
+        }
+    }
+
+    @Test
+    public void test_states_of_many_groups_are_stored_in_accounted_off_heap_buffers() throws Exception {
+        int numGroups = 2500;
+        for (int i = 0; i < numGroups; i++) {
+            addDoc("a", i, (long) i);
+            addDoc("a", i, null);
+        }
+        iw.commit();
+        IndexSearcher indexSearcher = new IndexSearcher(DirectoryReader.open(iw));
+        AtomicLong accountedBytes = new AtomicLong();
+        memoryManager = new OffHeapMemoryManager(accountedBytes::addAndGet);
+        try {
+            TestingRowConsumer consumer = new TestingRowConsumer();
+            consumer.accept(createBatchIterator(indexSearcher), null);
+            List<Object[]> result = consumer.getResult();
+
+            assertThat(result.size(), is(numGroups));
+            for (Object[] row : result) {
+                assertThat(row[2], is(2L));
+                assertThat(row[3], is(1L));
+            }
+            assertThat(accountedBytes.get(), greaterThan(0L));
+        } finally {
+            memoryManager.close();
+        }
+    }
+}
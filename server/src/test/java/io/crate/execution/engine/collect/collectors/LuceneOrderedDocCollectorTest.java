@@ -26,6 +26,7 @@ import com.carrotsearch.randomizedtesting.RandomizedTest;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import io.crate.analyze.OrderBy;
+import io.crate.breaker.ConcurrentRamAccounting;
 import io.crate.breaker.RamAccounting;
 import io.crate.data.Row;
 import io.crate.execution.engine.distribution.merge.KeyIterable;
@@ -45,10 +46,13 @@ import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
@@ -56,11 +60,13 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.SortedNumericSortField;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopFieldDocs;
 import org.apache.lucene.store.ByteBuffersDirectory;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.common.unit.Fuzziness;
@@ -373,6 +379,43 @@ public class LuceneOrderedDocCollectorTest extends RandomizedTest {
         assertThat(values.next().get(0), Matchers.is(1.0F));
     }
 
+    @Test
+    public void test_batch_size_is_reduced_to_number_of_matches_if_sort_matches_index_sort() throws Exception {
+        Sort sort = new Sort(new SortedNumericSortField("x", SortField.Type.LONG));
+        IndexWriterConfig cfg = new IndexWriterConfig(new KeywordAnalyzer());
+        cfg.setIndexSort(sort);
+        IndexWriter w = new IndexWriter(new ByteBuffersDirectory(), cfg);
+        for (int i = 0; i < 3000; i++) {
+            Document doc = new Document();
+            doc.add(new SortedNumericDocValuesField("x", i));
+            doc.add(new StringField("y", i % 300 == 0 ? "a" : "b", Field.Store.NO));
+            w.addDocument(doc);
+            if (i % 1000 == 999) {
+                w.commit();
+            }
+        }
+        IndexSearcher searcher = new IndexSearcher(DirectoryReader.open(w, true, true));
+
+        ConcurrentRamAccounting ramAccounting = new ConcurrentRamAccounting(bytes -> { }, bytes -> { });
+        LuceneOrderedDocCollector collector = new LuceneOrderedDocCollector(
+            new ShardId("dummy", UUIDs.base64UUID(), 0),
+            searcher,
+            new TermQuery(new Term("y", "a")),
+            null,
+            false,
+            2000,
+            ramAccounting,
+            new CollectorContext(),
+            f -> null,
+            sort,
+            Collections.emptyList(),
+            Collections.emptyList()
+        );
+        assertThat(Iterables.size(collector.collect()), is(10));
+        // 10 matches + 1 to detect that the collector is exhausted
+        assertThat(ramAccounting.totalBytes(), is(11 * RamUsageEstimator.shallowSizeOfInstance(FieldDoc.class)));
+    }
+
     private static void addDoc(IndexWriter w, KeywordFieldMapper.KeywordFieldType fieldType, String value) throws IOException {
         Document doc = new Document();
         Field field = new Field(fieldType.name(), value, fieldType);
@@ -0,0 +1,208 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.fetch;
+
+import com.carrotsearch.hppc.IntArrayList;
+import io.crate.Streamer;
+import io.crate.breaker.RamAccounting;
+import io.crate.data.Row;
+import io.crate.execution.engine.distribution.StreamBucket;
+import io.crate.expression.reference.doc.lucene.CollectorContext;
+import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
+import io.crate.expression.reference.doc.lucene.SourceLookup;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.mapper.SourceFieldMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class FetchCollectorTest extends CrateUnitTest {
+
+    private static final int DOCS_PER_SEGMENT = 20;
+    private static final int NUM_SEGMENTS = 3;
+
+    private DirectoryReader reader;
+    private int numSetNextReaderCalls = 0;
+
+    @Before
+    public void createIndex() throws Exception {
+        IndexWriterConfig config = new IndexWriterConfig(new StandardAnalyzer())
+            .setMergePolicy(NoMergePolicy.INSTANCE);
+        try (IndexWriter iw = new IndexWriter(new ByteBuffersDirectory(), config)) {
+            for (int segment = 0; segment < NUM_SEGMENTS; segment++) {
+                for (int i = 0; i < DOCS_PER_SEGMENT; i++) {
+                    int x = segment * DOCS_PER_SEGMENT + i;
+                    Document doc = new Document();
+                    doc.add(new StoredField(
+                        SourceFieldMapper.NAME,
+                        new BytesRef(("{\"x\": " + x + "}").getBytes(StandardCharsets.UTF_8))));
+                    doc.add(new NumericDocValuesField("x", x));
+                    iw.addDocument(doc);
+                }
+                iw.commit();
+            }
+            reader = DirectoryReader.open(iw);
+        }
+        assertThat(reader.leaves().size(), is(NUM_SEGMENTS));
+    }
+
+    @After
+    public void closeReader() throws Exception {
+        reader.close();
+    }
+
+    private FetchCollector createCollector() {
+        LuceneCollectorExpression<Object> sourceExpression = new LuceneCollectorExpression<>() {
+
+            private SourceLookup sourceLookup;
+            private LeafReaderContext context;
+
+            @Override
+            public void startCollect(CollectorContext context) {
+                sourceLookup = context.sourceLookup();
+            }
+
+            @Override
+            public void setNextReader(LeafReaderContext context) {
+                numSetNextReaderCalls++;
+                this.context = context;
+            }
+
+            @Override
+            public void setNextDocId(int doc) {
+                sourceLookup.setSegmentAndDocument(context, doc);
+            }
+
+            @Override
+            public Object value() {
+                return sourceLookup.get(List.of("x"));
+            }
+        };
+        LuceneCollectorExpression<Object> docValuesExpression = new LuceneCollectorExpression<>() {
+
+            private NumericDocValues values;
+            private Long value;
+
+            @Override
+            public void setNextReader(LeafReaderContext context) throws IOException {
+                values = context.reader().getNumericDocValues("x");
+            }
+
+            @Override
+            public void setNextDocId(int doc) {
+                try {
+                    value = values.advanceExact(doc) ? values.longValue() : null;
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+
+            @Override
+            public Object value() {
+                return value;
+            }
+        };
+        return new FetchCollector(
+            List.of(sourceExpression, docValuesExpression),
+            new Streamer[] { DataTypes.INTEGER.streamer(), DataTypes.LONG.streamer() },
+            new Engine.Searcher(
+                "dummy",
+                reader,
+                IndexSearcher.getDefaultQueryCache(),
+                IndexSearcher.getDefaultQueryCachingPolicy(),
+                () -> {}
+            ),
+            RamAccounting.NO_ACCOUNTING,
+            1
+        );
+    }
+
+    private static List<Integer> sourceValues(StreamBucket bucket) {
+        ArrayList<Integer> result = new ArrayList<>(bucket.size());
+        for (Row row : bucket) {
+            assertThat(((Number) row.get(1)).intValue(), is(row.get(0)));
+            result.add((Integer) row.get(0));
+        }
+        return result;
+    }
+
+    @Test
+    public void test_rows_are_returned_in_the_order_of_the_requested_doc_ids() {
+        FetchCollector collector = createCollector();
+        IntArrayList docIds = IntArrayList.from(45, 3, 22, 3, 59, 0, 21, 44);
+
+        StreamBucket bucket = collector.collect(docIds);
+
+        assertThat(sourceValues(bucket), contains(45, 3, 22, 3, 59, 0, 21, 44));
+        assertThat(numSetNextReaderCalls, is(NUM_SEGMENTS));
+    }
+
+    @Test
+    public void test_all_docs_in_reverse_order_use_sequential_stored_fields_access() {
+        FetchCollector collector = createCollector();
+        IntArrayList docIds = new IntArrayList();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = DOCS_PER_SEGMENT * NUM_SEGMENTS - 1; i >= 0; i--) {
+            docIds.add(i);
+            expected.add(i);
+        }
+
+        StreamBucket bucket = collector.collect(docIds);
+
+        assertThat(sourceValues(bucket), is(expected));
+        assertThat(numSetNextReaderCalls, is(NUM_SEGMENTS));
+    }
+
+    @Test
+    public void test_sorted_doc_ids_are_collected_directly() {
+        FetchCollector collector = createCollector();
+
+        StreamBucket bucket = collector.collect(IntArrayList.from(1, 2, 2, 30, 41));
+
+        assertThat(sourceValues(bucket), contains(1, 2, 2, 30, 41));
+        assertThat(numSetNextReaderCalls, is(3));
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.annotations.Name;
+import com.carrotsearch.randomizedtesting.annotations.ParametersFactory;
+import com.carrotsearch.randomizedtesting.annotations.ThreadLeakScope;
+import io.crate.Streamer;
+import io.crate.breaker.RowAccounting;
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.join.CombinedRow;
+import io.crate.planner.node.dql.join.JoinType;
+import io.crate.testing.BatchIteratorTester;
+import io.crate.testing.BatchSimulatingIterator;
+import io.crate.testing.TestingBatchIterators;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import static com.carrotsearch.randomizedtesting.RandomizedTest.$;
+import static org.mockito.Mockito.mock;
+
+@RunWith(RandomizedRunner.class)
+@ThreadLeakScope(ThreadLeakScope.Scope.NONE)
+public class HashJoinBatchIteratorJoinTypeTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static final List<Object[]> INNER_RESULT = Arrays.asList(
+        new Object[] { 1, 1 }, new Object[] { 1, 1 },
+        new Object[] { 2, 2 }, new Object[] { 2, 2 },
+        new Object[] { 3, 3 },
+        new Object[] { 4, 4 }, new Object[] { 4, 4 }, new Object[] { 4, 4 }, new Object[] { 4, 4 }
+    );
+    private static final List<Object[]> UNMATCHED_LEFT = Arrays.asList(
+        new Object[] { 0, null }, new Object[] { 0, null });
+    private static final List<Object[]> UNMATCHED_RIGHT = Arrays.asList(
+        new Object[] { null, 5 }, new Object[] { null, 5 }, new Object[] { null, 6 });
+
+    private final JoinType joinType;
+    private final List<Object[]> expectedResult;
+
+    private static Predicate<Row> getCol0EqCol1JoinCondition() {
+        return row -> Objects.equals(row.get(0), row.get(1));
+    }
+
+    private static ToIntFunction<Row> getHash() {
+        return row -> Objects.hash(row.get(0));
+    }
+
+    private static ToIntFunction<Row> getHashWithCollisions() {
+        return row -> (Integer) row.get(0) % 3;
+    }
+
+    private static BatchIterator<Row> leftIterator() {
+        return new BatchSimulatingIterator<>(
+            TestingBatchIterators.ofValues(Arrays.asList(0, 0, 1, 2, 2, 3, 4, 4)), 2, 4, null);
+    }
+
+    private static BatchIterator<Row> rightIterator() {
+        return new BatchSimulatingIterator<>(
+            TestingBatchIterators.ofValues(Arrays.asList(1, 1, 2, 3, 4, 4, 5, 5, 6)), 2, 5, null);
+    }
+
+    public HashJoinBatchIteratorJoinTypeTest(@Name("joinType") JoinType joinType,
+                                             @Name("expectedResult") List<Object[]> expectedResult) {
+        this.joinType = joinType;
+        this.expectedResult = expectedResult;
+    }
+
+    @ParametersFactory
+    public static Iterable<Object[]> testParameters() {
+        List<Object[]> leftResult = new ArrayList<>(INNER_RESULT);
+        leftResult.addAll(UNMATCHED_LEFT);
+        List<Object[]> rightResult = new ArrayList<>(INNER_RESULT);
+        rightResult.addAll(UNMATCHED_RIGHT);
+        List<Object[]> fullResult = new ArrayList<>(leftResult);
+        fullResult.addAll(UNMATCHED_RIGHT);
+        return Arrays.asList(
+            $(JoinType.INNER, INNER_RESULT),
+            $(JoinType.LEFT, leftResult),
+            $(JoinType.RIGHT, rightResult),
+            $(JoinType.FULL, fullResult)
+        );
+    }
+
+    private void assertJoin(ToIntFunction<Row> hash, int blockSize, boolean spill) throws Exception {
+        assertJoin(hash, blockSize, spill, () -> mock(RowAccounting.class));
+    }
+
+    private void assertJoin(ToIntFunction<Row> hash,
+                            int blockSize,
+                            boolean spill,
+                            Supplier<RowAccounting<Object[]>> rowAccounting) throws Exception {
+        Streamer<?>[] streamers = spill ? new Streamer[] { DataTypes.INTEGER.streamer() } : null;
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> new HashJoinBatchIterator(
+            leftIterator(),
+            rightIterator(),
+            rowAccounting.get(),
+            new CombinedRow(1, 1),
+            getCol0EqCol1JoinCondition(),
+            joinType,
+            hash,
+            hash,
+            () -> blockSize,
+            streamers,
+            streamers,
+            temporaryFolder.getRoot().toPath()
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void testJoinWithSingleBlock() throws Exception {
+        assertJoin(getHash(), 10, false);
+    }
+
+    @Test
+    public void testJoinWithSingleBlockAndHashCollisions() throws Exception {
+        assertJoin(getHashWithCollisions(), 10, false);
+    }
+
+    @Test
+    public void testJoinWithMultipleBlocks() throws Exception {
+        assertJoin(getHash(), 3, false);
+    }
+
+    @Test
+    public void testJoinWithMultipleBlocksAndHashCollisions() throws Exception {
+        assertJoin(getHashWithCollisions(), 1, false);
+    }
+
+    @Test
+    public void testJoinWithPartitionsSpilledToDisk() throws Exception {
+        assertJoin(getHash(), 2, true);
+    }
+
+    @Test
+    public void testJoinWithPartitionsSpilledToDiskAndHashCollisions() throws Exception {
+        assertJoin(getHashWithCollisions(), 1, true);
+    }
+
+    @Test
+    public void testJoinWithSpilledPartitionExceedingBreakerLimit() throws Exception {
+        // All rows end up in the same partition, which only fits into memory block by block
+        assertJoin(row -> 0, 2, true, () -> new LimitedRowAccounting(2));
+    }
+
+    /**
+     * Breaks if more than {@code maxRows} rows are accounted for without being released
+     */
+    private static class LimitedRowAccounting implements RowAccounting<Object[]> {
+
+        private final int maxRows;
+        private int numRows = 0;
+
+        LimitedRowAccounting(int maxRows) {
+            this.maxRows = maxRows;
+        }
+
+        @Override
+        public void accountForAndMaybeBreak(Object[] row) {
+            numRows++;
+            if (numRows > maxRows) {
+                throw new CircuitBreakingException("Too many rows accounted for: " + numRows);
+            }
+        }
+
+        @Override
+        public void release() {
+            numRows = 0;
+        }
+    }
+}
@@ -42,7 +42,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-public class HashInnerJoinBatchIteratorMemoryTest {
+public class HashJoinBatchIteratorMemoryTest {
 
     private final CircuitBreaker circuitBreaker = mock(CircuitBreaker.class);
 
@@ -72,7 +72,7 @@ public class HashInnerJoinBatchIteratorMemoryTest {
         when(circuitBreaker.getUsed()).thenReturn(10L);
 
         RowAccounting<Object[]> rowAccounting = mock(RowAccounting.class);
-        BatchIterator<Row> it = new HashInnerJoinBatchIterator(
+        BatchIterator<Row> it = new HashJoinBatchIterator(
             leftIterator,
             rightIterator,
             rowAccounting,
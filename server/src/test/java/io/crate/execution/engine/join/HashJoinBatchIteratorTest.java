@@ -26,15 +26,20 @@ import com.carrotsearch.randomizedtesting.RandomizedRunner;
 import com.carrotsearch.randomizedtesting.annotations.Name;
 import com.carrotsearch.randomizedtesting.annotations.ParametersFactory;
 import com.carrotsearch.randomizedtesting.annotations.ThreadLeakScope;
+import io.crate.Streamer;
 import io.crate.breaker.RowAccounting;
 import io.crate.data.BatchIterator;
 import io.crate.data.Row;
 import io.crate.data.join.CombinedRow;
+import io.crate.planner.node.dql.join.JoinType;
 import io.crate.testing.BatchIteratorTester;
 import io.crate.testing.BatchSimulatingIterator;
 import io.crate.testing.TestingBatchIterators;
+import io.crate.types.DataTypes;
 import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 
 import java.util.Arrays;
@@ -50,7 +55,10 @@ import static org.mockito.Mockito.when;
 
 @RunWith(RandomizedRunner.class)
 @ThreadLeakScope(ThreadLeakScope.Scope.NONE)
-public class HashInnerJoinBatchIteratorTest {
+public class HashJoinBatchIteratorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
     private final CircuitBreaker circuitBreaker = mock(CircuitBreaker.class);
     private final List<Object[]> expectedResult;
@@ -73,10 +81,10 @@ public class HashInnerJoinBatchIteratorTest {
         return row -> (Integer) row.get(0) % 3;
     }
 
-    public HashInnerJoinBatchIteratorTest(@SuppressWarnings("unused") @Name("dataSetName") String testName,
-                                          @Name("dataForLeft") Supplier<BatchIterator<Row>> leftIterator,
-                                          @Name("dataForRight") Supplier<BatchIterator<Row>> rightIterator,
-                                          @Name("expectedResult") List<Object[]> expectedResult) {
+    public HashJoinBatchIteratorTest(@SuppressWarnings("unused") @Name("dataSetName") String testName,
+                                     @Name("dataForLeft") Supplier<BatchIterator<Row>> leftIterator,
+                                     @Name("dataForRight") Supplier<BatchIterator<Row>> rightIterator,
+                                     @Name("expectedResult") List<Object[]> expectedResult) {
         this.leftIterator = leftIterator;
         this.rightIterator = rightIterator;
         this.expectedResult = expectedResult;
@@ -127,7 +135,7 @@ public class HashInnerJoinBatchIteratorTest {
 
     @Test
     public void testInnerHashJoin() throws Exception {
-        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> new HashInnerJoinBatchIterator(
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> new HashJoinBatchIterator(
             leftIterator.get(),
             rightIterator.get(),
             mock(RowAccounting.class),
@@ -143,7 +151,7 @@ public class HashInnerJoinBatchIteratorTest {
 
     @Test
     public void testInnerHashJoinWithHashCollisions() throws Exception {
-        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> new HashInnerJoinBatchIterator(
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> new HashJoinBatchIterator(
             leftIterator.get(),
             rightIterator.get(),
             mock(RowAccounting.class),
@@ -159,7 +167,7 @@ public class HashInnerJoinBatchIteratorTest {
 
     @Test
     public void testInnerHashJoinWithBlockSizeSmallerThanDataSet() throws Exception {
-        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> new HashInnerJoinBatchIterator(
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> new HashJoinBatchIterator(
             leftIterator.get(),
             rightIterator.get(),
             mock(RowAccounting.class),
@@ -175,7 +183,7 @@ public class HashInnerJoinBatchIteratorTest {
 
     @Test
     public void testInnerHashJoinWithBlockSizeBiggerThanIteratorBatchSize() throws Exception {
-        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> new HashInnerJoinBatchIterator(
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> new HashJoinBatchIterator(
             leftIterator.get(),
             rightIterator.get(),
             mock(RowAccounting.class),
@@ -188,4 +196,46 @@ public class HashInnerJoinBatchIteratorTest {
         BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
         tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
     }
+
+    @Test
+    public void testInnerHashJoinWithPartitionsSpilledToDisk() throws Exception {
+        Streamer<?>[] streamers = new Streamer[] { DataTypes.INTEGER.streamer() };
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> new HashJoinBatchIterator(
+            leftIterator.get(),
+            rightIterator.get(),
+            mock(RowAccounting.class),
+            new CombinedRow(1, 1),
+            getCol0EqCol1JoinCondition(),
+            JoinType.INNER,
+            getHashForLeft(),
+            getHashForRight(),
+            () -> 2,
+            streamers,
+            streamers,
+            temporaryFolder.getRoot().toPath()
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void testInnerHashJoinWithPartitionsSpilledToDiskAndHashCollisions() throws Exception {
+        Streamer<?>[] streamers = new Streamer[] { DataTypes.INTEGER.streamer() };
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> new HashJoinBatchIterator(
+            leftIterator.get(),
+            rightIterator.get(),
+            mock(RowAccounting.class),
+            new CombinedRow(1, 1),
+            getCol0EqCol1JoinCondition(),
+            JoinType.INNER,
+            getHashWithCollisions(),
+            getHashWithCollisions(),
+            () -> 1,
+            streamers,
+            streamers,
+            temporaryFolder.getRoot().toPath()
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
 }
@@ -32,6 +32,7 @@ import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.collect.InputCollectExpression;
+import io.crate.execution.engine.spill.SpillableRamAccounting;
 import io.crate.expression.symbol.Literal;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.TestingBatchIterators;
@@ -124,4 +125,33 @@ public class SortingProjectorTest extends CrateUnitTest {
         expectedException.expect(CircuitBreakingException.class);
         consumer.getResult();
     }
+
+    @Test
+    public void test_rows_are_sorted_externally_if_circuit_breaker_trips() throws Exception {
+        MemoryCircuitBreaker circuitBreaker = new MemoryCircuitBreaker(new ByteSizeValue(100, ByteSizeUnit.BYTES),
+                                                                       1,
+                                                                       LogManager.getLogger(SortingProjectorTest.class)
+        );
+        InputCollectExpression input = new InputCollectExpression(0);
+        Projector projector = new SortingProjector(
+            new SpillableRamAccounting(ConcurrentRamAccounting.forCircuitBreaker("testContext", circuitBreaker)),
+            createTempDir(),
+            List.of(DataTypes.INTEGER, DataTypes.BOOLEAN),
+            0,
+            ImmutableList.of(input, Literal.of(true)),
+            ImmutableList.<CollectExpression<Row, ?>>of(input),
+            1,
+            OrderingByPosition.arrayOrdering(0, true, false),
+            5
+        );
+        // enough rows to produce more runs than can be merged at once
+        consumer.accept(projector.apply(TestingBatchIterators.range(1, 501)), null);
+
+        Bucket rows = consumer.getBucket();
+        assertThat(rows.size(), is(495));
+        int expected = 495;
+        for (Row row : rows) {
+            assertThat(row, isRow(expected--));
+        }
+    }
 }
@@ -33,6 +33,7 @@ import io.crate.data.Row;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.collect.InputCollectExpression;
 import io.crate.execution.engine.pipeline.TopN;
+import io.crate.execution.engine.spill.SpillableRamAccounting;
 import io.crate.expression.symbol.Literal;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.TestingBatchIterators;
@@ -191,4 +192,34 @@ public class SortingTopNProjectorTest extends CrateUnitTest {
         int i = Integer.MAX_VALUE / 2 + 1;
         getProjector(2, i, i);
     }
+
+    @Test
+    public void test_unbounded_collector_spills_rows_if_circuit_breaker_trips() throws Exception {
+        MemoryCircuitBreaker circuitBreaker = new MemoryCircuitBreaker(
+            new ByteSizeValue(100, ByteSizeUnit.BYTES),
+            1,
+            LogManager.getLogger(SortingTopNProjectorTest.class)
+        );
+        Projector projector = new SortingTopNProjector(
+            new SpillableRamAccounting(ConcurrentRamAccounting.forCircuitBreaker("testContext", circuitBreaker)),
+            createTempDir(),
+            List.of(DataTypes.INTEGER, DataTypes.BOOLEAN),
+            0,
+            INPUT_LITERAL_LIST,
+            COLLECT_EXPRESSIONS,
+            1,
+            OrderingByPosition.arrayOrdering(0, true, false),
+            10,
+            50,
+            1
+        );
+        consumer.accept(projector.apply(TestingBatchIterators.range(1, 201)), null);
+
+        Bucket rows = consumer.getBucket();
+        assertThat(rows.size(), is(10));
+        int expected = 150;
+        for (Row row : rows) {
+            assertThat(row, isRow(expected--));
+        }
+    }
 }
@@ -50,6 +50,7 @@ import io.crate.metadata.Functions;
 import io.crate.metadata.RelationName;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.doc.DocTableInfo;
+import io.crate.sql.tree.FrameBound;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
 import io.crate.testing.SqlExpressions;
@@ -152,7 +153,9 @@ public abstract class AbstractWindowFunctionTest extends CrateDummyClusterServic
                 Version.CURRENT,
                 RamAccounting.NO_ACCOUNTING,
                 memoryManager,
-                Version.CURRENT
+                Version.CURRENT,
+                windowFunctionSymbol.windowDefinition().windowFrameDefinition().start().type()
+                    != FrameBound.Type.UNBOUNDED_PRECEDING
             );
         } else {
             windowFunctionImpl = (WindowFunction) impl;
@@ -42,6 +42,16 @@ public class AggregationWindowFunctionsTest extends AbstractWindowFunctionTest {
         new Object[]{null, null}
     };
 
+    private static final Object[][] SLIDING_INPUT_ROWS = {
+        $(1, 3L),
+        $(2, 1L),
+        $(3, 2L),
+        $(4, 5L),
+        $(5, 4L),
+        $(6, 6L),
+        $(7, null)
+    };
+
     @Test
     public void testSumOverUnboundedPrecedingToUnboundedFollowingFrames() throws Throwable {
         Object[] expected = new Object[]{5L, 5L, 5L, 12L, 12L, 12L, null};
@@ -333,4 +343,24 @@ public class AggregationWindowFunctionsTest extends AbstractWindowFunctionTest {
             rows
         );
     }
+
+    @Test
+    public void test_min_over_sliding_rows_frame() throws Throwable {
+        assertEvaluate(
+            "min(y) OVER(ORDER BY x ROWS BETWEEN 2 PRECEDING and CURRENT ROW)",
+            contains(new Object[]{3L, 1L, 1L, 1L, 2L, 4L, 4L}),
+            List.of(new ColumnIdent("x"), new ColumnIdent("y")),
+            SLIDING_INPUT_ROWS
+        );
+    }
+
+    @Test
+    public void test_max_over_sliding_rows_frame() throws Throwable {
+        assertEvaluate(
+            "max(y) OVER(ORDER BY x ROWS BETWEEN 2 PRECEDING and CURRENT ROW)",
+            contains(new Object[]{3L, 3L, 3L, 5L, 5L, 6L, 6L}),
+            List.of(new ColumnIdent("x"), new ColumnIdent("y")),
+            SLIDING_INPUT_ROWS
+        );
+    }
 }
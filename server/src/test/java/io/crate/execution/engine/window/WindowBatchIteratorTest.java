@@ -23,6 +23,7 @@
 package io.crate.execution.engine.window;
 
 import com.google.common.collect.Lists;
+import io.crate.Streamer;
 import io.crate.breaker.ConcurrentRamAccounting;
 import io.crate.breaker.RamAccounting;
 import io.crate.breaker.RowAccountingWithEstimators;
@@ -32,6 +33,7 @@ import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.sort.OrderingByPosition;
+import io.crate.execution.engine.spill.SpillableRamAccounting;
 import io.crate.metadata.functions.Signature;
 import io.crate.sql.tree.FrameBound;
 import io.crate.sql.tree.WindowFrame;
@@ -40,8 +42,16 @@ import io.crate.testing.BatchSimulatingIterator;
 import io.crate.testing.TestingBatchIterators;
 import io.crate.testing.TestingRowConsumer;
 import io.crate.types.DataTypes;
+import org.apache.logging.log4j.LogManager;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.breaker.MemoryCircuitBreaker;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -61,6 +71,12 @@ import static org.hamcrest.Matchers.is;
 
 public class WindowBatchIteratorTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
     private Input[][] args = {new Input[0]};
 
     private List<Object[]> expectedRowNumberResult = IntStream.range(0, 10)
@@ -354,6 +370,96 @@ public class WindowBatchIteratorTest {
         assertThat(ramAccounting.totalBytes(), is(480L));
     }
 
+    @Test
+    public void test_sorted_source_is_computed_one_partition_at_a_time() throws Exception {
+        Comparator<Object[]> cmpPartitionBy = Comparator.comparing(row -> (Integer) row[0] / 3);
+        Comparator<Object[]> cmpOrderBy = OrderingByPosition.arrayOrdering(0, false, false);
+        BatchIteratorTester tester = new BatchIteratorTester(
+            () -> WindowFunctionBatchIterator.of(
+                new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 10), 4, 2, null),
+                new IgnoreRowAccounting(),
+                new SpillableRamAccounting(RamAccounting.NO_ACCOUNTING),
+                null,
+                streamers(),
+                true,
+                getComputeFrameStart(cmpOrderBy, FrameBound.Type.UNBOUNDED_PRECEDING),
+                getComputeFrameEnd(cmpOrderBy, FrameBound.Type.CURRENT_ROW),
+                cmpPartitionBy,
+                cmpOrderBy,
+                1,
+                () -> 1,
+                Runnable::run,
+                List.of(rowNumberWindowFunction()),
+                List.of(),
+                args)
+        );
+        List<Object[]> expectedResult = IntStream.range(0, 10)
+            .mapToObj(i -> new Object[]{i, i % 3 + 1}).collect(Collectors.toList());
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void test_rows_are_sorted_externally_per_partition_if_circuit_breaker_trips() throws Exception {
+        // 48 bytes per row, so 4 rows fit into the breaker and a partition of 3 rows can be loaded back
+        MemoryCircuitBreaker circuitBreaker = new MemoryCircuitBreaker(
+            new ByteSizeValue(200, ByteSizeUnit.BYTES), 1, LogManager.getLogger(WindowBatchIteratorTest.class));
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(spillingWindowBatchIterator(circuitBreaker, 3), null);
+
+        List<Object[]> result = consumer.getResult();
+        assertThat(result.size(), is(100));
+        for (int i = 0; i < 100; i++) {
+            assertThat(result.get(i), is(new Object[]{i, i % 3 + 1}));
+        }
+        assertThat(circuitBreaker.getUsed(), is(0L));
+    }
+
+    @Test
+    public void test_partition_loaded_back_from_disk_is_accounted() throws Exception {
+        MemoryCircuitBreaker circuitBreaker = new MemoryCircuitBreaker(
+            new ByteSizeValue(200, ByteSizeUnit.BYTES), 1, LogManager.getLogger(WindowBatchIteratorTest.class));
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(spillingWindowBatchIterator(circuitBreaker, 10), null);
+
+        expectedException.expect(CircuitBreakingException.class);
+        consumer.getResult();
+    }
+
+    /**
+     * Computes row_number() over a permutation of 0..99 which isn't sorted,
+     * partitioned by {@code value / partitionSize} and ordered by the value.
+     */
+    private BatchIterator<Row> spillingWindowBatchIterator(MemoryCircuitBreaker circuitBreaker, int partitionSize) {
+        SpillableRamAccounting ramAccounting = new SpillableRamAccounting(
+            ConcurrentRamAccounting.forCircuitBreaker("test", circuitBreaker));
+        Comparator<Object[]> cmpPartitionBy = Comparator.comparing(row -> (Integer) row[0] / partitionSize);
+        Comparator<Object[]> cmpOrderBy = OrderingByPosition.arrayOrdering(0, false, false);
+        List<Integer> values = IntStream.range(0, 100).mapToObj(i -> i * 37 % 100).collect(Collectors.toList());
+        return WindowFunctionBatchIterator.of(
+            TestingBatchIterators.ofValues(values),
+            new RowAccountingWithEstimators(List.of(DataTypes.INTEGER), ramAccounting, 32),
+            ramAccounting,
+            temporaryFolder.getRoot().toPath(),
+            streamers(),
+            false,
+            getComputeFrameStart(cmpOrderBy, FrameBound.Type.UNBOUNDED_PRECEDING),
+            getComputeFrameEnd(cmpOrderBy, FrameBound.Type.CURRENT_ROW),
+            cmpPartitionBy,
+            cmpOrderBy,
+            1,
+            () -> 1,
+            Runnable::run,
+            List.of(rowNumberWindowFunction()),
+            List.of(),
+            args
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Streamer<Object>[] streamers() {
+        return new Streamer[]{DataTypes.INTEGER.streamer()};
+    }
+
     @Test
     public void testWindowBatchIteratorWithOrderedWindowOverNullValues() throws Exception {
         var rows = Arrays.asList(
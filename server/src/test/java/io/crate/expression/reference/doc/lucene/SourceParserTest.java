@@ -0,0 +1,135 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.expression.reference.doc.lucene;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class SourceParserTest {
+
+    private static final BytesReference SOURCE = new BytesArray(
+        "{" +
+        "\"x\": 10, " +
+        "\"s\": \"foo\", " +
+        "\"o\": {\"a\": 1, \"b\": {\"c\": [1, 2]}, \"d\": null}, " +
+        "\"arr\": [{\"a\": 1, \"b\": 2}, {\"a\": 3, \"b\": 4}, [{\"a\": 5}], 6], " +
+        "\"unused\": {\"deep\": [{\"x\": [1, {\"y\": 2}]}]}" +
+        "}");
+
+    @Test
+    public void test_parses_complete_source_if_no_columns_are_registered() {
+        SourceParser parser = new SourceParser();
+
+        Map<String, Object> result = parser.parse(SOURCE);
+
+        assertThat(result.keySet().size(), is(5));
+        assertThat(parser.contains(List.of("unused")), is(true));
+    }
+
+    @Test
+    public void test_parses_only_registered_columns() {
+        SourceParser parser = new SourceParser();
+        parser.register(List.of("x"));
+        parser.register(List.of("o", "b", "c"));
+
+        Map<String, Object> result = parser.parse(SOURCE);
+
+        assertThat(result, is(Map.of(
+            "x", 10,
+            "o", Map.of("b", Map.of("c", List.of(1, 2)))
+        )));
+        assertThat(parser.contains(List.of("x")), is(true));
+        assertThat(parser.contains(List.of("o", "b", "c")), is(true));
+        assertThat(parser.contains(List.of("o")), is(false));
+        assertThat(parser.contains(List.of("o", "a")), is(false));
+        assertThat(parser.contains(List.of("s")), is(false));
+    }
+
+    @Test
+    public void test_registering_a_parent_column_includes_all_children() {
+        SourceParser parser = new SourceParser();
+        parser.register(List.of("o", "a"));
+        parser.register(List.of("o"));
+        parser.register(List.of("o", "b", "c"));
+
+        Map<String, Object> result = parser.parse(SOURCE);
+
+        assertThat(result.keySet(), is(Set.of("o")));
+        assertThat(((Map<?, ?>) result.get("o")).size(), is(3));
+        assertThat(parser.contains(List.of("o", "d")), is(true));
+    }
+
+    @Test
+    public void test_filters_objects_within_arrays() {
+        SourceParser parser = new SourceParser();
+        parser.register(List.of("arr", "a"));
+
+        Map<String, Object> result = parser.parse(SOURCE);
+
+        assertThat(result, is(Map.of(
+            "arr", List.of(Map.of("a", 1), Map.of("a", 3), List.of(Map.of("a", 5)), 6)
+        )));
+        assertThat(SourceLookup.extractValue(result, List.of("arr", "a"), 0),
+                   is(SourceLookup.extractValue(new SourceParser().parse(SOURCE), List.of("arr", "a"), 0)));
+    }
+
+    @Test
+    public void test_registering_the_empty_path_parses_the_complete_source() {
+        SourceParser parser = new SourceParser();
+        parser.register(List.of("x"));
+        parser.register(List.of());
+
+        assertThat(parser.parse(SOURCE).keySet().size(), is(5));
+    }
+
+    @Test
+    public void test_parses_smile_encoded_source() throws Exception {
+        BytesReference smileSource;
+        try (XContentParser jsonParser = XContentHelper.createParser(
+                NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, SOURCE, XContentType.JSON);
+             XContentBuilder builder = XContentFactory.contentBuilder(XContentType.SMILE)) {
+            jsonParser.nextToken();
+            builder.copyCurrentStructure(jsonParser);
+            smileSource = BytesReference.bytes(builder);
+        }
+        SourceParser parser = new SourceParser();
+        parser.register(List.of("o", "b", "c"));
+
+        assertThat(parser.parse(smileSource), is(parser.parse(SOURCE)));
+    }
+}
@@ -144,6 +144,8 @@ public class SysShardsExpressionsTest extends CrateDummyClusterServiceUnitTest {
         when(recoveryStateIndex.totalFileCount()).thenReturn(2);
         when(recoveryStateIndex.reusedFileCount()).thenReturn(1);
         when(recoveryStateIndex.recoveredFileCount()).thenReturn(1);
+        when(recoveryStateIndex.recoveredBytesPerSecond()).thenReturn(512L);
+        when(recoveryStateIndex.throttleTimeInMillis()).thenReturn(20L);
         when(recoveryStateTimer.time()).thenReturn(10000L);
 
         return indexShard;
@@ -311,6 +313,7 @@ public class SysShardsExpressionsTest extends CrateDummyClusterServiceUnitTest {
         Map<String, Object> recovery = ref.value();
         assertEquals(RecoveryState.Stage.DONE.name(), recovery.get("stage"));
         assertEquals(10_000L, recovery.get("total_time"));
+        assertEquals(20L, recovery.get("throttle_time"));
 
         Map<String, Object> expectedFiles = new HashMap<String, Object>() {{
             put("used", 2);
@@ -325,6 +328,7 @@ public class SysShardsExpressionsTest extends CrateDummyClusterServiceUnitTest {
             put("reused", 1_024L);
             put("recovered", 1_024L);
             put("percent", 0.0f);
+            put("bytes_per_sec", 512L);
         }};
         assertEquals(expectedBytes, recovery.get("size"));
     }
@@ -402,7 +402,7 @@ public class JoinIntegrationTest extends SQLTransportIntegrationTest {
             "Fetch[x, y, x, y]\n" +
             "  └ Limit[3::bigint;0]\n" +
             "    └ OrderBy[x ASC x ASC]\n" +
-            "      └ NestedLoopJoin[CROSS]\n" +
+            "      └ NestedLoopJoin[CROSS] (rows=unknown)\n" +
             "        ├ Rename[t1._fetchid, x] AS t1\n" +
             "        │  └ Collect[doc.t | [_fetchid, x] | true]\n" +
             "        └ Rename[t2._fetchid, x] AS t2\n" +
@@ -1055,6 +1055,29 @@ public class JoinIntegrationTest extends SQLTransportIntegrationTest {
         );
     }
 
+    @Test
+    public void test_join_on_relations_sorted_by_text_key_with_supplementary_characters() {
+        execute("create table t1 (name text) clustered into 2 shards with (number_of_replicas = 0)");
+        execute("create table t2 (name text) clustered into 3 shards with (number_of_replicas = 0)");
+        // U+FF61 sorts before U+1F600 by UTF-8 bytes / code points, but after it by UTF-16 code units
+        Object[][] rows = new Object[][]{
+            new Object[]{"a"},
+            new Object[]{"\uFF61"},
+            new Object[]{"\uD83D\uDE00"},
+            new Object[]{"\uD83D\uDE00b"},
+            new Object[]{"\uFFFD"},
+            new Object[]{"z"}
+        };
+        execute("insert into t1 (name) values (?)", rows);
+        execute("insert into t2 (name) values (?)", rows);
+        execute("refresh table t1, t2");
+
+        execute("select count(*) from " +
+                "(select name from t1 order by name) t1 " +
+                "join (select name from t2 order by name) t2 on t1.name = t2.name");
+        assertThat(response.rows()[0][0], is(6L));
+    }
+
     @Test
     public void test_join_with_and_false_in_where_clause_returns_empty_result() {
         String stmt = "SELECT n.* " +
@@ -34,13 +34,17 @@ import org.hamcrest.Matchers;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.postgresql.PGConnection;
 import org.postgresql.PGProperty;
+import org.postgresql.copy.CopyManager;
 import org.postgresql.geometric.PGpoint;
 import org.postgresql.jdbc.PreferQueryMode;
 import org.postgresql.util.PGobject;
 import org.postgresql.util.PSQLException;
 import org.postgresql.util.PSQLState;
 
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.sql.Array;
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
@@ -51,6 +55,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
@@ -58,9 +63,11 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.StringJoiner;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static io.crate.protocols.postgres.PostgresNetty.PSQL_PORT_SETTING;
 import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.emptyIterable;
 import static org.hamcrest.Matchers.emptyOrNullString;
 import static org.hamcrest.Matchers.greaterThan;
@@ -170,6 +177,74 @@ public class PostgresITest extends SQLTransportIntegrationTest {
         }
     }
 
+    @Test
+    public void test_declare_fetch_and_close_cursor() throws Exception {
+        try (Connection conn = DriverManager.getConnection(url(RW), properties)) {
+            conn.setAutoCommit(true);
+            Statement statement = conn.createStatement();
+            statement.execute(
+                "DECLARE c1 NO SCROLL CURSOR WITH HOLD FOR SELECT col1 FROM unnest([1, 2, 3, 4, 5]) ORDER BY col1");
+
+            ResultSet resultSet = statement.executeQuery("FETCH 2 FROM c1");
+            assertThat(resultSet.next(), is(true));
+            assertThat(resultSet.getInt(1), is(1));
+            assertThat(resultSet.next(), is(true));
+            assertThat(resultSet.getInt(1), is(2));
+            assertThat(resultSet.next(), is(false));
+
+            resultSet = statement.executeQuery("FETCH NEXT FROM c1");
+            assertThat(resultSet.next(), is(true));
+            assertThat(resultSet.getInt(1), is(3));
+            assertThat(resultSet.next(), is(false));
+
+            resultSet = statement.executeQuery("FETCH ALL FROM c1");
+            assertThat(resultSet.next(), is(true));
+            assertThat(resultSet.getInt(1), is(4));
+            assertThat(resultSet.next(), is(true));
+            assertThat(resultSet.getInt(1), is(5));
+            assertThat(resultSet.next(), is(false));
+
+            resultSet = statement.executeQuery("FETCH ALL FROM c1");
+            assertThat(resultSet.next(), is(false));
+
+            statement.execute("CLOSE c1");
+            try {
+                statement.executeQuery("FETCH c1");
+                fail("FETCH on a closed cursor must fail");
+            } catch (PSQLException e) {
+                assertThat(e.getMessage(), Matchers.containsString("Cursor `c1` does not exist"));
+            }
+        }
+    }
+
+    @Test
+    public void test_copy_from_stdin_and_copy_to_stdout() throws Exception {
+        try (Connection conn = DriverManager.getConnection(url(RW), properties)) {
+            conn.createStatement().executeUpdate(
+                "create table t (id int primary key, name text) with (number_of_replicas = 0)");
+            ensureYellow();
+
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+            long imported = copyManager.copyIn(
+                "COPY t FROM STDIN",
+                new StringReader("{\"id\": 1, \"name\": \"foo\"}\n{\"id\": 2, \"name\": \"bar\"}\n"));
+            assertThat(imported, is(2L));
+
+            imported = copyManager.copyIn(
+                "COPY t FROM STDIN WITH (format = 'csv')",
+                new StringReader("id,name\n3,baz\n"));
+            assertThat(imported, is(1L));
+            conn.createStatement().executeUpdate("refresh table t");
+
+            StringWriter out = new StringWriter();
+            long exported = copyManager.copyOut("COPY t (id, name) WHERE id < 3 TO STDOUT", out);
+            assertThat(exported, is(2L));
+            assertThat(
+                Arrays.stream(out.toString().split("\n")).sorted().collect(Collectors.toList()),
+                contains("[1,\"foo\"]", "[2,\"bar\"]"));
+        }
+    }
+
     @Test
     public void testEmptyStatement() throws Exception {
         try (Connection conn = DriverManager.getConnection(url(RW), properties)) {
@@ -0,0 +1,67 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.integrationtests;
+
+import io.crate.execution.engine.collect.ShardCollectResultCache;
+import io.crate.testing.TestingHelpers;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+public class ShardCollectResultCacheIntegrationTest extends SQLTransportIntegrationTest {
+
+    private long cacheHits() {
+        long hits = 0;
+        for (ShardCollectResultCache cache : internalCluster().getInstances(ShardCollectResultCache.class)) {
+            hits += cache.hits();
+        }
+        return hits;
+    }
+
+    @Test
+    public void test_repeated_aggregation_is_served_from_cache_until_refresh() throws Exception {
+        execute("create table tbl (x int, y text) clustered into 2 shards with (number_of_replicas = 0)");
+        execute("insert into tbl (x, y) values (1, 'a'), (2, 'a'), (3, 'b')");
+        refresh();
+
+        execute("select sum(x), avg(x) from tbl");
+        assertThat(TestingHelpers.printedTable(response.rows()), is("6| 2.0\n"));
+        long hitsBefore = cacheHits();
+        execute("select sum(x), avg(x) from tbl");
+        assertThat(TestingHelpers.printedTable(response.rows()), is("6| 2.0\n"));
+        assertThat(cacheHits(), greaterThan(hitsBefore));
+
+        execute("select y, count(x) from tbl group by y order by y");
+        assertThat(TestingHelpers.printedTable(response.rows()), is("a| 2\nb| 1\n"));
+        execute("select y, count(x) from tbl group by y order by y");
+        assertThat(TestingHelpers.printedTable(response.rows()), is("a| 2\nb| 1\n"));
+
+        execute("insert into tbl (x, y) values (4, 'b')");
+        refresh();
+        execute("select sum(x), avg(x) from tbl");
+        assertThat(TestingHelpers.printedTable(response.rows()), is("10| 2.5\n"));
+        execute("select y, count(x) from tbl group by y order by y");
+        assertThat(TestingHelpers.printedTable(response.rows()), is("a| 2\nb| 2\n"));
+    }
+}
@@ -344,6 +344,22 @@ public class SnapshotRestoreIntegrationTest extends SQLTransportIntegrationTest
         assertThat(response.rowCount(), is(3L));
     }
 
+    @Test
+    public void test_restore_shard_with_many_segment_files() throws Exception {
+        execute("create table t_segments (id int, name text) clustered into 1 shards with (number_of_replicas = 0)");
+        for (int i = 0; i < 10; i++) {
+            execute("insert into t_segments (id, name) values (?, ?)", new Object[]{i, "name-" + i});
+            execute("refresh table t_segments");
+        }
+        createSnapshot(SNAPSHOT_NAME, "t_segments");
+        execute("drop table t_segments");
+
+        execute("RESTORE SNAPSHOT " + snapshotName() + " TABLE t_segments with (wait_for_completion=true)");
+        ensureGreen();
+        execute("select count(*), sum(id) from t_segments");
+        assertThat(TestingHelpers.printedTable(response.rows()), is("10| 45\n"));
+    }
+
     @Test
     public void testRestoreSnapshotSinglePartition() throws Exception {
         createTableAndSnapshot("my_parted_table", SNAPSHOT_NAME, true);
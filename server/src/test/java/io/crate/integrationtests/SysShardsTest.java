@@ -217,6 +217,9 @@ public class SysShardsTest extends SQLTransportIntegrationTest {
         assertThat(((Number) translogStats.get("uncommitted_size")).longValue(), greaterThanOrEqualTo(0L));
         assertThat(((Number) translogStats.get("number_of_operations")).longValue(), greaterThanOrEqualTo(0L));
         assertThat(((Number) translogStats.get("uncommitted_operations")).longValue(), greaterThanOrEqualTo(0L));
+        assertThat(((Number) translogStats.get("sync_requests")).longValue(), greaterThanOrEqualTo(0L));
+        assertThat(((Number) translogStats.get("fsyncs")).longValue(), greaterThanOrEqualTo(0L));
+        assertThat(((Number) translogStats.get("fsync_time")).longValue(), greaterThanOrEqualTo(0L));
     }
 
     @Test
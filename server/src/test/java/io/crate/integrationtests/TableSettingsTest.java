@@ -29,7 +29,11 @@ import java.util.Locale;
 import java.util.Map;
 
 import static io.crate.testing.TestingHelpers.printedTable;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class TableSettingsTest extends SQLTransportIntegrationTest {
 
@@ -211,4 +215,88 @@ public class TableSettingsTest extends SQLTransportIntegrationTest {
         expectedException.expectMessage("Cannot change a dynamic group setting, only concrete settings allowed.");
         execute("alter table settings_table reset (\"routing.allocation.exclude\")");
     }
+
+    @Test
+    public void test_source_can_be_stored_as_smile() {
+        execute("create table t_smile (id int primary key, o object as (x int)) " +
+                "with (\"source.format\" = 'smile', number_of_replicas = 0)");
+        execute("insert into t_smile (id, o) values (1, {x=10}), (2, {x=20})");
+        execute("refresh table t_smile");
+
+        execute("select id, o['x'], _raw from t_smile order by id");
+        assertThat(printedTable(response.rows()), is(
+            "1| 10| {\"id\":1,\"o\":{\"x\":10}}\n" +
+            "2| 20| {\"id\":2,\"o\":{\"x\":20}}\n"));
+
+        execute("update t_smile set o['x'] = o['x'] + 1 where id = 1");
+        execute("select o['x'], _raw from t_smile where id = 1");
+        assertThat(printedTable(response.rows()), is("11| {\"id\":1,\"o\":{\"x\":11}}\n"));
+
+        execute("show create table t_smile");
+        assertThat((String) response.rows()[0][0], containsString("\"source.format\" = 'smile'"));
+    }
+
+    @Test
+    public void test_invalid_source_format_is_rejected() {
+        expectedException.expectMessage("unknown value for [index.source.format] must be one of [json, smile] but was: xml");
+        execute("create table t_invalid (id int) with (\"source.format\" = 'xml')");
+    }
+
+    @Test
+    public void test_table_sorted_by_columns_returns_rows_in_query_order() {
+        execute("create table t_sorted (device int, ts timestamp with time zone, val double) " +
+                "clustered into 1 shards with (sort_by = 'ts DESC, device', number_of_replicas = 0)");
+        execute("insert into t_sorted (device, ts, val) values " +
+                "(1, 10, 1.0), (2, 30, 2.0), (1, 20, 3.0), (2, null, 4.0)");
+        execute("refresh table t_sorted");
+        execute("insert into t_sorted (device, ts, val) values (3, 25, 5.0), (3, 40, 6.0)");
+        execute("refresh table t_sorted");
+
+        execute("select device, ts, val from t_sorted order by ts desc, device limit 3");
+        assertThat(printedTable(response.rows()), is(
+            "2| NULL| 4.0\n" +
+            "3| 40| 6.0\n" +
+            "2| 30| 2.0\n"));
+
+        execute("select device, ts from t_sorted order by ts asc limit 2");
+        assertThat(printedTable(response.rows()), is(
+            "1| 10\n" +
+            "1| 20\n"));
+
+        execute("show create table t_sorted");
+        assertThat((String) response.rows()[0][0], containsString("\"sort_by\" = 'ts DESC, device'"));
+    }
+
+    @Test
+    public void test_sort_by_with_unknown_column_is_rejected() {
+        expectedException.expectMessage("Unknown column `x` in setting [index.sort_by]");
+        execute("create table t_invalid (id int) with (sort_by = 'x')");
+    }
+
+    @Test
+    public void test_sort_by_cannot_be_changed() {
+        execute("create table t_sorted (id int) with (sort_by = 'id')");
+        expectedException.expectMessage("index.sort_by");
+        execute("alter table t_sorted set (sort_by = 'id desc')");
+    }
+
+    @Test
+    public void test_translog_syncs_of_write_requests_are_exposed_with_sync_window() {
+        execute("create table t_synced (id int) clustered into 1 shards " +
+                "with (number_of_replicas = 0, \"translog.sync_window\" = '5ms')");
+        for (int i = 0; i < 5; i++) {
+            execute("insert into t_synced (id) values (?)", new Object[]{i});
+        }
+        execute("alter table t_synced set (\"translog.sync_window\" = '10ms')");
+        execute("insert into t_synced (id) values (5)");
+
+        execute("select translog_stats['sync_requests'], translog_stats['fsyncs'], translog_stats['fsync_time'] " +
+                "from sys.shards where table_name = 't_synced'");
+        long syncRequests = (long) response.rows()[0][0];
+        long fsyncs = (long) response.rows()[0][1];
+        assertThat(syncRequests, greaterThanOrEqualTo(6L));
+        assertThat(fsyncs, greaterThan(0L));
+        assertThat(fsyncs, lessThanOrEqualTo(syncRequests));
+        assertThat((long) response.rows()[0][2], greaterThanOrEqualTo(0L));
+    }
 }
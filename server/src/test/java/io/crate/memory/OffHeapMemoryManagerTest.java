@@ -25,6 +25,8 @@ package io.crate.memory;
 import io.netty.buffer.ByteBuf;
 import org.junit.Test;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -32,10 +34,31 @@ public class OffHeapMemoryManagerTest {
 
     @Test
     public void test_allocated_buffers_are_released_on_close() {
-        var memoryManager = new OffHeapMemoryManager();
+        var memoryManager = new OffHeapMemoryManager(bytes -> {});
         ByteBuf buf1 = memoryManager.allocate(20);
         buf1.retain();
         memoryManager.close();
         assertThat("ref count must reach 0 now", buf1.release(), is(true));
     }
+
+    @Test
+    public void test_small_buffers_are_sliced_from_accounted_slabs() {
+        AtomicLong accountedBytes = new AtomicLong();
+        var memoryManager = new OffHeapMemoryManager(accountedBytes::addAndGet);
+        ByteBuf buf1 = memoryManager.allocate(16);
+        ByteBuf buf2 = memoryManager.allocate(16);
+        assertThat(accountedBytes.get(), is((long) OffHeapMemoryManager.SLAB_SIZE));
+        assertThat(buf1.capacity(), is(16));
+        assertThat(buf1.writerIndex(), is(0));
+
+        buf1.setLong(8, 42L);
+        buf2.setLong(0, 21L);
+        assertThat(buf1.getLong(8), is(42L));
+        assertThat(buf2.getLong(0), is(21L));
+
+        ByteBuf large = memoryManager.allocate(OffHeapMemoryManager.SLAB_SIZE * 2);
+        assertThat(large.capacity(), is(OffHeapMemoryManager.SLAB_SIZE * 2));
+        assertThat(accountedBytes.get(), is(OffHeapMemoryManager.SLAB_SIZE * 3L));
+        memoryManager.close();
+    }
 }
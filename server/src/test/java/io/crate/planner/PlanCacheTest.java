@@ -0,0 +1,152 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.TableDefinitions;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.settings.session.SessionSetting;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class PlanCacheTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+
+    @Before
+    public void prepare() throws IOException {
+        e = SQLExecutor.builder(clusterService)
+            .addTable(TableDefinitions.USER_TABLE_DEFINITION)
+            .build();
+    }
+
+    private Plan plan(PlanCache planCache, String statement, ClusterState state) {
+        AnalyzedStatement analyzedStatement = e.analyze(statement);
+        return planCache.plan(e.planner, statement, analyzedStatement, e.getPlannerContext(state));
+    }
+
+    private void setOptimizerRuleEnabled(String settingName, boolean enabled) {
+        for (SessionSetting<?> setting : e.planner.loadedRules().sessionSettings()) {
+            if (setting.name().equals(settingName)) {
+                setting.apply(e.getSessionContext(), List.<Symbol>of(Literal.of(enabled)), s -> ((Literal<?>) s).value());
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Unknown optimizer setting: " + settingName);
+    }
+
+    private static ClusterState withNewMetadataVersion(ClusterState state) {
+        return ClusterState.builder(state)
+            .metadata(Metadata.builder(state.metadata()).version(state.metadata().version() + 1))
+            .build();
+    }
+
+    @Test
+    public void test_plan_of_repeated_select_is_taken_from_cache() {
+        PlanCache planCache = new PlanCache(10);
+        ClusterState state = clusterService.state();
+        Plan first = plan(planCache, "select name from users where id = 1", state);
+        Plan second = plan(planCache, "select name from users where id = 1", state);
+
+        assertThat(second, sameInstance(first));
+        assertThat(planCache.size(), is(1L));
+        assertThat(planCache.hits(), is(1L));
+        assertThat(planCache.misses(), is(1L));
+    }
+
+    @Test
+    public void test_cached_plan_is_not_used_for_a_different_metadata_version() {
+        PlanCache planCache = new PlanCache(10);
+        ClusterState state = clusterService.state();
+        Plan first = plan(planCache, "select name from users", state);
+        Plan second = plan(planCache, "select name from users", withNewMetadataVersion(state));
+
+        assertThat(second, not(sameInstance(first)));
+        assertThat(planCache.hits(), is(0L));
+        assertThat(planCache.misses(), is(2L));
+    }
+
+    @Test
+    public void test_metadata_change_invalidates_all_cached_plans() {
+        PlanCache planCache = new PlanCache(10);
+        ClusterState state = clusterService.state();
+        plan(planCache, "select name from users", state);
+        assertThat(planCache.size(), is(1L));
+
+        planCache.clusterChanged(new ClusterChangedEvent("test", withNewMetadataVersion(state), state));
+        assertThat(planCache.size(), is(0L));
+    }
+
+    @Test
+    public void test_cached_plan_is_not_used_if_the_enabled_optimizer_rules_differ() {
+        PlanCache planCache = new PlanCache(10);
+        ClusterState state = clusterService.state();
+        String statement = "select name from users where id > 1";
+        Plan first = plan(planCache, statement, state);
+
+        setOptimizerRuleEnabled("optimizer_merge_filter_and_collect", false);
+        Plan second = plan(planCache, statement, state);
+        assertThat(second, not(sameInstance(first)));
+        assertThat(planCache.hits(), is(0L));
+
+        setOptimizerRuleEnabled("optimizer_merge_filter_and_collect", true);
+        Plan third = plan(planCache, statement, state);
+        assertThat(third, sameInstance(first));
+        assertThat(planCache.hits(), is(1L));
+    }
+
+    @Test
+    public void test_statements_with_non_deterministic_functions_are_not_cached() {
+        PlanCache planCache = new PlanCache(10);
+        ClusterState state = clusterService.state();
+        Plan first = plan(planCache, "select random() from users", state);
+        Plan second = plan(planCache, "select random() from users", state);
+
+        assertThat(second, not(sameInstance(first)));
+        assertThat(planCache.size(), is(0L));
+    }
+
+    @Test
+    public void test_plans_are_not_cached_if_cache_size_is_zero() {
+        PlanCache planCache = new PlanCache(0);
+        ClusterState state = clusterService.state();
+        plan(planCache, "select name from users", state);
+        plan(planCache, "select name from users", state);
+
+        assertThat(planCache.size(), is(0L));
+        assertThat(planCache.misses(), is(0L));
+    }
+}
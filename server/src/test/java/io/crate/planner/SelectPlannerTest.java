@@ -899,7 +899,7 @@ public class SelectPlannerTest extends CrateDummyClusterServiceUnitTest {
                       "   AND (false)";
         LogicalPlan plan = e.logicalPlan(stmt);
         String expectedPlan =
-            "NestedLoopJoin[CROSS]\n" +
+            "NestedLoopJoin[CROSS] (rows=unknown)\n" +
             "  ├ Rename[nspacl, nspname, nspowner, oid] AS n\n" +
             "  │  └ Collect[pg_catalog.pg_namespace | [nspacl, nspname, nspowner, oid] | false]\n" +
             "  └ Rename[] AS c\n" +
@@ -981,7 +981,7 @@ public class SelectPlannerTest extends CrateDummyClusterServiceUnitTest {
         LogicalPlan plan = e.logicalPlan(stmt);
         String expectedPlan =
             "Eval[name]\n" +
-            "  └ HashJoin[(name = concat(name, $1))]\n" +
+            "  └ HashJoin[(name = concat(name, $1))] (rows=2, build=[u1])\n" +
             "    ├ Rename[name] AS u1\n" +
             "    │  └ Collect[doc.users | [name] | true]\n" +
             "    └ Rename[name] AS u2\n" +
@@ -998,7 +998,7 @@ public class SelectPlannerTest extends CrateDummyClusterServiceUnitTest {
         LogicalPlan plan = e.logicalPlan(stmt);
         String expectedPlan =
             "Eval[name]\n" +
-            "  └ NestedLoopJoin[INNER | (NOT (name = concat(name, $1)))]\n" +
+            "  └ NestedLoopJoin[INNER | (NOT (name = concat(name, $1)))] (rows=398)\n" +
             "    ├ Rename[name] AS u1\n" +
             "    │  └ Collect[doc.users | [name] | true]\n" +
             "    └ Rename[name] AS u2\n" +
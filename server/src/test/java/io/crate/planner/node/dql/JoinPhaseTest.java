@@ -23,6 +23,7 @@ package io.crate.planner.node.dql;
 
 import com.google.common.collect.Sets;
 import io.crate.execution.dsl.phases.HashJoinPhase;
+import io.crate.execution.dsl.phases.MergeJoinPhase;
 import io.crate.execution.dsl.phases.MergePhase;
 import io.crate.execution.dsl.phases.NestedLoopPhase;
 import io.crate.execution.dsl.projection.TopNProjection;
@@ -143,10 +144,12 @@ public class JoinPhaseTest extends CrateUnitTest {
             2,
             3,
             Sets.newHashSet("node1", "node2"),
+            JoinType.LEFT,
             joinCondition,
             List.of(Literal.of("testLeft"), Literal.of(10)),
             List.of(Literal.of("testRight"), Literal.of(20)),
             List.of(DataTypes.STRING, DataTypes.INTEGER),
+            List.of(DataTypes.LONG),
             111,
             222);
 
@@ -165,13 +168,55 @@ public class JoinPhaseTest extends CrateUnitTest {
         assertThat(node.name(), is(node2.name()));
         assertThat(node.outputTypes(), is(node2.outputTypes()));
         assertThat(node.joinType(), is(node2.joinType()));
+        assertThat(node2.joinType(), is(JoinType.LEFT));
         assertThat(node.joinCondition(), is(node2.joinCondition()));
         assertThat(node.leftJoinConditionInputs(), is(node2.leftJoinConditionInputs()));
         assertThat(node.rightJoinConditionInputs(), is(node2.rightJoinConditionInputs()));
         assertThat(node.numLeftOutputs(), is(node2.numLeftOutputs()));
         assertThat(node.numRightOutputs(), is(node2.numRightOutputs()));
         assertThat(node.leftOutputTypes(), is(node2.leftOutputTypes()));
+        assertThat(node.rightOutputTypes(), is(node2.rightOutputTypes()));
         assertThat(node.estimatedRowSizeForLeft(), is(node2.estimatedRowSizeForLeft()));
         assertThat(node.numberOfRowsForLeft(), is(node2.numberOfRowsForLeft()));
     }
+
+    @Test
+    public void testMergeJoinSerialization() throws Exception {
+        MergeJoinPhase node = new MergeJoinPhase(
+            jobId,
+            1,
+            "mergeJoin",
+            List.of(topNProjection),
+            mp1,
+            mp2,
+            2,
+            3,
+            Sets.newHashSet("node1", "node2"),
+            JoinType.INNER,
+            joinCondition,
+            new InputColumn(0, DataTypes.STRING),
+            new InputColumn(1, DataTypes.STRING),
+            List.of(DataTypes.STRING, DataTypes.INTEGER),
+            List.of(DataTypes.LONG, DataTypes.STRING, DataTypes.INTEGER));
+
+        BytesStreamOutput output = new BytesStreamOutput();
+        node.writeTo(output);
+
+        StreamInput input = output.bytes().streamInput();
+        MergeJoinPhase node2 = new MergeJoinPhase(input);
+
+        assertThat(node.nodeIds(), is(node2.nodeIds()));
+        assertThat(node.jobId(), is(node2.jobId()));
+        assertThat(node.type(), is(node2.type()));
+        assertThat(node.name(), is(node2.name()));
+        assertThat(node.outputTypes(), is(node2.outputTypes()));
+        assertThat(node.joinType(), is(node2.joinType()));
+        assertThat(node.joinCondition(), is(node2.joinCondition()));
+        assertThat(node.leftJoinKey(), is(node2.leftJoinKey()));
+        assertThat(node.rightJoinKey(), is(node2.rightJoinKey()));
+        assertThat(node.numLeftOutputs(), is(node2.numLeftOutputs()));
+        assertThat(node.numRightOutputs(), is(node2.numRightOutputs()));
+        assertThat(node.leftOutputTypes(), is(node2.leftOutputTypes()));
+        assertThat(node.rightOutputTypes(), is(node2.rightOutputTypes()));
+    }
 }
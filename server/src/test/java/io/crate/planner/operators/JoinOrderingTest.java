@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.hamcrest.Matchers.contains;
@@ -79,4 +80,42 @@ public class JoinOrderingTest {
         );
         assertThat(qualifiedNames, contains(T3.T1, T3.T2, T3.T3));
     }
+
+    @Test
+    public void test_order_by_estimated_rows_starts_with_smallest_join_result() {
+        // SELECT * FROM t1, t2, t3, t4 WHERE t1.x = t2.x AND t1.y = t3.y AND t1.z = t4.z
+        Map<RelationName, Long> numRows = Map.of(
+            T3.T1, 1_000_000L,
+            T3.T2, 100L,
+            T3.T3, 10_000L,
+            T3.T4, 10L
+        );
+        Map<Set<RelationName>, Double> selectivities = Map.of(
+            Set.of(T3.T1, T3.T2), 0.01,
+            Set.of(T3.T1, T3.T3), 0.00005,
+            Set.of(T3.T1, T3.T4), 0.01
+        );
+        Collection<RelationName> ordered = JoinOrdering.orderByEstimatedRows(
+            List.of(T3.T1, T3.T2, T3.T3, T3.T4),
+            numRows,
+            selectivities
+        );
+        assertThat(ordered, contains(T3.T1, T3.T4, T3.T3, T3.T2));
+    }
+
+    @Test
+    public void test_order_by_estimated_rows_adds_relations_without_join_condition_last() {
+        // SELECT * FROM t3, t1, t2 WHERE t1.x = t2.x
+        Map<RelationName, Long> numRows = Map.of(
+            T3.T1, 100L,
+            T3.T2, 100L,
+            T3.T3, 1L
+        );
+        Collection<RelationName> ordered = JoinOrdering.orderByEstimatedRows(
+            List.of(T3.T3, T3.T1, T3.T2),
+            numRows,
+            Map.of(Set.of(T3.T1, T3.T2), 0.01)
+        );
+        assertThat(ordered, contains(T3.T1, T3.T2, T3.T3));
+    }
 }
@@ -25,8 +25,10 @@ package io.crate.planner.operators;
 import io.crate.analyze.QueriedSelectRelation;
 import io.crate.data.Row;
 import io.crate.execution.dsl.phases.HashJoinPhase;
+import io.crate.execution.dsl.phases.MergeJoinPhase;
 import io.crate.execution.dsl.phases.NestedLoopPhase;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.CoordinatorTxnCtx;
 import io.crate.metadata.Functions;
 import io.crate.metadata.Reference;
@@ -40,11 +42,14 @@ import io.crate.planner.node.dql.Collect;
 import io.crate.planner.node.dql.join.Join;
 import io.crate.planner.node.dql.join.JoinType;
 import io.crate.planner.optimizer.LoadedRules;
+import io.crate.statistics.ColumnStats;
+import io.crate.statistics.MostCommonValues;
 import io.crate.statistics.Stats;
 import io.crate.statistics.TableStats;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
 import io.crate.testing.T3;
+import io.crate.types.DataTypes;
 import org.elasticsearch.common.Randomness;
 import org.junit.After;
 import org.junit.Before;
@@ -112,6 +117,7 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
             mss.where(),
             mss.joinPairs(),
             rel -> logicalPlanner.plan(rel, plannerCtx, subqueryPlanner, Set.of()),
+            tableStats,
             txnCtx.sessionContext().isHashJoinEnabled()
         );
     }
@@ -148,6 +154,7 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
 
     @Test
     public void testNestedLoop_TablesAreSwitchedIfBlockJoinAndRightIsSmallerThanLeft() throws IOException {
+        txnCtx.sessionContext().setHashJoinEnabled(false);
         // blockNL is only possible on single node clusters
         e = SQLExecutor.builder(clusterService)
             .addTable("create table j.left_table (id int)")
@@ -203,6 +210,7 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
             mss.where(),
             mss.joinPairs(),
             rel -> logicalPlanner.plan(rel, plannerCtx, subqueryPlanner, Set.of()),
+            tableStats,
             false
         );
         Join nl = (Join) operator.build(
@@ -237,6 +245,53 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
         assertThat(nl.resultDescription().orderBy(), notNullValue());
     }
 
+    @Test
+    public void test_join_order_is_based_on_estimated_rows_if_stats_are_available() {
+        QueriedSelectRelation mss = e.analyze("select * from t1, t2, t3 where t1.x = t2.y and t2.y = t3.z");
+
+        LogicalPlan plan = createLogicalPlan(mss, new TableStats());
+        assertThat(plan, instanceOf(HashJoin.class));
+        assertThat(((HashJoin) plan).lhs().getRelationNames(), is(Set.of(T3.T1, T3.T2)));
+
+        TableStats tableStats = new TableStats();
+        tableStats.updateTableStats(Map.of(
+            T3.T1, new Stats(1_000_000, 0, Map.of()),
+            T3.T2, new Stats(10, 0, Map.of()),
+            T3.T3, new Stats(100, 0, Map.of())
+        ));
+        plan = createLogicalPlan(mss, tableStats);
+        assertThat(plan, instanceOf(HashJoin.class));
+        assertThat(((HashJoin) plan).lhs().getRelationNames(), is(Set.of(T3.T2, T3.T3)));
+        assertThat(((HashJoin) plan).rhs().getRelationNames(), is(Set.of(T3.T1)));
+    }
+
+    @Test
+    public void test_estimated_rows_of_join_are_based_on_selectivity_of_join_condition() {
+        var xStats = new ColumnStats<>(0.0, 4, 100, DataTypes.INTEGER, MostCommonValues.EMPTY, List.of());
+        var yStats = new ColumnStats<>(0.0, 4, 10, DataTypes.INTEGER, MostCommonValues.EMPTY, List.of());
+        TableStats tableStats = new TableStats();
+        tableStats.updateTableStats(Map.of(
+            T3.T1, new Stats(1_000, 0, Map.of(new ColumnIdent("x"), xStats)),
+            T3.T2, new Stats(10, 0, Map.of(new ColumnIdent("y"), yStats))
+        ));
+
+        // 1000 * 10 rows / 100 distinct values
+        LogicalPlan plan = createLogicalPlan(e.analyze("select * from t1 join t2 on t1.x = t2.y"), tableStats);
+        assertThat(plan.numExpectedRows(), is(100L));
+
+        // every row of t1 is retained by the left join
+        plan = createLogicalPlan(e.analyze("select * from t1 left join t2 on t1.x = t2.y"), tableStats);
+        assertThat(plan.numExpectedRows(), is(1_000L));
+
+        // no column stats, the default selectivity of equality conditions is used
+        tableStats.updateTableStats(Map.of(
+            T3.T1, new Stats(1_000, 0, Map.of()),
+            T3.T2, new Stats(10, 0, Map.of())
+        ));
+        plan = createLogicalPlan(e.analyze("select * from t1 join t2 on t1.x = t2.y"), tableStats);
+        assertThat(plan.numExpectedRows(), is(50L));
+    }
+
     @Test
     public void testHashJoin_TableOrderInLogicalAndExecutionPlan() {
         QueriedSelectRelation mss = e.analyze("select users.name, locations.id " +
@@ -294,11 +349,127 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
         assertThat(((Join)join.left()).joinPhase(), instanceOf(HashJoinPhase.class));
     }
 
+    private Join buildOuterHashJoin(JoinType joinType, long numUsers, long numLocations) {
+        QueriedSelectRelation mss = e.analyze("select users.name, locations.id " +
+                                              "from users " +
+                                              joinType.toString() + " join locations on users.id = locations.id");
+
+        TableStats tableStats = new TableStats();
+        Map<RelationName, Stats> rowCountByTable = new HashMap<>();
+        rowCountByTable.put(USER_TABLE_IDENT, new Stats(numUsers, 0, Map.of()));
+        rowCountByTable.put(TEST_DOC_LOCATIONS_TABLE_IDENT, new Stats(numLocations, 0, Map.of()));
+        tableStats.updateTableStats(rowCountByTable);
+
+        LogicalPlan operator = createLogicalPlan(mss, tableStats);
+        assertThat(operator, instanceOf(HashJoin.class));
+        assertThat(((HashJoin) operator).joinType(), is(joinType));
+
+        Join join = buildJoin(operator);
+        assertThat(join.joinPhase(), instanceOf(HashJoinPhase.class));
+        return join;
+    }
+
+    private static String leftTableName(Join join) {
+        return ((Reference) ((Collect) join.left()).collectPhase().toCollect().get(0)).ident().tableIdent().name();
+    }
+
+    @Test
+    public void testHashJoin_LeftOuterJoinTablesAreNotSwitchedWhenRightSmallerThanLeft() {
+        Join join = buildOuterHashJoin(JoinType.LEFT, 100, 10);
+        assertThat(join.joinPhase().joinType(), is(JoinType.LEFT));
+        assertThat(leftTableName(join), is("users"));
+    }
+
+    @Test
+    public void testHashJoin_LeftOuterJoinTablesSwitchWhenRightBiggerThanLeft() {
+        // the outer relation is loaded into the hash table, unmatched rows of it are emitted after probing
+        Join join = buildOuterHashJoin(JoinType.LEFT, 10, 100);
+        assertThat(join.joinPhase().joinType(), is(JoinType.RIGHT));
+        assertThat(leftTableName(join), is("locations"));
+    }
+
+    @Test
+    public void testHashJoin_RightOuterJoinTablesAreNotSwitchedWhenRightSmallerThanLeft() {
+        // the outer relation is probed, its unmatched rows are emitted while probing
+        Join join = buildOuterHashJoin(JoinType.RIGHT, 100, 10);
+        assertThat(join.joinPhase().joinType(), is(JoinType.RIGHT));
+        assertThat(leftTableName(join), is("users"));
+    }
+
+    @Test
+    public void testHashJoin_RightOuterJoinTablesSwitchWhenRightBiggerThanLeft() {
+        Join join = buildOuterHashJoin(JoinType.RIGHT, 10, 100);
+        assertThat(join.joinPhase().joinType(), is(JoinType.LEFT));
+        assertThat(leftTableName(join), is("locations"));
+    }
+
+    @Test
+    public void test_join_on_relations_sorted_by_join_key_uses_merge_join() {
+        QueriedSelectRelation mss = e.analyze("select t1.x, t2.y from " +
+                                              "(select x from t1 order by x) t1 " +
+                                              "join (select y from t2 order by y) t2 on t1.x = t2.y");
+        LogicalPlan operator = createLogicalPlan(mss, new TableStats());
+        assertThat(operator, instanceOf(MergeJoin.class));
+
+        Join join = buildJoin(operator);
+        assertThat(join.joinPhase(), instanceOf(MergeJoinPhase.class));
+        MergeJoinPhase joinPhase = (MergeJoinPhase) join.joinPhase();
+        assertThat(joinPhase.joinType(), is(JoinType.INNER));
+        assertThat(joinPhase.leftJoinKey(), isInputColumn(0));
+        assertThat(joinPhase.rightJoinKey(), isInputColumn(0));
+        assertThat(join.resultDescription().orderBy(), notNullValue());
+    }
+
+    @Test
+    public void test_join_on_relations_sorted_by_text_join_key_uses_hash_join() {
+        // Lucene sorts text by UTF-8 bytes, the in-memory sorts by UTF-16 code units
+        QueriedSelectRelation mss = e.analyze("select t1.a, t2.b from " +
+                                              "(select a from t1 order by a) t1 " +
+                                              "join (select b from t2 order by b) t2 on t1.a = t2.b");
+        LogicalPlan operator = createLogicalPlan(mss, new TableStats());
+        assertThat(operator, instanceOf(HashJoin.class));
+    }
+
+    @Test
+    public void test_join_on_relation_sorted_descending_by_join_key_uses_hash_join() {
+        QueriedSelectRelation mss = e.analyze("select t1.x, t2.y from " +
+                                              "(select x from t1 order by x desc) t1 " +
+                                              "join (select y from t2 order by y) t2 on t1.x = t2.y");
+        LogicalPlan operator = createLogicalPlan(mss, new TableStats());
+        assertThat(operator, instanceOf(HashJoin.class));
+    }
+
+    @Test
+    public void test_join_on_relation_not_sorted_by_join_key_uses_hash_join() {
+        QueriedSelectRelation mss = e.analyze("select t1.x, t2.y from " +
+                                              "(select x, i from t1 order by i) t1 " +
+                                              "join (select y from t2 order by y) t2 on t1.x = t2.y");
+        LogicalPlan operator = createLogicalPlan(mss, new TableStats());
+        assertThat(operator, instanceOf(HashJoin.class));
+    }
+
+    @Test
+    public void test_filter_is_moved_beneath_merge_join() {
+        var logicalPlan = e.logicalPlan("select t1.x, t2.y from " +
+                                        "(select x from t1 order by x) t1 " +
+                                        "join (select y from t2 order by y) t2 on t1.x = t2.y " +
+                                        "where t1.x > 10");
+        var expectedPlan =
+            "MergeJoin[(x = y)] (rows=unknown)\n" +
+            "  ├ Rename[x] AS t1\n" +
+            "  │  └ OrderBy[x ASC]\n" +
+            "  │    └ Collect[doc.t1 | [x] | (x > 10)]\n" +
+            "  └ Rename[y] AS t2\n" +
+            "    └ OrderBy[y ASC]\n" +
+            "      └ Collect[doc.t2 | [y] | true]";
+        assertThat(logicalPlan, isPlan(expectedPlan));
+    }
+
     @Test
     public void testMixedHashJoinNestedLoop() {
         QueriedSelectRelation mss = e.analyze("select * " +
                                               "from t1 inner join t2 on t1.a = t2.b " +
-                                              "left join t3 on t3.c = t2.b");
+                                              "left join t3 on t3.c > t2.b");
 
         LogicalPlan operator = createLogicalPlan(mss, new TableStats());
         assertThat(operator, instanceOf(NestedLoopJoin.class));
@@ -459,7 +630,7 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
         var logicalPlan = e.logicalPlan(statement);
         var expectedPlan =
             "Rename[x, x] AS tjoin\n" +
-            "  └ NestedLoopJoin[CROSS]\n" +
+            "  └ NestedLoopJoin[CROSS] (rows=unknown)\n" +
             "    ├ Collect[doc.t1 | [x] | true]\n" +
             "    └ Collect[doc.t2 | [x] | true]";
         assertThat(logicalPlan, isPlan(expectedPlan));
@@ -493,7 +664,7 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
                                             " where t1.a = users.address['postcode']");
         var expectedPlan =
             "Eval[name]\n" +
-            "  └ HashJoin[(a = address['postcode'])]\n" +
+            "  └ HashJoin[(a = address['postcode'])] (rows=unknown, build=[doc.users])\n" +
             "    ├ Collect[doc.users | [name, address['postcode']] | true]\n" +
             "    └ Collect[doc.t1 | [a] | true]";
         assertThat(logicalPlan, is(isPlan(expectedPlan)));
@@ -504,7 +675,7 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
                                         " where t1.a = u.address['postcode']");
         expectedPlan =
             "Eval[name]\n" +
-            "  └ HashJoin[(a = address['postcode'])]\n" +
+            "  └ HashJoin[(a = address['postcode'])] (rows=unknown, build=[u])\n" +
             "    ├ Rename[name, address['postcode']] AS u\n" +
             "    │  └ Collect[doc.users | [name, address['postcode']] | true]\n" +
             "    └ Collect[doc.t1 | [a] | true]";
@@ -228,7 +228,7 @@ public class LogicalPlannerTest extends CrateDummyClusterServiceUnitTest {
                                "on t1.cnt = t2.i::long ");
         assertThat(plan, isPlan(
             "Eval[i, cnt]\n" +
-            "  └ HashJoin[(cnt = cast(i AS bigint))]\n" +
+            "  └ HashJoin[(cnt = cast(i AS bigint))] (rows=1, build=[t1])\n" +
             "    ├ Rename[cnt] AS t1\n" +
             "    │  └ Eval[count(*) AS cnt]\n" +
             "    │    └ Count[doc.t1 | true]\n" +
@@ -250,7 +250,7 @@ public class LogicalPlannerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(plan, isPlan(
             "Limit[10::bigint;0]\n" +
             "  └ OrderBy[x ASC]\n" +
-            "    └ HashJoin[(x = y)]\n" +
+            "    └ HashJoin[(x = y)] (rows=unknown, build=[doc.t1])\n" +
             "      ├ Collect[doc.t1 | [x, a] | true]\n" +
             "      └ Collect[doc.t2 | [y] | true]"));
     }
@@ -313,7 +313,7 @@ public class LogicalPlannerTest extends CrateDummyClusterServiceUnitTest {
                                 "limit 10");
         assertThat(plan, isPlan(
             "Limit[10::bigint;0]\n" +
-            "  └ HashJoin[(i = i)]\n" +
+            "  └ HashJoin[(i = i)] (rows=5, build=[t1])\n" +
             "    ├ Rename[a, i] AS t1\n" +
             "    │  └ Filter[(a > '50')]\n" +
             "    │    └ Fetch[a, i]\n" +
@@ -332,7 +332,7 @@ public class LogicalPlannerTest extends CrateDummyClusterServiceUnitTest {
                               "  ON v2.x= v3.x");
         assertThat(plan, isPlan(
             "Eval[x, a, x, a]\n" +
-            "  └ HashJoin[(x = x)]\n" +
+            "  └ HashJoin[(x = x)] (rows=unknown, build=[doc.v2])\n" +
             "    ├ Rename[a, x] AS doc.v2\n" +
             "    │  └ Collect[doc.t1 | [a, x] | true]\n" +
             "    └ Rename[a, x] AS doc.v3\n" +
@@ -379,7 +379,7 @@ public class LogicalPlannerTest extends CrateDummyClusterServiceUnitTest {
             isPlan(
                 "Fetch[a, x, i, b, y, i]\n" +
                 "  └ Limit[3::bigint;0]\n" +
-                "    └ NestedLoopJoin[CROSS]\n" +
+                "    └ NestedLoopJoin[CROSS] (rows=unknown)\n" +
                 "      ├ Collect[doc.t1 | [_fetchid] | true]\n" +
                 "      └ Collect[doc.t2 | [_fetchid] | true]"
             )
@@ -394,7 +394,7 @@ public class LogicalPlannerTest extends CrateDummyClusterServiceUnitTest {
             isPlan(
                 "Fetch[a, x, i, b, y, i]\n" +
                 "  └ Limit[3::bigint;0]\n" +
-                "    └ HashJoin[(a = b)]\n" +
+                "    └ HashJoin[(a = b)] (rows=unknown, build=[doc.t1])\n" +
                 "      ├ Collect[doc.t1 | [_fetchid, a] | true]\n" +
                 "      └ Collect[doc.t2 | [_fetchid, b] | true]"
             )
@@ -50,7 +50,7 @@ public class OuterJoinRewriteTest extends CrateDummyClusterServiceUnitTest {
             "WHERE t2.x = '10'"
         );
         var expectedPlan =
-            "NestedLoopJoin[INNER | (x = x)]\n" +
+            "HashJoin[(x = x)] (rows=unknown, build=[doc.t2])\n" +
             "  ├ Collect[doc.t1 | [x] | true]\n" +
             "  └ Collect[doc.t2 | [x] | (x = 10)]";
         assertThat(plan, isPlan(expectedPlan));
@@ -64,7 +64,7 @@ public class OuterJoinRewriteTest extends CrateDummyClusterServiceUnitTest {
         );
         var expectedPlan =
             "Filter[(coalesce(x, 10) = 10)]\n" +
-            "  └ NestedLoopJoin[LEFT | (x = x)]\n" +
+            "  └ HashJoin[LEFT | (x = x)] (rows=unknown, build=[doc.t1])\n" +
             "    ├ Collect[doc.t1 | [x] | true]\n" +
             "    └ Collect[doc.t2 | [x] | true]";
         assertThat(plan, isPlan(expectedPlan));
@@ -78,7 +78,7 @@ public class OuterJoinRewriteTest extends CrateDummyClusterServiceUnitTest {
         );
         var expectedPlan =
             "Filter[(coalesce(x, 10) = 10)]\n" +
-            "  └ NestedLoopJoin[LEFT | (x = x)]\n" +
+            "  └ HashJoin[LEFT | (x = x)] (rows=unknown, build=[doc.t1])\n" +
             "    ├ Collect[doc.t1 | [x] | (x > 5)]\n" +
             "    └ Collect[doc.t2 | [x] | true]";
         assertThat(plan, isPlan(expectedPlan));
@@ -92,7 +92,7 @@ public class OuterJoinRewriteTest extends CrateDummyClusterServiceUnitTest {
         );
         var expectedPlan =
             "Filter[(coalesce(x, 10) = 10)]\n" +
-            "  └ NestedLoopJoin[RIGHT | (x = x)]\n" +
+            "  └ HashJoin[RIGHT | (x = x)] (rows=unknown, build=[doc.t2])\n" +
             "    ├ Collect[doc.t1 | [x] | true]\n" +
             "    └ Collect[doc.t2 | [x] | (x > 5)]";
         assertThat(plan, isPlan(expectedPlan));
@@ -106,7 +106,7 @@ public class OuterJoinRewriteTest extends CrateDummyClusterServiceUnitTest {
         );
         var expectedPlan =
             "Filter[((coalesce(x, 10) = 10) AND (x > 5))]\n" +
-            "  └ NestedLoopJoin[FULL | (x = x)]\n" +
+            "  └ HashJoin[FULL | (x = x)] (rows=unknown, build=[doc.t2])\n" +
             "    ├ Collect[doc.t1 | [x] | true]\n" +
             "    └ Collect[doc.t2 | [x] | (x > 5)]";
         assertThat(plan, isPlan(expectedPlan));
@@ -90,7 +90,7 @@ public class PushDownTest extends CrateDummyClusterServiceUnitTest {
         assertThat(
             plan,
             isPlan(
-                "NestedLoopJoin[INNER | (a = b)]\n" +
+                "NestedLoopJoin[INNER | (a = b)] (rows=unknown)\n" +
                 "  ├ OrderBy[a ASC]\n" +
                 "  │  └ Collect[doc.t1 | [a] | true]\n" +
                 "  └ Collect[doc.t2 | [b] | true]"
@@ -106,8 +106,8 @@ public class PushDownTest extends CrateDummyClusterServiceUnitTest {
                                 "order by t2.b");
         assertThat(plan, isPlan(
             "Eval[a, b, a]\n" +
-            "  └ NestedLoopJoin[INNER | (a = b)]\n" +
-            "    ├ NestedLoopJoin[INNER | (a = b)]\n" +
+            "  └ NestedLoopJoin[INNER | (a = b)] (rows=unknown)\n" +
+            "    ├ NestedLoopJoin[INNER | (a = b)] (rows=unknown)\n" +
             "    │  ├ OrderBy[b ASC]\n" +
             "    │  │  └ Collect[doc.t2 | [b] | true]\n" +
             "    │  └ Collect[doc.t1 | [a] | true]\n" +
@@ -120,7 +120,7 @@ public class PushDownTest extends CrateDummyClusterServiceUnitTest {
         LogicalPlan plan = plan("select t2.y, t2.b, t1.i from t1 inner join t2 on t1.a = t2.b order by t1.x desc");
         assertThat(plan, isPlan(
             "Eval[y, b, i]\n" +
-            "  └ NestedLoopJoin[INNER | (a = b)]\n" +
+            "  └ NestedLoopJoin[INNER | (a = b)] (rows=unknown)\n" +
             "    ├ OrderBy[x DESC]\n" +
             "    │  └ Collect[doc.t1 | [i, x, a] | true]\n" +
             "    └ Collect[doc.t2 | [y, b] | true]"));
@@ -133,7 +133,7 @@ public class PushDownTest extends CrateDummyClusterServiceUnitTest {
             plan,
             isPlan(
                 "OrderBy[b ASC]\n" +
-                "  └ NestedLoopJoin[INNER | (a = b)]\n" +
+                "  └ NestedLoopJoin[INNER | (a = b)] (rows=unknown)\n" +
                 "    ├ Collect[doc.t1 | [a] | true]\n" +
                 "    └ Collect[doc.t2 | [b] | true]"
             )
@@ -148,7 +148,7 @@ public class PushDownTest extends CrateDummyClusterServiceUnitTest {
             isPlan(
                 "Eval[a, b]\n" +
                 "  └ OrderBy[concat(a, b) ASC]\n" +
-                "    └ NestedLoopJoin[INNER | (a = b)]\n" +
+                "    └ NestedLoopJoin[INNER | (a = b)] (rows=unknown)\n" +
                 "      ├ Collect[doc.t1 | [a] | true]\n" +
                 "      └ Collect[doc.t2 | [b] | true]"
             )
@@ -175,8 +175,8 @@ public class PushDownTest extends CrateDummyClusterServiceUnitTest {
         assertThat(plan, isPlan(
             "Eval[a, b, a]\n" +
             "  └ OrderBy[a ASC]\n" +
-            "    └ NestedLoopJoin[LEFT | (a = a)]\n" +
-            "      ├ NestedLoopJoin[INNER | (a = b)]\n" +
+            "    └ NestedLoopJoin[LEFT | (a = a)] (rows=unknown)\n" +
+            "      ├ NestedLoopJoin[INNER | (a = b)] (rows=unknown)\n" +
             "      │  ├ Collect[doc.t2 | [b] | true]\n" +
             "      │  └ Collect[doc.t1 | [a] | true]\n" +
             "      └ Rename[a] AS t3\n" +
@@ -192,7 +192,7 @@ public class PushDownTest extends CrateDummyClusterServiceUnitTest {
         sqlExecutor.getSessionContext().setHashJoinEnabled(false);
         assertThat(plan, isPlan(
             "OrderBy[a ASC]\n" +
-            "  └ HashJoin[(a = b)]\n" +
+            "  └ HashJoin[(a = b)] (rows=unknown, build=[doc.t1])\n" +
             "    ├ Collect[doc.t1 | [a] | true]\n" +
             "    └ Collect[doc.t2 | [b] | true]"
         ));
@@ -209,7 +209,7 @@ public class PushDownTest extends CrateDummyClusterServiceUnitTest {
             plan,
             LogicalPlannerTest.isPlan(
                 "Eval[i, i]\n" +
-                "  └ NestedLoopJoin[INNER | (x = y)]\n" +
+                "  └ NestedLoopJoin[INNER | (x = y)] (rows=unknown)\n" +
                 "    ├ OrderBy[lower(b) ASC]\n" +
                 "    │  └ Collect[doc.t2 | [i, b, y] | true]\n" +
                 "    └ Collect[doc.t1 | [i, x] | true]"
@@ -242,7 +242,7 @@ public class PushDownTest extends CrateDummyClusterServiceUnitTest {
         );
         var expectedPlan =
             "Rename[a, x, i, b, y, i] AS tjoin\n" +
-            "  └ HashJoin[(x = y)]\n" +
+            "  └ HashJoin[(x = y)] (rows=unknown, build=[doc.t1])\n" +
             "    ├ Collect[doc.t1 | [a, x, i] | (x = 10)]\n" +
             "    └ Collect[doc.t2 | [b, y, i] | true]";
         assertThat(plan, isPlan(expectedPlan));
@@ -257,7 +257,7 @@ public class PushDownTest extends CrateDummyClusterServiceUnitTest {
         );
         var expectedPlan =
             "Rename[a, x, i, b, y, i] AS tjoin\n" +
-            "  └ NestedLoopJoin[CROSS]\n" +
+            "  └ NestedLoopJoin[CROSS] (rows=unknown)\n" +
             "    ├ Collect[doc.t1 | [a, x, i] | (x = 10)]\n" +
             "    └ Collect[doc.t2 | [b, y, i] | true]";
         assertThat(plan, isPlan(expectedPlan));
@@ -274,7 +274,7 @@ public class PushDownTest extends CrateDummyClusterServiceUnitTest {
         var expectedPlan =
             "Rename[a, x, i, b, y, i] AS tjoin\n" +
             "  └ Filter[(concat(a, b) = '')]\n" +
-            "    └ HashJoin[(x = y)]\n" +
+            "    └ HashJoin[(x = y)] (rows=unknown, build=[doc.t1])\n" +
             "      ├ Collect[doc.t1 | [a, x, i] | (x = 10)]\n" +
             "      └ Collect[doc.t2 | [b, y, i] | (y = 20)]";
         assertThat(plan, isPlan(expectedPlan));
@@ -85,7 +85,7 @@ public class SelectDistinctLogicalPlannerTest extends CrateDummyClusterServiceUn
         assertThat(logicalPlan, isPlan(
             "GroupHashAggregate[count(id)]\n" +
             "  └ GroupHashAggregate[name | count(id)]\n" +
-            "    └ HashJoin[(department_id = id)]\n" +
+            "    └ HashJoin[(department_id = id)] (rows=unknown, build=[doc.users])\n" +
             "      ├ Collect[doc.users | [id, department_id] | true]\n" +
             "      └ Collect[doc.departments | [name, id] | true]"
         ));
@@ -100,7 +100,7 @@ public class SelectDistinctLogicalPlannerTest extends CrateDummyClusterServiceUn
         assertThat(logicalPlan, isPlan(
             "OrderBy[name ASC]\n" +
             "  └ GroupHashAggregate[name]\n" +
-            "    └ HashJoin[(department_id = id)]\n" +
+            "    └ HashJoin[(department_id = id)] (rows=unknown, build=[doc.users])\n" +
             "      ├ Collect[doc.users | [department_id] | true]\n" +
             "      └ Collect[doc.departments | [name, id] | true]"
         ));
@@ -24,19 +24,25 @@ package io.crate.planner.operators;
 
 import io.crate.analyze.OrderBy;
 import io.crate.analyze.WindowDefinition;
+import io.crate.expression.symbol.InputColumn;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.WindowFunction;
+import io.crate.planner.PositionalOrderBy;
 import io.crate.statistics.TableStats;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
+import io.crate.types.DataTypes;
 import org.hamcrest.Matchers;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.List;
+
 import static io.crate.planner.operators.LogicalPlannerTest.isPlan;
 import static io.crate.testing.SymbolMatchers.isReference;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 
 public class WindowAggTest extends CrateDummyClusterServiceUnitTest {
@@ -133,6 +139,31 @@ public class WindowAggTest extends CrateDummyClusterServiceUnitTest {
         assertThat(orderBy.orderBySymbols(), contains(isReference("y"), isReference("x")));
     }
 
+    @Test
+    public void test_source_ordered_by_partition_and_order_by_is_sorted() {
+        WindowDefinition windowDefinition = new WindowDefinition(
+            List.of(new InputColumn(1, DataTypes.INTEGER)),
+            new OrderBy(List.of(new InputColumn(0, DataTypes.INTEGER))),
+            null
+        );
+        PositionalOrderBy sourceOrder = new PositionalOrderBy(
+            new int[]{1, 0}, new boolean[]{true, false}, new boolean[]{false, false});
+        assertThat(WindowAgg.isSortedByPartitionAndOrderBy(sourceOrder, windowDefinition), is(true));
+    }
+
+    @Test
+    public void test_source_ordered_by_order_by_in_different_direction_is_not_sorted() {
+        WindowDefinition windowDefinition = new WindowDefinition(
+            List.of(new InputColumn(1, DataTypes.INTEGER)),
+            new OrderBy(List.of(new InputColumn(0, DataTypes.INTEGER))),
+            null
+        );
+        PositionalOrderBy sourceOrder = new PositionalOrderBy(
+            new int[]{1, 0}, new boolean[]{false, true}, new boolean[]{false, true});
+        assertThat(WindowAgg.isSortedByPartitionAndOrderBy(sourceOrder, windowDefinition), is(false));
+        assertThat(WindowAgg.isSortedByPartitionAndOrderBy(null, windowDefinition), is(false));
+    }
+
     private WindowDefinition wd(String expression) {
         Symbol symbol = e.asSymbol(expression);
         assertThat(symbol, instanceOf(WindowFunction.class));
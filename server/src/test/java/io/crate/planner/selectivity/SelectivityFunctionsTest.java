@@ -8,6 +8,7 @@ import io.crate.data.Row1;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.ColumnIdent;
 import io.crate.statistics.ColumnStats;
+import io.crate.statistics.MostCommonValues;
 import io.crate.statistics.Stats;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SqlExpressions;
@@ -104,4 +105,48 @@ public class SelectivityFunctionsTest extends CrateDummyClusterServiceUnitTest {
         Stats stats = new Stats(100, 16, Map.of(new ColumnIdent("x"), columnStats));
         assertThat(SelectivityFunctions.estimateNumRows(stats, query, null), Matchers.is(50L));
     }
+
+    @Test
+    public void test_join_eq_without_mcv_uses_larger_approx_distinct_and_null_fractions() {
+        SqlExpressions expressions = new SqlExpressions(T3.sources(clusterService));
+        Symbol joinCondition = expressions.asSymbol("t1.x = t2.y");
+        var xStats = new ColumnStats<>(0.0, 4, 1000, DataTypes.INTEGER, MostCommonValues.EMPTY, List.of());
+        var yStats = new ColumnStats<>(0.5, 4, 100, DataTypes.INTEGER, MostCommonValues.EMPTY, List.of());
+        var statsByRelation = Map.of(
+            T3.T1, new Stats(10_000, 16, Map.of(new ColumnIdent("x"), xStats)),
+            T3.T2, new Stats(200, 16, Map.of(new ColumnIdent("y"), yStats))
+        );
+        assertThat(
+            SelectivityFunctions.estimateJoinSelectivity(joinCondition, statsByRelation),
+            Matchers.closeTo(0.5 / 1000, 0.000001));
+    }
+
+    @Test
+    public void test_join_eq_with_mcv_on_both_sides_uses_frequencies_of_matching_values() {
+        SqlExpressions expressions = new SqlExpressions(T3.sources(clusterService));
+        Symbol joinCondition = expressions.asSymbol("t1.x = t2.y");
+        var xMcv = new MostCommonValues(new Object[] {1, 2}, new double[] {0.5, 0.2});
+        var yMcv = new MostCommonValues(new Object[] {1}, new double[] {0.4});
+        var xStats = new ColumnStats<>(0.0, 4, 10, DataTypes.INTEGER, xMcv, List.of());
+        var yStats = new ColumnStats<>(0.0, 4, 5, DataTypes.INTEGER, yMcv, List.of());
+        var statsByRelation = Map.of(
+            T3.T1, new Stats(100, 16, Map.of(new ColumnIdent("x"), xStats)),
+            T3.T2, new Stats(100, 16, Map.of(new ColumnIdent("y"), yStats))
+        );
+        // 1 matches with 0.5 * 0.4, the non-mcv values of t2 (0.6) are spread across the 9 non-matching values of t1
+        assertThat(
+            SelectivityFunctions.estimateJoinSelectivity(joinCondition, statsByRelation),
+            Matchers.closeTo(0.2 + 0.6 * 0.5 / 9, 0.000001));
+    }
+
+    @Test
+    public void test_join_eq_without_column_stats_uses_default_selectivity() {
+        SqlExpressions expressions = new SqlExpressions(T3.sources(clusterService));
+        Symbol joinCondition = expressions.asSymbol("t1.x = t2.y");
+        var xStats = new ColumnStats<>(0.0, 4, 1000, DataTypes.INTEGER, MostCommonValues.EMPTY, List.of());
+        var statsByRelation = Map.of(T3.T1, new Stats(10_000, 16, Map.of(new ColumnIdent("x"), xStats)));
+        assertThat(
+            SelectivityFunctions.estimateJoinSelectivity(joinCondition, statsByRelation),
+            Matchers.is(0.005));
+    }
 }
@@ -24,6 +24,7 @@ package io.crate.planner.statement;
 
 import io.crate.analyze.AnalyzedCopyFrom;
 import io.crate.data.Row;
+import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.execution.dsl.phases.FileUriCollectPhase;
 import io.crate.execution.dsl.projection.SourceIndexWriterProjection;
 import io.crate.expression.symbol.Literal;
@@ -125,6 +126,21 @@ public class CopyFromPlannerTest extends CrateDummyClusterServiceUnitTest {
         plan("copy users from '/path/to/file.ext' with (bulk_size=-28)");
     }
 
+    @Test
+    public void test_copy_from_stdin_uri_is_rejected() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The `stdin` scheme is not supported, use COPY FROM STDIN instead");
+        plan("copy users from ['/path/to/file.ext', 'STDIN:///f8ab3e5c-7f7a-4a3c-9a39-5fa8a1d2b1a4']");
+    }
+
+    @Test
+    public void test_copy_from_stdin_rejects_postgres_text_format() {
+        expectedException.expect(UnsupportedFeatureException.class);
+        expectedException.expectMessage(
+            "COPY FROM STDIN doesn't support the format 'text', supported formats are: json, csv");
+        plan("copy users from stdin with (format = 'text')");
+    }
+
     @Test
     public void testNodeFiltersNoMatch() {
         Collect cm = plan("copy users from '/path' with (node_filters={name='foobar'})");
@@ -25,6 +25,7 @@ package io.crate.planner.statement;
 import com.carrotsearch.randomizedtesting.RandomizedTest;
 import io.crate.analyze.TableDefinitions;
 import io.crate.data.Row;
+import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
@@ -133,4 +134,12 @@ public class CopyToPlannerTest extends CrateDummyClusterServiceUnitTest {
         expectedException.expectMessage("Given partition ident does not match partition evaluated from where clause");
         plan("copy parted partition (date=1395874800000) where date = 1395961200000 to directory '/tmp/foo'");
     }
+
+    @Test
+    public void test_copy_to_stdout_rejects_postgres_text_format() {
+        expectedException.expect(UnsupportedFeatureException.class);
+        expectedException.expectMessage(
+            "COPY TO STDOUT doesn't support the format 'text', supported formats are: json_object, json_array");
+        plan("copy users (name) to stdout with (format = 'text')");
+    }
 }
@@ -34,6 +34,7 @@ import io.crate.execution.engine.collect.stats.JobsLogs;
 import io.crate.metadata.settings.session.SessionSettingRegistry;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.Plan;
+import io.crate.planner.PlanCache;
 import io.crate.planner.Planner;
 import io.crate.planner.PlannerContext;
 import io.crate.planner.optimizer.LoadedRules;
@@ -103,6 +104,7 @@ public class BatchPortalTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             planner,
+            new PlanCache(Settings.EMPTY, clusterService),
             new JobsLogs(() -> false),
             false,
             executor,
@@ -0,0 +1,102 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.test.integration.CrateUnitTest;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class CopyInStreamTest extends CrateUnitTest {
+
+    private final List<Boolean> autoReadChanges = new ArrayList<>();
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void test_lines_split_across_copy_data_messages_are_read() throws Exception {
+        CopyInStream stream = new CopyInStream(autoReadChanges::add);
+        stream.add(Unpooled.wrappedBuffer(bytes("{\"x\": 1}\n{\"x\"")));
+        stream.add(Unpooled.wrappedBuffer(bytes(": 2}\n")));
+        stream.finish();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        assertThat(reader.readLine(), is("{\"x\": 1}"));
+        assertThat(reader.readLine(), is("{\"x\": 2}"));
+        assertThat(reader.readLine(), nullValue());
+        assertThat(stream.read(), is(-1));
+    }
+
+    @Test
+    public void test_copy_fail_raises_io_exception_on_read() throws Exception {
+        CopyInStream stream = new CopyInStream(autoReadChanges::add);
+        stream.add(Unpooled.wrappedBuffer(bytes("a")));
+        stream.fail("aborted by client");
+
+        assertThat(stream.read(), is((int) 'a'));
+        expectedException.expect(IOException.class);
+        expectedException.expectMessage("COPY FROM STDIN failed: aborted by client");
+        stream.read();
+    }
+
+    @Test
+    public void test_reading_is_paused_above_high_watermark_and_resumed_below_low_watermark() throws Exception {
+        CopyInStream stream = new CopyInStream(autoReadChanges::add);
+        byte[] chunk = new byte[CopyInStream.HIGH_WATERMARK / 4];
+        for (int i = 0; i < 5; i++) {
+            stream.add(Unpooled.wrappedBuffer(chunk));
+        }
+        assertThat(autoReadChanges, contains(false));
+
+        byte[] buffer = new byte[chunk.length];
+        for (int i = 0; i < 4; i++) {
+            assertThat(stream.read(buffer, 0, buffer.length), is(chunk.length));
+        }
+        assertThat(autoReadChanges, contains(false));
+        assertThat(stream.read(buffer, 0, buffer.length), is(chunk.length));
+        assertThat(autoReadChanges, contains(false, true));
+    }
+
+    @Test
+    public void test_data_is_discarded_and_reading_resumed_after_close() throws Exception {
+        CopyInStream stream = new CopyInStream(autoReadChanges::add);
+        stream.add(Unpooled.wrappedBuffer(new byte[CopyInStream.HIGH_WATERMARK + 1]));
+        stream.close();
+        stream.add(Unpooled.wrappedBuffer(bytes("ignored")));
+
+        assertThat(autoReadChanges, contains(false, true));
+        assertThat(stream.read(), is(-1));
+    }
+}
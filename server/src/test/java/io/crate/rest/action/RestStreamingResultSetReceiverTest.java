@@ -0,0 +1,165 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import io.crate.auth.user.AccessControl;
+import io.crate.data.RowN;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.expression.symbol.ScopedSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.RelationName;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import org.elasticsearch.http.netty4.cors.Netty4CorsConfigBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+public class RestStreamingResultSetReceiverTest extends CrateUnitTest {
+
+    private final List<Symbol> fields = List.of(
+        new ScopedSymbol(new RelationName("doc", "dummy"), ColumnIdent.fromPath("col_a"), DataTypes.STRING),
+        new ScopedSymbol(new RelationName("doc", "dummy"), ColumnIdent.fromPath("col_b"), DataTypes.INTEGER)
+    );
+
+    private EmbeddedChannel channel;
+    private AtomicInteger resumed;
+    private RestStreamingResultSetReceiver receiver;
+
+    @Before
+    public void setUpReceiver() throws Exception {
+        channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        resumed = new AtomicInteger();
+        receiver = new RestStreamingResultSetReceiver(
+            channel.pipeline().firstContext(),
+            new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/_sql?stream"),
+            Netty4CorsConfigBuilder.forAnyOrigin().build(),
+            false,
+            fields,
+            0L,
+            t -> SQLExceptions.forWireTransmission(AccessControl.DISABLED, t),
+            false,
+            false
+        );
+        receiver.resumeWith(resumed::incrementAndGet);
+    }
+
+    @After
+    public void closeChannel() {
+        channel.finishAndReleaseAll();
+    }
+
+    private String readContent() {
+        StringBuilder sb = new StringBuilder();
+        Object msg;
+        while ((msg = channel.readOutbound()) != null) {
+            if (msg instanceof HttpContent) {
+                HttpContent content = (HttpContent) msg;
+                sb.append(content.content().toString(StandardCharsets.UTF_8));
+                content.release();
+            }
+        }
+        return sb.toString().replaceAll(",\"duration\":[^,}]+", "");
+    }
+
+    @Test
+    public void test_rows_are_sent_as_chunks_and_execution_is_resumed() throws Exception {
+        receiver.setNextRow(new RowN("foo", 1));
+        receiver.batchFinished();
+        channel.runPendingTasks();
+        assertThat(resumed.get(), is(1));
+
+        HttpResponse response = channel.readOutbound();
+        assertThat(response.status(), is(HttpResponseStatus.OK));
+        assertThat(HttpUtil.isTransferEncodingChunked(response), is(true));
+        assertThat(readContent(), is("{\"cols\":[\"col_a\",\"col_b\"],\"rows\":[[\"foo\",1]"));
+
+        receiver.setNextRow(new RowN("bar", 2));
+        receiver.allFinished(false);
+        assertThat(receiver.completionFuture().isDone(), is(true));
+        assertThat(receiver.completionFuture().get(), nullValue());
+        assertThat(readContent(), is(",[\"bar\",2]],\"rowcount\":2}"));
+    }
+
+    @Test
+    public void test_execution_is_resumed_once_the_channel_is_writable() throws Exception {
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+        receiver.setNextRow(new RowN("foo", 1));
+        receiver.batchFinished();
+        channel.runPendingTasks();
+        assertThat(resumed.get(), is(0));
+
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, true);
+        receiver.resumeIfWritable();
+        assertThat(resumed.get(), is(1));
+
+        receiver.resumeIfWritable();
+        assertThat(resumed.get(), is(1));
+    }
+
+    @Test
+    public void test_failure_before_the_first_chunk_fails_the_completion_future() throws Exception {
+        receiver.setNextRow(new RowN("foo", 1));
+        receiver.fail(new IllegalStateException("dummy"));
+
+        assertThat(receiver.completionFuture().isCompletedExceptionally(), is(true));
+        assertThat(channel.readOutbound(), nullValue());
+    }
+
+    @Test
+    public void test_failure_after_the_first_chunk_is_added_to_the_response_body() throws Exception {
+        receiver.setNextRow(new RowN("foo", 1));
+        receiver.batchFinished();
+        channel.runPendingTasks();
+        assertThat(channel.readOutbound(), instanceOf(HttpResponse.class));
+
+        receiver.fail(new IllegalStateException("dummy"));
+        assertThat(receiver.completionFuture().get(), nullValue());
+        String content = readContent();
+        assertThat(content, startsWith(
+            "{\"cols\":[\"col_a\",\"col_b\"],\"rows\":[[\"foo\",1]],\"error\":{\"message\":"));
+        assertThat(content, containsString("dummy"));
+        assertThat(content, endsWith("}}"));
+    }
+}
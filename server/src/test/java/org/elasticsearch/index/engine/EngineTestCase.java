@@ -205,7 +205,7 @@ public abstract class EngineTestCase extends ESTestCase {
             config.getStore(), config.getMergePolicy(), config.getAnalyzer(),
             new CodecService(null, logger), config.getEventListener(), config.getQueryCache(), config.getQueryCachingPolicy(),
             config.getTranslogConfig(), config.getFlushMergesAfter(),
-            config.getExternalRefreshListener(), Collections.emptyList(),
+            config.getExternalRefreshListener(), Collections.emptyList(), config.getIndexSort(),
             config.getCircuitBreakerService(), globalCheckpointSupplier, config.getPrimaryTermSupplier(), tombstoneDocSupplier());
     }
 
@@ -214,7 +214,7 @@ public abstract class EngineTestCase extends ESTestCase {
             config.getStore(), config.getMergePolicy(), analyzer,
             new CodecService(null, logger), config.getEventListener(), config.getQueryCache(), config.getQueryCachingPolicy(),
             config.getTranslogConfig(), config.getFlushMergesAfter(),
-            config.getExternalRefreshListener(), Collections.emptyList(),
+            config.getExternalRefreshListener(), Collections.emptyList(), config.getIndexSort(),
             config.getCircuitBreakerService(), config.getGlobalCheckpointSupplier(), config.getPrimaryTermSupplier(),
             config.getTombstoneDocSupplier());
     }
@@ -224,7 +224,7 @@ public abstract class EngineTestCase extends ESTestCase {
             config.getStore(), mergePolicy, config.getAnalyzer(),
             new CodecService(null, logger), config.getEventListener(), config.getQueryCache(), config.getQueryCachingPolicy(),
             config.getTranslogConfig(), config.getFlushMergesAfter(),
-            config.getExternalRefreshListener(), Collections.emptyList(),
+            config.getExternalRefreshListener(), Collections.emptyList(), config.getIndexSort(),
             config.getCircuitBreakerService(), config.getGlobalCheckpointSupplier(), config.getPrimaryTermSupplier(),
             config.getTombstoneDocSupplier());
     }
@@ -584,6 +584,7 @@ public abstract class EngineTestCase extends ESTestCase {
             TimeValue.timeValueMinutes(5),
             extRefreshListenerList,
             intRefreshListenerList,
+            null,
             new NoneCircuitBreakerService(),
             globalCheckpointSupplier,
             primaryTerm,
@@ -619,6 +620,7 @@ public abstract class EngineTestCase extends ESTestCase {
             config.getFlushMergesAfter(),
             config.getExternalRefreshListener(),
             config.getInternalRefreshListener(),
+            config.getIndexSort(),
             config.getCircuitBreakerService(),
             config.getGlobalCheckpointSupplier(),
             config.getPrimaryTermSupplier(),
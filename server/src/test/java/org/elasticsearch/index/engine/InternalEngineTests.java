@@ -2888,6 +2888,7 @@ public class InternalEngineTests extends EngineTestCase {
             TimeValue.timeValueMinutes(5),
             config.getExternalRefreshListener(),
             config.getInternalRefreshListener(),
+            config.getIndexSort(),
             new NoneCircuitBreakerService(),
             () -> UNASSIGNED_SEQ_NO,
             primaryTerm::get,
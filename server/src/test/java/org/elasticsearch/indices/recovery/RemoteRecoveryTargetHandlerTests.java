@@ -0,0 +1,82 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.transport.TransportRequestOptions;
+import org.elasticsearch.transport.TransportService;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class RemoteRecoveryTargetHandlerTests extends ESTestCase {
+
+    @Test
+    public void test_file_chunks_except_compound_files_are_sent_compressed_if_enabled() {
+        Settings settings = Settings.builder()
+            .put(RecoverySettings.INDICES_RECOVERY_COMPRESS_SETTING.getKey(), true)
+            .build();
+        RecoverySettings recoverySettings = new RecoverySettings(
+            settings,
+            new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        TransportService transportService = mock(TransportService.class);
+        DiscoveryNode targetNode = new DiscoveryNode("n1", buildNewFakeTransportAddress(), Version.CURRENT);
+        RemoteRecoveryTargetHandler handler = new RemoteRecoveryTargetHandler(
+            1L, new ShardId("idx", "_na_", 0), transportService, targetNode, recoverySettings, throttleTime -> {});
+
+        BytesArray content = new BytesArray(new byte[16]);
+        handler.writeFileChunk(fileMetadata("_0.cfs"), 0L, content, true, 0, ActionListener.wrap(() -> {}));
+        handler.writeFileChunk(fileMetadata("_0_Lucene80_0.dvd"), 0L, content, true, 0, ActionListener.wrap(() -> {}));
+
+        ArgumentCaptor<TransportRequestOptions> options = ArgumentCaptor.forClass(TransportRequestOptions.class);
+        verify(transportService, times(2)).submitRequest(
+            eq(targetNode),
+            eq(PeerRecoveryTargetService.Actions.FILE_CHUNK),
+            any(RecoveryFileChunkRequest.class),
+            options.capture(),
+            any());
+        List<TransportRequestOptions> sentOptions = options.getAllValues();
+        assertThat(sentOptions.get(0).compress(), is(false));
+        assertThat(sentOptions.get(1).compress(), is(true));
+    }
+
+    private static StoreFileMetadata fileMetadata(String name) {
+        return new StoreFileMetadata(name, 16, "checksum", org.apache.lucene.util.Version.LATEST);
+    }
+}
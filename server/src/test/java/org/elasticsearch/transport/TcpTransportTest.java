@@ -19,21 +19,39 @@
 
 package org.elasticsearch.transport;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.network.NetworkService;
+import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.transport.TransportAddress;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.indices.recovery.PeerRecoveryTargetService;
+import org.elasticsearch.indices.recovery.RecoveryFileChunkRequest;
+import org.elasticsearch.indices.recovery.RecoverySettings;
+import org.elasticsearch.indices.recovery.RemoteRecoveryTargetHandler;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.hamcrest.Matcher;
+import org.mockito.ArgumentCaptor;
 
 import java.net.InetSocketAddress;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 public class TcpTransportTest extends ESTestCase {
 
@@ -144,34 +162,156 @@ public class TcpTransportTest extends ESTestCase {
     private void testDefaultSeedAddresses(final Settings settings, Matcher<Iterable<? extends String>> seedAddressesMatcher) {
         final TestThreadPool testThreadPool = new TestThreadPool("test");
         try {
-            final TcpTransport tcpTransport = new TcpTransport("test",
-                                                               settings,
-                                                               testThreadPool,
-                                                               BigArrays.NON_RECYCLING_INSTANCE,
-                                                               new NoneCircuitBreakerService(),
-                                                               writableRegistry(),
-                                                               new NetworkService(Collections.emptyList())) {
-
-                @Override
-                protected TcpChannel bind(String name, InetSocketAddress address) {
-                    throw new UnsupportedOperationException();
-                }
-
-                @Override
-                protected TcpChannel initiateChannel(DiscoveryNode node,
-                                                     ActionListener<Void> connectListener) {
-                    throw new UnsupportedOperationException();
-                }
-
-                @Override
-                protected void stopInternal() {
-                    throw new UnsupportedOperationException();
-                }
-            };
-
+            final TcpTransport tcpTransport = newTransport(settings, testThreadPool);
             assertThat(tcpTransport.getDefaultSeedAddresses(), seedAddressesMatcher);
         } finally {
             testThreadPool.shutdown();
         }
     }
+
+    public void testFileChunkRequestIsCompressedIfRequestedByOptions() throws Exception {
+        final TestThreadPool testThreadPool = new TestThreadPool("test");
+        try {
+            // transport.tcp.compress is disabled by default
+            final TcpTransport tcpTransport = newTransport(Settings.EMPTY, testThreadPool);
+            final AtomicReference<BytesReference> sentMessage = new AtomicReference<>();
+            final TcpTransport.NodeChannels connection = newRecoveryConnection(tcpTransport, sentMessage);
+            final RecoveryFileChunkRequest request = new RecoveryFileChunkRequest(
+                1L,
+                new ShardId("idx", "_na_", 0),
+                new StoreFileMetadata("_0_Lucene80_0.dvd", 1024, "checksum", org.apache.lucene.util.Version.LATEST),
+                0L,
+                new BytesArray(new byte[1024]),
+                true,
+                0,
+                0L
+            );
+            final TransportRequestOptions options = TransportRequestOptions.builder()
+                .withType(TransportRequestOptions.Type.RECOVERY)
+                .withCompress(true)
+                .build();
+
+            connection.sendRequest(1L, PeerRecoveryTargetService.Actions.FILE_CHUNK, request, options);
+            assertThat(TransportStatus.isCompress(status(sentMessage.get())), is(true));
+
+            connection.sendRequest(2L, PeerRecoveryTargetService.Actions.FILE_CHUNK, request,
+                TransportRequestOptions.builder(options).withCompress(false).build());
+            assertThat(TransportStatus.isCompress(status(sentMessage.get())), is(false));
+        } finally {
+            testThreadPool.shutdown();
+        }
+    }
+
+    public void testTranslogOperationsAreNotCompressedIfCompressionIsDisabled() throws Exception {
+        final TestThreadPool testThreadPool = new TestThreadPool("test");
+        try {
+            // transport.tcp.compress and indices.recovery.compress are disabled by default
+            final TcpTransport tcpTransport = newTransport(Settings.EMPTY, testThreadPool);
+            final RecoverySettings recoverySettings = new RecoverySettings(
+                Settings.EMPTY,
+                new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+            final TransportService transportService = mock(TransportService.class);
+            final DiscoveryNode targetNode = new DiscoveryNode("n1", buildNewFakeTransportAddress(), Version.CURRENT);
+            final RemoteRecoveryTargetHandler handler = new RemoteRecoveryTargetHandler(
+                1L, new ShardId("idx", "_na_", 0), transportService, targetNode, recoverySettings, throttleTime -> {});
+            handler.indexTranslogOperations(Collections.emptyList(), 0, 0L, 0L, ActionListener.wrap(() -> {}));
+
+            final ArgumentCaptor<TransportRequest> request = ArgumentCaptor.forClass(TransportRequest.class);
+            final ArgumentCaptor<TransportRequestOptions> options = ArgumentCaptor.forClass(TransportRequestOptions.class);
+            verify(transportService).submitRequest(
+                eq(targetNode),
+                eq(PeerRecoveryTargetService.Actions.TRANSLOG_OPS),
+                request.capture(),
+                options.capture(),
+                any());
+            // the recovery asks for compression of translog operations, but that's up to transport.tcp.compress
+            assertThat(options.getValue().compress(), is(true));
+
+            final AtomicReference<BytesReference> sentMessage = new AtomicReference<>();
+            final TcpTransport.NodeChannels connection = newRecoveryConnection(tcpTransport, sentMessage);
+            connection.sendRequest(1L, PeerRecoveryTargetService.Actions.TRANSLOG_OPS, request.getValue(), options.getValue());
+            assertThat(TransportStatus.isCompress(status(sentMessage.get())), is(false));
+        } finally {
+            testThreadPool.shutdown();
+        }
+    }
+
+    private static TcpTransport.NodeChannels newRecoveryConnection(TcpTransport tcpTransport,
+                                                                   AtomicReference<BytesReference> sentMessage) {
+        final DiscoveryNode node = new DiscoveryNode("n1", buildNewFakeTransportAddress(), Version.CURRENT);
+        return tcpTransport.new NodeChannels(
+            node,
+            Collections.singletonList(new CapturingChannel(sentMessage)),
+            ConnectionProfile.buildSingleChannelProfile(TransportRequestOptions.Type.RECOVERY, null, null, null, null),
+            Version.CURRENT
+        );
+    }
+
+    private static byte status(BytesReference message) {
+        return message.get(TcpHeader.MARKER_BYTES_SIZE + TcpHeader.MESSAGE_LENGTH_SIZE + TcpHeader.REQUEST_ID_SIZE);
+    }
+
+    private TcpTransport newTransport(Settings settings, ThreadPool threadPool) {
+        return new TcpTransport("test",
+                                settings,
+                                threadPool,
+                                BigArrays.NON_RECYCLING_INSTANCE,
+                                new NoneCircuitBreakerService(),
+                                writableRegistry(),
+                                new NetworkService(Collections.emptyList())) {
+
+            @Override
+            protected TcpChannel bind(String name, InetSocketAddress address) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            protected TcpChannel initiateChannel(DiscoveryNode node,
+                                                 ActionListener<Void> connectListener) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            protected void stopInternal() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static class CapturingChannel implements TcpChannel {
+
+        private final AtomicReference<BytesReference> sentMessage;
+
+        CapturingChannel(AtomicReference<BytesReference> sentMessage) {
+            this.sentMessage = sentMessage;
+        }
+
+        @Override
+        public void sendMessage(BytesReference reference, ActionListener<Void> listener) {
+            sentMessage.set(new BytesArray(reference.toBytesRef(), true));
+            listener.onResponse(null);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void addCloseListener(ActionListener<Void> listener) {
+        }
+
+        @Override
+        public void setSoLinger(int value) {
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+    }
 }